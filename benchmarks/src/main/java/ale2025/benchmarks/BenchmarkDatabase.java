@@ -0,0 +1,186 @@
+package ale2025.benchmarks;
+
+import ale2025.utils.PasswordHasher;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+
+/**
+ * Base de datos H2 en memoria, en modo de compatibilidad con SQL Server, sembrada con datos sintéticos.
+ *
+ * {@link #start(int, int, int)} debe llamarse antes de usar cualquier DAO, porque fija la propiedad
+ * ale2025.db.url que ConnectionManager lee al cargarse.
+ */
+public final class BenchmarkDatabase {
+    public static final String URL = "jdbc:h2:mem:clinica;MODE=MSSQLServer;DB_CLOSE_DELAY=-1";
+
+    /** Fecha más reciente de las citas generadas; las demás se reparten en el año anterior. */
+    public static final LocalDate HOY = LocalDate.of(2025, 6, 30);
+    public static final String[] DIAS = {"Lunes", "Martes", "Miércoles", "Jueves", "Viernes", "Sábado", "Domingo"};
+    public static final int ESPECIALIDADES = 20;
+    public static final int USUARIOS = 30;
+
+    private static final String[] NOMBRES = {"Ana", "Luis", "María", "José", "Carmen", "Carlos", "Rosa", "Jorge",
+            "Elena", "Miguel", "Lucía", "Pedro", "Sofía", "Daniel", "Marta", "Raúl"};
+    private static final String[] APELLIDOS = {"López", "Martínez", "Hernández", "García", "Rodríguez", "Pérez",
+            "Sánchez", "Ramírez", "Cruz", "Flores", "Rivera", "Gómez", "Díaz", "Reyes", "Morales", "Ortiz"};
+
+    private static boolean started = false;
+    private static int pacientes;
+    private static int medicos;
+    private static int citas;
+
+    private BenchmarkDatabase() {
+    }
+
+    /**
+     * Crea el esquema y siembra los datos (solo la primera vez en cada JVM).
+     */
+    public static synchronized void start(int numPacientes, int numMedicos, int numCitas) throws SQLException {
+        if (started) {
+            return;
+        }
+        System.setProperty("ale2025.db.url", URL);
+        System.setProperty("java.awt.headless", "true");
+        if (System.getProperty("ale2025.audit.enabled") == null) {
+            // Los DAOs auditan cada escritura, y la base H2 no tiene la tabla Auditoria.
+            System.setProperty("ale2025.audit.enabled", "false");
+        }
+        pacientes = numPacientes;
+        medicos = numMedicos;
+        citas = numCitas;
+        try (Connection c = DriverManager.getConnection(URL)) {
+            createSchema(c);
+            seed(c, new SplittableRandom(42));
+        }
+        started = true;
+    }
+
+    public static int pacientes() {
+        return pacientes;
+    }
+
+    public static int medicos() {
+        return medicos;
+    }
+
+    public static int citas() {
+        return citas;
+    }
+
+    /** Nombre completo sintético determinista para el índice dado. */
+    public static String nombre(int i) {
+        return NOMBRES[i % NOMBRES.length] + " " + APELLIDOS[(i / NOMBRES.length) % APELLIDOS.length] + " " + i;
+    }
+
+    /** Correo del usuario sintético i (1..USUARIOS); su contraseña es "clave" + i. */
+    public static String email(int i) {
+        return "usuario" + i + "@clinica.test";
+    }
+
+    private static void createSchema(Connection c) throws SQLException {
+        String script;
+        try (InputStream in = BenchmarkDatabase.class.getResourceAsStream("/schema-h2.sql")) {
+            if (in == null) {
+                throw new SQLException("No se encontró schema-h2.sql en el classpath");
+            }
+            script = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new SQLException("No se pudo leer schema-h2.sql", e);
+        }
+        try (Statement st = c.createStatement()) {
+            for (String sentencia : script.replaceAll("(?m)^--.*$", "").split(";")) {
+                if (!sentencia.isBlank()) {
+                    st.execute(sentencia);
+                }
+            }
+        }
+    }
+
+    private static void seed(Connection c, SplittableRandom rnd) throws SQLException {
+        c.setAutoCommit(false);
+        try (PreparedStatement ps = c.prepareStatement(
+                "INSERT INTO Users (name, passwordHash, email, status) VALUES (?, ?, ?, ?)")) {
+            for (int i = 1; i <= USUARIOS; i++) {
+                ps.setString(1, nombre(i));
+                ps.setString(2, PasswordHasher.hashPassword("clave" + i));
+                ps.setString(3, email(i));
+                ps.setByte(4, (byte) 1);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+        try (PreparedStatement ps = c.prepareStatement(
+                "INSERT INTO Especialidades (nombre, descripcion) VALUES (?, ?)")) {
+            for (int i = 1; i <= ESPECIALIDADES; i++) {
+                ps.setString(1, "Especialidad " + i);
+                ps.setString(2, "Descripción de la especialidad " + i);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+        try (PreparedStatement ps = c.prepareStatement(
+                "INSERT INTO Medicos (nombreCompleto, especialidadId, sueldo) VALUES (?, ?, ?)")) {
+            for (int i = 1; i <= medicos; i++) {
+                ps.setString(1, "Dr. " + nombre(i));
+                ps.setInt(2, 1 + rnd.nextInt(ESPECIALIDADES));
+                ps.setDouble(3, 1500 + rnd.nextInt(3000));
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+        try (PreparedStatement ps = c.prepareStatement(
+                "INSERT INTO Horarios (medicoId, diaSemana, horaInicio, horaFin) VALUES (?, ?, ?, ?)")) {
+            for (int m = 1; m <= medicos; m++) {
+                for (int d = 0; d < 5; d++) { // Lunes a viernes.
+                    int inicio = 7 + rnd.nextInt(4);
+                    ps.setInt(1, m);
+                    ps.setString(2, DIAS[d]);
+                    ps.setTime(3, Time.valueOf(inicio + ":00:00"));
+                    ps.setTime(4, Time.valueOf((inicio + 8) + ":00:00"));
+                    ps.addBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+        try (PreparedStatement ps = c.prepareStatement(
+                "INSERT INTO Pacientes (nombreCompleto, telefono, fechaNacimiento) VALUES (?, ?, ?)")) {
+            for (int i = 1; i <= pacientes; i++) {
+                ps.setString(1, nombre(i));
+                ps.setString(2, String.format("%04d-%04d", 7000 + rnd.nextInt(1000), rnd.nextInt(10000)));
+                ps.setDate(3, Date.valueOf(LocalDate.of(1940, 1, 1).plusDays(rnd.nextInt(30000))));
+                ps.addBatch();
+                if (i % 10_000 == 0) {
+                    ps.executeBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+        try (PreparedStatement ps = c.prepareStatement(
+                "INSERT INTO Citas (pacienteId, medicoId, fechaCita, costoConsulta) VALUES (?, ?, ?, ?)")) {
+            for (int i = 1; i <= citas; i++) {
+                ps.setInt(1, 1 + rnd.nextInt(pacientes));
+                ps.setInt(2, 1 + rnd.nextInt(medicos));
+                ps.setDate(3, Date.valueOf(HOY.minusDays(rnd.nextInt(365))));
+                ps.setDouble(4, 25 + rnd.nextInt(100));
+                ps.addBatch();
+                if (i % 10_000 == 0) {
+                    ps.executeBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+        c.commit();
+        c.setAutoCommit(true);
+    }
+}
@@ -0,0 +1,140 @@
+package ale2025.benchmarks;
+
+import ale2025.dominio.Cita;
+import ale2025.dominio.CitaCompacta;
+import ale2025.dominio.Horario;
+import ale2025.dominio.HorarioCompacto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara las entidades Cita y Horario con sus representaciones compactas (CitaCompacta y HorarioCompacto)
+ * en cargas masivas: un reporte que recorre un millón de citas en memoria (ingresos y citas por día de la
+ * semana), y la memoria que retiene cada representación.
+ *
+ * El recorrido se mide con JMH:
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar CompactDomainBenchmark
+ * </pre>
+ * La memoria retenida, con el main de esta clase (ver MemoriaRetenida):
+ * <pre>
+ * java -Xms2g -Xmx2g -XX:+UseParallelGC -cp benchmarks/target/benchmarks.jar ale2025.benchmarks.CompactDomainBenchmark [cantidad]
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class CompactDomainBenchmark {
+    private static final String[] DIAS = {"Lunes", "Martes", "Miércoles", "Jueves", "Viernes", "Sábado", "Domingo"};
+
+    @Param({"1000000"})
+    int cantidad;
+
+    private ArrayList<Cita> citas;
+    private ArrayList<CitaCompacta> compactas;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        citas = citas(cantidad, 42);
+        compactas = new ArrayList<>(citas.size());
+        for (Cita cita : citas) {
+            compactas.add(CitaCompacta.de(cita));
+        }
+    }
+
+    @Benchmark
+    public double[] ingresosPorDiaCita() {
+        double[] ingresos = new double[7];
+        for (Cita cita : citas) {
+            ingresos[cita.getFechaCita().toLocalDate().getDayOfWeek().ordinal()] += cita.getCostoConsulta();
+        }
+        return ingresos;
+    }
+
+    @Benchmark
+    public long[] ingresosPorDiaCompacta() {
+        long[] centavos = new long[7];
+        for (CitaCompacta cita : compactas) {
+            centavos[Math.floorMod(cita.fechaDia() + 3, 7)] += cita.costoCentavos(); // 1970-01-01 fue jueves.
+        }
+        return centavos;
+    }
+
+    /**
+     * Muestra cuánta memoria retienen la cantidad indicada de citas y de horarios (por defecto un millón) en
+     * cada representación. Los objetos se crean como los crea el DAO: cada fila con su propia fecha, texto
+     * y horas.
+     */
+    public static void main(String[] args) {
+        int cantidad = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        System.out.printf("Memoria retenida con %,d elementos:%n", cantidad);
+
+        long cita = MemoriaRetenida.medir("ArrayList<Cita>", cantidad, () -> citas(cantidad, 42));
+        long citaCompacta = MemoriaRetenida.medir("ArrayList<CitaCompacta>", cantidad, () -> {
+            ArrayList<CitaCompacta> lista = new ArrayList<>(cantidad);
+            for (Cita c : citas(cantidad, 42)) {
+                lista.add(CitaCompacta.de(c));
+            }
+            return lista;
+        });
+        long horario = MemoriaRetenida.medir("ArrayList<Horario>", cantidad, () -> horarios(cantidad, 7));
+        long horarioCompacto = MemoriaRetenida.medir("ArrayList<HorarioCompacto>", cantidad, () -> {
+            ArrayList<HorarioCompacto> lista = new ArrayList<>(cantidad);
+            for (Horario h : horarios(cantidad, 7)) {
+                lista.add(HorarioCompacto.de(h));
+            }
+            return lista;
+        });
+
+        System.out.printf("%nCitaCompacta ocupa el %.0f %% de Cita%n", 100.0 * citaCompacta / cita);
+        System.out.printf("HorarioCompacto ocupa el %.0f %% de Horario%n", 100.0 * horarioCompacto / horario);
+    }
+
+    // Citas de los últimos dos años con costos de 20.00 a 200.00, como las lee CitaDAO.
+    private static ArrayList<Cita> citas(int cantidad, long semilla) {
+        Random random = new Random(semilla);
+        LocalDate inicio = LocalDate.now().minusYears(2);
+        ArrayList<Cita> lista = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            Cita cita = new Cita(i + 1, 1 + random.nextInt(100_000), 1 + random.nextInt(1000),
+                    Date.valueOf(inicio.plusDays(random.nextInt(730))), (2000 + random.nextInt(18_001)) / 100.0);
+            cita.setVersion(1);
+            lista.add(cita);
+        }
+        return lista;
+    }
+
+    // Horarios de días y horas al azar, cada uno con su propio String y sus Time, como los lee HorarioDAO.
+    private static ArrayList<Horario> horarios(int cantidad, long semilla) {
+        Random random = new Random(semilla);
+        ArrayList<Horario> lista = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            int inicio = 7 + random.nextInt(8);
+            Horario horario = new Horario(i + 1, 1 + random.nextInt(1000), new String(DIAS[random.nextInt(7)].toCharArray()),
+                    Time.valueOf(inicio + ":00:00"), Time.valueOf((inicio + 4) + ":30:00"));
+            horario.setVersion(1);
+            lista.add(horario);
+        }
+        return lista;
+    }
+}
@@ -0,0 +1,96 @@
+package ale2025.benchmarks;
+
+import ale2025.dominio.Cita;
+import ale2025.dominio.Paciente;
+import ale2025.persistencia.CitaDAO;
+import ale2025.persistencia.MedicoDAO;
+import ale2025.persistencia.PacienteDAO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Date;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latencia de las operaciones getById, search y create de los DAOs contra la base H2 sembrada.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DaoBenchmark {
+    @Param("50000")
+    int pacientes;
+    @Param("200")
+    int medicos;
+    @Param("200000")
+    int citas;
+
+    private PacienteDAO pacienteDAO;
+    private MedicoDAO medicoDAO;
+    private CitaDAO citaDAO;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        BenchmarkDatabase.start(pacientes, medicos, citas);
+        pacienteDAO = new PacienteDAO();
+        medicoDAO = new MedicoDAO();
+        citaDAO = new CitaDAO();
+    }
+
+    @Benchmark
+    public Paciente pacienteGetById() throws SQLException {
+        return pacienteDAO.getById(1 + ThreadLocalRandom.current().nextInt(pacientes));
+    }
+
+    @Benchmark
+    public ArrayList<Paciente> pacienteSearch() throws SQLException {
+        // Prefijo de un nombre sintético: devuelve unas decenas de filas de la tabla completa.
+        String nombre = BenchmarkDatabase.nombre(ThreadLocalRandom.current().nextInt(pacientes));
+        return pacienteDAO.search(nombre.substring(0, Math.min(12, nombre.length())));
+    }
+
+    @Benchmark
+    public Paciente pacienteCreate() throws SQLException {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        return pacienteDAO.create(new Paciente(0, BenchmarkDatabase.nombre(rnd.nextInt(pacientes)), "7000-0000",
+                Date.valueOf(BenchmarkDatabase.HOY.minusDays(rnd.nextInt(30000)))));
+    }
+
+    @Benchmark
+    public Object medicoGetById() throws SQLException {
+        return medicoDAO.getById(1 + ThreadLocalRandom.current().nextInt(medicos));
+    }
+
+    @Benchmark
+    public Cita citaGetById() throws SQLException {
+        return citaDAO.getById(1 + ThreadLocalRandom.current().nextInt(citas));
+    }
+
+    @Benchmark
+    public ArrayList<Cita> citaSearch() throws SQLException {
+        return citaDAO.search(BenchmarkDatabase.HOY.minusDays(ThreadLocalRandom.current().nextInt(365)).toString());
+    }
+
+    @Benchmark
+    public Cita citaCreate() throws SQLException {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        return citaDAO.create(new Cita(0, 1 + rnd.nextInt(pacientes), 1 + rnd.nextInt(medicos),
+                Date.valueOf(BenchmarkDatabase.HOY.plusDays(rnd.nextInt(30))), 50.0));
+    }
+}
@@ -0,0 +1,223 @@
+package ale2025.benchmarks;
+
+import ale2025.utils.IntIntMap;
+import ale2025.utils.IntObjectMap;
+import ale2025.utils.IntSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara las colecciones con claves int de ale2025.utils con las colecciones de Java que encapsulan las
+ * claves (HashMap&lt;Integer, V&gt;, HashMap&lt;Integer, Integer&gt;, HashSet&lt;Integer&gt;): llenado de un
+ * índice por ID, consultas por ID y acumulación de totales por ID (como en un reporte de citas por médico).
+ *
+ * Las asignaciones por operación se ven ejecutándolo con el perfilador de GC de JMH (columna
+ * gc.alloc.rate.norm):
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar IntMapBenchmark -prof gc
+ * </pre>
+ * La memoria que ocupa cada colección llena (después de un GC completo) se mide con el main de esta clase:
+ * <pre>
+ * java -Xms2g -Xmx2g -XX:+UseParallelGC -cp benchmarks/target/benchmarks.jar ale2025.benchmarks.IntMapBenchmark [entradas]
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class IntMapBenchmark {
+    @Param({"1000000"})
+    int entradas;
+
+    private int[] ids;       // IDs consecutivos desde 1, en orden aleatorio (como los de una consulta).
+    private int[] consultas; // IDs a buscar: la mitad existe y la otra mitad no.
+    private int[] claves;    // Claves foráneas repetidas para acumular (1000 médicos distintos).
+    private HashMap<Integer, Object> boxed;
+    private IntObjectMap<Object> primitivo;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ids = idsDesordenados(entradas, 42);
+        Random random = new Random(7);
+        consultas = new int[entradas];
+        claves = new int[entradas];
+        for (int i = 0; i < entradas; i++) {
+            consultas[i] = 1 + random.nextInt(entradas * 2);
+            claves[i] = 1 + random.nextInt(1000);
+        }
+        boxed = new HashMap<>();
+        primitivo = new IntObjectMap<>();
+        for (int id : ids) {
+            boxed.put(id, ids);
+            primitivo.put(id, ids);
+        }
+    }
+
+    @Benchmark
+    public HashMap<Integer, Object> llenarHashMap() {
+        HashMap<Integer, Object> mapa = new HashMap<>();
+        for (int id : ids) {
+            mapa.put(id, ids);
+        }
+        return mapa;
+    }
+
+    @Benchmark
+    public IntObjectMap<Object> llenarIntObjectMap() {
+        IntObjectMap<Object> mapa = new IntObjectMap<>();
+        for (int id : ids) {
+            mapa.put(id, ids);
+        }
+        return mapa;
+    }
+
+    @Benchmark
+    public int consultarHashMap() {
+        int encontrados = 0;
+        for (int id : consultas) {
+            if (boxed.get(id) != null) {
+                encontrados++;
+            }
+        }
+        return encontrados;
+    }
+
+    @Benchmark
+    public int consultarIntObjectMap() {
+        int encontrados = 0;
+        for (int id : consultas) {
+            if (primitivo.get(id) != null) {
+                encontrados++;
+            }
+        }
+        return encontrados;
+    }
+
+    @Benchmark
+    public HashMap<Integer, Integer> contarHashMap() {
+        HashMap<Integer, Integer> totales = new HashMap<>();
+        for (int clave : claves) {
+            totales.merge(clave, 1, Integer::sum);
+        }
+        return totales;
+    }
+
+    @Benchmark
+    public IntIntMap contarIntIntMap() {
+        IntIntMap totales = new IntIntMap();
+        for (int clave : claves) {
+            totales.addTo(clave, 1);
+        }
+        return totales;
+    }
+
+    @Benchmark
+    public HashSet<Integer> distintosHashSet() {
+        HashSet<Integer> distintos = new HashSet<>();
+        for (int id : consultas) {
+            distintos.add(id);
+        }
+        return distintos;
+    }
+
+    @Benchmark
+    public IntSet distintosIntSet() {
+        IntSet distintos = new IntSet();
+        for (int id : consultas) {
+            distintos.add(id);
+        }
+        return distintos;
+    }
+
+    /**
+     * Muestra cuánta memoria retiene cada colección llena con la cantidad de entradas indicada (por defecto
+     * un millón). Los valores de los mapas de objetos son un único objeto compartido, así que se mide solo la
+     * estructura del mapa. Conviene ejecutarlo con un heap fijo (ver MemoriaRetenida).
+     */
+    public static void main(String[] args) {
+        int entradas = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int[] ids = idsDesordenados(entradas, 42);
+        Object valor = new Object();
+        System.out.printf("Memoria retenida con %,d entradas:%n", entradas);
+
+        long hashMap = MemoriaRetenida.medir("HashMap<Integer, Object>", entradas, () -> {
+            HashMap<Integer, Object> mapa = new HashMap<>();
+            for (int id : ids) {
+                mapa.put(id, valor);
+            }
+            return mapa;
+        });
+        long intObjectMap = MemoriaRetenida.medir("IntObjectMap<Object>", entradas, () -> {
+            IntObjectMap<Object> mapa = new IntObjectMap<>();
+            for (int id : ids) {
+                mapa.put(id, valor);
+            }
+            return mapa;
+        });
+        long hashMapInt = MemoriaRetenida.medir("HashMap<Integer, Integer>", entradas, () -> {
+            HashMap<Integer, Integer> mapa = new HashMap<>();
+            for (int i = 0; i < ids.length; i++) {
+                mapa.put(ids[i], i); // Las posiciones mayores a 127 no están en la caché de Integer.
+            }
+            return mapa;
+        });
+        long intIntMap = MemoriaRetenida.medir("IntIntMap", entradas, () -> {
+            IntIntMap mapa = new IntIntMap();
+            for (int i = 0; i < ids.length; i++) {
+                mapa.put(ids[i], i, -1);
+            }
+            return mapa;
+        });
+        long hashSet = MemoriaRetenida.medir("HashSet<Integer>", entradas, () -> {
+            HashSet<Integer> conjunto = new HashSet<>();
+            for (int id : ids) {
+                conjunto.add(id);
+            }
+            return conjunto;
+        });
+        long intSet = MemoriaRetenida.medir("IntSet", entradas, () -> {
+            IntSet conjunto = new IntSet();
+            for (int id : ids) {
+                conjunto.add(id);
+            }
+            return conjunto;
+        });
+
+        System.out.printf("%nIntObjectMap ocupa el %.0f %% de HashMap<Integer, Object>%n", 100.0 * intObjectMap / hashMap);
+        System.out.printf("IntIntMap ocupa el %.0f %% de HashMap<Integer, Integer>%n", 100.0 * intIntMap / hashMapInt);
+        System.out.printf("IntSet ocupa el %.0f %% de HashSet<Integer>%n", 100.0 * intSet / hashSet);
+    }
+
+    // IDs de 1 a n mezclados (Fisher-Yates) con una semilla fija.
+    private static int[] idsDesordenados(int n, long semilla) {
+        int[] ids = new int[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = i + 1;
+        }
+        Random random = new Random(semilla);
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = ids[i];
+            ids[i] = ids[j];
+            ids[j] = t;
+        }
+        return ids;
+    }
+}
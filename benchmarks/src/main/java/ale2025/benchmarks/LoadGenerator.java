@@ -0,0 +1,277 @@
+package ale2025.benchmarks;
+
+import ale2025.dominio.Cita;
+import ale2025.dominio.Horario;
+import ale2025.dominio.Medico;
+import ale2025.dominio.Paciente;
+import ale2025.dominio.User;
+import ale2025.persistencia.CitaDAO;
+import ale2025.persistencia.DaoMetrics;
+import ale2025.persistencia.HorarioDAO;
+import ale2025.persistencia.MedicoDAO;
+import ale2025.persistencia.PacienteDAO;
+import ale2025.persistencia.UserDAO;
+import ale2025.persistencia.VersionConflictException;
+
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Generador de carga que simula N terminales de recepción trabajando en paralelo con los DAOs reales
+ * sobre la base H2 embebida.
+ *
+ * Cada terminal repite flujos de trabajo realistas con una pausa (tiempo de reflexión) entre ellos:
+ * - login: autenticación de un usuario.
+ * - buscar-paciente: búsqueda por nombre y lectura del primer resultado.
+ * - reservar-cita: búsqueda del paciente, lista de médicos y creación de la cita.
+ * - editar-horario: lectura y modificación de un horario.
+ *
+ * Al terminar se reporta, por flujo: ejecuciones, errores, conflictos de versión (dos terminales editaron
+ * el mismo horario a la vez; no son errores), throughput, p50/p99/max, y el resumen de DaoMetrics.
+ *
+ * Uso:
+ * java -cp benchmarks/target/benchmarks.jar ale2025.benchmarks.LoadGenerator
+ *      [--terminales=10] [--segundos=30] [--pausa=200] [--pacientes=50000] [--medicos=200] [--citas=200000]
+ */
+public class LoadGenerator {
+    private static final String[] FLUJOS = {"login", "buscar-paciente", "reservar-cita", "editar-horario"};
+    private static final int[] PESOS = {10, 50, 25, 15}; // Proporción de cada flujo (en %).
+
+    private final int pacientes;
+    private final int medicos;
+
+    private LoadGenerator(int pacientes, int medicos) {
+        this.pacientes = pacientes;
+        this.medicos = medicos;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = new HashMap<>();
+        for (String a : args) {
+            if (a.startsWith("--") && a.contains("=")) {
+                opts.put(a.substring(2, a.indexOf('=')), a.substring(a.indexOf('=') + 1));
+            }
+        }
+        int terminales = Integer.parseInt(opts.getOrDefault("terminales", "10"));
+        int segundos = Integer.parseInt(opts.getOrDefault("segundos", "30"));
+        long pausa = Long.parseLong(opts.getOrDefault("pausa", "200"));
+        int pacientes = Integer.parseInt(opts.getOrDefault("pacientes", "50000"));
+        int medicos = Integer.parseInt(opts.getOrDefault("medicos", "200"));
+        int citas = Integer.parseInt(opts.getOrDefault("citas", "200000"));
+
+        System.out.printf("Sembrando base de datos (%d pacientes, %d médicos, %d citas)...%n", pacientes, medicos, citas);
+        BenchmarkDatabase.start(pacientes, medicos, citas);
+        DaoMetrics.getInstance().reset(); // No contar la siembra ni el arranque.
+
+        System.out.printf("Ejecutando %d terminales durante %d s (pausa %d ms)...%n", terminales, segundos, pausa);
+        new LoadGenerator(pacientes, medicos).run(terminales, segundos * 1000L, pausa);
+    }
+
+    private void run(int terminales, long duracionMs, long pausa) throws InterruptedException {
+        Terminal[] ts = new Terminal[terminales];
+        CountDownLatch fin = new CountDownLatch(terminales);
+        long hasta = System.currentTimeMillis() + duracionMs;
+        for (int i = 0; i < terminales; i++) {
+            ts[i] = new Terminal(hasta, pausa, fin);
+            Thread t = new Thread(ts[i], "terminal-" + (i + 1));
+            t.setDaemon(true);
+            t.start();
+        }
+        fin.await();
+
+        double segundos = duracionMs / 1000.0;
+        System.out.printf("%n%-16s %10s %8s %9s %10s %10s %10s %10s%n",
+                "flujo", "ejecuc.", "errores", "conflic.", "por seg", "p50 ms", "p99 ms", "max ms");
+        for (int f = 0; f < FLUJOS.length; f++) {
+            Latencias total = new Latencias();
+            long errores = 0;
+            long conflictos = 0;
+            String primerError = null;
+            for (Terminal t : ts) {
+                total.addAll(t.latencias[f]);
+                errores += t.errores[f];
+                conflictos += t.conflictos[f];
+                if (primerError == null) {
+                    primerError = t.primerError[f];
+                }
+            }
+            long[] ordenadas = total.sorted();
+            System.out.printf("%-16s %10d %8d %9d %10.1f %10.2f %10.2f %10.2f%n",
+                    FLUJOS[f], ordenadas.length, errores, conflictos, ordenadas.length / segundos,
+                    ms(percentil(ordenadas, 0.50)), ms(percentil(ordenadas, 0.99)),
+                    ms(ordenadas.length == 0 ? 0 : ordenadas[ordenadas.length - 1]));
+            if (primerError != null) {
+                System.out.println("    primer error: " + primerError);
+            }
+        }
+        System.out.println();
+        System.out.print(DaoMetrics.snapshot());
+    }
+
+    private static long percentil(long[] ordenadas, double p) {
+        if (ordenadas.length == 0) {
+            return 0;
+        }
+        int i = (int) Math.ceil(p * ordenadas.length) - 1;
+        return ordenadas[Math.max(0, Math.min(i, ordenadas.length - 1))];
+    }
+
+    private static double ms(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    /**
+     * Una terminal de recepción: su propio juego de DAOs, como un cliente de escritorio.
+     */
+    private final class Terminal implements Runnable {
+        private final long hasta;
+        private final long pausa;
+        private final CountDownLatch fin;
+        private final Latencias[] latencias = new Latencias[FLUJOS.length];
+        private final long[] errores = new long[FLUJOS.length];
+        private final long[] conflictos = new long[FLUJOS.length];
+        private final String[] primerError = new String[FLUJOS.length];
+
+        private final UserDAO userDAO = new UserDAO();
+        private final PacienteDAO pacienteDAO = new PacienteDAO();
+        private final MedicoDAO medicoDAO = new MedicoDAO();
+        private final CitaDAO citaDAO = new CitaDAO();
+        private final HorarioDAO horarioDAO = new HorarioDAO();
+
+        Terminal(long hasta, long pausa, CountDownLatch fin) {
+            this.hasta = hasta;
+            this.pausa = pausa;
+            this.fin = fin;
+            for (int i = 0; i < FLUJOS.length; i++) {
+                latencias[i] = new Latencias();
+            }
+        }
+
+        @Override
+        public void run() {
+            ThreadLocalRandom rnd = ThreadLocalRandom.current();
+            try {
+                while (System.currentTimeMillis() < hasta) {
+                    int f = elegirFlujo(rnd.nextInt(100));
+                    long t0 = System.nanoTime();
+                    try {
+                        ejecutar(f, rnd);
+                        latencias[f].add(System.nanoTime() - t0);
+                    } catch (VersionConflictException e) {
+                        conflictos[f]++; // La escritura se rechazó sin bloquear: el flujo terminó igual.
+                        latencias[f].add(System.nanoTime() - t0);
+                    } catch (Exception e) {
+                        errores[f]++;
+                        if (primerError[f] == null) {
+                            primerError[f] = e.getClass().getSimpleName() + ": " + e.getMessage();
+                        }
+                    }
+                    if (pausa > 0) {
+                        // Tiempo de reflexión con variación de +-50 % para no sincronizar las terminales.
+                        Thread.sleep(pausa / 2 + rnd.nextLong(pausa + 1));
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                fin.countDown();
+            }
+        }
+
+        private int elegirFlujo(int r) {
+            int acc = 0;
+            for (int i = 0; i < PESOS.length; i++) {
+                acc += PESOS[i];
+                if (r < acc) {
+                    return i;
+                }
+            }
+            return PESOS.length - 1;
+        }
+
+        private void ejecutar(int flujo, ThreadLocalRandom rnd) throws SQLException {
+            switch (flujo) {
+                case 0: { // login
+                    int u = 1 + rnd.nextInt(BenchmarkDatabase.USUARIOS);
+                    User user = new User();
+                    user.setEmail(BenchmarkDatabase.email(u));
+                    user.setPasswordHash("clave" + u);
+                    if (userDAO.authenticate(user) == null) {
+                        throw new SQLException("Autenticación fallida para " + user.getEmail());
+                    }
+                    break;
+                }
+                case 1: { // buscar-paciente
+                    ArrayList<Paciente> encontrados = pacienteDAO.search(prefijoPaciente(rnd));
+                    if (!encontrados.isEmpty()) {
+                        pacienteDAO.getById(encontrados.get(0).getId());
+                    }
+                    break;
+                }
+                case 2: { // reservar-cita
+                    ArrayList<Paciente> encontrados = pacienteDAO.search(prefijoPaciente(rnd));
+                    ArrayList<Medico> lista = medicoDAO.search("");
+                    if (encontrados.isEmpty() || lista.isEmpty()) {
+                        break;
+                    }
+                    Cita cita = new Cita(0, encontrados.get(rnd.nextInt(encontrados.size())).getId(),
+                            lista.get(rnd.nextInt(lista.size())).getId(),
+                            Date.valueOf(BenchmarkDatabase.HOY.plusDays(1 + rnd.nextInt(30))), 50.0);
+                    if (citaDAO.create(cita) == null) {
+                        throw new SQLException("No se creó la cita");
+                    }
+                    break;
+                }
+                default: { // editar-horario
+                    Horario h = horarioDAO.getById(1 + rnd.nextInt(medicos * 5));
+                    if (h == null) {
+                        break;
+                    }
+                    int inicio = 7 + rnd.nextInt(4);
+                    h.setHoraInicio(Time.valueOf(inicio + ":00:00"));
+                    h.setHoraFin(Time.valueOf((inicio + 8) + ":00:00"));
+                    horarioDAO.update(h);
+                }
+            }
+        }
+
+        private String prefijoPaciente(ThreadLocalRandom rnd) {
+            String nombre = BenchmarkDatabase.nombre(rnd.nextInt(pacientes));
+            return nombre.substring(0, nombre.lastIndexOf(' ')); // Nombre y apellido, sin el número.
+        }
+    }
+
+    /**
+     * Lista creciente de latencias en nanosegundos (sin objetos por muestra).
+     */
+    private static final class Latencias {
+        private long[] valores = new long[1024];
+        private int size;
+
+        void add(long v) {
+            if (size == valores.length) {
+                valores = Arrays.copyOf(valores, size * 2);
+            }
+            valores[size++] = v;
+        }
+
+        void addAll(Latencias otras) {
+            for (int i = 0; i < otras.size; i++) {
+                add(otras.valores[i]);
+            }
+        }
+
+        long[] sorted() {
+            long[] copia = Arrays.copyOf(valores, size);
+            Arrays.sort(copia);
+            return copia;
+        }
+    }
+}
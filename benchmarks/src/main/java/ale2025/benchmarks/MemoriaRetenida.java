@@ -0,0 +1,50 @@
+package ale2025.benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.ref.Reference;
+import java.util.function.Supplier;
+
+/**
+ * Mide cuánta memoria del heap retiene una estructura: la diferencia entre el heap ocupado después de un GC
+ * completo antes y después de construirla. Lo usan los main de los benchmarks de memoria; conviene
+ * ejecutarlos con un heap fijo y el recolector paralelo (-Xms2g -Xmx2g -XX:+UseParallelGC): G1 redondea los
+ * arreglos grandes a regiones completas, y el recolector serial no actualiza a tiempo el uso de sus áreas.
+ */
+final class MemoriaRetenida {
+
+    private MemoriaRetenida() {
+    }
+
+    /**
+     * Construye la estructura, muestra la memoria que retiene y la retorna.
+     *
+     * @param nombre     Nombre que se muestra.
+     * @param elementos  Cantidad de elementos de la estructura, para mostrar los bytes por elemento.
+     * @param construir  Construye la estructura (se mide todo lo que quede alcanzable desde ella).
+     * @return Los bytes retenidos.
+     */
+    static long medir(String nombre, int elementos, Supplier<Object> construir) {
+        long antes = ocupadaTrasGc();
+        Object estructura = construir.get();
+        long bytes = ocupadaTrasGc() - antes;
+        Reference.reachabilityFence(estructura); // Que siga viva durante el segundo GC.
+        System.out.printf("  %-28s %,12d bytes (%.1f bytes por elemento)%n", nombre, bytes, bytes / (double) elementos);
+        return bytes;
+    }
+
+    // Heap ocupado justo después de un GC completo. No se cuenta el área Eden: después del GC está vacía,
+    // pero su uso incluye los buffers de asignación de cada hilo (TLAB) ya reservados.
+    private static long ocupadaTrasGc() {
+        System.gc();
+        System.gc();
+        long bytes = 0;
+        for (MemoryPoolMXBean area : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (area.getType() == MemoryType.HEAP && !area.getName().contains("Eden")) {
+                bytes += area.getUsage().getUsed();
+            }
+        }
+        return bytes;
+    }
+}
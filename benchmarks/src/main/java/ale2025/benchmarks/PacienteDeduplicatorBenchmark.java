@@ -0,0 +1,125 @@
+package ale2025.benchmarks;
+
+import ale2025.dominio.Paciente;
+import ale2025.persistencia.PacienteDeduplicator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide la búsqueda de pacientes duplicados en memoria (sin la lectura de la base de datos) con 500 000
+ * pacientes al azar, con uno y con varios hilos. El 1 % tiene un segundo registro con el nombre escrito de
+ * otra forma, repartido entre tres variantes: otra ortografía ("Vásquez" y "Vasques"), un error de tipeo en
+ * el primer nombre (que solo encuentra la pasada del apellido) y el orden invertido ("Pérez Ana"). Al
+ * terminar se informa qué proporción de cada variante se encontró.
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar PacienteDeduplicatorBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class PacienteDeduplicatorBenchmark {
+    private static final String[] NOMBRES = {"José", "María", "Juan", "Ana", "Luis", "Carmen", "Jorge", "Lucía",
+            "Pedro", "Sofía", "Carlos", "Valeria", "Miguel", "Gabriela", "Raúl", "Elena", "Víctor", "Isabel"};
+    private static final String[] APELLIDOS = {"González", "Rodríguez", "Pérez", "Sánchez", "Ramírez", "Vásquez",
+            "Chávez", "Zúñiga", "Quispe", "Flores", "Gutiérrez", "Castillo", "Valdez", "Llanos", "Herrera",
+            "Jiménez", "Cervantes", "Benítez", "Salazar", "Torres", "Rojas", "Díaz", "Vargas", "Hidalgo"};
+
+    @Param({"500000"})
+    int cantidad;
+
+    @Param({"1", "4"})
+    int hilos;
+
+    private static final String[] VARIANTES = {"ortografía", "primer nombre", "orden invertido"};
+
+    private ArrayList<Paciente> pacientes;
+    private List<List<int[]>> inyectados; // Pares (original, variante) de cada variante.
+    private PacienteDeduplicator.Resultado ultimo;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(42);
+        LocalDate inicio = LocalDate.of(1940, 1, 1);
+        pacientes = new ArrayList<>(cantidad);
+        inyectados = List.of(new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        while (pacientes.size() < cantidad) {
+            String primero = NOMBRES[random.nextInt(NOMBRES.length)];
+            String apellidos = APELLIDOS[random.nextInt(APELLIDOS.length)] + " " + APELLIDOS[random.nextInt(APELLIDOS.length)];
+            String nombre = primero + " " + apellidos;
+            String telefono = String.valueOf(900_000_000 + random.nextInt(100_000_000));
+            Date fecha = Date.valueOf(inicio.plusDays(random.nextInt(80 * 365)));
+            pacientes.add(new Paciente(pacientes.size() + 1, nombre, telefono, fecha));
+            if (random.nextInt(100) == 0) {
+                // El mismo paciente registrado otra vez.
+                int tipo = random.nextInt(VARIANTES.length);
+                String variante;
+                if (tipo == 0) { // Sin acentos y con s en lugar de z.
+                    variante = nombre.replace('z', 's').replace('á', 'a').replace('é', 'e').replace('í', 'i');
+                } else if (tipo == 1) { // Dos letras del primer nombre intercambiadas.
+                    int i = 1 + random.nextInt(primero.length() - 2);
+                    variante = primero.substring(0, i) + primero.charAt(i + 1) + primero.charAt(i)
+                            + primero.substring(i + 2) + " " + apellidos;
+                } else { // Los apellidos primero.
+                    variante = apellidos + " " + primero;
+                }
+                inyectados.get(tipo).add(new int[]{pacientes.size(), pacientes.size() + 1});
+                pacientes.add(new Paciente(pacientes.size() + 1, variante, random.nextBoolean() ? telefono : null, fecha));
+            }
+        }
+    }
+
+    @Benchmark
+    public PacienteDeduplicator.Resultado buscar() {
+        ultimo = new PacienteDeduplicator(PacienteDeduplicator.DEFAULT_UMBRAL, hilos).buscar(pacientes);
+        return ultimo;
+    }
+
+    /**
+     * Informa la proporción de pares inyectados que encontró la última búsqueda, por variante.
+     */
+    @TearDown(Level.Trial)
+    public void informar() {
+        if (ultimo == null) {
+            return;
+        }
+        Set<Long> encontrados = new HashSet<>();
+        for (PacienteDeduplicator.Candidato c : ultimo.getCandidatos()) {
+            encontrados.add((long) c.getIdA() << 32 | c.getIdB());
+        }
+        StringBuilder sb = new StringBuilder("Pares inyectados encontrados:");
+        for (int tipo = 0; tipo < VARIANTES.length; tipo++) {
+            int n = 0;
+            for (int[] par : inyectados.get(tipo)) {
+                if (encontrados.contains((long) par[0] << 32 | par[1])) {
+                    n++;
+                }
+            }
+            sb.append(String.format(" %s %d/%d;", VARIANTES[tipo], n, inyectados.get(tipo).size()));
+        }
+        System.out.println(sb);
+    }
+}
@@ -0,0 +1,78 @@
+package ale2025.benchmarks;
+
+import ale2025.dominio.Cita;
+import ale2025.dominio.Paciente;
+import ale2025.persistencia.CitaDAO;
+import ale2025.persistencia.ClientCache;
+import ale2025.persistencia.MedicoDAO;
+import ale2025.persistencia.PacienteDAO;
+import ale2025.presentacion.CitaReadingForm;
+import ale2025.presentacion.PacienteReadingForm;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.swing.table.DefaultTableModel;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de construir el modelo de tabla de los formularios de lectura a partir del resultado de una búsqueda.
+ * En citas incluye la resolución del nombre del paciente y del médico de cada fila: citaTable con los
+ * nombres ya en la caché del cliente (como tras la precarga del inicio de sesión) y citaTableSinCache
+ * consultando cada nombre a la base de datos.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Benchmark)
+public class ReadingFormBenchmark {
+    @Param("50000")
+    int pacientes;
+    @Param("200")
+    int medicos;
+    @Param("200000")
+    int citas;
+
+    private PacienteDAO pacienteDAO;
+    private MedicoDAO medicoDAO;
+    private ArrayList<Paciente> resultadoPacientes;
+    private ArrayList<Cita> resultadoCitas;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        BenchmarkDatabase.start(pacientes, medicos, citas);
+        pacienteDAO = new PacienteDAO();
+        medicoDAO = new MedicoDAO();
+        resultadoPacientes = pacienteDAO.search("Ana");
+        resultadoCitas = new CitaDAO().search(BenchmarkDatabase.HOY.toString());
+    }
+
+    @Benchmark
+    public DefaultTableModel pacienteTable() {
+        return PacienteReadingForm.buildTableModel(resultadoPacientes);
+    }
+
+    @Benchmark
+    public DefaultTableModel citaTable() {
+        return CitaReadingForm.buildTableModel(resultadoCitas, pacienteDAO, medicoDAO);
+    }
+
+    @Benchmark
+    public DefaultTableModel citaTableSinCache() {
+        ClientCache.getInstance().clear();
+        return CitaReadingForm.buildTableModel(resultadoCitas, pacienteDAO, medicoDAO);
+    }
+}
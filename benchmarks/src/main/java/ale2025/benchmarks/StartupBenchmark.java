@@ -0,0 +1,135 @@
+package ale2025.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Mide el tiempo de arranque en frío de la aplicación de escritorio hasta que el diálogo de inicio de
+ * sesión está en pantalla.
+ *
+ * Cada repetición inicia una JVM nueva con ale2025.Main y las propiedades ale2025.startup.report y
+ * ale2025.startup.exit: la aplicación informa cuántos milisegundos pasaron desde el inicio del proceso
+ * hasta que el diálogo quedó visible, y termina. Se reportan min/p50/max de ese tiempo y del tiempo total
+ * del proceso visto desde afuera. No es un benchmark JMH porque lo que se mide es justamente el arranque
+ * de la JVM, que JMH no puede repetir dentro de una misma bifurcación.
+ *
+ * Con --cds=archivo.jsa se ejecutan dos series, sin y con el archivo de clases compartidas de la
+ * aplicación (AppCDS, ver el perfil cds del pom), para comparar el arranque antes y después. El archivo
+ * solo se usa si el classpath coincide con el de la ejecución de entrenamiento, por lo que en ese caso
+ * debe indicarse --cp con el jar de la aplicación empaquetado por ese perfil (target/ale2025-cliente.jar).
+ *
+ * Necesita un entorno gráfico (en un servidor sin pantalla, ejecutarlo con xvfb-run).
+ *
+ * Uso:
+ * java -cp benchmarks/target/benchmarks.jar ale2025.benchmarks.StartupBenchmark
+ *      [--repeticiones=10] [--jvm="-XX:TieredStopAtLevel=1"]
+ *      [--cp=target/ale2025-cliente.jar --cds=target/ale2025.jsa]
+ */
+public class StartupBenchmark {
+    private static final Pattern VISIBLE = Pattern.compile("visible en (-?\\d+) ms");
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = new HashMap<>();
+        for (String a : args) {
+            if (a.startsWith("--") && a.contains("=")) {
+                opts.put(a.substring(2, a.indexOf('=')), a.substring(a.indexOf('=') + 1));
+            }
+        }
+        int repeticiones = Integer.parseInt(opts.getOrDefault("repeticiones", "10"));
+        String jvm = opts.getOrDefault("jvm", "").trim();
+        String classpath = opts.getOrDefault("cp", System.getProperty("java.class.path"));
+        List<String> opcionesJvm = jvm.isEmpty() ? List.of() : Arrays.asList(jvm.split("\\s+"));
+
+        long[] antes = serie("sin AppCDS", opcionesJvm, classpath, repeticiones);
+        String cds = opts.get("cds");
+        if (cds != null) {
+            List<String> conCds = new ArrayList<>(opcionesJvm);
+            conCds.add("-XX:SharedArchiveFile=" + cds);
+            long[] despues = serie("con " + cds, conCds, classpath, repeticiones);
+            System.out.printf("%nMejora en la mediana hasta el diálogo: %d ms (%.0f %%)%n",
+                    percentil(antes, 0.50) - percentil(despues, 0.50),
+                    100.0 * (percentil(antes, 0.50) - percentil(despues, 0.50)) / Math.max(1, percentil(antes, 0.50)));
+        }
+    }
+
+    /**
+     * Ejecuta una serie de arranques con las mismas opciones y muestra su resumen.
+     *
+     * @return Los tiempos hasta el diálogo, ordenados.
+     */
+    private static long[] serie(String titulo, List<String> opcionesJvm, String classpath, int repeticiones)
+            throws IOException, InterruptedException {
+        System.out.printf("%nArranques en frío %s: %d (opciones de la JVM: %s)%n", titulo, repeticiones,
+                opcionesJvm.isEmpty() ? "ninguna" : String.join(" ", opcionesJvm));
+        long[] hastaLogin = new long[repeticiones];
+        long[] totales = new long[repeticiones];
+        for (int i = 0; i < repeticiones; i++) {
+            long inicio = System.nanoTime();
+            hastaLogin[i] = arrancar(opcionesJvm, classpath);
+            totales[i] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+            System.out.printf("  %2d: diálogo visible en %d ms (proceso %d ms)%n", i + 1, hastaLogin[i], totales[i]);
+        }
+        Arrays.sort(hastaLogin);
+        Arrays.sort(totales);
+        System.out.printf("%-22s %8s %8s %8s%n", "medición", "min ms", "p50 ms", "max ms");
+        System.out.printf("%-22s %8d %8d %8d%n", "hasta diálogo login", hastaLogin[0],
+                percentil(hastaLogin, 0.50), hastaLogin[repeticiones - 1]);
+        System.out.printf("%-22s %8d %8d %8d%n", "proceso completo", totales[0],
+                percentil(totales, 0.50), totales[repeticiones - 1]);
+        return hastaLogin;
+    }
+
+    /**
+     * Inicia la aplicación en una JVM nueva y espera a que informe que el diálogo está visible.
+     *
+     * @return Los milisegundos informados por la aplicación.
+     */
+    private static long arrancar(List<String> opcionesJvm, String classpath) throws IOException, InterruptedException {
+        List<String> comando = new ArrayList<>();
+        comando.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        comando.addAll(opcionesJvm);
+        comando.add("-Dale2025.startup.report=true");
+        comando.add("-Dale2025.startup.exit=true");
+        comando.add("-cp");
+        comando.add(classpath);
+        comando.add("ale2025.Main");
+
+        Process proceso = new ProcessBuilder(comando).redirectErrorStream(true).start();
+        long informado = -1;
+        StringBuilder salida = new StringBuilder();
+        try (BufferedReader lector = new BufferedReader(
+                new InputStreamReader(proceso.getInputStream(), StandardCharsets.UTF_8))) {
+            String linea;
+            while ((linea = lector.readLine()) != null) {
+                salida.append(linea).append('\n');
+                Matcher m = VISIBLE.matcher(linea);
+                if (m.find()) {
+                    informado = Long.parseLong(m.group(1));
+                }
+            }
+        }
+        if (!proceso.waitFor(60, TimeUnit.SECONDS)) {
+            proceso.destroyForcibly();
+            throw new IOException("La aplicación no terminó en 60 s");
+        }
+        if (informado < 0) {
+            throw new IOException("La aplicación no informó el tiempo de arranque:\n" + salida);
+        }
+        return informado;
+    }
+
+    private static long percentil(long[] ordenados, double p) {
+        return ordenados[Math.min(ordenados.length - 1, (int) Math.ceil(p * ordenados.length) - 1)];
+    }
+}
@@ -0,0 +1,76 @@
+-- Mismo esquema que src/main/java/ale2025/persistencia/script.sql, sin USE/GO,
+-- para la base de datos H2 en memoria (MODE=MSSQLServer) de los benchmarks.
+
+CREATE TABLE Users (
+    id INT PRIMARY KEY IDENTITY(1,1),
+    name VARCHAR(100) NOT NULL,
+    passwordHash VARCHAR(64) NOT NULL,
+    email VARCHAR(200) NOT NULL UNIQUE,
+    status TINYINT NOT NULL,
+    version INT NOT NULL DEFAULT 1
+);
+
+CREATE TABLE Pacientes (
+    id INT PRIMARY KEY IDENTITY(1,1),
+    nombreCompleto VARCHAR(50) NOT NULL,
+    telefono VARCHAR(9),
+    fechaNacimiento DATE NOT NULL,
+    version INT NOT NULL DEFAULT 1
+);
+
+CREATE TABLE Especialidades (
+    id INT PRIMARY KEY IDENTITY(1,1),
+    nombre VARCHAR(30) NOT NULL UNIQUE,
+    descripcion VARCHAR(255),
+    version INT NOT NULL DEFAULT 1
+);
+
+CREATE TABLE Medicos (
+    id INT PRIMARY KEY IDENTITY(1,1),
+    nombreCompleto VARCHAR(50) NOT NULL,
+    especialidadId INT NOT NULL,
+    sueldo DECIMAL(10,2) NOT NULL,
+    version INT NOT NULL DEFAULT 1,
+    FOREIGN KEY (especialidadId) REFERENCES Especialidades(id)
+);
+
+CREATE TABLE Horarios (
+    id INT PRIMARY KEY IDENTITY(1,1),
+    medicoId INT NOT NULL,
+    diaSemana VARCHAR(15) NOT NULL,
+    horaInicio TIME NOT NULL,
+    horaFin TIME NOT NULL,
+    version INT NOT NULL DEFAULT 1,
+    FOREIGN KEY (medicoId) REFERENCES Medicos(id)
+);
+
+CREATE TABLE Citas (
+    id INT PRIMARY KEY IDENTITY(1,1),
+    pacienteId INT NOT NULL,
+    medicoId INT NOT NULL,
+    fechaCita DATE NOT NULL,
+    costoConsulta DECIMAL(10,2) NOT NULL,
+    version INT NOT NULL DEFAULT 1,
+    FOREIGN KEY (pacienteId) REFERENCES Pacientes(id),
+    FOREIGN KEY (medicoId) REFERENCES Medicos(id)
+);
+
+CREATE INDEX IX_Citas_fechaCita ON Citas (fechaCita);
+
+CREATE TABLE CitasHistorico (
+    id INT PRIMARY KEY,
+    pacienteId INT NOT NULL,
+    medicoId INT NOT NULL,
+    fechaCita DATE NOT NULL,
+    costoConsulta DECIMAL(10,2) NOT NULL,
+    version INT NOT NULL,
+    FOREIGN KEY (pacienteId) REFERENCES Pacientes(id), -- En SQL Server, triggers (ver script.sql).
+    FOREIGN KEY (medicoId) REFERENCES Medicos(id)
+);
+
+CREATE INDEX IX_CitasHistorico_fechaCita ON CitasHistorico (fechaCita);
+
+CREATE TABLE ArchivoCitas (
+    id TINYINT PRIMARY KEY CHECK (id = 1),
+    fechaLimite DATE NOT NULL
+);
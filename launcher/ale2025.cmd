@@ -0,0 +1,14 @@
+@echo off
+rem Inicia el cliente de escritorio usando el archivo de clases compartidas (AppCDS) generado con
+rem "mvn -Pcds package". Busca ale2025-cliente.jar y ale2025.jsa junto a este script o, si no estan, en ..\target.
+rem
+rem Si el archivo no existe o no corresponde a esta JVM o a este classpath (por ejemplo, tras actualizar el
+rem JDK), la JVM lo regenera al salir con las clases de esa sesion (-XX:+AutoCreateSharedArchive, JDK 19+).
+rem Opciones adicionales de la JVM: variable ALE2025_JAVA_OPTS (por ejemplo, -Dale2025.api.url=...).
+setlocal
+set "JAR=ale2025-cliente.jar"
+set "APP=%~dp0"
+if not exist "%APP%%JAR%" set "APP=%~dp0..\target\"
+set "JAVA=javaw"
+if defined JAVA_HOME set "JAVA=%JAVA_HOME%\bin\javaw"
+start "" "%JAVA%" -XX:SharedArchiveFile="%APP%ale2025.jsa" -XX:+AutoCreateSharedArchive %ALE2025_JAVA_OPTS% -jar "%APP%%JAR%" %*
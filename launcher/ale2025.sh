@@ -0,0 +1,21 @@
+#!/bin/sh
+# Inicia el cliente de escritorio usando el archivo de clases compartidas (AppCDS) generado con
+# "mvn -Pcds package". Busca ale2025-cliente.jar y ale2025.jsa junto a este script o, si no están, en ../target.
+#
+# Si el archivo no existe o no corresponde a esta JVM o a este classpath (por ejemplo, tras actualizar el
+# JDK), la JVM lo regenera al salir con las clases de esa sesión (-XX:+AutoCreateSharedArchive, JDK 19+).
+# Opciones adicionales de la JVM: variable ALE2025_JAVA_OPTS (por ejemplo, -Dale2025.api.url=...).
+DIR=$(cd "$(dirname "$0")" && pwd)
+JAR=ale2025-cliente.jar
+if [ -f "$DIR/$JAR" ]; then
+    APP="$DIR"
+else
+    APP="$DIR/../target"
+fi
+if [ -n "$JAVA_HOME" ]; then
+    JAVA="$JAVA_HOME/bin/java"
+else
+    JAVA=java
+fi
+exec "$JAVA" -XX:SharedArchiveFile="$APP/ale2025.jsa" -XX:+AutoCreateSharedArchive $ALE2025_JAVA_OPTS \
+    -jar "$APP/$JAR" "$@"
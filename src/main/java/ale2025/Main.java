@@ -1,20 +1,202 @@
 package ale2025;
 
+import ale2025.dominio.Medico;
+import ale2025.persistencia.CitaArchiver;
+import ale2025.persistencia.ConnectionManager;
+import ale2025.persistencia.DataExporter;
+import ale2025.persistencia.Disponibilidad;
+import ale2025.persistencia.MedicoDAO;
+import ale2025.persistencia.PacienteDeduplicator;
+import ale2025.persistencia.PacienteImporter;
+import ale2025.persistencia.WriteJournal;
+import ale2025.presentacion.EdtWatchdog;
 import ale2025.presentacion.LoginForm;
 import ale2025.presentacion.MainForm;
+import ale2025.presentacion.StartupTraining;
+import ale2025.servidor.ApiServer;
+import ale2025.utils.IntSet;
 import javax.swing.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
 
 public class Main {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws Exception {
+        // Si se recibe un comando, se ejecuta en modo consola (sin interfaz gráfica).
+        if (args.length > 0) {
+            runCommand(args);
+            return;
+        }
+
+        // Vigila el hilo de eventos de Swing y reporta los bloqueos que superen el umbral (ms).
+        EdtWatchdog.start(Long.getLong("ale2025.edt.thresholdMs", 1000));
 
         SwingUtilities.invokeLater(() -> {
             // Utiliza el hilo de despacho de eventos (Event Dispatch Thread - EDT) para asegurar
             // que todas las operaciones relacionadas con la interfaz gráfica de usuario (Swing)
             // se realicen de forma segura y sin bloqueos.
+            // Se muestra primero el inicio de sesión: el formulario principal se crea sin menú y su imagen
+            // se decodifica en segundo plano; se hace visible cuando el usuario se autentica.
             MainForm mainForm  = new MainForm(); // Crea una nueva instancia del formulario principal de la aplicación.
-            mainForm.setVisible(true); // Hace visible el formulario principal. Inicialmente podría estar vacío o tener una interfaz de carga.
-            LoginForm loginForm = new LoginForm(mainForm); // Crea una nueva instancia del formulario de inicio de sesión, pasándole la instancia del formulario principal como padre. Esto  para centrar la ventana de inicio de sesión relativa a la principal o para pasar datos entre ellas.
-            loginForm.setVisible(true); // Hace visible la ventana de inicio de sesión, solicitando al usuario que ingrese sus credenciales.
+            LoginForm loginForm = new LoginForm(mainForm); // Crea una nueva instancia del formulario de inicio de sesión, pasándole la instancia del formulario principal como padre.
+            loginForm.addWindowListener(new WindowAdapter() {
+                @Override
+                public void windowOpened(WindowEvent e) {
+                    loginVisible();
+                }
+            });
+            loginForm.setVisible(true); // Hace visible la ventana de inicio de sesión; al ser modal, retorna cuando el usuario se autentica.
+            mainForm.mostrar(); // Crea el menú y muestra el formulario principal.
         });
     }
-}
\ No newline at end of file
+
+    /**
+     * Se llama cuando el diálogo de inicio de sesión ya está en pantalla. Informa el tiempo de arranque si
+     * se definió ale2025.startup.report (y termina si además se definió ale2025.startup.exit, como hace
+     * StartupBenchmark), e inicia en segundo plano lo que no hace falta para mostrar el diálogo.
+     */
+    private static void loginVisible() {
+        if (Boolean.getBoolean("ale2025.startup.report")) {
+            long ms = ProcessHandle.current().info().startInstant()
+                    .map(inicio -> Duration.between(inicio, Instant.now()).toMillis())
+                    .orElse(-1L);
+            System.out.println("Inicio: diálogo de inicio de sesión visible en " + ms + " ms");
+            if (Boolean.getBoolean("ale2025.startup.exit")) {
+                System.exit(0);
+            }
+        }
+        Thread diferido = new Thread(() -> {
+            // Carga el driver JDBC mientras el usuario escribe sus credenciales.
+            ConnectionManager.cargarDriver();
+            // Abre el diario de escrituras: si quedaron escrituras sin conexión de una sesión anterior,
+            // se reaplican en segundo plano.
+            WriteJournal.getInstance();
+        }, "inicio-diferido");
+        diferido.setDaemon(true);
+        diferido.start();
+    }
+
+    /**
+     * Ejecuta un comando de consola.
+     *
+     * importar-pacientes &lt;archivo.csv&gt; [filasPorBloque]
+     * exportar-citas &lt;archivo&gt; [csv|jsonl] [gzip]
+     * exportar-pacientes &lt;archivo&gt; [csv|jsonl] [gzip]
+     * archivar-citas [filasPorLote] [pausaMs]
+     * de-turno [especialidadId]
+     * duplicados-pacientes &lt;archivo.csv&gt; [umbral] [hilos]
+     * servidor [puerto]
+     * reaplicar-diario
+     * entrenar-cds
+     */
+    private static void runCommand(String[] args) throws Exception {
+        switch (args[0]) {
+            case "importar-pacientes": {
+                if (args.length < 2) {
+                    usage();
+                    return;
+                }
+                int chunk = args.length > 2 ? Integer.parseInt(args[2]) : PacienteImporter.DEFAULT_CHUNK_SIZE;
+                PacienteImporter.Resultado res = new PacienteImporter(chunk).importFile(Path.of(args[1]));
+                System.out.println("Importación finalizada: " + res);
+                break;
+            }
+            case "exportar-citas":
+            case "exportar-pacientes": {
+                if (args.length < 2) {
+                    usage();
+                    return;
+                }
+                DataExporter.Formato formato = args.length > 2
+                        ? DataExporter.Formato.valueOf(args[2].toUpperCase())
+                        : DataExporter.Formato.CSV;
+                boolean gzip = args.length > 3 && args[3].equalsIgnoreCase("gzip");
+                DataExporter exporter = new DataExporter();
+                DataExporter.Resultado res = args[0].equals("exportar-citas")
+                        ? exporter.exportCitas(Path.of(args[1]), formato, gzip)
+                        : exporter.exportPacientes(Path.of(args[1]), formato, gzip);
+                System.out.println("Exportación finalizada: " + res);
+                break;
+            }
+            case "archivar-citas": {
+                // El horizonte se configura con -Dale2025.citas.horizonteDias; los clientes leen de la base el límite que guarda el archivado.
+                int lote = args.length > 1 ? Integer.parseInt(args[1]) : CitaArchiver.DEFAULT_LOTE;
+                long pausa = args.length > 2 ? Long.parseLong(args[2]) : CitaArchiver.DEFAULT_PAUSA_MS;
+                System.out.println("Archivando las citas anteriores a " + CitaArchiver.getFechaLimite());
+                System.out.println("Archivado finalizado: " + new CitaArchiver(lote, pausa).archivar());
+                break;
+            }
+            case "de-turno": {
+                // Médicos de turno ahora, de todas las especialidades o de la indicada.
+                int especialidadId = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+                List<Medico> medicos = MedicoDAO.getInstance().search("").stream()
+                        .filter(m -> especialidadId == 0 || m.getEspecialidadId() == especialidadId)
+                        .toList();
+                LocalDateTime ahora = LocalDateTime.now();
+                int[] deTurno = Disponibilidad.getInstance().deTurno(
+                        medicos.stream().mapToInt(Medico::getId).toArray(), ahora);
+                System.out.println("Médicos de turno (" + ahora.getDayOfWeek() + " " + ahora.toLocalTime().withNano(0)
+                        + "): " + deTurno.length + " de " + medicos.size());
+                IntSet ids = new IntSet(deTurno.length);
+                for (int id : deTurno) {
+                    ids.add(id);
+                }
+                medicos.stream().filter(m -> ids.contains(m.getId()))
+                        .forEach(m -> System.out.println("  " + m.getId() + "\t" + m.getNombreCompleto()));
+                break;
+            }
+            case "duplicados-pacientes": {
+                if (args.length < 2) {
+                    usage();
+                    return;
+                }
+                double umbral = args.length > 2 ? Double.parseDouble(args[2]) : PacienteDeduplicator.DEFAULT_UMBRAL;
+                int hilos = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+                PacienteDeduplicator.Resultado res = new PacienteDeduplicator(umbral, hilos).buscar();
+                PacienteDeduplicator.escribirCsv(res, Path.of(args[1]));
+                System.out.println("Búsqueda de duplicados finalizada: " + res);
+                res.getCandidatos().stream().limit(10).forEach(c -> System.out.println("  " + c));
+                break;
+            }
+            case "servidor": {
+                int puerto = args.length > 1 ? Integer.parseInt(args[1]) : 8085;
+                ApiServer server = ApiServer.start(puerto);
+                Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+                System.out.println("Servidor API escuchando en el puerto " + server.getPuerto()
+                        + " (los clientes usan -Dale2025.api.url=http://<host>:" + server.getPuerto() + ")");
+                break; // El servidor sigue atendiendo en sus propios hilos hasta que se detenga el proceso.
+            }
+            case "reaplicar-diario": {
+                WriteJournal diario = WriteJournal.getInstance();
+                System.out.println("Escrituras pendientes: " + diario.getPendientes());
+                System.out.println("Reaplicación finalizada: " + diario.replay());
+                break;
+            }
+            case "entrenar-cds": {
+                // Se ejecuta con -XX:ArchiveClassesAtExit=<archivo.jsa>; el archivo se escribe al terminar.
+                StartupTraining.run();
+                System.exit(0); // Cierra también el hilo de eventos de Swing.
+                break;
+            }
+            default:
+                usage();
+        }
+    }
+
+    private static void usage() {
+        System.err.println("Uso:");
+        System.err.println("  importar-pacientes <archivo.csv> [filasPorBloque]");
+        System.err.println("  exportar-citas <archivo> [csv|jsonl] [gzip]");
+        System.err.println("  exportar-pacientes <archivo> [csv|jsonl] [gzip]");
+        System.err.println("  archivar-citas [filasPorLote] [pausaMs]");
+        System.err.println("  de-turno [especialidadId]");
+        System.err.println("  duplicados-pacientes <archivo.csv> [umbral] [hilos]");
+        System.err.println("  servidor [puerto]");
+        System.err.println("  reaplicar-diario");
+        System.err.println("  entrenar-cds");
+    }
+}
@@ -8,6 +8,7 @@ public class Cita {
     private int medicoId;
     private Date fechaCita;
     private double costoConsulta;
+    private int version; // Versión de la fila al leerla, para la concurrencia optimista.
 
     public Cita() {
     }
@@ -59,4 +60,12 @@ public class Cita {
     public void setCostoConsulta(double costoConsulta) {
         this.costoConsulta = costoConsulta;
     }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
 }
\ No newline at end of file
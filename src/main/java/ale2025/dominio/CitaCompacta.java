@@ -0,0 +1,45 @@
+package ale2025.dominio;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+
+/**
+ * Representación compacta e inmutable de una cita, para cargas masivas (reportes, cachés de muchas citas).
+ *
+ * En lugar de un java.sql.Date y un double, guarda la fecha como días desde 1970-01-01 (epoch day) y el
+ * costo en centavos, de modo que cada cita es un solo objeto de 40 bytes sin referencias a otros objetos
+ * (una Cita con su Date ocupa 64). El costo en centavos es exacto, como la columna DECIMAL(10,2).
+ *
+ * @param fechaDia       Fecha de la cita, en días desde 1970-01-01 ({@link LocalDate#toEpochDay()}).
+ * @param costoCentavos  Costo de la consulta, en centavos.
+ * @param version        Versión de la fila al leerla, para la concurrencia optimista.
+ */
+public record CitaCompacta(int id, int pacienteId, int medicoId, int fechaDia, long costoCentavos, int version) {
+
+    /**
+     * Convierte una Cita. El costo se redondea al centavo más cercano.
+     */
+    public static CitaCompacta de(Cita cita) {
+        return new CitaCompacta(cita.getId(), cita.getPacienteId(), cita.getMedicoId(),
+                Math.toIntExact(cita.getFechaCita().toLocalDate().toEpochDay()),
+                Math.round(cita.getCostoConsulta() * 100), cita.getVersion());
+    }
+
+    public LocalDate getFecha() {
+        return LocalDate.ofEpochDay(fechaDia);
+    }
+
+    public BigDecimal getCosto() {
+        return BigDecimal.valueOf(costoCentavos, 2);
+    }
+
+    /**
+     * @return Una Cita mutable con los mismos datos, para los formularios y la API.
+     */
+    public Cita toCita() {
+        Cita cita = new Cita(id, pacienteId, medicoId, Date.valueOf(getFecha()), costoCentavos / 100.0);
+        cita.setVersion(version);
+        return cita;
+    }
+}
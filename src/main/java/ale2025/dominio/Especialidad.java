@@ -4,6 +4,7 @@ public class Especialidad {
     private int id;
     private String nombre;
     private String descripcion;
+    private int version; // Versión de la fila al leerla, para la concurrencia optimista.
 
     public Especialidad() {
     }
@@ -38,6 +39,14 @@ public class Especialidad {
         this.descripcion = descripcion;
     }
 
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return nombre; // Retorna solo el nombre de la especialidad para mostrar en la UI.
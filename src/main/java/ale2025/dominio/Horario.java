@@ -8,6 +8,7 @@ public class Horario {
     private String diaSemana;
     private Time horaInicio;
     private Time horaFin;
+    private int version; // Versión de la fila al leerla, para la concurrencia optimista.
 
     public Horario() {
     }
@@ -59,4 +60,12 @@ public class Horario {
     public void setHoraFin(Time horaFin) {
         this.horaFin = horaFin;
     }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
 }
\ No newline at end of file
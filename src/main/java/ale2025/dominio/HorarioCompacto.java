@@ -0,0 +1,90 @@
+package ale2025.dominio;
+
+import java.sql.Time;
+import java.text.Normalizer;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.Locale;
+
+/**
+ * Representación compacta e inmutable de un horario, para cargas masivas (por ejemplo, la disponibilidad
+ * de todos los médicos).
+ *
+ * El día de la semana, que en la tabla es un texto libre ("Lunes", "miércoles", ...), se guarda como el
+ * número de {@link DayOfWeek} (1 = lunes ... 7 = domingo, 0 si el texto no es un día reconocible) y las
+ * horas como minutos desde la medianoche, de modo que cada horario es un solo objeto de 32 bytes sin
+ * referencias a otros objetos (un Horario con su String y sus dos Time ocupa más de 130). Los segundos de
+ * las horas se descartan: los horarios se registran en minutos.
+ *
+ * @param diaSemana    Día de la semana: {@link DayOfWeek#getValue()}, o 0 si no se reconoció.
+ * @param inicioMinuto Hora de inicio, en minutos desde la medianoche.
+ * @param finMinuto    Hora de fin, en minutos desde la medianoche.
+ * @param version      Versión de la fila al leerla, para la concurrencia optimista.
+ */
+public record HorarioCompacto(int id, int medicoId, byte diaSemana, short inicioMinuto, short finMinuto, int version) {
+
+    private static final String[] NOMBRES = {"Lunes", "Martes", "Miércoles", "Jueves", "Viernes", "Sábado", "Domingo"};
+    // Los mismos nombres en minúsculas y sin acentos, para reconocer el texto de la tabla.
+    private static final String[] CLAVES = {"lunes", "martes", "miercoles", "jueves", "viernes", "sabado", "domingo"};
+
+    /**
+     * Convierte un Horario.
+     */
+    public static HorarioCompacto de(Horario horario) {
+        return new HorarioCompacto(horario.getId(), horario.getMedicoId(), dia(horario.getDiaSemana()),
+                minuto(horario.getHoraInicio().toLocalTime()), minuto(horario.getHoraFin().toLocalTime()),
+                horario.getVersion());
+    }
+
+    /**
+     * Número del día de la semana escrito en español (sin distinguir mayúsculas ni acentos) o en inglés.
+     *
+     * @return {@link DayOfWeek#getValue()}, o 0 si el texto no es un día.
+     */
+    public static byte dia(String texto) {
+        if (texto == null) {
+            return 0;
+        }
+        String normalizado = Normalizer.normalize(texto.trim(), Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "").toLowerCase(Locale.ROOT);
+        for (int i = 0; i < CLAVES.length; i++) {
+            if (normalizado.equals(CLAVES[i]) || normalizado.equalsIgnoreCase(DayOfWeek.of(i + 1).name())) {
+                return (byte) (i + 1);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Minutos desde la medianoche (sin los segundos).
+     */
+    public static short minuto(LocalTime hora) {
+        return (short) (hora.getHour() * 60 + hora.getMinute());
+    }
+
+    /**
+     * @return El día de la semana, o null si el texto original no era un día reconocible.
+     */
+    public DayOfWeek getDia() {
+        return diaSemana == 0 ? null : DayOfWeek.of(diaSemana);
+    }
+
+    public LocalTime getInicio() {
+        return LocalTime.of(inicioMinuto / 60, inicioMinuto % 60);
+    }
+
+    public LocalTime getFin() {
+        return LocalTime.of(finMinuto / 60, finMinuto % 60);
+    }
+
+    /**
+     * @return Un Horario mutable con los mismos datos, con el nombre del día en español (vacío si no se
+     * reconoció el día original).
+     */
+    public Horario toHorario() {
+        Horario horario = new Horario(id, medicoId, diaSemana == 0 ? "" : NOMBRES[diaSemana - 1],
+                Time.valueOf(getInicio()), Time.valueOf(getFin()));
+        horario.setVersion(version);
+        return horario;
+    }
+}
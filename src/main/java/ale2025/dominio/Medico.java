@@ -6,6 +6,7 @@ public class Medico {
     private String nombreCompleto;
     private int especialidadId; // Clave foránea que referencia a Especialidades
     private double sueldo;
+    private int version; // Versión de la fila al leerla, para la concurrencia optimista.
 
     public Medico() {
     }
@@ -49,6 +50,14 @@ public class Medico {
         this.sueldo = sueldo;
     }
 
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return nombreCompleto; // Retorna solo el nombre completo del médico para mostrar en la UI.
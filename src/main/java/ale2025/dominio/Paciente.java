@@ -7,6 +7,7 @@ public class Paciente {
     private String nombreCompleto;
     private String telefono;
     private Date fechaNacimiento;
+    private int version; // Versión de la fila al leerla, para la concurrencia optimista.
 
     public Paciente() {
     }
@@ -49,6 +50,15 @@ public class Paciente {
     public void setFechaNacimiento(Date fechaNacimiento) {
         this.fechaNacimiento = fechaNacimiento;
     }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return nombreCompleto; // Retorna el valor del campo 'nombreCompleto'
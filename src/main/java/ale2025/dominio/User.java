@@ -6,6 +6,7 @@ public class User {
     private String passwordHash;
     private String email;
     private byte status;
+    private int version; // Versión de la fila al leerla, para la concurrencia optimista.
 
     public User() {
     }
@@ -61,4 +62,12 @@ public class User {
         }
         return str;
     }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
 }
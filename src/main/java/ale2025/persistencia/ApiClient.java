@@ -0,0 +1,286 @@
+package ale2025.persistencia;
+
+import ale2025.dominio.User;
+import ale2025.utils.Json;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.stream.Stream;
+
+/**
+ * Cliente de la API HTTP del servidor de la clínica (ver ale2025.servidor.ApiServer).
+ *
+ * Lo usan los DAOs remotos cuando la propiedad del sistema ale2025.api.url está definida
+ * (ej. -Dale2025.api.url=http://servidor:8085). Así todas las terminales comparten el grupo de
+ * conexiones y la caché de entidades del servidor en lugar de conectarse cada una a SQL Server.
+ *
+ * Los errores de red y las respuestas de error del servidor se informan como SQLException, para
+ * que los formularios los manejen igual que los errores de los DAOs locales.
+ *
+ * Cada petición lleva el usuario de la sesión en la cabecera X-Usuario: las escrituras las audita el
+ * servidor (ver AuditLog).
+ *
+ * Configuración (propiedades del sistema):
+ * - ale2025.api.url   : URL base del servidor.
+ * - ale2025.api.token : token compartido que se envía en la cabecera X-Api-Token (opcional).
+ */
+public final class ApiClient {
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+    private static final int BUFFER_PUBLICADOR = 256; // Filas que se leen por adelantado en searchPublisher.
+
+    private static ApiClient instance;
+
+    private final String baseUrl;
+    private final String token;
+    private final HttpClient http;
+
+    private ApiClient(String baseUrl, String token) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.token = token;
+        this.http = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    /**
+     * @return true si el cliente debe trabajar contra el servidor HTTP (ale2025.api.url definida).
+     */
+    public static boolean isConfigured() {
+        String url = System.getProperty("ale2025.api.url");
+        return url != null && !url.isBlank();
+    }
+
+    public static synchronized ApiClient getInstance() {
+        if (instance == null) {
+            instance = new ApiClient(System.getProperty("ale2025.api.url"), System.getProperty("ale2025.api.token"));
+        }
+        return instance;
+    }
+
+    <T> T create(EntidadJson<T> tipo, T entidad) throws SQLException {
+        Map<String, Object> body = enviar("POST", "/api/" + tipo.getNombre(), Json.write(tipo.toMap(entidad)), false);
+        return body == null ? null : tipo.fromMap(body);
+    }
+
+    <T> boolean update(EntidadJson<T> tipo, T entidad) throws SQLException {
+        Map<String, Object> body = enviar("PUT", "/api/" + tipo.getNombre() + "/" + tipo.getId(entidad),
+                Json.write(tipo.toMap(entidad)), false);
+        return body != null && Boolean.TRUE.equals(body.get("ok"));
+    }
+
+    /**
+     * @param version Versión leída de la entidad: el servidor solo la elimina si sigue siendo esa.
+     */
+    <T> boolean delete(EntidadJson<T> tipo, int id, int version) throws SQLException {
+        Map<String, Object> body = enviar("DELETE", "/api/" + tipo.getNombre() + "/" + id + "?version=" + version,
+                null, false);
+        return body != null && Boolean.TRUE.equals(body.get("ok"));
+    }
+
+    <T> T getById(EntidadJson<T> tipo, int id) throws SQLException {
+        Map<String, Object> body = enviar("GET", "/api/" + tipo.getNombre() + "/" + id, null, true);
+        return body == null ? null : tipo.fromMap(body);
+    }
+
+    <T> ArrayList<T> search(EntidadJson<T> tipo, String criterio) throws SQLException {
+        ArrayList<T> records = new ArrayList<>();
+        try (Stream<String> lineas = lineas(tipo, criterio)) {
+            Iterator<String> it = lineas.iterator();
+            while (it.hasNext()) {
+                records.add(tipo.fromMap(fila(it.next())));
+            }
+        } catch (RuntimeException ex) {
+            throw new SQLException("Error al buscar en el servidor: " + ex.getMessage(), ex);
+        }
+        return records;
+    }
+
+    /**
+     * Búsqueda que emite las filas a medida que llegan del servidor. El servidor también las envía a
+     * medida que avanza su cursor, y la lectura de la respuesta se detiene cuando el suscriptor no
+     * tiene demanda (el búfer del publicador se llena), lo que a su vez frena al servidor.
+     */
+    <T> Flow.Publisher<T> searchPublisher(EntidadJson<T> tipo, String criterio) {
+        return subscriber -> {
+            SubmissionPublisher<T> publicador = new SubmissionPublisher<>(
+                    Executors.newVirtualThreadPerTaskExecutor(), BUFFER_PUBLICADOR);
+            publicador.subscribe(subscriber);
+            Thread.ofVirtual().name("api-search-" + tipo.getNombre()).start(() -> {
+                try (Stream<String> lineas = lineas(tipo, criterio)) {
+                    Iterator<String> it = lineas.iterator();
+                    while (it.hasNext() && !publicador.isClosed() && publicador.hasSubscribers()) {
+                        publicador.submit(tipo.fromMap(fila(it.next()))); // Bloquea si el suscriptor va atrasado.
+                    }
+                    publicador.close();
+                } catch (Exception ex) {
+                    publicador.closeExceptionally(ex);
+                }
+            });
+        };
+    }
+
+    /**
+     * Crea un usuario. La contraseña viaja en la propiedad "password" (las respuestas nunca la incluyen).
+     */
+    User createUser(User user) throws SQLException {
+        Map<String, Object> datos = EntidadJson.USUARIOS.toMap(user);
+        datos.put("password", user.getPasswordHash());
+        Map<String, Object> body = enviar("POST", "/api/usuarios", Json.write(datos), false);
+        return body == null ? null : EntidadJson.USUARIOS.fromMap(body);
+    }
+
+    User authenticate(User user) throws SQLException {
+        Map<String, Object> datos = new LinkedHashMap<>();
+        datos.put("email", user.getEmail());
+        datos.put("password", user.getPasswordHash());
+        Map<String, Object> body = enviar("POST", "/api/usuarios/autenticar", Json.write(datos), true);
+        return body == null ? null : EntidadJson.USUARIOS.fromMap(body);
+    }
+
+    boolean updatePassword(User user) throws SQLException {
+        Map<String, Object> datos = new LinkedHashMap<>();
+        datos.put("password", user.getPasswordHash());
+        datos.put("version", user.getVersion());
+        Map<String, Object> body = enviar("PUT", "/api/usuarios/" + user.getId() + "/password", Json.write(datos), false);
+        return body != null && Boolean.TRUE.equals(body.get("ok"));
+    }
+
+    /**
+     * Envía una petición con cuerpo JSON y retorna el objeto JSON de la respuesta.
+     *
+     * @param nullSiNoExiste true para retornar null cuando el servidor responde 404 (o 401 al autenticar).
+     */
+    private Map<String, Object> enviar(String metodo, String ruta, String json, boolean nullSiNoExiste)
+            throws SQLException {
+        HttpRequest.Builder req = peticion(ruta)
+                .method(metodo, json == null
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(json, StandardCharsets.UTF_8));
+        if (json != null) {
+            req.header("Content-Type", "application/json; charset=utf-8");
+        }
+        HttpResponse<String> resp;
+        try {
+            resp = http.send(req.build(), HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        } catch (IOException ex) {
+            throw errorDeRed(ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Petición al servidor interrumpida", ex);
+        }
+        if (nullSiNoExiste && (resp.statusCode() == 404 || resp.statusCode() == 401)) {
+            return null;
+        }
+        if (resp.statusCode() == 409) {
+            throw conflicto(resp.body());
+        }
+        if (resp.statusCode() >= 300) {
+            throw new SQLException(mensajeDeError(resp.statusCode(), resp.body()));
+        }
+        try {
+            return resp.body().isBlank() ? null : Json.parseObject(resp.body());
+        } catch (IllegalArgumentException ex) {
+            throw new SQLException("Respuesta inválida del servidor: " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Ejecuta la búsqueda y retorna las líneas (JSON Lines) a medida que llegan.
+     * La secuencia debe cerrarse para liberar la conexión HTTP.
+     */
+    private <T> Stream<String> lineas(EntidadJson<T> tipo, String criterio) throws SQLException {
+        String q = URLEncoder.encode(criterio == null ? "" : criterio, StandardCharsets.UTF_8);
+        HttpResponse<Stream<String>> resp;
+        try {
+            resp = http.send(peticion("/api/" + tipo.getNombre() + "?q=" + q).GET().build(),
+                    HttpResponse.BodyHandlers.ofLines());
+        } catch (IOException ex) {
+            throw errorDeRed(ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Petición al servidor interrumpida", ex);
+        }
+        if (resp.statusCode() >= 300) {
+            String cuerpo;
+            try (Stream<String> s = resp.body()) {
+                cuerpo = String.join("\n", (Iterable<String>) s::iterator);
+            }
+            throw new SQLException(mensajeDeError(resp.statusCode(), cuerpo));
+        }
+        return resp.body();
+    }
+
+    /**
+     * Interpreta una línea de la búsqueda. Si el servidor falla a mitad de la respuesta, envía una
+     * última línea {"error": "..."}.
+     */
+    private static Map<String, Object> fila(String linea) {
+        Map<String, Object> m = Json.parseObject(linea);
+        if (m.size() == 1 && m.containsKey("error")) {
+            throw new IllegalStateException(String.valueOf(m.get("error")));
+        }
+        return m;
+    }
+
+    private HttpRequest.Builder peticion(String ruta) {
+        HttpRequest.Builder req = HttpRequest.newBuilder(URI.create(baseUrl + ruta))
+                .timeout(TIMEOUT)
+                .header("Accept", "application/json");
+        if (token != null && !token.isBlank()) {
+            req.header("X-Api-Token", token);
+        }
+        String usuario = AuditLog.getUsuario();
+        if (usuario != null) {
+            req.header("X-Usuario", usuario); // El servidor lo registra en la auditoría de la escritura.
+        }
+        return req;
+    }
+
+    private SQLException errorDeRed(IOException ex) {
+        if (ex instanceof ConnectException) {
+            return new SQLException("No se pudo conectar con el servidor " + baseUrl, ex);
+        }
+        return new SQLException("Error de comunicación con el servidor " + baseUrl + ": " + ex.getMessage(), ex);
+    }
+
+    /**
+     * Reconstruye la VersionConflictException que respondió el servidor (código 409).
+     */
+    private static SQLException conflicto(String cuerpo) {
+        try {
+            Map<String, Object> m = Json.parseObject(cuerpo);
+            return new VersionConflictException(String.valueOf(m.get("entidad")), EntidadJson.entero(m, "id"),
+                    Boolean.TRUE.equals(m.get("eliminada")));
+        } catch (IllegalArgumentException ex) {
+            return new SQLException(mensajeDeError(409, cuerpo));
+        }
+    }
+
+    private static String mensajeDeError(int status, String cuerpo) {
+        try {
+            Object error = Json.parseObject(cuerpo).get("error");
+            if (error != null) {
+                return error.toString();
+            }
+        } catch (IllegalArgumentException ignored) {
+            // El cuerpo no es JSON: se informa el código de estado.
+        }
+        return "El servidor respondió con el código " + status;
+    }
+}
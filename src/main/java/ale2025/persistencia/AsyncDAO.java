@@ -0,0 +1,92 @@
+package ale2025.persistencia;
+
+import java.sql.SQLException;       // Clase para manejar errores relacionados con la base de datos SQL.
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Fachada asíncrona sobre cualquier DAO: cada llamada se ejecuta en un hilo virtual y retorna un
+ * {@link CompletableFuture}. Permite lanzar consultas independientes al mismo tiempo en lugar de
+ * una tras otra, por ejemplo:
+ * <pre>
+ * CompletableFuture&lt;ArrayList&lt;Paciente&gt;&gt; pacientes = AsyncDAO.of(pacienteDAO).call(dao -&gt; dao.search(""));
+ * CompletableFuture&lt;ArrayList&lt;Medico&gt;&gt; medicos = AsyncDAO.of(medicoDAO).call(dao -&gt; dao.search(""));
+ * ArrayList&lt;Paciente&gt; listaPacientes = AsyncDAO.join(pacientes);
+ * </pre>
+ *
+ * Los DAOs no guardan estado entre llamadas y cada llamada toma su propia conexión del
+ * {@link ConnectionManager}, cuyo grupo de conexiones usa ReentrantLock y Semaphore (no synchronized),
+ * de modo que la espera por una conexión no bloquea los hilos de plataforma que ejecutan los hilos virtuales.
+ *
+ * @param <D> Tipo del DAO envuelto.
+ */
+public final class AsyncDAO<D> {
+    /** Un hilo virtual por tarea; la concurrencia real la limita el grupo de conexiones. */
+    private static final ExecutorService EXECUTOR = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("dao-async-", 0).factory());
+
+    private final D dao;
+
+    private AsyncDAO(D dao) {
+        this.dao = dao;
+    }
+
+    /**
+     * @param dao El DAO sobre el que se ejecutarán las llamadas.
+     * @return La fachada asíncrona del DAO.
+     */
+    public static <D> AsyncDAO<D> of(D dao) {
+        return new AsyncDAO<>(dao);
+    }
+
+    /**
+     * Ejecuta una operación del DAO en un hilo virtual.
+     *
+     * @param operacion La operación a ejecutar, por ejemplo dao -&gt; dao.getById(id).
+     * @return Un CompletableFuture con el resultado. Si la operación lanza SQLException, el futuro
+     * termina con una CompletionException cuya causa es la SQLException original.
+     */
+    public <T> CompletableFuture<T> call(Operacion<D, T> operacion) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return operacion.apply(dao);
+            } catch (SQLException ex) {
+                throw new CompletionException(ex);
+            }
+        }, EXECUTOR);
+    }
+
+    /**
+     * Espera el resultado de un futuro retornado por {@link #call(Operacion)} y vuelve a lanzar
+     * la SQLException original, para conservar el manejo de errores habitual de los DAOs.
+     *
+     * @throws SQLException Si la operación falló con un error de base de datos.
+     */
+    public static <T> T join(CompletableFuture<T> futuro) throws SQLException {
+        try {
+            return futuro.join();
+        } catch (CompletionException ex) {
+            Throwable causa = ex.getCause();
+            if (causa instanceof SQLException) {
+                throw (SQLException) causa;
+            }
+            if (causa instanceof RuntimeException) {
+                throw (RuntimeException) causa;
+            }
+            if (causa instanceof Error) {
+                throw (Error) causa;
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Operación sobre un DAO que puede lanzar SQLException.
+     */
+    @FunctionalInterface
+    public interface Operacion<D, T> {
+        T apply(D dao) throws SQLException;
+    }
+}
@@ -0,0 +1,524 @@
+package ale2025.persistencia;
+
+import ale2025.utils.CUD;
+import ale2025.utils.Json;
+
+import java.awt.EventQueue;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Registro de auditoría asíncrono de las altas, modificaciones y eliminaciones (CUD), con el usuario,
+ * la entidad y sus valores antes y después de la operación.
+ *
+ * Los DAOs registran cada escritura después de aplicarla (con el ID definitivo en las altas), al igual
+ * que la reaplicación del diario, la importación masiva, las sincronizaciones (MERGE) y el archivado de
+ * citas; una escritura que no llega a la base (conflicto de versión, error) no se registra. Los valores
+ * anteriores de una modificación o eliminación los devuelve la misma sentencia (OUTPUT deleted.*), sin
+ * otra consulta.
+ *
+ * Registrar un evento no escribe nada en la base ni en el disco: el evento se agrega a un búfer
+ * circular sin bloqueos ({@link AuditRing}) y quien escribe sigue. Un único hilo escritor retira los
+ * eventos en grupos, los copia a archivos segmentados mapeados en memoria ({@link AuditSegments}) y
+ * hace un solo fsync por grupo. Otro hilo reenvía periódicamente los registros ya escritos a la tabla
+ * Auditoria en lotes (una transacción por lote) y guarda hasta dónde llegó.
+ *
+ * Límites de pérdida:
+ * - Eventos aún en el búfer (como máximo su capacidad): se pierden solo si el proceso termina de forma
+ *   abrupta; al cerrar normalmente un gancho de apagado los escribe antes de salir.
+ * - Eventos escritos en el mapeo pero sin fsync: sobreviven a una caída del proceso (ya están en la
+ *   caché de páginas del sistema); solo una caída del sistema operativo puede perder el último grupo
+ *   (como máximo MAX_GRUPO eventos).
+ * - Si el búfer se llena, quien registra reintenta unas pocas veces con espera activa y luego se
+ *   detiene (park) hasta ale2025.audit.maxWaitMs; pasado ese tiempo el evento se descarta y se cuenta en
+ *   {@link #getDescartados()}. En el hilo de eventos de Swing no se espera: el evento se descarta enseguida.
+ * - El reenvío a la tabla es al menos una vez y la clave única (origen, segmento, posicion) descarta
+ *   los repetidos, de modo que cada registro queda exactamente una vez en la tabla.
+ *
+ * Configuración (propiedades del sistema):
+ * - ale2025.audit.enabled   : false para desactivar la auditoría (por defecto true).
+ * - ale2025.audit.dir       : directorio de los segmentos (por defecto "auditoria").
+ * - ale2025.audit.ring      : capacidad del búfer circular (por defecto 8192 eventos).
+ * - ale2025.audit.segmentMb : tamaño de cada segmento (por defecto 16 MB).
+ * - ale2025.audit.maxWaitMs : espera máxima con el búfer lleno (por defecto 50 ms).
+ * - ale2025.audit.forwardMs : intervalo de reenvío a la tabla (por defecto 2000 ms).
+ *
+ * Con ale2025.api.url (cliente del servidor HTTP) la terminal no registra nada: sus escrituras las
+ * aplican los DAOs del servidor, que las registran en su propio registro y las reenvían a la tabla. El
+ * cliente envía el usuario de la sesión en la cabecera X-Usuario y el servidor lo registra con
+ * {@link #setUsuarioDelHilo(String)}.
+ */
+public final class AuditLog {
+    private static final int MAX_GRUPO = 512; // Eventos por escritura y fsync.
+    private static final int LOTE_ENVIO = 500; // Registros por transacción al reenviar a la tabla.
+    private static final int GIROS = 256; // Reintentos con espera activa antes de detener el hilo.
+    private static final long PAUSA_MAX_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static volatile AuditLog instance;
+    private static boolean desactivado; // No se pudo abrir: no se reintenta en cada evento.
+    private static volatile String usuario; // Usuario de la sesión (ver setUsuario).
+    private static final ThreadLocal<String> usuarioDelHilo = new ThreadLocal<>(); // Petición en el servidor.
+
+    private final AuditRing<Evento> ring;
+    private final AuditSegments segmentos;
+    private final Path directorio;
+    private final String origen;
+    private final long maxEsperaNanos;
+    private final Thread escritor;
+    private volatile boolean activo = true;
+    private volatile boolean esperando; // El escritor está detenido esperando eventos.
+    private volatile long escrito; // Posición hasta la que los segmentos están escritos y forzados.
+    private long enviado; // Posición hasta la que se reenvió a la tabla (solo el hilo de reenvío).
+
+    private final LongAdder registrados = new LongAdder();
+    private final LongAdder escritos = new LongAdder();
+    private final LongAdder grupos = new LongAdder();
+    private final LongAdder enviados = new LongAdder();
+    private final LongAdder descartados = new LongAdder();
+
+    AuditLog(Path directorio, int capacidad, int tamanoSegmento, long maxEsperaMs) throws IOException {
+        this.directorio = directorio;
+        this.ring = new AuditRing<>(capacidad);
+        this.segmentos = new AuditSegments(directorio, tamanoSegmento);
+        this.origen = leerOrigen(directorio);
+        this.maxEsperaNanos = TimeUnit.MILLISECONDS.toNanos(maxEsperaMs);
+        this.escrito = segmentos.getPosicion();
+        this.enviado = leerEnviado();
+        this.escritor = new Thread(this::escribirGrupos, "ale2025-auditoria");
+        escritor.setDaemon(true);
+        escritor.start();
+    }
+
+    /**
+     * Retorna el registro de auditoría compartido, o null si está desactivado, no pudo abrirse o la
+     * terminal trabaja contra el servidor HTTP (allí registra el servidor).
+     */
+    public static synchronized AuditLog getInstance() {
+        if (instance == null && !desactivado) {
+            desactivado = !auditaEnEstaTerminal();
+        }
+        if (instance == null && !desactivado) {
+            try {
+                instance = new AuditLog(Path.of(System.getProperty("ale2025.audit.dir", "auditoria")),
+                        Integer.getInteger("ale2025.audit.ring", 8192),
+                        Integer.getInteger("ale2025.audit.segmentMb", 16) * 1024 * 1024,
+                        Long.getLong("ale2025.audit.maxWaitMs", 50));
+                Runtime.getRuntime().addShutdownHook(new Thread(instance::close, "ale2025-auditoria-cierre"));
+                instance.iniciarReenvio(Long.getLong("ale2025.audit.forwardMs", 2000));
+            } catch (IOException e) {
+                System.err.println("No se pudo abrir el registro de auditoría: " + e.getMessage());
+                desactivado = true;
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * @return false si la auditoría está desactivada o si las escrituras las hace (y audita) el servidor HTTP.
+     */
+    static boolean auditaEnEstaTerminal() {
+        return Boolean.parseBoolean(System.getProperty("ale2025.audit.enabled", "true")) && !ApiClient.isConfigured();
+    }
+
+    /**
+     * Establece el usuario de la sesión, que se registra en cada evento. Lo llama el inicio de sesión.
+     */
+    public static void setUsuario(String usuarioSesion) {
+        usuario = usuarioSesion;
+    }
+
+    /**
+     * @return El usuario de la sesión, o null si aún no inició sesión.
+     */
+    static String getUsuario() {
+        return usuario;
+    }
+
+    /**
+     * Establece el usuario de las operaciones del hilo actual, que tiene prioridad sobre el de la sesión.
+     * Lo usa el servidor HTTP con el usuario de cada petición; null lo quita.
+     */
+    public static void setUsuarioDelHilo(String usuarioPeticion) {
+        if (usuarioPeticion == null) {
+            usuarioDelHilo.remove();
+        } else {
+            usuarioDelHilo.set(usuarioPeticion);
+        }
+    }
+
+    /**
+     * Registra una operación sobre una entidad del dominio.
+     *
+     * @param cud     Operación realizada.
+     * @param tipo    Tipo de la entidad (define su nombre y sus valores).
+     * @param antes   Valores de la entidad antes de la operación (toMap), o null en las altas.
+     * @param entidad La entidad después de la operación (en una eliminación, la eliminada).
+     */
+    public static <T> void registrar(CUD cud, EntidadJson<T> tipo, Map<String, Object> antes, T entidad) {
+        registrar(cud, tipo.getNombre(), tipo.getId(entidad), cud == CUD.CREATE ? null : antes,
+                cud == CUD.DELETE ? null : tipo.toMap(entidad));
+    }
+
+    /**
+     * Registra una operación con valores arbitrarios (por ejemplo, un cambio de contraseña sin el hash).
+     * No hace nada si la auditoría está desactivada.
+     */
+    public static void registrar(CUD cud, String entidad, int id, Map<String, Object> antes,
+                                 Map<String, Object> despues) {
+        registrar(null, cud, entidad, id, antes, despues);
+    }
+
+    /**
+     * Registra una operación hecha por el usuario indicado (por ejemplo, una escritura del diario que se
+     * reaplica más tarde); si es null, se registra el usuario del hilo o de la sesión.
+     */
+    static void registrar(String usuarioOperacion, CUD cud, String entidad, int id, Map<String, Object> antes,
+                          Map<String, Object> despues) {
+        AuditLog log = instance != null ? instance : getInstance(); // Sin sincronizar una vez creada.
+        if (log != null) {
+            log.agregar(new Evento(System.currentTimeMillis(), usuarioDe(usuarioOperacion), cud, entidad, id, antes, despues));
+        }
+    }
+
+    /**
+     * Usuario que se registra: el de la operación, si no el del hilo (petición del servidor), si no el de la sesión.
+     */
+    static String usuarioDe(String usuarioOperacion) {
+        if (usuarioOperacion != null) {
+            return usuarioOperacion;
+        }
+        String delHilo = usuarioDelHilo.get();
+        return delHilo != null ? delHilo : usuario;
+    }
+
+    /**
+     * Agrega el evento al búfer. Si está lleno, reintenta GIROS veces con espera activa; después, fuera del
+     * hilo de eventos de Swing, se detiene por intervalos crecientes hasta maxEsperaNanos. Si no hay lugar,
+     * el evento se descarta.
+     */
+    void agregar(Evento evento) {
+        registrados.increment();
+        if (!ring.offer(evento) && !reintentar(evento)) {
+            descartados.increment();
+            if (descartados.sum() % 1000 == 1) { // Se avisa una vez cada mil, para no inundar la consola.
+                System.err.println("Registro de auditoría lleno: se descartaron " + descartados.sum()
+                        + " eventos (último: " + evento.cud + " " + evento.entidad + " " + evento.id + ")");
+            }
+            return;
+        }
+        if (esperando) {
+            LockSupport.unpark(escritor);
+        }
+    }
+
+    private boolean reintentar(Evento evento) {
+        for (int i = 0; i < GIROS; i++) {
+            LockSupport.unpark(escritor);
+            Thread.onSpinWait();
+            if (ring.offer(evento)) {
+                return true;
+            }
+        }
+        if (EventQueue.isDispatchThread()) {
+            return false; // La interfaz nunca espera al escritor.
+        }
+        long limite = System.nanoTime() + maxEsperaNanos;
+        long pausa = TimeUnit.MICROSECONDS.toNanos(10);
+        while (System.nanoTime() < limite) {
+            LockSupport.unpark(escritor);
+            LockSupport.parkNanos(Math.min(pausa, limite - System.nanoTime()));
+            if (ring.offer(evento)) {
+                return true;
+            }
+            pausa = Math.min(pausa * 2, PAUSA_MAX_NANOS);
+        }
+        return false;
+    }
+
+    /**
+     * Hilo escritor: retira los eventos disponibles (hasta MAX_GRUPO), los copia al segmento y hace un
+     * solo fsync por grupo (group commit).
+     */
+    private void escribirGrupos() {
+        while (true) {
+            int n = 0;
+            Evento e;
+            try {
+                while (n < MAX_GRUPO && (e = ring.poll()) != null) {
+                    segmentos.escribir(Json.write(e.toMap()).getBytes(StandardCharsets.UTF_8));
+                    n++;
+                }
+                if (n > 0) {
+                    segmentos.force();
+                    escrito = segmentos.getPosicion();
+                    escritos.add(n);
+                    grupos.increment();
+                    continue;
+                }
+            } catch (IOException ex) {
+                System.err.println("Error al escribir el registro de auditoría: " + ex.getMessage());
+            }
+            if (!activo && ring.size() == 0) {
+                return;
+            }
+            esperando = true;
+            if (ring.size() == 0) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(5));
+            }
+            esperando = false;
+        }
+    }
+
+    private void iniciarReenvio(long periodoMs) {
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ale2025-auditoria-envio");
+            t.setDaemon(true);
+            return t;
+        });
+        timer.scheduleWithFixedDelay(() -> {
+            try {
+                reenviar();
+            } catch (SQLException e) {
+                if (!WriteJournal.esErrorDeConexion(e)) {
+                    System.err.println("Error al reenviar el registro de auditoría: " + e.getMessage());
+                }
+            } catch (IOException e) {
+                System.err.println("Error al leer el registro de auditoría: " + e.getMessage());
+            }
+        }, periodoMs, periodoMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Reenvía a la tabla Auditoria los registros escritos desde el último reenvío, en lotes. Los segmentos
+     * que quedan completamente reenviados (y ya no se escriben) se eliminan.
+     *
+     * @return Cantidad de registros reenviados.
+     * @throws SQLException Si falla un lote. El lote en curso se revierte y se reintenta en el próximo reenvío.
+     */
+    synchronized long reenviar() throws SQLException, IOException {
+        long hasta = escrito;
+        long total = 0;
+        while (enviado != hasta) {
+            int seg = AuditSegments.segmento(enviado);
+            int desde = AuditSegments.desplazamiento(enviado);
+            boolean actual = seg == AuditSegments.segmento(hasta);
+            ArrayList<Object[]> registros = new ArrayList<>();
+            int fin = AuditSegments.leer(directorio, seg, desde,
+                    actual ? AuditSegments.desplazamiento(hasta) : Integer.MAX_VALUE,
+                    (pos, datos) -> registros.add(new Object[]{pos, datos}));
+            for (int i = 0; i < registros.size(); i += LOTE_ENVIO) {
+                List<Object[]> lote = registros.subList(i, Math.min(i + LOTE_ENVIO, registros.size()));
+                insertarLote(lote);
+                total += lote.size();
+                int n = i + lote.size();
+                guardarEnviado(n == registros.size() ? AuditSegments.posicion(seg, fin) : siguiente(registros.get(n - 1)));
+            }
+            if (actual) {
+                guardarEnviado(AuditSegments.posicion(seg, fin));
+                break;
+            }
+            guardarEnviado(AuditSegments.posicion(seg + 1, 0)); // Segmento completo: se pasa al siguiente.
+            try {
+                Files.deleteIfExists(AuditSegments.archivo(directorio, seg));
+            } catch (IOException e) {
+                // En algunos sistemas un archivo aún mapeado no puede borrarse; se reintenta en otro reenvío.
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Posición siguiente a un registro leído.
+     */
+    private static long siguiente(Object[] registro) {
+        long pos = (Long) registro[0];
+        return pos + AuditSegments.ENCABEZADO + ((byte[]) registro[1]).length;
+    }
+
+    private void insertarLote(List<Object[]> lote) throws SQLException {
+        Connection connection = null;
+        PreparedStatement ps = null;
+        try {
+            connection = ConnectionManager.getInstance().connect();
+            connection.setAutoCommit(false); // Una transacción por lote.
+            ps = connection.prepareStatement(
+                    "INSERT INTO Auditoria (fecha, usuario, operacion, entidad, entidadId, antes, despues, " +
+                            "origen, segmento, posicion) " +
+                            "SELECT ?, ?, ?, ?, ?, ?, ?, ?, ?, ? " +
+                            "WHERE NOT EXISTS (SELECT 1 FROM Auditoria WHERE origen = ? AND segmento = ? AND posicion = ?)");
+            for (Object[] registro : lote) {
+                long pos = (Long) registro[0];
+                Map<String, Object> m = Json.parseObject(new String((byte[]) registro[1], StandardCharsets.UTF_8));
+                ps.setTimestamp(1, new Timestamp(((Number) m.get("fecha")).longValue()));
+                ps.setString(2, (String) m.get("usuario"));
+                ps.setString(3, (String) m.get("operacion"));
+                ps.setString(4, (String) m.get("entidad"));
+                ps.setInt(5, ((Number) m.get("id")).intValue());
+                ps.setString(6, m.get("antes") == null ? null : Json.write(m.get("antes")));
+                ps.setString(7, m.get("despues") == null ? null : Json.write(m.get("despues")));
+                ps.setString(8, origen);
+                ps.setInt(9, AuditSegments.segmento(pos));
+                ps.setInt(10, AuditSegments.desplazamiento(pos));
+                ps.setString(11, origen);
+                ps.setInt(12, AuditSegments.segmento(pos));
+                ps.setInt(13, AuditSegments.desplazamiento(pos));
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            connection.commit();
+            enviados.add(lote.size());
+        } catch (SQLException ex) {
+            if (connection != null) {
+                try {
+                    connection.rollback();
+                } catch (SQLException e) {
+                    System.err.println("Error al revertir el lote en insertarLote (AuditLog): " + e.getMessage());
+                }
+            }
+            throw new SQLException("Error al reenviar la auditoría: " + ex.getMessage(), ex);
+        } finally {
+            if (ps != null) {
+                try {
+                    ps.close();
+                } catch (SQLException e) {
+                    System.err.println("Error al cerrar PreparedStatement en insertarLote (AuditLog): " + e.getMessage());
+                }
+            }
+            if (connection != null) {
+                try {
+                    connection.setAutoCommit(true);
+                    connection.close(); // Devolver la conexión al grupo.
+                } catch (SQLException e) {
+                    System.err.println("Error al liberar la conexión en insertarLote (AuditLog): " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Detiene el escritor después de vaciar el búfer y fuerza los segmentos al disco.
+     */
+    void close() {
+        activo = false;
+        LockSupport.unpark(escritor);
+        try {
+            escritor.join(TimeUnit.SECONDS.toMillis(5));
+            segmentos.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            System.err.println("Error al cerrar el registro de auditoría: " + e.getMessage());
+        }
+    }
+
+    private long leerEnviado() throws IOException {
+        Path archivo = directorio.resolve("enviado");
+        if (Files.exists(archivo)) {
+            String[] partes = Files.readString(archivo, StandardCharsets.UTF_8).trim().split(" ");
+            return AuditSegments.posicion(Integer.parseInt(partes[0]), Integer.parseInt(partes[1]));
+        }
+        List<Integer> existentes = AuditSegments.listar(directorio);
+        return AuditSegments.posicion(existentes.isEmpty() ? 1 : existentes.get(0), 0);
+    }
+
+    private void guardarEnviado(long posicion) throws IOException {
+        enviado = posicion;
+        Files.writeString(directorio.resolve("enviado"),
+                AuditSegments.segmento(posicion) + " " + AuditSegments.desplazamiento(posicion), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Identificador de esta terminal en la tabla Auditoria (se crea la primera vez).
+     */
+    private static String leerOrigen(Path directorio) throws IOException {
+        Path archivo = directorio.resolve("origen");
+        if (Files.exists(archivo)) {
+            return Files.readString(archivo, StandardCharsets.UTF_8).trim();
+        }
+        String id = UUID.randomUUID().toString();
+        Files.writeString(archivo, id, StandardCharsets.UTF_8);
+        return id;
+    }
+
+    public long getRegistrados() {
+        return registrados.sum();
+    }
+
+    public long getEscritos() {
+        return escritos.sum();
+    }
+
+    public long getEnviados() {
+        return enviados.sum();
+    }
+
+    public long getDescartados() {
+        return descartados.sum();
+    }
+
+    /**
+     * @return Promedio de eventos por fsync (cuánto agrupa el escritor).
+     */
+    public double getEventosPorGrupo() {
+        long g = grupos.sum();
+        return g == 0 ? 0 : (double) escritos.sum() / g;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("registrados=%d, escritos=%d, enviados=%d, descartados=%d, en búfer=%d, %.1f eventos/fsync",
+                getRegistrados(), getEscritos(), getEnviados(), getDescartados(), ring.size(), getEventosPorGrupo());
+    }
+
+    /**
+     * Un evento de auditoría. Los valores antes/después son copias tomadas al registrar.
+     */
+    static final class Evento {
+        private final long fecha;
+        private final String usuario;
+        private final CUD cud;
+        private final String entidad;
+        private final int id;
+        private final Map<String, Object> antes;
+        private final Map<String, Object> despues;
+
+        Evento(long fecha, String usuario, CUD cud, String entidad, int id, Map<String, Object> antes,
+               Map<String, Object> despues) {
+            this.fecha = fecha;
+            this.usuario = usuario;
+            this.cud = cud;
+            this.entidad = entidad;
+            this.id = id;
+            this.antes = antes;
+            this.despues = despues;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("fecha", fecha);
+            m.put("usuario", usuario);
+            m.put("operacion", cud.name());
+            m.put("entidad", entidad);
+            m.put("id", id);
+            m.put("antes", antes);
+            m.put("despues", despues);
+            return m;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package ale2025.persistencia;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Búfer circular sin bloqueos para varios productores y un único consumidor.
+ *
+ * Cada productor reserva una posición con compareAndSet sobre el contador de escritura y luego publica
+ * el elemento en esa celda; el consumidor lee las celdas en orden y las vacía. Una celda reservada pero
+ * aún no publicada se ve como vacía, por lo que el consumidor espera a que se publique antes de seguir
+ * (se conserva el orden de reserva).
+ *
+ * @param <T> Tipo de los elementos.
+ */
+final class AuditRing<T> {
+    private final AtomicReferenceArray<T> celdas;
+    private final int mascara;
+    private final AtomicLong escritura = new AtomicLong(); // Siguiente posición a reservar (productores).
+    private volatile long lectura; // Siguiente posición a leer (solo la escribe el consumidor).
+
+    /**
+     * @param capacidad Cantidad de celdas; se redondea a la siguiente potencia de 2.
+     */
+    AuditRing(int capacidad) {
+        int n = Integer.highestOneBit(Math.max(2, capacidad - 1)) << 1;
+        celdas = new AtomicReferenceArray<>(n);
+        mascara = n - 1;
+    }
+
+    /**
+     * Agrega un elemento sin bloquear.
+     *
+     * @return false si el búfer está lleno.
+     */
+    boolean offer(T elemento) {
+        long pos;
+        do {
+            pos = escritura.get();
+            if (pos - lectura >= celdas.length()) {
+                return false;
+            }
+        } while (!escritura.compareAndSet(pos, pos + 1));
+        celdas.set((int) (pos & mascara), elemento); // Publica el elemento (escritura volátil).
+        return true;
+    }
+
+    /**
+     * Retira el siguiente elemento. Solo debe llamarlo el hilo consumidor.
+     *
+     * @return El elemento, o null si no hay ninguno publicado.
+     */
+    T poll() {
+        long pos = lectura;
+        int i = (int) (pos & mascara);
+        T elemento = celdas.get(i);
+        if (elemento == null) {
+            return null; // Vacío, o la celda está reservada y aún no se publicó.
+        }
+        celdas.set(i, null);
+        lectura = pos + 1; // Libera la celda para los productores.
+        return elemento;
+    }
+
+    /**
+     * @return Elementos reservados que el consumidor aún no retiró (aproximado).
+     */
+    int size() {
+        return (int) Math.max(0, escritura.get() - lectura);
+    }
+
+    int capacity() {
+        return celdas.length();
+    }
+}
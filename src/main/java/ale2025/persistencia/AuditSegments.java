@@ -0,0 +1,192 @@
+package ale2025.persistencia;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Archivos segmentados y mapeados en memoria del registro de auditoría.
+ *
+ * Cada segmento (auditoria-000001.seg, auditoria-000002.seg, ...) tiene un tamaño fijo y se mapea
+ * completo con FileChannel.map; los registros se copian al mapeo y {@link #force()} los lleva al disco
+ * (un fsync por grupo). Formato de cada registro: longitud (int), CRC32 (int) y los bytes. Una longitud
+ * 0 marca el final de los datos (el resto del archivo está en ceros). Al abrir, el último segmento se
+ * recorre hasta el primer registro vacío o con CRC inválido (escrito a medias), y se continúa desde ahí.
+ *
+ * La posición de un registro se codifica en un long: número de segmento en los 32 bits altos y
+ * desplazamiento dentro del segmento en los bajos.
+ */
+final class AuditSegments {
+    static final int ENCABEZADO = 8; // longitud + CRC32
+
+    private final Path directorio;
+    private final int tamano;
+    private int segmento;
+    private FileChannel canal;
+    private MappedByteBuffer mapa;
+    private int inicioSinForzar; // Primer byte escrito después del último force().
+
+    /**
+     * @param tamano Tamaño de cada segmento en bytes.
+     */
+    AuditSegments(Path directorio, int tamano) throws IOException {
+        this.directorio = directorio;
+        this.tamano = tamano;
+        Files.createDirectories(directorio);
+        List<Integer> existentes = listar(directorio);
+        if (existentes.isEmpty()) {
+            abrirSegmento(1);
+        } else {
+            abrirSegmento(existentes.get(existentes.size() - 1));
+            mapa.position(recorrer(mapa, 0, mapa.capacity(), null)); // Continúa tras el último registro válido.
+        }
+        inicioSinForzar = mapa.position();
+    }
+
+    /**
+     * Copia un registro al segmento actual; si no cabe, cierra el segmento y abre el siguiente.
+     *
+     * @return La posición del registro.
+     */
+    long escribir(byte[] datos) throws IOException {
+        if (datos.length + ENCABEZADO > tamano - ENCABEZADO) {
+            throw new IOException("Registro de auditoría demasiado grande: " + datos.length + " bytes");
+        }
+        if (mapa.remaining() < datos.length + ENCABEZADO * 2) { // Deja lugar para la marca de fin (ceros).
+            force();
+            abrirSegmento(segmento + 1);
+            inicioSinForzar = 0;
+        }
+        int pos = mapa.position();
+        CRC32 crc = new CRC32();
+        crc.update(datos);
+        mapa.putInt(datos.length);
+        mapa.putInt((int) crc.getValue());
+        mapa.put(datos);
+        return posicion(segmento, pos);
+    }
+
+    /**
+     * Lleva al disco los registros escritos desde el último force() (solo ese rango de páginas).
+     */
+    void force() {
+        int fin = mapa.position();
+        if (fin > inicioSinForzar) {
+            mapa.force(inicioSinForzar, fin - inicioSinForzar);
+            inicioSinForzar = fin;
+        }
+    }
+
+    /**
+     * @return Posición siguiente al último registro escrito.
+     */
+    long getPosicion() {
+        return posicion(segmento, mapa.position());
+    }
+
+    void close() throws IOException {
+        force();
+        canal.close();
+    }
+
+    private void abrirSegmento(int numero) throws IOException {
+        if (canal != null) {
+            canal.close(); // El mapeo anterior sigue válido hasta que se recolecte; ya fue forzado.
+        }
+        segmento = numero;
+        canal = FileChannel.open(archivo(directorio, numero), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        mapa = canal.map(FileChannel.MapMode.READ_WRITE, 0, tamano);
+    }
+
+    /**
+     * Lee los registros de un segmento entre dos desplazamientos.
+     *
+     * @param lector Recibe la posición y los bytes de cada registro (puede ser null).
+     * @return El desplazamiento siguiente al último registro válido leído.
+     */
+    static int leer(Path directorio, int numero, int desde, int hasta, BiConsumer<Long, byte[]> lector)
+            throws IOException {
+        try (FileChannel ch = FileChannel.open(archivo(directorio, numero), StandardOpenOption.READ)) {
+            int limite = (int) Math.min(hasta, ch.size());
+            ByteBuffer buf = ByteBuffer.allocate(Math.max(0, limite - desde));
+            while (buf.hasRemaining() && ch.read(buf, desde + buf.position()) > 0) {
+                // Lee hasta llenar el búfer.
+            }
+            buf.flip();
+            return desde + recorrer(buf, 0, buf.limit(), lector == null ? null
+                    : (pos, datos) -> lector.accept(posicion(numero, desde + (int) (long) pos), datos));
+        }
+    }
+
+    /**
+     * Recorre los registros de un búfer hasta el primero vacío, incompleto o con CRC inválido.
+     *
+     * @return El desplazamiento siguiente al último registro válido.
+     */
+    private static int recorrer(ByteBuffer buf, int desde, int hasta, BiConsumer<Long, byte[]> lector) {
+        int pos = desde;
+        CRC32 crc = new CRC32();
+        while (pos + ENCABEZADO <= hasta) {
+            int largo = buf.getInt(pos);
+            if (largo <= 0 || pos + ENCABEZADO + largo > hasta) {
+                break;
+            }
+            byte[] datos = new byte[largo];
+            buf.get(pos + ENCABEZADO, datos);
+            crc.reset();
+            crc.update(datos);
+            if ((int) crc.getValue() != buf.getInt(pos + 4)) {
+                break; // Registro escrito a medias antes de una caída.
+            }
+            if (lector != null) {
+                lector.accept((long) pos, datos);
+            }
+            pos += ENCABEZADO + largo;
+        }
+        return pos;
+    }
+
+    /**
+     * @return Los números de los segmentos existentes, en orden.
+     */
+    static List<Integer> listar(Path directorio) throws IOException {
+        ArrayList<Integer> numeros = new ArrayList<>();
+        if (!Files.isDirectory(directorio)) {
+            return numeros;
+        }
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            archivos.map(p -> p.getFileName().toString())
+                    .filter(n -> n.startsWith("auditoria-") && n.endsWith(".seg"))
+                    .map(n -> Integer.parseInt(n.substring("auditoria-".length(), n.length() - ".seg".length())))
+                    .sorted()
+                    .forEach(numeros::add);
+        }
+        return numeros;
+    }
+
+    static Path archivo(Path directorio, int numero) {
+        return directorio.resolve(String.format("auditoria-%06d.seg", numero));
+    }
+
+    static long posicion(int segmento, int desplazamiento) {
+        return ((long) segmento << 32) | (desplazamiento & 0xFFFFFFFFL);
+    }
+
+    static int segmento(long posicion) {
+        return (int) (posicion >>> 32);
+    }
+
+    static int desplazamiento(long posicion) {
+        return (int) posicion;
+    }
+}
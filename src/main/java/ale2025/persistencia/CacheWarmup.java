@@ -0,0 +1,298 @@
+package ale2025.persistencia;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import ale2025.dominio.Paciente;
+
+/**
+ * Precarga de las cachés del cliente ({@link ClientCache}) al iniciar sesión.
+ *
+ * {@link #iniciar()} se llama antes de verificar la contraseña y lanza, cada una en su hilo virtual, la
+ * carga de las especialidades, los médicos, las citas del día y los pacientes de esas citas; cuando la
+ * autenticación termina, {@link #usuarioAutenticado(String)} agrega los pacientes recientes del usuario.
+ * Así, el primer formulario que se abre encuentra sus datos en memoria. Contra el servidor HTTP
+ * (ale2025.api.url) se omiten los pacientes del día y los recientes, que el servidor no expone.
+ *
+ * La precarga tiene un presupuesto de tiempo (ale2025.warmup.budgetMs, 3000 por defecto): las tareas que
+ * no empezaron antes del límite se omiten y las que no terminaron figuran como VENCIDA en el resultado.
+ * Las tareas en curso no se interrumpen, porque interrumpir un hilo bloqueado en el socket del driver
+ * cerraría la conexión del pool; si terminan tarde, su resultado igual queda en la caché. Los
+ * formularios nunca esperan a la precarga: si un dato aún no está, lo consultan como siempre.
+ *
+ * Cada tarea se publica como evento JFR ({@link CacheWarmupEvent}) y en {@link DaoMetrics}
+ * ("CacheWarmup.tarea" y "CacheWarmup.total"), y el resumen se escribe en la salida estándar.
+ * Se deshabilita con ale2025.warmup.enabled=false.
+ */
+public final class CacheWarmup {
+    private static final int MAX_RECIENTES = 50;
+    private static volatile CacheWarmup ultima;
+
+    /** Cómo terminó una tarea. */
+    public enum Estado { COMPLETADA, FALLIDA, VENCIDA }
+
+    /** Carga un dato en la caché y retorna la cantidad de filas cargadas. */
+    @FunctionalInterface
+    interface Carga {
+        int cargar() throws SQLException;
+    }
+
+    private final ClientCache cache;
+    private final long inicio;
+    private final long limite; // System.nanoTime() en que vence el presupuesto.
+    private final ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor();
+    private final List<Tarea> tareas = new ArrayList<>(); // Protegida por 'this'.
+    private final List<String> enCurso = new ArrayList<>(); // Tareas lanzadas sin terminar; protegida por 'this'.
+    private boolean etapaUsuario; // Ya se lanzó (o se descartó) la etapa que depende del usuario.
+    private boolean informada; // Ya se escribió el resumen.
+
+    CacheWarmup(ClientCache cache, long presupuestoMs) {
+        this.cache = cache;
+        this.inicio = System.nanoTime();
+        this.limite = inicio + TimeUnit.MILLISECONDS.toNanos(presupuestoMs);
+    }
+
+    /**
+     * Inicia la precarga de los datos que no dependen del usuario, según las propiedades del sistema.
+     *
+     * @return La precarga en curso (sin tareas si está deshabilitada).
+     */
+    public static CacheWarmup iniciar() {
+        boolean habilitada = Boolean.parseBoolean(System.getProperty("ale2025.warmup.enabled", "true"));
+        CacheWarmup warmup = new CacheWarmup(ClientCache.getInstance(),
+                habilitada ? Long.getLong("ale2025.warmup.budgetMs", 3000) : 0);
+        if (habilitada) {
+            String hoy = LocalDate.now().toString();
+            warmup.lanzar("especialidades", () -> warmup.cache.getEspecialidades(EspecialidadDAO.getInstance()).size());
+            warmup.lanzar("medicos", () -> warmup.cache.getMedicos(MedicoDAO.getInstance()).size());
+            warmup.lanzar("citas del día", () -> warmup.cache.precargarCitas(hoy, CitaDAO.getInstance()));
+            if (!ApiClient.isConfigured()) {
+                warmup.lanzar("pacientes del día", () -> warmup.pacientes(PacienteDAO.getInstance().searchByFechaCita(hoy)));
+            }
+            Thread.ofVirtual().name("cache-warmup-limite").start(warmup::vigilarLimite);
+        } else {
+            synchronized (warmup) {
+                warmup.etapaUsuario = true; // Sin tareas ni resumen.
+                warmup.informada = true;
+            }
+        }
+        ultima = warmup;
+        return warmup;
+    }
+
+    /**
+     * @return La última precarga iniciada, o null si no hubo ninguna.
+     */
+    public static CacheWarmup getUltima() {
+        return ultima;
+    }
+
+    /**
+     * Lanza la etapa que depende del usuario. Se llama con null si la autenticación falló.
+     */
+    public synchronized void usuarioAutenticado(String usuario) {
+        if (etapaUsuario) {
+            return; // Ya se lanzó, o la precarga está deshabilitada.
+        }
+        if (usuario != null && !ApiClient.isConfigured()) {
+            lanzar("pacientes recientes", () -> pacientes(PacienteDAO.getInstance().getRecientes(usuario, MAX_RECIENTES)));
+        }
+        etapaUsuario = true;
+        if (enCurso.isEmpty()) {
+            informar();
+        }
+    }
+
+    /**
+     * Espera a que terminen las tareas lanzadas, como máximo hasta el límite del presupuesto.
+     *
+     * @return El resultado hasta el momento.
+     */
+    public synchronized Resultado esperar() throws InterruptedException {
+        long restante;
+        while (!enCurso.isEmpty() && (restante = limite - System.nanoTime()) > 0) {
+            TimeUnit.NANOSECONDS.timedWait(this, restante);
+        }
+        return getResultado();
+    }
+
+    /**
+     * @return Las tareas terminadas y las que siguen en curso (como VENCIDA si ya pasó el límite).
+     */
+    public synchronized Resultado getResultado() {
+        List<Tarea> todas = new ArrayList<>(tareas);
+        long fin = inicio;
+        for (Tarea t : tareas) {
+            fin = Math.max(fin, t.fin);
+        }
+        for (String nombre : enCurso) {
+            todas.add(new Tarea(nombre, 0, 0, 0, Estado.VENCIDA));
+        }
+        return new Resultado(todas, TimeUnit.NANOSECONDS.toMillis(fin - inicio), enCurso.isEmpty() && etapaUsuario);
+    }
+
+    private synchronized void lanzar(String nombre, Carga carga) {
+        if (System.nanoTime() >= limite) {
+            tareas.add(new Tarea(nombre, 0, 0, System.nanoTime(), Estado.VENCIDA)); // No alcanza el presupuesto.
+            return;
+        }
+        enCurso.add(nombre);
+        hilos.execute(() -> ejecutar(nombre, carga));
+    }
+
+    private void ejecutar(String nombre, Carga carga) {
+        CacheWarmupEvent evento = new CacheWarmupEvent();
+        evento.begin();
+        long t0 = System.nanoTime();
+        int filas = 0;
+        Estado estado;
+        try {
+            filas = carga.cargar();
+            estado = Estado.COMPLETADA;
+        } catch (Exception ex) {
+            estado = Estado.FALLIDA;
+            System.err.println("Precarga de caché: error en '" + nombre + "': " + ex.getMessage());
+        }
+        long fin = System.nanoTime();
+        if (estado == Estado.COMPLETADA && fin > limite) {
+            estado = Estado.VENCIDA; // Terminó tarde; el dato igual quedó en la caché.
+        }
+        evento.end();
+        if (evento.shouldCommit()) {
+            evento.task = nombre;
+            evento.rows = filas;
+            evento.state = estado.name();
+            evento.commit();
+        }
+        DaoMetrics.record("CacheWarmup." + nombre, fin - t0, 0, filas, estado == Estado.FALLIDA);
+        synchronized (this) {
+            tareas.add(new Tarea(nombre, filas, TimeUnit.NANOSECONDS.toMillis(fin - t0), fin, estado));
+            enCurso.remove(nombre);
+            notifyAll();
+            if (enCurso.isEmpty() && etapaUsuario) {
+                informar();
+            }
+        }
+    }
+
+    private int pacientes(List<Paciente> leidos) {
+        cache.putPacientes(leidos);
+        return leidos.size();
+    }
+
+    private void vigilarLimite() {
+        try {
+            esperar();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            informar(); // Al vencer el presupuesto se informa aunque falten tareas o no haya iniciado sesión.
+        }
+    }
+
+    // Llamado con el monitor tomado.
+    private void informar() {
+        if (informada) {
+            return;
+        }
+        informada = true;
+        Resultado resultado = getResultado();
+        int filas = 0;
+        for (Tarea t : resultado.getTareas()) {
+            filas += t.getFilas();
+        }
+        DaoMetrics.record("CacheWarmup.total", TimeUnit.MILLISECONDS.toNanos(resultado.getDuracionMs()), 0, filas,
+                !resultado.isCompleta());
+        System.out.println("Precarga de caché: " + resultado);
+        hilos.shutdown(); // Las tareas en curso siguen hasta terminar.
+    }
+
+    /**
+     * Medición de una tarea de la precarga.
+     */
+    public static final class Tarea {
+        private final String nombre;
+        private final int filas;
+        private final long duracionMs;
+        private final long fin; // System.nanoTime() al terminar.
+        private final Estado estado;
+
+        Tarea(String nombre, int filas, long duracionMs, long fin, Estado estado) {
+            this.nombre = nombre;
+            this.filas = filas;
+            this.duracionMs = duracionMs;
+            this.fin = fin;
+            this.estado = estado;
+        }
+
+        public String getNombre() {
+            return nombre;
+        }
+
+        public int getFilas() {
+            return filas;
+        }
+
+        public long getDuracionMs() {
+            return duracionMs;
+        }
+
+        public Estado getEstado() {
+            return estado;
+        }
+
+        @Override
+        public String toString() {
+            return nombre + " " + filas + " filas en " + duracionMs + " ms" + (estado == Estado.COMPLETADA ? "" : " (" + estado + ")");
+        }
+    }
+
+    /**
+     * Resultado de la precarga: las tareas y el tiempo desde el inicio hasta que terminó la última.
+     */
+    public static final class Resultado {
+        private final List<Tarea> tareas;
+        private final long duracionMs;
+        private final boolean completa;
+
+        Resultado(List<Tarea> tareas, long duracionMs, boolean completa) {
+            this.tareas = Collections.unmodifiableList(tareas);
+            this.duracionMs = duracionMs;
+            this.completa = completa;
+        }
+
+        public List<Tarea> getTareas() {
+            return tareas;
+        }
+
+        public long getDuracionMs() {
+            return duracionMs;
+        }
+
+        /**
+         * @return true si terminaron todas las tareas, incluida la etapa del usuario.
+         */
+        public boolean isCompleta() {
+            return completa;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(tareas.size()).append(" tareas en ").append(duracionMs).append(" ms");
+            String sep = " (";
+            for (Tarea t : tareas) {
+                sb.append(sep).append(t);
+                sep = "; ";
+            }
+            return sb.append(tareas.isEmpty() ? "" : ")").toString();
+        }
+    }
+}
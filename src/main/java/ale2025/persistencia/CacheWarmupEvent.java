@@ -0,0 +1,29 @@
+package ale2025.persistencia;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento de Java Flight Recorder emitido por cada tarea de la precarga de cachés al iniciar sesión.
+ * La duración del evento es la de la tarea.
+ */
+@Name("ale2025.CacheWarmup")
+@Label("Precarga de caché")
+@Category({"ALE2025", "Persistencia"})
+@Description("Tarea de la precarga de cachés del cliente, con las filas cargadas y cómo terminó")
+@StackTrace(false)
+class CacheWarmupEvent extends Event {
+    @Label("Tarea")
+    String task;
+
+    @Label("Filas")
+    int rows;
+
+    @Label("Estado")
+    @Description("COMPLETADA, FALLIDA o CANCELADA (no terminó dentro del presupuesto de tiempo)")
+    String state;
+}
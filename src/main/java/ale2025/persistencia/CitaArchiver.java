@@ -0,0 +1,308 @@
+package ale2025.persistencia;
+
+import ale2025.dominio.Cita;
+import ale2025.utils.CUD;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Archivo de citas históricas: mueve las citas anteriores al horizonte (por defecto, dos años) de la tabla
+ * Citas a CitasHistorico, para que las consultas del día a día recorran solo las citas recientes.
+ *
+ * Cada lote se mueve con una sola sentencia, que es atómica:
+ * <pre>
+ * DELETE TOP (n) FROM Citas OUTPUT deleted.* INTO CitasHistorico OUTPUT deleted.* WHERE fechaCita &lt; ?
+ * </pre>
+ * El segundo OUTPUT devuelve las citas movidas, que se registran en la auditoría como modificaciones
+ * (de la tabla Citas a CitasHistorico) una vez confirmado el lote.
+ * Los lotes son pequeños (por defecto 1000 filas, por debajo de las 5000 a partir de las que SQL Server
+ * escala los bloqueos de fila a la tabla completa) y entre uno y otro se hace una pausa, para no bloquear a
+ * los usuarios que están agendando citas. Si el proceso se interrumpe, las citas ya movidas quedan en el
+ * histórico y la siguiente ejecución continúa con las restantes.
+ *
+ * El límite del archivo se guarda en la base (tabla ArchivoCitas) y CitaDAO consulta el histórico solo
+ * cuando la fecha buscada es anterior a ese límite ({@link #getLimiteArchivo()}), sin depender del horizonte
+ * (ale2025.citas.horizonteDias) ni del reloj de cada cliente. Antes de mover la primera cita, el archivado
+ * guarda el límite nuevo y espera a que venza el que los clientes tienen en caché
+ * (ale2025.citas.limiteTtlSeconds, por defecto 60 segundos), para que ninguno deje de ver las citas movidas.
+ * Las citas archivadas son de solo lectura: no se pueden modificar ni eliminar, salvo las
+ * escrituras sin conexión sobre una cita que se archivó antes de reaplicarlas (ver WriteJournal).
+ */
+public class CitaArchiver {
+    /** Días de historia que se conservan en la tabla Citas. */
+    public static final int DEFAULT_HORIZONTE_DIAS = 730;
+    /** Filas por lote (cada lote es una sentencia). */
+    public static final int DEFAULT_LOTE = 1000;
+    /** Pausa entre lotes, en milisegundos. */
+    public static final long DEFAULT_PAUSA_MS = 200;
+
+    private static final int HORIZONTE_DIAS = Integer.getInteger("ale2025.citas.horizonteDias", DEFAULT_HORIZONTE_DIAS);
+    private static final long LIMITE_VIGENCIA_MS =
+            TimeUnit.SECONDS.toMillis(Long.getLong("ale2025.citas.limiteTtlSeconds", 60));
+
+    private static volatile Limite limite; // Último límite leído de ArchivoCitas, o null para volver a leerlo.
+
+    private final ConnectionManager conn; // Objeto para gestionar la conexión con la base de datos.
+    private final int lote;
+    private final long pausaMs;
+
+    public CitaArchiver() {
+        this(DEFAULT_LOTE, DEFAULT_PAUSA_MS);
+    }
+
+    /**
+     * @param lote    Filas que se mueven en cada sentencia.
+     * @param pausaMs Pausa entre lotes, en milisegundos (0 para no hacer pausa).
+     */
+    public CitaArchiver(int lote, long pausaMs) {
+        if (lote <= 0) {
+            throw new IllegalArgumentException("El tamaño del lote debe ser mayor que 0");
+        }
+        conn = ConnectionManager.getInstance();
+        this.lote = lote;
+        this.pausaMs = pausaMs;
+    }
+
+    /**
+     * Fecha hasta la que archiva este proceso, según su horizonte (ale2025.citas.horizonteDias).
+     */
+    public static LocalDate getFechaLimite() {
+        return LocalDate.now().minusDays(HORIZONTE_DIAS);
+    }
+
+    /**
+     * Límite del archivo guardado en la base: las citas anteriores pueden estar en el histórico y las demás
+     * están en la tabla Citas. Se lee de la base como mucho una vez cada ale2025.citas.limiteTtlSeconds.
+     *
+     * @throws SQLException Si ocurre un error al leer el límite.
+     */
+    static LocalDate getLimiteArchivo() throws SQLException {
+        Limite actual = limite;
+        if (actual == null || System.currentTimeMillis() - actual.leido > LIMITE_VIGENCIA_MS) {
+            actual = new Limite(leerLimite(), System.currentTimeMillis());
+            limite = actual;
+        }
+        return actual.fecha;
+    }
+
+    /**
+     * Mueve al histórico todas las citas anteriores a {@link #getFechaLimite()}.
+     * Si el límite avanza, primero espera a que los clientes dejen de usar el anterior (ver la clase).
+     *
+     * @return Un Resultado con la cantidad de citas movidas y de lotes.
+     * @throws SQLException Si ocurre un error al mover un lote. Ese lote no se mueve; los anteriores quedan
+     * en el histórico.
+     */
+    public Resultado archivar() throws SQLException {
+        LocalDate fecha = getFechaLimite();
+        if (registrarLimite(fecha)) {
+            try {
+                Thread.sleep(LIMITE_VIGENCIA_MS); // Los clientes vuelven a leer el límite antes de que se mueva nada.
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return new Resultado(); // No se movió ninguna cita.
+            }
+        }
+        return archivar(fecha);
+    }
+
+    /**
+     * Mueve al histórico las citas anteriores a la fecha indicada, sin esperar a los clientes.
+     */
+    Resultado archivar(LocalDate limite) throws SQLException {
+        registrarLimite(limite); // Siempre antes de mover: ninguna cita archivada queda fuera del límite.
+        Resultado res = new Resultado();
+        long inicio = System.nanoTime();
+        int movidas;
+        do {
+            movidas = moverLote(limite);
+            res.movidas += movidas;
+            res.lotes++;
+            if (movidas == lote && pausaMs > 0) {
+                try {
+                    Thread.sleep(pausaMs); // Deja pasar a las transacciones de los usuarios.
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break; // Se detiene entre lotes: lo ya movido queda confirmado.
+                }
+            }
+        } while (movidas == lote);
+        res.segundos = (System.nanoTime() - inicio) / 1_000_000_000.0;
+        return res;
+    }
+
+    // Mueve un lote en una sola sentencia: la eliminación y la copia al histórico son atómicas.
+    private int moverLote(LocalDate limite) throws SQLException {
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        ArrayList<Cita> movidas = new ArrayList<>();
+        DaoCall call = DaoMetrics.start("CitaArchiver.moverLote"); // Medición de latencia, filas y errores.
+        try {
+            ps = call.prepareStatement(conn,
+                    "DELETE TOP (?) FROM Citas " +
+                            "OUTPUT deleted.id, deleted.pacienteId, deleted.medicoId, deleted.fechaCita, " +
+                            "deleted.costoConsulta, deleted.version " +
+                            "INTO CitasHistorico (id, pacienteId, medicoId, fechaCita, costoConsulta, version) " +
+                            "OUTPUT deleted.id, deleted.pacienteId, deleted.medicoId, deleted.fechaCita, " +
+                            "deleted.costoConsulta, deleted.version " +
+                            "WHERE fechaCita < ?"
+            );
+            ps.setInt(1, lote);
+            ps.setDate(2, Date.valueOf(limite));
+            rs = ps.executeQuery();
+            while (rs.next()) {
+                Cita cita = new Cita(rs.getInt(1), rs.getInt(2), rs.getInt(3), rs.getDate(4), rs.getDouble(5));
+                cita.setVersion(rs.getInt(6));
+                movidas.add(cita);
+            }
+            call.rows(movidas.size());
+        } catch (SQLException ex) {
+            call.error(); // Registrar el error en las métricas.
+            throw new SQLException("Error al archivar citas: " + ex.getMessage(), ex);
+        } finally {
+            if (rs != null) {
+                try {
+                    rs.close(); // Cerrar el conjunto de resultados para liberar recursos.
+                } catch (SQLException e) {
+                    System.err.println("Error al cerrar ResultSet en moverLote (CitaArchiver): " + e.getMessage());
+                }
+            }
+            if (ps != null) {
+                try {
+                    ps.close(); // Cerrar la sentencia preparada para liberar recursos.
+                } catch (SQLException e) {
+                    System.err.println("Error al cerrar PreparedStatement en moverLote (CitaArchiver): " + e.getMessage());
+                }
+            }
+            call.end(); // Registrar la medición de la llamada y liberar la conexión.
+        }
+        for (Cita cita : movidas) { // El lote ya se confirmó.
+            AuditLog.registrar(CUD.UPDATE, EntidadJson.CITAS.getNombre(), cita.getId(),
+                    conTabla(cita, "Citas"), conTabla(cita, "CitasHistorico"));
+        }
+        return movidas.size();
+    }
+
+    /**
+     * Guarda el límite en ArchivoCitas si es posterior al actual (el límite nunca retrocede: las citas ya
+     * archivadas siguen en el histórico).
+     *
+     * @return true si el límite avanzó.
+     */
+    private boolean registrarLimite(LocalDate fecha) throws SQLException {
+        PreparedStatement ps = null;
+        boolean avanzo = false;
+        DaoCall call = DaoMetrics.start("CitaArchiver.registrarLimite"); // Medición de latencia, filas y errores.
+        try {
+            ps = call.prepareStatement(conn,
+                    "MERGE ArchivoCitas WITH (HOLDLOCK) AS t " +
+                            "USING (SELECT 1 AS id) AS s ON t.id = s.id " +
+                            "WHEN MATCHED AND t.fechaLimite < ? THEN UPDATE SET fechaLimite = ? " +
+                            "WHEN NOT MATCHED THEN INSERT (id, fechaLimite) VALUES (1, ?);"
+            );
+            for (int i = 1; i <= 3; i++) {
+                ps.setDate(i, Date.valueOf(fecha));
+            }
+            avanzo = call.rows(ps.executeUpdate()) > 0;
+        } catch (SQLException ex) {
+            call.error(); // Registrar el error en las métricas.
+            throw new SQLException("Error al guardar el límite del archivo de citas: " + ex.getMessage(), ex);
+        } finally {
+            if (ps != null) {
+                try {
+                    ps.close(); // Cerrar la sentencia preparada para liberar recursos.
+                } catch (SQLException e) {
+                    System.err.println("Error al cerrar PreparedStatement en registrarLimite (CitaArchiver): " + e.getMessage());
+                }
+            }
+            call.end(); // Registrar la medición de la llamada y liberar la conexión.
+        }
+        if (avanzo) {
+            limite = null; // Este proceso usa el límite nuevo enseguida.
+        }
+        return avanzo;
+    }
+
+    // Límite guardado en la base; sin fila, no se archivó nada.
+    private static LocalDate leerLimite() throws SQLException {
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        DaoCall call = DaoMetrics.start("CitaArchiver.leerLimite"); // Medición de latencia, filas y errores.
+        try {
+            ps = call.prepareStatement(ConnectionManager.getInstance(),
+                    "SELECT fechaLimite FROM ArchivoCitas WHERE id = 1");
+            rs = ps.executeQuery();
+            LocalDate fecha = rs.next() ? rs.getDate(1).toLocalDate() : LocalDate.MIN;
+            call.rows(1);
+            return fecha;
+        } catch (SQLException ex) {
+            call.error(); // Registrar el error en las métricas.
+            throw new SQLException("Error al leer el límite del archivo de citas: " + ex.getMessage(), ex);
+        } finally {
+            if (rs != null) {
+                try {
+                    rs.close(); // Cerrar el conjunto de resultados para liberar recursos.
+                } catch (SQLException e) {
+                    System.err.println("Error al cerrar ResultSet en leerLimite (CitaArchiver): " + e.getMessage());
+                }
+            }
+            if (ps != null) {
+                try {
+                    ps.close(); // Cerrar la sentencia preparada para liberar recursos.
+                } catch (SQLException e) {
+                    System.err.println("Error al cerrar PreparedStatement en leerLimite (CitaArchiver): " + e.getMessage());
+                }
+            }
+            call.end(); // Registrar la medición de la llamada y liberar la conexión.
+        }
+    }
+
+    private static final class Limite {
+        private final LocalDate fecha;
+        private final long leido; // System.currentTimeMillis() de la lectura.
+
+        Limite(LocalDate fecha, long leido) {
+            this.fecha = fecha;
+            this.leido = leido;
+        }
+    }
+
+    private static Map<String, Object> conTabla(Cita cita, String tabla) {
+        Map<String, Object> m = EntidadJson.CITAS.toMap(cita);
+        m.put("tabla", tabla);
+        return m;
+    }
+
+    /**
+     * Resumen de un archivado.
+     */
+    public static class Resultado {
+        private long movidas;
+        private int lotes;
+        private double segundos;
+
+        public long getMovidas() {
+            return movidas;
+        }
+
+        public int getLotes() {
+            return lotes;
+        }
+
+        public double getSegundos() {
+            return segundos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("movidas=%d, lotes=%d, %.1f s", movidas, lotes, segundos);
+        }
+    }
+}
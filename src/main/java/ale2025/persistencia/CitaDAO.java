@@ -4,19 +4,36 @@ import java.sql.PreparedStatement; // Clase para ejecutar consultas SQL preparad
 import java.sql.ResultSet;          // Interfaz para representar el resultado de una consulta SQL.
 import java.sql.SQLException;       // Clase para manejar errores relacionados con la base de datos SQL.
 import java.sql.Date;               // Necesario para el tipo DATE de SQL
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.Flow; // Publicador de resultados con control de demanda.
 
 import ale2025.dominio.Cita; // Clase que representa la entidad de cita en el dominio de la aplicación.
+import ale2025.dominio.CitaCompacta; // Representación compacta para cargas masivas.
+import ale2025.utils.CUD; // Operación registrada en la auditoría.
 
-public class CitaDAO {
-    private ConnectionManager conn; // Objeto para gestionar la conexión con la base de datos.
-    private PreparedStatement ps;   // Objeto para ejecutar consultas SQL preparadas.
-    private ResultSet rs;           // Objeto para almacenar el resultado de una consulta SQL.
+public class CitaDAO implements Dao<Cita> {
+    private final ConnectionManager conn; // Objeto para gestionar la conexión con la base de datos.
+    private static CitaDAO instance; // Instancia compartida, ver getInstance().
 
     public CitaDAO() {
         conn = ConnectionManager.getInstance();
     }
 
+    /**
+     * Retorna la instancia compartida del DAO (no guarda estado entre llamadas, por lo que puede compartirse).
+     * Si la propiedad del sistema ale2025.api.url está definida, la instancia trabaja contra el servidor
+     * HTTP de la clínica en lugar de conectarse directamente a la base de datos.
+     */
+    public static synchronized CitaDAO getInstance() {
+        if (instance == null) {
+            instance = ApiClient.isConfigured() ? new RemoteDaos.Citas(ApiClient.getInstance()) : new CitaDAO();
+        }
+        return instance;
+    }
+
     /**
      * Crea una nueva cita en la base de datos.
      *
@@ -28,10 +45,12 @@ public class CitaDAO {
     public Cita create(Cita cita) throws SQLException {
         Cita res = null; // Variable para almacenar la cita creada que se retornará.
         PreparedStatement localPs = null; // Usar una variable local para el PreparedStatement del try
+        DaoCall call = DaoMetrics.start("CitaDAO.create"); // Medición de latencia, filas y errores.
+        int idGenerado = 0; // ID asignado por la base de datos.
         try {
             // Preparar la sentencia SQL para la inserción de una nueva cita.
             // Se especifica que se retornen las claves generadas automáticamente.
-            localPs = conn.connect().prepareStatement(
+            localPs = call.prepareStatement(conn,
                     "INSERT INTO " +
                             "Citas (pacienteId, medicoId, fechaCita, costoConsulta)" +
                             "VALUES (?, ?, ?, ?)",
@@ -43,7 +62,7 @@ public class CitaDAO {
             localPs.setDate(3, cita.getFechaCita()); // Asignar la fecha de la cita.
             localPs.setDouble(4, cita.getCostoConsulta()); // Asignar el costo de la consulta.
             // Ejecutar la sentencia de inserción y obtener el número de filas afectadas.
-            int affectedRows = localPs.executeUpdate();
+            int affectedRows = call.rows(localPs.executeUpdate());
             // Verificar si la inserción fue exitosa (al menos una fila afectada).
             if (affectedRows != 0) {
                 // Obtener las claves generadas automáticamente por la base de datos (en este caso, el ID).
@@ -51,15 +70,14 @@ public class CitaDAO {
                 // Mover el cursor al primer resultado (si existe).
                 if (generatedKeys.next()) {
                     // Obtener el ID generado. Generalmente la primera columna contiene la clave primaria.
-                    int idGenerado = generatedKeys.getInt(1);
-                    // Recuperar la cita completa utilizando el ID generado.
-                    res = getById(idGenerado);
+                    idGenerado = generatedKeys.getInt(1);
                 } else {
                     // Lanzar una excepción si la creación de la cita falló y no se obtuvo un ID.
                     throw new SQLException("Creating cita failed, no ID obtained.");
                 }
             }
         } catch (SQLException ex) {
+            call.error(); // Registrar el error en las métricas.
             // Capturar cualquier excepción SQL que ocurra durante el proceso.
             throw new SQLException("Error al crear la cita: " + ex.getMessage(), ex);
         } finally {
@@ -71,7 +89,14 @@ public class CitaDAO {
                     System.err.println("Error al cerrar PreparedStatement en create (CitaDAO): " + e.getMessage());
                 }
             }
-            conn.disconnect(); // Desconectar de la base de datos.
+            call.end(); // Registrar la medición de la llamada y liberar la conexión.
+        }
+        if (idGenerado != 0) {
+            // Recuperar la cita completa utilizando el ID generado, una vez liberada la conexión de la inserción.
+            res = getById(idGenerado);
+        }
+        if (res != null) {
+            AuditLog.registrar(CUD.CREATE, EntidadJson.CITAS, null, res); // Alta, con el ID definitivo.
         }
         return res; // Retornar la cita creada (con su ID asignado) o null si hubo un error.
     }
@@ -84,17 +109,23 @@ public class CitaDAO {
      * correctamente establecidos para realizar la actualización.
      * @return true si la actualización de la cita fue exitosa (al menos una fila afectada),
      * false en caso contrario.
+     * @throws VersionConflictException Si la cita fue modificada o eliminada desde que se leyó.
      * @throws SQLException Si ocurre un error al interactuar con la base de datos
      * durante la actualización de la cita.
      */
     public boolean update(Cita cita) throws SQLException {
         boolean res = false; // Variable para indicar si la actualización fue exitosa.
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        Map<String, Object> antes = null; // Valores que reemplazó la escritura, para la auditoría.
+        DaoCall call = DaoMetrics.start("CitaDAO.update"); // Medición de latencia, filas y errores.
         try {
             // Preparar la sentencia SQL para actualizar la información de una cita.
-            ps = conn.connect().prepareStatement(
+            ps = call.prepareStatement(conn,
                     "UPDATE Citas " +
-                            "SET pacienteId = ?, medicoId = ?, fechaCita = ?, costoConsulta = ? " +
-                            "WHERE id = ?"
+                            "SET pacienteId = ?, medicoId = ?, fechaCita = ?, costoConsulta = ?, version = version + 1 " +
+                            "OUTPUT deleted.id, deleted.pacienteId, deleted.medicoId, deleted.fechaCita, deleted.costoConsulta, deleted.version " + // La fila tal como estaba, en la misma sentencia.
+                            "WHERE id = ? AND version = ?"
             );
             // Establecer los valores de los parámetros en la sentencia preparada.
             ps.setInt(1, cita.getPacienteId()); // Asignar el nuevo ID del paciente.
@@ -102,15 +133,28 @@ public class CitaDAO {
             ps.setDate(3, cita.getFechaCita()); // Asignar la nueva fecha de la cita.
             ps.setDouble(4, cita.getCostoConsulta()); // Asignar el nuevo costo de la consulta.
             ps.setInt(5, cita.getId()); // Establecer la condición WHERE para identificar a la cita a actualizar por su ID.
+            ps.setInt(6, cita.getVersion()); // Solo si la fila sigue con la versión que se leyó.
             // Ejecutar la sentencia de actualización y verificar si se afectó alguna fila.
-            if (ps.executeUpdate() > 0) {
-                res = true; // Si executeUpdate() retorna un valor mayor que 0, significa que la actualización fue exitosa.
+            rs = ps.executeQuery(); // OUTPUT devuelve la fila antes de la escritura.
+            if (rs.next()) {
+                antes = EntidadJson.CITAS.toMap(map(rs));
+                res = true; // Se afectó la fila: la escritura fue exitosa.
+                cita.setVersion(cita.getVersion() + 1); // La fila quedó con la versión siguiente.
             }
+            call.rows(res ? 1 : 0); // Registrar las filas afectadas.
         } catch (SQLException ex) {
+            call.error(); // Registrar el error en las métricas.
             // Capturar cualquier excepción SQL que ocurra durante el proceso.
             throw new SQLException("Error al modificar la cita: " + ex.getMessage(), ex);
         } finally {
             // Bloque finally para asegurar que los recursos se liberen.
+            if (rs != null) {
+                try {
+                    rs.close(); // Cerrar el conjunto de resultados para liberar recursos.
+                } catch (SQLException e) {
+                    System.err.println("Error al cerrar ResultSet en update (CitaDAO): " + e.getMessage());
+                }
+            }
             if (ps != null) {
                 try {
                     ps.close(); // Cerrar la sentencia preparada para liberar recursos.
@@ -118,8 +162,12 @@ public class CitaDAO {
                     System.err.println("Error al cerrar PreparedStatement en update (CitaDAO): " + e.getMessage());
                 }
             }
-            conn.disconnect(); // Desconectar de la base de datos.
+            call.end(); // Registrar la medición de la llamada y liberar la conexión.
+        }
+        if (!res) {
+            throw conflicto(cita.getId()); // No se afectó ninguna fila: cambió o fue eliminada desde que se leyó.
         }
+        AuditLog.registrar(CUD.UPDATE, EntidadJson.CITAS, antes, cita); // Solo si la escritura se aplicó.
         return res; // Retornar el resultado de la operación de actualización.
     }
 
@@ -130,27 +178,46 @@ public class CitaDAO {
      * Se requiere que el objeto Cita tenga el campo 'id' correctamente establecido.
      * @return true si la eliminación de la cita fue exitosa (al menos una fila afectada),
      * false en caso contrario.
+     * @throws VersionConflictException Si la cita fue modificada o eliminada desde que se leyó.
      * @throws SQLException Si ocurre un error al interactuar con la base de datos
      * durante la eliminación de la cita.
      */
     public boolean delete(Cita cita) throws SQLException {
         boolean res = false; // Variable para indicar si la eliminación fue exitosa.
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        Map<String, Object> antes = null; // Valores que reemplazó la escritura, para la auditoría.
+        DaoCall call = DaoMetrics.start("CitaDAO.delete"); // Medición de latencia, filas y errores.
         try {
             // Preparar la sentencia SQL para eliminar una cita por su ID.
-            ps = conn.connect().prepareStatement(
-                    "DELETE FROM Citas WHERE id = ?"
+            ps = call.prepareStatement(conn,
+                    "DELETE FROM Citas " +
+                            "OUTPUT deleted.id, deleted.pacienteId, deleted.medicoId, deleted.fechaCita, deleted.costoConsulta, deleted.version " + // La fila tal como estaba, en la misma sentencia.
+                            "WHERE id = ? AND version = ?"
             );
             // Establecer el valor del parámetro en la sentencia preparada (el ID de la cita a eliminar).
             ps.setInt(1, cita.getId());
+            ps.setInt(2, cita.getVersion()); // Solo si la fila sigue con la versión que se leyó.
             // Ejecutar la sentencia de eliminación y verificar si se afectó alguna fila.
-            if (ps.executeUpdate() > 0) {
-                res = true; // Si executeUpdate() retorna un valor mayor que 0, significa que la eliminación fue exitosa.
+            rs = ps.executeQuery(); // OUTPUT devuelve la fila antes de la escritura.
+            if (rs.next()) {
+                antes = EntidadJson.CITAS.toMap(map(rs));
+                res = true; // Se afectó la fila: la escritura fue exitosa.
             }
+            call.rows(res ? 1 : 0); // Registrar las filas afectadas.
         } catch (SQLException ex) {
+            call.error(); // Registrar el error en las métricas.
             // Capturar cualquier excepción SQL que ocurra durante el proceso.
             throw new SQLException("Error al eliminar la cita: " + ex.getMessage(), ex);
         } finally {
             // Bloque finally para asegurar que los recursos se liberen.
+            if (rs != null) {
+                try {
+                    rs.close(); // Cerrar el conjunto de resultados para liberar recursos.
+                } catch (SQLException e) {
+                    System.err.println("Error al cerrar ResultSet en delete (CitaDAO): " + e.getMessage());
+                }
+            }
             if (ps != null) {
                 try {
                     ps.close(); // Cerrar la sentencia preparada para liberar recursos.
@@ -158,14 +225,19 @@ public class CitaDAO {
                     System.err.println("Error al cerrar PreparedStatement en delete (CitaDAO): " + e.getMessage());
                 }
             }
-            conn.disconnect(); // Desconectar de la base de datos.
+            call.end(); // Registrar la medición de la llamada y liberar la conexión.
+        }
+        if (!res) {
+            throw conflicto(cita.getId()); // No se afectó ninguna fila: cambió o fue eliminada desde que se leyó.
         }
+        AuditLog.registrar(CUD.DELETE, EntidadJson.CITAS, antes, cita); // Solo si la escritura se aplicó.
         return res; // Retornar el resultado de la operación de eliminación.
     }
 
     /**
      * Busca citas en la base de datos cuya fecha de cita coincida con la cadena de búsqueda proporcionada.
      * La búsqueda se realiza de forma parcial o por fecha exacta dependiendo de la implementación de la base de datos.
+     * Si la fecha es anterior al límite del archivo, también se buscan en el histórico (ver CitaArchiver).
      *
      * @param fechaCitaString La cadena de texto de la fecha a buscar (ej. "2024-12-31").
      * @return Un ArrayList de objetos Cita que coinciden con el criterio de búsqueda.
@@ -175,31 +247,29 @@ public class CitaDAO {
      */
     public ArrayList<Cita> search(String fechaCitaString) throws SQLException {
         ArrayList<Cita> records = new ArrayList<>(); // Lista para almacenar las citas encontradas.
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        boolean historico = usaHistorico(fechaCitaString); // Antes de la llamada: puede leer el límite del archivo.
+        DaoCall call = DaoMetrics.start("CitaDAO.search"); // Medición de latencia, filas y errores.
         try {
             // Preparar la sentencia SQL para buscar citas por fecha.
             // En SQL Server, se puede usar CONVERT para comparar la parte de la fecha o DATE_FORMAT.
             // Para una búsqueda exacta por fecha, se usa el operador =
-            ps = conn.connect().prepareStatement("SELECT id, pacienteId, medicoId, fechaCita, costoConsulta " +
-                    "FROM Citas " +
-                    "WHERE fechaCita = CONVERT(DATE, ?)"); // CONVERT(DATE, ?) para comparar solo la fecha
-            // Establecer el valor del parámetro en la sentencia preparada.
+            ps = call.prepareStatement(conn, sqlCitas("fechaCita = CONVERT(DATE, ?)", historico)); // CONVERT(DATE, ?) para comparar solo la fecha
+            // Establecer el valor del parámetro en la sentencia preparada (una vez por tabla consultada).
             ps.setString(1, fechaCitaString); // Se asume que fechaCitaString viene en formato 'YYYY-MM-DD'
+            if (historico) {
+                ps.setString(2, fechaCitaString);
+            }
             // Ejecutar la consulta SQL y obtener el resultado.
             rs = ps.executeQuery();
             // Iterar a través de cada fila del resultado.
             while (rs.next()) {
-                // Crear un nuevo objeto Cita para cada registro encontrado.
-                Cita cita = new Cita();
-                // Asignar los valores de las columnas a los atributos del objeto Cita.
-                cita.setId(rs.getInt(1)); // Obtener el ID de la cita.
-                cita.setPacienteId(rs.getInt(2)); // Obtener el ID del paciente asociado.
-                cita.setMedicoId(rs.getInt(3)); // Obtener el ID del médico asociado.
-                cita.setFechaCita(rs.getDate(4)); // Obtener la fecha de la cita.
-                cita.setCostoConsulta(rs.getDouble(5)); // Obtener el costo de la consulta.
-                // Agregar el objeto Cita a la lista de resultados.
-                records.add(cita);
+                records.add(map(rs)); // Crear un objeto Cita para cada registro encontrado.
             }
+            call.rows(records.size()); // Registrar la cantidad de filas encontradas.
         } catch (SQLException ex) {
+            call.error(); // Registrar el error en las métricas.
             // Capturar cualquier excepción SQL que ocurra durante el proceso.
             throw new SQLException("Error al buscar citas: " + ex.getMessage(), ex);
         } finally {
@@ -218,11 +288,161 @@ public class CitaDAO {
                     System.err.println("Error al cerrar ResultSet en search (CitaDAO): " + e.getMessage());
                 }
             }
-            conn.disconnect(); // Desconectar de la base de datos.
+            call.end(); // Registrar la medición de la llamada y liberar la conexión.
         }
         return records; // Retornar la lista de citas encontradas.
     }
 
+    /**
+     * Variante de {@link #search(String)} que emite las citas a medida que avanza el cursor, en lugar de
+     * retornarlos en una lista. Solo se leen filas mientras el suscriptor tenga demanda pendiente.
+     *
+     * @param fechaCitaString El mismo criterio de búsqueda de {@link #search(String)}.
+     * @return Un publicador; cada suscripción ejecuta la consulta.
+     */
+    public Flow.Publisher<Cita> searchPublisher(String fechaCitaString) {
+        boolean historico;
+        try {
+            historico = usaHistorico(fechaCitaString);
+        } catch (SQLException e) {
+            historico = true; // Sin el límite se consultan ambas tablas; la búsqueda informará si la base falla.
+        }
+        boolean conHistorico = historico; // Para usarlo en la lambda.
+        return new SearchPublisher<>(conn, "CitaDAO.searchPublisher",
+                sqlCitas("fechaCita = CONVERT(DATE, ?)", historico),
+                ps -> {
+                    ps.setString(1, fechaCitaString);
+                    if (conHistorico) {
+                        ps.setString(2, fechaCitaString);
+                    }
+                },
+                CitaDAO::map);
+    }
+
+    /**
+     * Busca las citas de un rango de fechas, incluidas las del histórico si el rango empieza antes del
+     * límite del archivo (ver CitaArchiver). Las citas del histórico son de solo lectura.
+     *
+     * @param desde Primera fecha del rango.
+     * @param hasta Última fecha del rango (inclusive).
+     * @return Un ArrayList con las citas del rango, ordenadas por fecha.
+     * @throws SQLException Si ocurre un error al interactuar con la base de datos.
+     */
+    public ArrayList<Cita> searchRango(LocalDate desde, LocalDate hasta) throws SQLException {
+        return searchRango(desde, hasta, "searchRango", CitaDAO::map);
+    }
+
+    /**
+     * Variante de {@link #searchRango(LocalDate, LocalDate)} que retorna citas compactas (ver CitaCompacta),
+     * para reportes y cachés con muchas citas. Las fechas y los costos se leen directamente como LocalDate y
+     * BigDecimal, sin crear objetos java.sql.Date.
+     *
+     * @param desde Primera fecha del rango.
+     * @param hasta Última fecha del rango (inclusive).
+     * @return Un ArrayList con las citas del rango, ordenadas por fecha.
+     * @throws SQLException Si ocurre un error al interactuar con la base de datos.
+     */
+    public ArrayList<CitaCompacta> searchRangoCompacto(LocalDate desde, LocalDate hasta) throws SQLException {
+        return searchRango(desde, hasta, "searchRangoCompacto", CitaDAO::mapCompacta);
+    }
+
+    private <T> ArrayList<T> searchRango(LocalDate desde, LocalDate hasta, String metodo, SearchPublisher.Fila<T> fila)
+            throws SQLException {
+        ArrayList<T> records = new ArrayList<>();
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        boolean historico = desde.isBefore(CitaArchiver.getLimiteArchivo()); // Antes de la llamada: puede leer la base.
+        DaoCall call = DaoMetrics.start("CitaDAO." + metodo); // Medición de latencia, filas y errores.
+        try {
+            ps = call.prepareStatement(conn, sqlCitas("fechaCita BETWEEN ? AND ?", historico) + " ORDER BY fechaCita, id");
+            for (int tabla = 0; tabla < (historico ? 2 : 1); tabla++) {
+                ps.setDate(tabla * 2 + 1, Date.valueOf(desde));
+                ps.setDate(tabla * 2 + 2, Date.valueOf(hasta));
+            }
+            rs = ps.executeQuery();
+            while (rs.next()) {
+                records.add(fila.leer(rs));
+            }
+            call.rows(records.size()); // Registrar la cantidad de filas encontradas.
+        } catch (SQLException ex) {
+            call.error(); // Registrar el error en las métricas.
+            throw new SQLException("Error al buscar las citas del rango: " + ex.getMessage(), ex);
+        } finally {
+            if (ps != null) {
+                try {
+                    ps.close();
+                } catch (SQLException e) {
+                    System.err.println("Error al cerrar PreparedStatement en " + metodo + " (CitaDAO): " + e.getMessage());
+                }
+            }
+            if (rs != null) {
+                try {
+                    rs.close();
+                } catch (SQLException e) {
+                    System.err.println("Error al cerrar ResultSet en " + metodo + " (CitaDAO): " + e.getMessage());
+                }
+            }
+            call.end(); // Registrar la medición de la llamada y liberar la conexión.
+        }
+        return records;
+    }
+
+    /**
+     * Consulta de las citas que cumplen la condición: solo en la tabla Citas o, si se indica, también en
+     * CitasHistorico. La condición se repite en ambas tablas, por lo que sus parámetros se asignan dos veces.
+     */
+    static String sqlCitas(String condicion, boolean historico) {
+        String sql = "SELECT id, pacienteId, medicoId, fechaCita, costoConsulta, version FROM Citas WHERE " + condicion;
+        if (historico) {
+            sql += " UNION ALL " +
+                    "SELECT id, pacienteId, medicoId, fechaCita, costoConsulta, version FROM CitasHistorico WHERE " + condicion;
+        }
+        return sql;
+    }
+
+    /**
+     * Indica si una búsqueda por fecha debe incluir el histórico: la fecha es anterior al límite del archivo
+     * guardado en la base (ver CitaArchiver), o no tiene el formato yyyy-MM-dd (en ese caso no se puede
+     * saber y se consultan ambas tablas).
+     *
+     * @throws SQLException Si ocurre un error al leer el límite del archivo.
+     */
+    static boolean usaHistorico(String fecha) throws SQLException {
+        if (fecha == null) {
+            return false; // No hay citas con fecha NULL.
+        }
+        try {
+            return LocalDate.parse(fecha.trim()).isBefore(CitaArchiver.getLimiteArchivo());
+        } catch (DateTimeParseException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Convierte la fila actual del cursor en un objeto Cita.
+     */
+    static Cita map(ResultSet rs) throws SQLException {
+        // Crear un nuevo objeto Cita con los valores de la fila.
+        Cita cita = new Cita();
+        // Asignar los valores de las columnas a los atributos del objeto Cita.
+        cita.setId(rs.getInt(1)); // Obtener el ID de la cita.
+        cita.setPacienteId(rs.getInt(2)); // Obtener el ID del paciente asociado.
+        cita.setMedicoId(rs.getInt(3)); // Obtener el ID del médico asociado.
+        cita.setFechaCita(rs.getDate(4)); // Obtener la fecha de la cita.
+        cita.setCostoConsulta(rs.getDouble(5)); // Obtener el costo de la consulta.
+        cita.setVersion(rs.getInt(6)); // Obtener la versión de la fila.
+        return cita;
+    }
+
+    /**
+     * Convierte la fila actual del cursor (las mismas columnas que {@link #map(ResultSet)}) en una cita compacta.
+     */
+    static CitaCompacta mapCompacta(ResultSet rs) throws SQLException {
+        return new CitaCompacta(rs.getInt(1), rs.getInt(2), rs.getInt(3),
+                Math.toIntExact(rs.getObject(4, LocalDate.class).toEpochDay()),
+                rs.getBigDecimal(5).movePointRight(2).longValueExact(), rs.getInt(6));
+    }
+
     /**
      * Obtiene una cita de la base de datos basado en su ID.
      *
@@ -234,9 +454,12 @@ public class CitaDAO {
      */
     public Cita getById(int id) throws SQLException {
         Cita cita = null; // Inicializar a null si no se encuentra la cita.
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        DaoCall call = DaoMetrics.start("CitaDAO.getById"); // Medición de latencia, filas y errores.
         try {
             // Preparar la sentencia SQL para seleccionar una cita por su ID.
-            ps = conn.connect().prepareStatement("SELECT id, pacienteId, medicoId, fechaCita, costoConsulta " +
+            ps = call.prepareStatement(conn, "SELECT id, pacienteId, medicoId, fechaCita, costoConsulta, version " +
                     "FROM Citas " +
                     "WHERE id = ?");
             // Establecer el valor del parámetro en la sentencia preparada (el ID a buscar).
@@ -252,8 +475,11 @@ public class CitaDAO {
                 cita.setMedicoId(rs.getInt(3)); // Obtener el ID del médico asociado.
                 cita.setFechaCita(rs.getDate(4)); // Obtener la fecha de la cita.
                 cita.setCostoConsulta(rs.getDouble(5)); // Obtener el costo de la consulta.
+                cita.setVersion(rs.getInt(6)); // Obtener la versión de la fila.
             }
+            call.rows(cita != null ? 1 : 0); // Registrar si se encontró el registro.
         } catch (SQLException ex) {
+            call.error(); // Registrar el error en las métricas.
             // Capturar cualquier excepción SQL que ocurra durante el proceso.
             throw new SQLException("Error al obtener una cita por id: " + ex.getMessage(), ex);
         } finally {
@@ -272,8 +498,16 @@ public class CitaDAO {
                     System.err.println("Error al cerrar ResultSet en getById (CitaDAO): " + e.getMessage());
                 }
             }
-            conn.disconnect(); // Desconectar de la base de datos.
+            call.end(); // Registrar la medición de la llamada y liberar la conexión.
         }
         return cita; // Retornar el objeto Cita encontrado o null si no existe.
     }
+
+    /**
+     * Excepción para una modificación o eliminación que no afectó ninguna fila: la cita fue modificada
+     * (su versión ya no es la leída) o eliminada. Se consulta la fila para distinguir ambos casos.
+     */
+    private VersionConflictException conflicto(int id) throws SQLException {
+        return new VersionConflictException(EntidadJson.CITAS.getNombre(), id, getById(id) == null);
+    }
 }
\ No newline at end of file
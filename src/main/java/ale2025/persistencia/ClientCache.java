@@ -0,0 +1,176 @@
+package ale2025.persistencia;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import ale2025.dominio.Cita;
+import ale2025.dominio.Especialidad;
+import ale2025.dominio.Medico;
+import ale2025.dominio.Paciente;
+
+/**
+ * Caché del lado del cliente para los datos que los formularios consultan una y otra vez: los nombres
+ * de pacientes, médicos y especialidades que se muestran en las tablas, las listas de médicos y
+ * especialidades de los combos y, solo para la primera búsqueda, las citas del día.
+ *
+ * La llena {@link CacheWarmup} al iniciar sesión y, después, cada consulta que no la encuentra. Las
+ * entradas vencen a los ale2025.cache.ttlSeconds segundos (300 por defecto) y los formularios de
+ * escritura invalidan lo que modifican. Las listas se retornan como copias; las entidades son
+ * compartidas y no deben modificarse (los formularios de edición cargan la suya con getById).
+ */
+public final class ClientCache {
+    private static final ClientCache INSTANCE = new ClientCache(
+            TimeUnit.SECONDS.toMillis(Long.getLong("ale2025.cache.ttlSeconds", 300)));
+
+    private final long vigenciaMs;
+    private final EntityCache<Paciente> pacientes;
+    private final EntityCache<Medico> medicos;
+    private final EntityCache<Especialidad> especialidades;
+    private volatile Lista<Medico> listaMedicos;
+    private volatile Lista<Especialidad> listaEspecialidades;
+    private volatile Lista<Cita> citasDelDia;
+    private volatile boolean citasBuscadas; // Tras la primera búsqueda ya no se guarda la precarga.
+
+    ClientCache(long vigenciaMs) {
+        this.vigenciaMs = vigenciaMs;
+        pacientes = new EntityCache<>(vigenciaMs);
+        medicos = new EntityCache<>(vigenciaMs);
+        especialidades = new EntityCache<>(vigenciaMs);
+    }
+
+    public static ClientCache getInstance() {
+        return INSTANCE;
+    }
+
+    public Paciente getPaciente(int id, PacienteDAO dao) throws SQLException {
+        return pacientes.get(id, dao::getById);
+    }
+
+    public Medico getMedico(int id, MedicoDAO dao) throws SQLException {
+        return medicos.get(id, dao::getById);
+    }
+
+    public Especialidad getEspecialidad(int id, EspecialidadDAO dao) throws SQLException {
+        return especialidades.get(id, dao::getById);
+    }
+
+    /**
+     * @return Todos los médicos (el resultado de search("")).
+     */
+    public ArrayList<Medico> getMedicos(MedicoDAO dao) throws SQLException {
+        Lista<Medico> lista = listaMedicos;
+        if (!vigente(lista, "")) {
+            ArrayList<Medico> todos = dao.search("");
+            todos.forEach(m -> medicos.put(m.getId(), m));
+            lista = new Lista<>("", todos);
+            listaMedicos = lista;
+        }
+        return new ArrayList<>(lista.valores);
+    }
+
+    /**
+     * @return Todas las especialidades (el resultado de search("")).
+     */
+    public ArrayList<Especialidad> getEspecialidades(EspecialidadDAO dao) throws SQLException {
+        Lista<Especialidad> lista = listaEspecialidades;
+        if (!vigente(lista, "")) {
+            ArrayList<Especialidad> todas = dao.search("");
+            todas.forEach(e -> especialidades.put(e.getId(), e));
+            lista = new Lista<>("", todas);
+            listaEspecialidades = lista;
+        }
+        return new ArrayList<>(lista.valores);
+    }
+
+    /**
+     * Precarga las citas de una fecha para la primera búsqueda del formulario de citas. Si esa búsqueda
+     * ya se hizo, la precarga llegó tarde y no se guarda.
+     *
+     * @return La cantidad de citas leídas.
+     */
+    public int precargarCitas(String fechaCita, CitaDAO dao) throws SQLException {
+        ArrayList<Cita> citas = dao.search(fechaCita);
+        if (!citasBuscadas) {
+            citasDelDia = new Lista<>(fechaCita, citas);
+        }
+        return citas.size();
+    }
+
+    /**
+     * Retorna las citas de una fecha. La precarga de {@link #precargarCitas} se usa una sola vez, en la
+     * primera búsqueda y si sigue vigente; después se consulta siempre, porque las citas del día cambian
+     * desde todas las terminales y la caché las mostraría desactualizadas hasta que vencieran.
+     *
+     * @param fechaCita La fecha en formato YYYY-MM-DD.
+     */
+    public ArrayList<Cita> getCitas(String fechaCita, CitaDAO dao) throws SQLException {
+        citasBuscadas = true;
+        Lista<Cita> lista = citasDelDia;
+        if (lista != null) {
+            citasDelDia = null;
+            if (vigente(lista, fechaCita)) {
+                return new ArrayList<>(lista.valores);
+            }
+        }
+        return dao.search(fechaCita);
+    }
+
+    /**
+     * Guarda pacientes ya leídos (por ejemplo, por la precarga) para que las tablas no vuelvan a consultarlos.
+     */
+    public void putPacientes(List<Paciente> leidos) {
+        leidos.forEach(p -> pacientes.put(p.getId(), p));
+    }
+
+    /**
+     * Descarta lo que pudo cambiar tras modificar una entidad del tipo indicado.
+     */
+    public void invalidar(EntidadJson<?> tipo) {
+        if (tipo == EntidadJson.CITAS) {
+            citasDelDia = null;
+        } else if (tipo == EntidadJson.PACIENTES) {
+            pacientes.clear();
+        } else if (tipo == EntidadJson.MEDICOS) {
+            medicos.clear();
+            listaMedicos = null;
+        } else if (tipo == EntidadJson.ESPECIALIDADES) {
+            especialidades.clear();
+            listaEspecialidades = null;
+        }
+    }
+
+    /**
+     * Vacía toda la caché.
+     */
+    public void clear() {
+        pacientes.clear();
+        medicos.clear();
+        especialidades.clear();
+        listaMedicos = null;
+        listaEspecialidades = null;
+        citasDelDia = null;
+        citasBuscadas = false;
+    }
+
+    private boolean vigente(Lista<?> lista, String clave) {
+        return lista != null && lista.clave.equals(clave)
+                && (vigenciaMs == 0 || System.currentTimeMillis() - lista.cargada < vigenciaMs);
+    }
+
+    /**
+     * Resultado inmutable de una consulta de lista, con el criterio usado y el momento de la carga.
+     */
+    private static final class Lista<T> {
+        private final String clave;
+        private final List<T> valores;
+        private final long cargada;
+
+        Lista(String clave, List<T> valores) {
+            this.clave = clave;
+            this.valores = List.copyOf(valores);
+            this.cargada = System.currentTimeMillis();
+        }
+    }
+}
@@ -3,11 +3,21 @@ package ale2025.persistencia;
 import java.sql.Connection; // Representa una conexión a la base de datos.
 import java.sql.DriverManager; // Gestiona los drivers JDBC y establece conexiones.
 import java.sql.SQLException; // Representa errores específicos de la base de datos.
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy; // Para entregar conexiones cuyo close() las devuelve al grupo.
+import java.util.ArrayDeque;    // Conexiones inactivas listas para reutilizarse.
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
- * Esta clase se encarga de gestionar la conexión a la base de datos SQL Server utilizando JDBC.
- * Implementa el patrón Singleton para asegurar que solo exista una única instancia
- * de la clase y, por lo tanto, una única conexión a la base de datos compartida.
+ * Esta clase se encarga de gestionar las conexiones a la base de datos SQL Server utilizando JDBC.
+ * Implementa el patrón Singleton para asegurar que solo exista una única instancia de la clase.
+ *
+ * Cada llamada a {@link #connect()} entrega una conexión de uso exclusivo, de modo que varios hilos
+ * pueden usar los DAOs al mismo tiempo. Las conexiones físicas se reutilizan: al cerrar la conexión
+ * entregada, esta vuelve a un grupo de conexiones inactivas en lugar de desconectarse del servidor.
  */
 public class ConnectionManager {
     /**
@@ -21,21 +31,55 @@ public class ConnectionManager {
      * - trustServerCertificate=true : Indica que se confíe en el certificado del servidor (para entornos de desarrollo).
      * - user=dev : Nombre de usuario para la autenticación.
      * - password=dev : Contraseña para la autenticación.
+     *
+     * Puede reemplazarse con la propiedad del sistema ale2025.db.url (por ejemplo, para apuntar
+     * a una base de datos embebida en los benchmarks o en pruebas de carga).
      */
 
 
 
-    private static final String STR_CONNECTION = "jdbc:sqlserver://ANZORAENEIDAPC\\SQLEXPRESS;" +
+    private static final String STR_CONNECTION = System.getProperty("ale2025.db.url",
+            "jdbc:sqlserver://ANZORAENEIDAPC\\SQLEXPRESS;" +
             "encrypt=true; " +
             "database=ClinicaSaludTotal; " +
             "trustServerCertificate=true;" +
             "user=ClinicaSaludTotal;" +
-            "password=12345";
+            "password=12345");
+
+    /**
+     * Cantidad máxima de conexiones físicas inactivas que se conservan para reutilizarlas.
+     * Puede cambiarse con la propiedad del sistema ale2025.db.poolSize.
+     */
+    private static final int MAX_IDLE = Integer.getInteger("ale2025.db.poolSize", 10);
+
+    /**
+     * Tiempo (ms) a partir del cual una conexión inactiva se valida antes de reutilizarla.
+     */
+    private static final long VALIDATE_AFTER_MS = 30_000;
+
+    /**
+     * Cantidad máxima de conexiones en uso al mismo tiempo (propiedad ale2025.db.maxConnections).
+     * Evita que muchas tareas concurrentes (por ejemplo, en hilos virtuales) saturen el servidor.
+     */
+    private static final int MAX_CONNECTIONS = Integer.getInteger("ale2025.db.maxConnections", 20);
 
     /**
-     * Representa la conexión activa a la base de datos. Inicialmente es nula.
+     * Tiempo máximo (ms) que se espera por una conexión libre (propiedad ale2025.db.waitMs).
      */
-    private Connection connection;
+    private static final long WAIT_MS = Long.getLong("ale2025.db.waitMs", 30_000);
+
+    /**
+     * Conexiones físicas abiertas que no están en uso, listas para reutilizarse.
+     * Se protege con {@link #lock}: a diferencia de synchronized, un hilo virtual que espera por
+     * un ReentrantLock no bloquea el hilo de plataforma que lo ejecuta.
+     */
+    private final ArrayDeque<PooledConnection> idle = new ArrayDeque<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Permisos para conexiones en uso. Se toma uno en {@link #connect()} y se devuelve al cerrar la conexión.
+     */
+    private final Semaphore permits = new Semaphore(MAX_CONNECTIONS, true);
 
     /**
      * Única instancia de la clase JDBCConnectionManager (para el patrón Singleton).
@@ -43,69 +87,168 @@ public class ConnectionManager {
      */
     private static ConnectionManager instance;
 
+    private static volatile boolean driverCargado; // Ver cargarDriver().
+
     /**
      * Constructor privado para evitar la creación de instancias directamente desde fuera de la clase.
      * Esto es fundamental para el patrón Singleton.
      */
     private ConnectionManager() {
-        this.connection = null;
-        try {
-            // Carga el driver JDBC de Microsoft SQL Server. Esto es necesario para que Java pueda
-            // comunicarse con la base de datos SQL Server.
-            Class.forName("com.microsoft.sqlserver.jdbc.SQLServerDriver");
-        } catch (ClassNotFoundException e) {
-            // Si el driver no se encuentra, se lanza una excepción indicando el error.
-            throw new RuntimeException("Error al cargar el driver JDBC de SQL Server", e);
+        // El driver JDBC no se carga aquí sino antes de la primera conexión (ver cargarDriver()), para que
+        // crear los DAO al construir los formularios (por ejemplo, el de inicio de sesión) no cargue sus clases.
+    }
+
+    /**
+     * Carga el driver JDBC de Microsoft SQL Server, solo la primera vez. Esto es necesario para que Java
+     * pueda comunicarse con la base de datos SQL Server.
+     *
+     * Se llama antes de abrir la primera conexión; la aplicación también lo llama en segundo plano al
+     * iniciar, para que el primer inicio de sesión no espere la carga de las clases del driver.
+     */
+    public static void cargarDriver() {
+        if (driverCargado) {
+            return;
+        }
+        synchronized (ConnectionManager.class) {
+            if (!driverCargado) {
+                try {
+                    Class.forName("com.microsoft.sqlserver.jdbc.SQLServerDriver");
+                } catch (ClassNotFoundException e) {
+                    // Si el driver no se encuentra, se lanza una excepción indicando el error.
+                    throw new RuntimeException("Error al cargar el driver JDBC de SQL Server", e);
+                }
+                driverCargado = true;
+            }
         }
     }
 
     /**
-     * Este método se encarga de establecer la conexión con la base de datos.
-     * Es sincronizado (`synchronized`) para asegurar que solo un hilo a la vez pueda
-     * intentar establecer la conexión, lo cual es importante en entornos multihilo.
+     * Obtiene una conexión de uso exclusivo para quien la pide. Puede usarse desde varios hilos a la vez:
+     * cada llamada recibe su propia conexión, tomada de las conexiones inactivas o abierta en ese momento.
      *
-     * @return La instancia de la conexión a la base de datos.
-     * @throws SQLException Si ocurre un error al intentar conectar a la base de datos.
+     * La conexión debe cerrarse al terminar (idealmente con try-with-resources). Cerrarla no la
+     * desconecta del servidor: la devuelve al grupo de conexiones inactivas para reutilizarla.
+     * Si ya hay {@link #MAX_CONNECTIONS} conexiones en uso, se espera hasta que se libere una.
+     *
+     * @return Una conexión a la base de datos para uso exclusivo del llamador.
+     * @throws SQLException Si ocurre un error al intentar conectar a la base de datos, o si no se
+     * libera ninguna conexión dentro del tiempo de espera.
      */
-    public synchronized Connection connect() throws SQLException {
-        // Verifica si la conexión ya existe y si no está cerrada.
-        if (this.connection == null || this.connection.isClosed()) {
-            try {
-                // Intenta establecer la conexión utilizando la cadena de conexión.
-                this.connection = DriverManager.getConnection(STR_CONNECTION);
-            } catch (SQLException exception) {
-                // Si ocurre un error durante la conexión, se lanza una excepción SQLException
-                // con un mensaje más descriptivo que incluye el mensaje original de la excepción.
-                throw new SQLException("Error al conectar a la base de datos: " + exception.getMessage(), exception);
+    public Connection connect() throws SQLException {
+        try {
+            if (!permits.tryAcquire(WAIT_MS, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Error al conectar a la base de datos: no se liberó ninguna conexión en "
+                        + WAIT_MS + " ms (" + MAX_CONNECTIONS + " en uso)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Error al conectar a la base de datos: espera interrumpida", e);
+        }
+        PooledConnection pooled;
+        while ((pooled = pollIdle()) != null) {
+            // Las conexiones que estuvieron inactivas mucho tiempo se validan antes de reutilizarlas.
+            if (System.currentTimeMillis() - pooled.idleSince < VALIDATE_AFTER_MS || isUsable(pooled.physical)) {
+                return pooled.checkout();
             }
+            closeQuietly(pooled.physical);
+        }
+        try {
+            // Abrir una nueva conexión física (fuera del candado, para no bloquear a otros hilos).
+            cargarDriver();
+            return new PooledConnection(DriverManager.getConnection(STR_CONNECTION)).checkout();
+        } catch (RuntimeException exception) {
+            permits.release(); // No se obtuvo la conexión: devolver el permiso.
+            throw exception;
+        } catch (SQLException exception) {
+            permits.release();
+            // Si ocurre un error durante la conexión, se lanza una excepción SQLException
+            // con un mensaje más descriptivo que incluye el mensaje original de la excepción.
+            throw new SQLException("Error al conectar a la base de datos: " + exception.getMessage(), exception);
         }
-        // Retorna la conexión (ya sea la existente o la recién creada).
-        return this.connection;
     }
 
     /**
-     * Este método se encarga de cerrar la conexión a la base de datos.
-     * También lanza una SQLException si ocurre un error al intentar cerrar la conexión.
+     * Cierra todas las conexiones físicas inactivas. Las conexiones que están en uso no se ven
+     * afectadas: se cerrarán (o volverán al grupo) cuando su dueño las cierre.
      *
-     * @throws SQLException Si ocurre un error al intentar cerrar la conexión.
+     * @throws SQLException Si ocurre un error al intentar cerrar alguna conexión.
      */
     public void disconnect() throws SQLException {
-        // Verifica si la conexión existe (no es nula).
-        if (this.connection != null) {
+        SQLException error = null;
+        PooledConnection pooled;
+        while ((pooled = pollIdle()) != null) {
             try {
-                // Intenta cerrar la conexión.
-                this.connection.close();
+                pooled.physical.close();
             } catch (SQLException exception) {
-                // Si ocurre un error al cerrar la conexión, se lanza una excepción SQLException
-                // con un mensaje más descriptivo.
-                throw new SQLException("Error al cerrar la conexión: " + exception.getMessage(), exception);
-            } finally {
-                // El bloque finally se ejecuta siempre, independientemente de si hubo una excepción o no.
-                // Aquí se asegura que la referencia a la conexión se establezca a null,
-                // indicando que ya no hay una conexión activa gestionada por esta instancia.
-                this.connection = null;
+                error = exception;
             }
         }
+        if (error != null) {
+            throw new SQLException("Error al cerrar la conexión: " + error.getMessage(), error);
+        }
+    }
+
+    private PooledConnection pollIdle() {
+        lock.lock();
+        try {
+            return idle.pollLast(); // La más reciente primero: es la que menos probablemente expiró.
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Devuelve una conexión física al grupo, o la cierra si ya hay suficientes inactivas.
+     */
+    private void release(PooledConnection pooled) {
+        try {
+            recycle(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void recycle(PooledConnection pooled) {
+        try {
+            if (pooled.physical.isClosed()) {
+                return;
+            }
+            if (!pooled.physical.getAutoCommit()) {
+                // El llamador dejó una transacción abierta: se revierte antes de reutilizar la conexión.
+                pooled.physical.rollback();
+                pooled.physical.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            closeQuietly(pooled.physical);
+            return;
+        }
+        lock.lock();
+        try {
+            if (idle.size() < MAX_IDLE) {
+                pooled.idleSince = System.currentTimeMillis();
+                idle.addLast(pooled);
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        closeQuietly(pooled.physical);
+    }
+
+    private static boolean isUsable(Connection physical) {
+        try {
+            return physical.isValid(2);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private static void closeQuietly(Connection physical) {
+        try {
+            physical.close();
+        } catch (SQLException e) {
+            System.err.println("Error al cerrar la conexión: " + e.getMessage());
+        }
     }
 
     /**
@@ -125,4 +268,48 @@ public class ConnectionManager {
         // Retorna la instancia existente (o la recién creada).
         return instance;
     }
-}
\ No newline at end of file
+
+    /**
+     * Conexión física del grupo. Cada préstamo entrega un proxy propio cuyo close() devuelve la
+     * conexión física al grupo; cerrar dos veces el mismo proxy no tiene efecto.
+     */
+    private final class PooledConnection {
+        private final Connection physical;
+        private long idleSince;
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        Connection checkout() {
+            AtomicBoolean closed = new AtomicBoolean(false);
+            return (Connection) Proxy.newProxyInstance(ConnectionManager.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "close":
+                                if (closed.compareAndSet(false, true)) {
+                                    release(this);
+                                }
+                                return null;
+                            case "isClosed":
+                                return closed.get() || physical.isClosed();
+                            case "equals":
+                                return proxy == args[0];
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+                            case "toString":
+                                return "Pooled[" + physical + "]";
+                            default:
+                                if (closed.get()) {
+                                    throw new SQLException("La conexión ya fue cerrada");
+                                }
+                                try {
+                                    return method.invoke(physical, args);
+                                } catch (InvocationTargetException e) {
+                                    throw e.getCause();
+                                }
+                        }
+                    });
+        }
+    }
+}
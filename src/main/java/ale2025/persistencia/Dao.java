@@ -0,0 +1,25 @@
+package ale2025.persistencia;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.concurrent.Flow;
+
+/**
+ * Operaciones comunes de los DAOs de las entidades. Permite tratar a todos los DAOs de la misma
+ * forma, por ejemplo en el servidor HTTP, que expone las mismas rutas para cada entidad.
+ *
+ * @param <T> Tipo de la entidad.
+ */
+public interface Dao<T> {
+    T create(T entidad) throws SQLException;
+
+    boolean update(T entidad) throws SQLException;
+
+    boolean delete(T entidad) throws SQLException;
+
+    ArrayList<T> search(String criterio) throws SQLException;
+
+    T getById(int id) throws SQLException;
+
+    Flow.Publisher<T> searchPublisher(String criterio);
+}
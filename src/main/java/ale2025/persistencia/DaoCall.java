@@ -0,0 +1,170 @@
+package ale2025.persistencia;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Medición de una llamada a un método de DAO: latencia total, espera por la conexión,
+ * filas devueltas o afectadas y si terminó con error. Cada llamada se registra en
+ * {@link DaoMetrics}, se emite como evento JFR {@link DaoEvent} y se evalúa para el
+ * registro de consultas lentas {@link SlowQueryLog}.
+ *
+ * La llamada también es dueña de la conexión que usa: la toma del {@link ConnectionManager} al
+ * preparar la primera sentencia y la devuelve en {@link #end()}. Así cada llamada trabaja con su
+ * propia conexión y los DAOs no guardan estado entre llamadas (pueden usarse desde varios hilos).
+ *
+ * Uso dentro de un DAO:
+ * <pre>
+ * DaoCall call = DaoMetrics.start("CitaDAO.search");
+ * try {
+ *     ps = call.prepareStatement(conn, "SELECT ...");
+ *     ...
+ *     call.rows(records.size());
+ * } catch (SQLException ex) {
+ *     call.error();
+ *     throw ...;
+ * } finally {
+ *     ...
+ *     call.end(); // También libera la conexión.
+ * }
+ * </pre>
+ */
+final class DaoCall {
+    /** Llamada en curso de cada hilo, para diagnosticar bloqueos (por ejemplo, del EDT). */
+    private static final Map<Thread, DaoCall> ACTIVE = new ConcurrentHashMap<>();
+
+    private final String method;
+    private final long start;
+    private final DaoEvent event;
+    private String sql;
+    private Connection connection; // Conexión de uso exclusivo de esta llamada.
+    private ArrayList<Object> params; // Parámetros capturados para el registro de consultas lentas.
+    private long connectionWaitNanos;
+    private int rows;
+    private boolean failed;
+    private final DaoCall previous; // Llamada externa del mismo hilo (ej. create que llama a getById).
+
+    DaoCall(String method) {
+        this.method = method;
+        this.previous = ACTIVE.put(Thread.currentThread(), this);
+        this.event = new DaoEvent();
+        this.event.begin();
+        this.start = System.nanoTime();
+    }
+
+    /**
+     * Obtiene la conexión (midiendo cuánto se esperó por ella) y prepara la sentencia.
+     * Si la llamada ya tiene una conexión, se reutiliza.
+     */
+    PreparedStatement prepareStatement(ConnectionManager conn, String sql) throws SQLException {
+        this.sql = sql;
+        return capture(connection(conn).prepareStatement(sql));
+    }
+
+    /**
+     * Igual que {@link #prepareStatement(ConnectionManager, String)}, indicando si se deben
+     * retornar las claves generadas (java.sql.Statement.RETURN_GENERATED_KEYS).
+     */
+    PreparedStatement prepareStatement(ConnectionManager conn, String sql, int autoGeneratedKeys) throws SQLException {
+        this.sql = sql;
+        return capture(connection(conn).prepareStatement(sql, autoGeneratedKeys));
+    }
+
+    private Connection connection(ConnectionManager conn) throws SQLException {
+        if (connection == null) {
+            long t = System.nanoTime();
+            connection = conn.connect();
+            connectionWaitNanos += System.nanoTime() - t;
+        }
+        return connection;
+    }
+
+    private PreparedStatement capture(PreparedStatement ps) {
+        if (!SlowQueryLog.isEnabled()) {
+            return ps;
+        }
+        params = new ArrayList<>();
+        return SlowQueryLog.capture(ps, params);
+    }
+
+    /**
+     * Ejecuta una sentencia de varias instrucciones y retorna su primer conjunto de resultados, saltando
+     * los conteos de filas de las instrucciones anteriores (por ejemplo, el de un DELETE ... OUTPUT INTO
+     * una variable de tabla seguido del SELECT de esa variable).
+     *
+     * @return El conjunto de resultados, o null si la sentencia no devolvió ninguno.
+     */
+    static ResultSet primerResultado(PreparedStatement ps) throws SQLException {
+        boolean esResultado = ps.execute();
+        while (!esResultado && ps.getUpdateCount() != -1) {
+            esResultado = ps.getMoreResults();
+        }
+        return esResultado ? ps.getResultSet() : null;
+    }
+
+    /**
+     * Registra la cantidad de filas devueltas o afectadas.
+     *
+     * @return El mismo valor recibido, para poder usarlo en línea: if (call.rows(ps.executeUpdate()) > 0)
+     */
+    int rows(int count) {
+        this.rows = count;
+        return count;
+    }
+
+    void error() {
+        this.failed = true;
+    }
+
+    /**
+     * Describe la llamada a DAO que el hilo indicado está ejecutando en este momento.
+     *
+     * @return Método, SQL y tiempo transcurrido, o null si el hilo no está dentro de un DAO.
+     */
+    static String describeActive(Thread thread) {
+        DaoCall call = ACTIVE.get(thread);
+        if (call == null) {
+            return null;
+        }
+        return String.format("%s (%.1f ms) %s", call.method, (System.nanoTime() - call.start) / 1_000_000.0,
+                call.sql == null ? "" : call.sql.replaceAll("\\s+", " "));
+    }
+
+    /**
+     * Devuelve la conexión y registra la medición. Debe llamarse en el finally, después de cerrar
+     * las sentencias y resultados.
+     */
+    void end() {
+        if (connection != null) {
+            try {
+                connection.close(); // La conexión vuelve al grupo de conexiones inactivas.
+            } catch (SQLException e) {
+                System.err.println("Error al liberar la conexión en " + method + ": " + e.getMessage());
+            }
+            connection = null;
+        }
+        if (previous != null) {
+            ACTIVE.put(Thread.currentThread(), previous);
+        } else {
+            ACTIVE.remove(Thread.currentThread());
+        }
+        long nanos = System.nanoTime() - start;
+        DaoMetrics.record(method, nanos, connectionWaitNanos, rows, failed);
+        SlowQueryLog.offer(method, sql, params, nanos, rows, failed);
+        event.end();
+        if (event.shouldCommit()) {
+            event.method = method;
+            event.sql = sql;
+            event.sqlId = sql == null ? null : Integer.toHexString(sql.hashCode());
+            event.rows = rows;
+            event.connectionWait = connectionWaitNanos;
+            event.failed = failed;
+            event.commit();
+        }
+    }
+}
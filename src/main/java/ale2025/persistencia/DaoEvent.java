@@ -0,0 +1,43 @@
+package ale2025.persistencia;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Evento de Java Flight Recorder emitido por cada llamada a un método de DAO.
+ *
+ * Se habilita con la configuración de la grabación (por ejemplo,
+ * -XX:StartFlightRecording:settings=profile). Cuando el evento está deshabilitado,
+ * crearlo y confirmarlo no tiene costo apreciable.
+ */
+@Name("ale2025.DaoCall")
+@Label("Llamada a DAO")
+@Category({"ALE2025", "Persistencia"})
+@Description("Operación de la capa de persistencia con su SQL, filas y espera por la conexión")
+@StackTrace(false)
+class DaoEvent extends Event {
+    @Label("Método")
+    String method;
+
+    @Label("Id SQL")
+    @Description("Hash hexadecimal del texto SQL, para agrupar llamadas con la misma sentencia")
+    String sqlId;
+
+    @Label("SQL")
+    String sql;
+
+    @Label("Filas")
+    int rows;
+
+    @Label("Espera por conexión")
+    @Timespan(Timespan.NANOSECONDS)
+    long connectionWait;
+
+    @Label("Con error")
+    boolean failed;
+}
@@ -0,0 +1,204 @@
+package ale2025.persistencia;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores e histogramas de latencia por método de DAO.
+ *
+ * Cada llamada se registra con LongAdder (sin bloqueos entre hilos), en un histograma
+ * logarítmico con 8 subdivisiones por potencia de 2, lo que da percentiles con un error
+ * relativo máximo de 12.5 %. Por método se mide: cantidad de llamadas, errores, filas
+ * devueltas o afectadas, latencia (p50/p99/max) y tiempo de espera por la conexión.
+ *
+ * Las mediciones se publican por JMX como ale2025:type=DaoMetrics y como texto con {@link #snapshot()}.
+ */
+public class DaoMetrics implements DaoMetricsMBean {
+    private static final DaoMetrics INSTANCE = new DaoMetrics();
+    private static final Map<String, Stats> STATS = new ConcurrentHashMap<>();
+
+    static {
+        try {
+            ManagementFactory.getPlatformMBeanServer()
+                    .registerMBean(INSTANCE, new ObjectName("ale2025:type=DaoMetrics"));
+        } catch (Exception e) {
+            // Las métricas siguen disponibles con snapshot() aunque JMX no esté disponible.
+            System.err.println("No se pudo registrar DaoMetrics en JMX: " + e.getMessage());
+        }
+    }
+
+    private DaoMetrics() {
+    }
+
+    public static DaoMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Inicia la medición de una llamada. Debe terminarse con {@link DaoCall#end()} en el bloque finally.
+     *
+     * @param method Nombre del método en formato "Clase.metodo" (ej. "CitaDAO.search").
+     */
+    static DaoCall start(String method) {
+        return new DaoCall(method);
+    }
+
+    static void record(String method, long nanos, long connectionWaitNanos, int rows, boolean failed) {
+        Stats s = STATS.get(method);
+        if (s == null) {
+            s = STATS.computeIfAbsent(method, k -> new Stats());
+        }
+        s.record(nanos, connectionWaitNanos, rows, failed);
+    }
+
+    /**
+     * @return Un resumen en texto de todas las mediciones, ordenado por nombre de método.
+     */
+    public static String snapshot() {
+        StringBuilder sb = new StringBuilder(String.format("%-28s %9s %7s %10s %10s %10s %10s %12s%n",
+                "metodo", "llamadas", "errores", "filas", "p50 ms", "p99 ms", "max ms", "espera ms"));
+        for (Map.Entry<String, Stats> e : new TreeMap<>(STATS).entrySet()) {
+            Stats s = e.getValue();
+            long count = s.count.sum();
+            sb.append(String.format("%-28s %9d %7d %10d %10.3f %10.3f %10.3f %12.3f%n",
+                    e.getKey(), count, s.errors.sum(), s.rows.sum(),
+                    millis(s.percentile(0.50)), millis(s.percentile(0.99)), millis(s.max.get()),
+                    count > 0 ? millis(s.connectionWaitNanos.sum()) / count : 0.0));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Describe la llamada a DAO en curso en el hilo indicado (método, tiempo transcurrido y SQL).
+     *
+     * @return La descripción, o null si el hilo no está ejecutando un método de DAO.
+     */
+    public static String currentCall(Thread thread) {
+        return DaoCall.describeActive(thread);
+    }
+
+    @Override
+    public String[] getMethods() {
+        return new TreeMap<>(STATS).keySet().toArray(new String[0]);
+    }
+
+    @Override
+    public String getSnapshot() {
+        return snapshot();
+    }
+
+    @Override
+    public long getCount(String method) {
+        Stats s = STATS.get(method);
+        return s == null ? 0 : s.count.sum();
+    }
+
+    @Override
+    public long getErrors(String method) {
+        Stats s = STATS.get(method);
+        return s == null ? 0 : s.errors.sum();
+    }
+
+    @Override
+    public double getP50Millis(String method) {
+        Stats s = STATS.get(method);
+        return s == null ? 0 : millis(s.percentile(0.50));
+    }
+
+    @Override
+    public double getP99Millis(String method) {
+        Stats s = STATS.get(method);
+        return s == null ? 0 : millis(s.percentile(0.99));
+    }
+
+    @Override
+    public double getMaxMillis(String method) {
+        Stats s = STATS.get(method);
+        return s == null ? 0 : millis(s.max.get());
+    }
+
+    @Override
+    public void reset() {
+        STATS.clear();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    /**
+     * Mediciones acumuladas de un método.
+     */
+    private static final class Stats {
+        private static final int SUB = 8;                    // Subdivisiones por potencia de 2.
+        private static final int BUCKETS = SUB + 61 * SUB;   // Cubre hasta Long.MAX_VALUE nanosegundos.
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder connectionWaitNanos = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Long::max, 0);
+        private final LongAdder[] histogram = new LongAdder[BUCKETS];
+
+        Stats() {
+            for (int i = 0; i < BUCKETS; i++) {
+                histogram[i] = new LongAdder();
+            }
+        }
+
+        void record(long nanos, long waitNanos, int rowCount, boolean failed) {
+            count.increment();
+            if (failed) {
+                errors.increment();
+            }
+            rows.add(rowCount);
+            connectionWaitNanos.add(waitNanos);
+            max.accumulate(nanos);
+            histogram[bucket(nanos)].increment();
+        }
+
+        long percentile(double p) {
+            long total = 0;
+            long[] counts = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = histogram[i].sum();
+                total += counts[i];
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long target = (long) Math.ceil(p * total);
+            long acc = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                acc += counts[i];
+                if (acc >= target) {
+                    return Math.min(upperBound(i), max.get());
+                }
+            }
+            return max.get();
+        }
+
+        static int bucket(long v) {
+            if (v < SUB) {
+                return (int) Math.max(v, 0);
+            }
+            int exp = 63 - Long.numberOfLeadingZeros(v);           // exp >= 3
+            int sub = (int) ((v >>> (exp - 3)) & (SUB - 1));
+            return SUB + (exp - 3) * SUB + sub;
+        }
+
+        static long upperBound(int b) {
+            if (b < SUB) {
+                return b;
+            }
+            int exp = (b - SUB) / SUB + 3;
+            int sub = (b - SUB) % SUB;
+            return ((SUB + sub + 1L) << (exp - 3)) - 1;
+        }
+    }
+}
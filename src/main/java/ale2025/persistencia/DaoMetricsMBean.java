@@ -0,0 +1,32 @@
+package ale2025.persistencia;
+
+/**
+ * Interfaz JMX de {@link DaoMetrics}. Se publica como ale2025:type=DaoMetrics
+ * y puede consultarse con JConsole o VisualVM.
+ */
+public interface DaoMetricsMBean {
+    /**
+     * @return Los nombres de los métodos de DAO que tienen mediciones (ej. "CitaDAO.search").
+     */
+    String[] getMethods();
+
+    /**
+     * @return Un resumen en texto de todas las mediciones, una línea por método.
+     */
+    String getSnapshot();
+
+    long getCount(String method);
+
+    long getErrors(String method);
+
+    double getP50Millis(String method);
+
+    double getP99Millis(String method);
+
+    double getMaxMillis(String method);
+
+    /**
+     * Reinicia todas las mediciones.
+     */
+    void reset();
+}
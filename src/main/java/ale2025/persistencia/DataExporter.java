@@ -0,0 +1,255 @@
+package ale2025.persistencia;
+
+import java.io.BufferedWriter;      // Escritor con búfer: agrupa las filas antes de llegar al canal del archivo.
+import java.io.IOException;         // Errores de entrada/salida al escribir el archivo.
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel; // Canal del archivo de destino.
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;  // Clase para ejecutar consultas SQL preparadas, previniendo inyecciones SQL.
+import java.sql.ResultSet;          // Cursor de solo avance que se recorre fila por fila.
+import java.sql.SQLException;       // Clase para manejar errores relacionados con la base de datos SQL.
+import java.util.zip.GZIPOutputStream; // Compresión opcional del archivo exportado.
+
+/**
+ * Exporta citas (con el nombre del paciente y del médico) y pacientes a CSV o JSON Lines.
+ *
+ * La consulta se recorre con un cursor de solo avance y cada fila se escribe directamente al
+ * archivo, sin acumular resultados en listas, por lo que el uso de memoria es constante sin
+ * importar la cantidad de filas. El archivo puede comprimirse con gzip.
+ */
+public class DataExporter {
+    /** Formatos de exportación soportados. */
+    public enum Formato {
+        CSV,
+        JSONL
+    }
+
+    private static final int FETCH_SIZE = 1000;          // Filas que el driver trae por viaje a la base de datos.
+    private static final int BUFFER_SIZE = 64 * 1024;    // Tamaño del búfer de escritura.
+    private static final long REPORTE_CADA = 100_000;    // Cada cuántas filas se informa el rendimiento.
+
+    private static final String SQL_CITAS = "SELECT c.id, c.fechaCita, c.costoConsulta, " +
+            "p.id, p.nombreCompleto, m.id, m.nombreCompleto " +
+            "FROM (SELECT id, pacienteId, medicoId, fechaCita, costoConsulta FROM Citas " +
+            "UNION ALL SELECT id, pacienteId, medicoId, fechaCita, costoConsulta FROM CitasHistorico) c " + // Incluye las archivadas.
+            "INNER JOIN Pacientes p ON p.id = c.pacienteId " +
+            "INNER JOIN Medicos m ON m.id = c.medicoId " +
+            "ORDER BY c.id";
+    private static final String[] COLUMNAS_CITAS = {
+            "id", "fechaCita", "costoConsulta", "pacienteId", "paciente", "medicoId", "medico"};
+
+    private static final String SQL_PACIENTES = "SELECT id, nombreCompleto, telefono, fechaNacimiento " +
+            "FROM Pacientes " +
+            "ORDER BY id";
+    private static final String[] COLUMNAS_PACIENTES = {
+            "id", "nombreCompleto", "telefono", "fechaNacimiento"};
+
+    private final ConnectionManager conn; // Objeto para gestionar la conexión con la base de datos.
+
+    public DataExporter() {
+        conn = ConnectionManager.getInstance();
+    }
+
+    /**
+     * Exporta todas las citas junto con el nombre del paciente y del médico.
+     *
+     * @param destino Archivo de destino (se sobrescribe si existe).
+     * @param formato Formato de salida (CSV o JSONL).
+     * @param gzip true para comprimir la salida con gzip.
+     * @return Un Resultado con la cantidad de filas y el rendimiento obtenido.
+     * @throws SQLException Si ocurre un error al consultar la base de datos.
+     * @throws IOException Si ocurre un error al escribir el archivo.
+     */
+    public Resultado exportCitas(Path destino, Formato formato, boolean gzip) throws SQLException, IOException {
+        return export(SQL_CITAS, COLUMNAS_CITAS, destino, formato, gzip);
+    }
+
+    /**
+     * Exporta todos los pacientes.
+     *
+     * @param destino Archivo de destino (se sobrescribe si existe).
+     * @param formato Formato de salida (CSV o JSONL).
+     * @param gzip true para comprimir la salida con gzip.
+     * @return Un Resultado con la cantidad de filas y el rendimiento obtenido.
+     * @throws SQLException Si ocurre un error al consultar la base de datos.
+     * @throws IOException Si ocurre un error al escribir el archivo.
+     */
+    public Resultado exportPacientes(Path destino, Formato formato, boolean gzip) throws SQLException, IOException {
+        return export(SQL_PACIENTES, COLUMNAS_PACIENTES, destino, formato, gzip);
+    }
+
+    private Resultado export(String sql, String[] columnas, Path destino, Formato formato, boolean gzip)
+            throws SQLException, IOException {
+        Resultado res = new Resultado();
+        long inicio = System.nanoTime();
+        Connection connection = null;
+        PreparedStatement localPs = null;
+        ResultSet localRs = null;
+        try (FileChannel channel = FileChannel.open(destino, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             BufferedWriter out = new BufferedWriter(new OutputStreamWriter(
+                     openStream(channel, gzip), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            connection = conn.connect();
+            // Cursor de solo avance y solo lectura: el driver no necesita materializar el resultado.
+            localPs = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            localPs.setFetchSize(FETCH_SIZE);
+            localRs = localPs.executeQuery();
+
+            if (formato == Formato.CSV) {
+                out.write(String.join(",", columnas));
+                out.newLine();
+            }
+            Object[] valores = new Object[columnas.length]; // Se reutiliza en cada fila.
+            while (localRs.next()) {
+                for (int i = 0; i < columnas.length; i++) {
+                    valores[i] = localRs.getObject(i + 1);
+                }
+                if (formato == Formato.CSV) {
+                    writeCsv(out, valores);
+                } else {
+                    writeJson(out, columnas, valores);
+                }
+                res.filas++;
+                if (res.filas % REPORTE_CADA == 0) {
+                    System.out.printf("Filas exportadas: %d (%.0f filas/s)%n",
+                            res.filas, res.filas / segundosDesde(inicio));
+                }
+            }
+        } catch (SQLException ex) {
+            throw new SQLException("Error al exportar: " + ex.getMessage(), ex);
+        } finally {
+            if (localRs != null) {
+                try {
+                    localRs.close(); // Cerrar el conjunto de resultados para liberar recursos.
+                } catch (SQLException e) {
+                    System.err.println("Error al cerrar ResultSet en export (DataExporter): " + e.getMessage());
+                }
+            }
+            if (localPs != null) {
+                try {
+                    localPs.close(); // Cerrar la sentencia preparada para liberar recursos.
+                } catch (SQLException e) {
+                    System.err.println("Error al cerrar PreparedStatement en export (DataExporter): " + e.getMessage());
+                }
+            }
+            if (connection != null) {
+                connection.close(); // Devolver la conexión al grupo.
+            }
+        }
+        res.segundos = segundosDesde(inicio);
+        return res;
+    }
+
+    private static OutputStream openStream(FileChannel channel, boolean gzip) throws IOException {
+        OutputStream os = Channels.newOutputStream(channel);
+        return gzip ? new GZIPOutputStream(os, BUFFER_SIZE) : os;
+    }
+
+    private static double segundosDesde(long inicio) {
+        return (System.nanoTime() - inicio) / 1_000_000_000.0;
+    }
+
+    private static void writeCsv(BufferedWriter out, Object[] valores) throws IOException {
+        for (int i = 0; i < valores.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            Object v = valores[i];
+            if (v == null) {
+                continue; // Campo vacío para NULL.
+            }
+            String s = v.toString();
+            if (s.indexOf(',') >= 0 || s.indexOf('"') >= 0 || s.indexOf('\n') >= 0 || s.indexOf('\r') >= 0) {
+                out.write('"');
+                out.write(s.replace("\"", "\"\""));
+                out.write('"');
+            } else {
+                out.write(s);
+            }
+        }
+        out.newLine();
+    }
+
+    private static void writeJson(BufferedWriter out, String[] columnas, Object[] valores) throws IOException {
+        out.write('{');
+        for (int i = 0; i < valores.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            out.write('"');
+            out.write(columnas[i]);
+            out.write("\":");
+            Object v = valores[i];
+            if (v == null) {
+                out.write("null");
+            } else if (v instanceof Number) {
+                out.write(v.toString());
+            } else {
+                writeJsonString(out, v.toString());
+            }
+        }
+        out.write('}');
+        out.write('\n'); // JSON Lines usa siempre '\n' como separador.
+    }
+
+    private static void writeJsonString(BufferedWriter out, String s) throws IOException {
+        out.write('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"':
+                    out.write("\\\"");
+                    break;
+                case '\\':
+                    out.write("\\\\");
+                    break;
+                case '\n':
+                    out.write("\\n");
+                    break;
+                case '\r':
+                    out.write("\\r");
+                    break;
+                case '\t':
+                    out.write("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.write(c);
+                    }
+            }
+        }
+        out.write('"');
+    }
+
+    /**
+     * Resumen de una exportación.
+     */
+    public static class Resultado {
+        private long filas;
+        private double segundos;
+
+        public long getFilas() {
+            return filas;
+        }
+
+        public double getSegundos() {
+            return segundos;
+        }
+
+        public double getFilasPorSegundo() {
+            return segundos > 0 ? filas / segundos : 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("filas=%d, %.1f s, %.0f filas/s", filas, segundos, getFilasPorSegundo());
+        }
+    }
+}
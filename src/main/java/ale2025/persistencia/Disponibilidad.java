@@ -0,0 +1,298 @@
+package ale2025.persistencia;
+
+import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import ale2025.dominio.Horario;
+import ale2025.dominio.HorarioCompacto;
+import ale2025.utils.IntObjectMap;
+
+/**
+ * Disponibilidad semanal de los médicos: los horarios de cada médico compilados en un mapa de bits con un
+ * bit por turno de la semana (por defecto turnos de 15 minutos: 96 por día y 672 por semana, que caben en 11
+ * palabras de 64 bits por médico; con -Dale2025.disponibilidad.minutos=5, 2016 bits).
+ *
+ * Así, saber si un médico está de turno en un momento es consultar un bit, y saber qué médicos de una
+ * especialidad están de turno es consultar un bit por médico; {@link #cobertura(int...)} y
+ * {@link #enComun(int...)} combinan los turnos de varios médicos con OR y AND.
+ *
+ * Un turno se marca si el horario cubre su comienzo: los horarios registrados en múltiplos de la duración
+ * del turno se representan exactamente, y los demás se redondean a turnos completos. Un horario cuya hora
+ * de fin es anterior o igual a la de inicio termina al día siguiente (el domingo continúa en el lunes), y
+ * los horarios con un día de la semana que no se reconoce no marcan ningún turno.
+ *
+ * Se carga con todos los horarios en la primera consulta y se mantiene al día con las escrituras de
+ * HorarioDAO, que recalculan solo los turnos de los médicos afectados. Los cambios hechos desde otras
+ * terminales se ven al recargar, a los ale2025.cache.ttlSeconds segundos (300 por defecto), igual que en
+ * {@link ClientCache}.
+ */
+public final class Disponibilidad {
+    /** Duración de cada turno, en minutos. */
+    public static final int DEFAULT_MINUTOS = 15;
+    private static final int MINUTOS_POR_DIA = 24 * 60;
+    private static final int MAX_RECARGAS = 3; // Intentos de carga sin escrituras concurrentes.
+
+    private static final Disponibilidad INSTANCE = new Disponibilidad(
+            Integer.getInteger("ale2025.disponibilidad.minutos", DEFAULT_MINUTOS),
+            TimeUnit.SECONDS.toMillis(Long.getLong("ale2025.cache.ttlSeconds", 300)));
+
+    private final int minutos;
+    private final int turnosPorDia;
+    private final long vigenciaMs; // 0: no se recarga.
+
+    // Protegidos por this. Los BitSet de turnos no se modifican una vez publicados: cada cambio crea uno nuevo.
+    private final IntObjectMap<HorarioCompacto> horarios = new IntObjectMap<>();      // ID de horario -> horario.
+    private final IntObjectMap<List<HorarioCompacto>> porMedico = new IntObjectMap<>(); // ID de médico -> horarios.
+    private final IntObjectMap<BitSet> turnos = new IntObjectMap<>();                 // ID de médico -> turnos.
+    private long cargada;   // System.currentTimeMillis() de la última carga; 0 si no está cargada.
+    private long cambios;   // Escrituras aplicadas, para detectar las concurrentes con una carga.
+
+    Disponibilidad(int minutos, long vigenciaMs) {
+        if (minutos <= 0 || MINUTOS_POR_DIA % minutos != 0) {
+            throw new IllegalArgumentException("La duración del turno debe dividir el día en partes iguales: " + minutos);
+        }
+        this.minutos = minutos;
+        this.turnosPorDia = MINUTOS_POR_DIA / minutos;
+        this.vigenciaMs = vigenciaMs;
+    }
+
+    public static Disponibilidad getInstance() {
+        return INSTANCE;
+    }
+
+    public int getMinutosPorTurno() {
+        return minutos;
+    }
+
+    /**
+     * Posición en los mapas de bits del turno que contiene el momento indicado.
+     */
+    public int turno(DayOfWeek dia, LocalTime hora) {
+        return (dia.getValue() - 1) * turnosPorDia + (hora.getHour() * 60 + hora.getMinute()) / minutos;
+    }
+
+    /**
+     * Indica si el médico está de turno en el momento indicado.
+     */
+    public boolean estaDeTurno(int medicoId, LocalDateTime momento) throws SQLException {
+        return estaDeTurno(medicoId, momento.getDayOfWeek(), momento.toLocalTime());
+    }
+
+    public boolean estaDeTurno(int medicoId, DayOfWeek dia, LocalTime hora) throws SQLException {
+        BitSet bits = turnosDe(medicoId);
+        return bits != null && bits.get(turno(dia, hora));
+    }
+
+    /**
+     * Filtra los médicos que están de turno en el momento indicado (por ejemplo, los de una especialidad).
+     *
+     * @return Los IDs de los médicos de turno, en el mismo orden.
+     */
+    public int[] deTurno(int[] medicoIds, LocalDateTime momento) throws SQLException {
+        int turno = turno(momento.getDayOfWeek(), momento.toLocalTime());
+        asegurarCargada();
+        int[] res = new int[medicoIds.length];
+        int n = 0;
+        synchronized (this) {
+            for (int id : medicoIds) {
+                BitSet bits = turnos.get(id);
+                if (bits != null && bits.get(turno)) {
+                    res[n++] = id;
+                }
+            }
+        }
+        return n == res.length ? res : Arrays.copyOf(res, n);
+    }
+
+    /**
+     * @return Una copia de los turnos del médico (vacía si no tiene horarios).
+     */
+    public BitSet getTurnos(int medicoId) throws SQLException {
+        BitSet bits = turnosDe(medicoId);
+        return bits != null ? (BitSet) bits.clone() : new BitSet(7 * turnosPorDia);
+    }
+
+    /**
+     * @return Los turnos en que al menos uno de los médicos está de turno (OR de sus turnos).
+     */
+    public BitSet cobertura(int... medicoIds) throws SQLException {
+        asegurarCargada();
+        BitSet res = new BitSet(7 * turnosPorDia);
+        synchronized (this) {
+            for (int id : medicoIds) {
+                BitSet bits = turnos.get(id);
+                if (bits != null) {
+                    res.or(bits);
+                }
+            }
+        }
+        return res;
+    }
+
+    /**
+     * @return Los turnos en que todos los médicos están de turno (AND de sus turnos).
+     */
+    public BitSet enComun(int... medicoIds) throws SQLException {
+        asegurarCargada();
+        BitSet res = new BitSet(7 * turnosPorDia);
+        if (medicoIds.length == 0) {
+            return res;
+        }
+        res.set(0, 7 * turnosPorDia);
+        synchronized (this) {
+            for (int id : medicoIds) {
+                BitSet bits = turnos.get(id);
+                if (bits == null) {
+                    res.clear();
+                    break;
+                }
+                res.and(bits);
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Descarta los turnos; la próxima consulta vuelve a cargar todos los horarios.
+     */
+    public synchronized void invalidar() {
+        cargada = 0;
+        cambios++;
+    }
+
+    /**
+     * Aplica un horario creado o modificado: recalcula los turnos de su médico (y los del médico anterior,
+     * si cambió). Si los turnos todavía no se cargaron, no hace nada.
+     */
+    synchronized void guardado(Horario horario) {
+        cambios++; // También durante la primera carga, para que se repita si no incluyó este cambio.
+        if (cargada == 0) {
+            return;
+        }
+        HorarioCompacto nuevo = HorarioCompacto.de(horario);
+        HorarioCompacto anterior = horarios.put(nuevo.id(), nuevo);
+        if (anterior != null) {
+            quitar(anterior);
+        }
+        lista(nuevo.medicoId()).add(nuevo);
+        recalcular(nuevo.medicoId());
+    }
+
+    /**
+     * Aplica un horario eliminado. Si los turnos todavía no se cargaron, no hace nada.
+     */
+    synchronized void eliminado(Horario horario) {
+        cambios++;
+        if (cargada == 0) {
+            return;
+        }
+        HorarioCompacto anterior = horarios.remove(horario.getId());
+        if (anterior != null) {
+            quitar(anterior);
+        }
+    }
+
+    private BitSet turnosDe(int medicoId) throws SQLException {
+        asegurarCargada();
+        synchronized (this) {
+            return turnos.get(medicoId);
+        }
+    }
+
+    // Carga todos los horarios si no están cargados o vencieron. La consulta se hace fuera del monitor; si
+    // mientras tanto se aplicó una escritura, se vuelve a cargar para no perderla.
+    private void asegurarCargada() throws SQLException {
+        for (int intento = 0; intento < MAX_RECARGAS; intento++) {
+            long inicio;
+            synchronized (this) {
+                if (cargada != 0 && (vigenciaMs == 0 || System.currentTimeMillis() - cargada < vigenciaMs)) {
+                    return;
+                }
+                inicio = cambios;
+            }
+            ArrayList<HorarioCompacto> todos = HorarioDAO.getInstance().getAllCompactos();
+            synchronized (this) {
+                if (cambios == inicio || intento == MAX_RECARGAS - 1) {
+                    instalar(todos);
+                    return;
+                }
+            }
+        }
+    }
+
+    private void instalar(List<HorarioCompacto> todos) {
+        horarios.clear();
+        porMedico.clear();
+        turnos.clear();
+        for (HorarioCompacto h : todos) {
+            horarios.put(h.id(), h);
+            lista(h.medicoId()).add(h);
+        }
+        porMedico.forEach((medicoId, lista) -> recalcular(medicoId));
+        cargada = System.currentTimeMillis();
+    }
+
+    private List<HorarioCompacto> lista(int medicoId) {
+        List<HorarioCompacto> lista = porMedico.get(medicoId);
+        if (lista == null) {
+            lista = new ArrayList<>(4);
+            porMedico.put(medicoId, lista);
+        }
+        return lista;
+    }
+
+    private void quitar(HorarioCompacto horario) {
+        List<HorarioCompacto> lista = porMedico.get(horario.medicoId());
+        if (lista != null) {
+            lista.removeIf(h -> h.id() == horario.id());
+            recalcular(horario.medicoId());
+        }
+    }
+
+    // Vuelve a compilar los turnos del médico a partir de sus horarios y los publica.
+    private void recalcular(int medicoId) {
+        List<HorarioCompacto> lista = porMedico.get(medicoId);
+        if (lista == null || lista.isEmpty()) {
+            porMedico.remove(medicoId);
+            turnos.remove(medicoId);
+            return;
+        }
+        int total = 7 * turnosPorDia;
+        BitSet bits = new BitSet(total);
+        for (HorarioCompacto h : lista) {
+            if (h.diaSemana() == 0) {
+                continue; // Día no reconocido.
+            }
+            int duracion = h.finMinuto() - h.inicioMinuto();
+            if (duracion <= 0) {
+                duracion += MINUTOS_POR_DIA; // Termina al día siguiente.
+            }
+            int base = (h.diaSemana() - 1) * turnosPorDia;
+            int desde = base + techo(h.inicioMinuto());
+            int hasta = base + techo(h.inicioMinuto() + duracion);
+            if (desde >= total) {
+                desde -= total;
+                hasta -= total;
+            }
+            if (hasta <= total) {
+                bits.set(desde, hasta);
+            } else {
+                bits.set(desde, total); // Del domingo continúa en el lunes.
+                bits.set(0, hasta - total);
+            }
+        }
+        turnos.put(medicoId, bits);
+    }
+
+    // Primer turno que comienza en el minuto indicado o después.
+    private int techo(int minuto) {
+        return (minuto + minutos - 1) / minutos;
+    }
+}
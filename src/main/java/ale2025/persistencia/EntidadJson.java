@@ -0,0 +1,184 @@
+package ale2025.persistencia;
+
+import ale2025.dominio.Cita;
+import ale2025.dominio.Especialidad;
+import ale2025.dominio.Horario;
+import ale2025.dominio.Medico;
+import ale2025.dominio.Paciente;
+import ale2025.dominio.User;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Conversión entre las entidades del dominio y su representación JSON (Map) en la API HTTP.
+ * La usan tanto el servidor como los DAOs remotos del cliente, para que ambos lados coincidan.
+ *
+ * Las fechas se escriben como yyyy-MM-dd y las horas como HH:mm:ss. El hash de la contraseña de
+ * un usuario nunca se envía en las respuestas: solo viaja del cliente al servidor (al crear,
+ * autenticar o cambiar la contraseña) en la propiedad "password".
+ *
+ * Todas las entidades incluyen su "version" (concurrencia optimista, ver VersionConflictException);
+ * si falta, se toma 0, que no coincide con ninguna fila.
+ *
+ * @param <T> Tipo de la entidad.
+ */
+public final class EntidadJson<T> {
+    public static final EntidadJson<Cita> CITAS = new EntidadJson<>("citas",
+            c -> map("id", c.getId(), "pacienteId", c.getPacienteId(), "medicoId", c.getMedicoId(),
+                    "fechaCita", c.getFechaCita(), "costoConsulta", c.getCostoConsulta(), "version", c.getVersion()),
+            m -> {
+                Cita c = new Cita(entero(m, "id"), entero(m, "pacienteId"), entero(m, "medicoId"),
+                        fecha(m, "fechaCita"), decimal(m, "costoConsulta"));
+                c.setVersion(entero(m, "version"));
+                return c;
+            },
+            Cita::getId);
+
+    public static final EntidadJson<Paciente> PACIENTES = new EntidadJson<>("pacientes",
+            p -> map("id", p.getId(), "nombreCompleto", p.getNombreCompleto(), "telefono", p.getTelefono(),
+                    "fechaNacimiento", p.getFechaNacimiento(), "version", p.getVersion()),
+            m -> {
+                Paciente p = new Paciente(entero(m, "id"), texto(m, "nombreCompleto"), texto(m, "telefono"),
+                        fecha(m, "fechaNacimiento"));
+                p.setVersion(entero(m, "version"));
+                return p;
+            },
+            Paciente::getId);
+
+    public static final EntidadJson<Medico> MEDICOS = new EntidadJson<>("medicos",
+            x -> map("id", x.getId(), "nombreCompleto", x.getNombreCompleto(),
+                    "especialidadId", x.getEspecialidadId(), "sueldo", x.getSueldo(), "version", x.getVersion()),
+            m -> {
+                Medico x = new Medico(entero(m, "id"), texto(m, "nombreCompleto"), entero(m, "especialidadId"),
+                        decimal(m, "sueldo"));
+                x.setVersion(entero(m, "version"));
+                return x;
+            },
+            Medico::getId);
+
+    public static final EntidadJson<Especialidad> ESPECIALIDADES = new EntidadJson<>("especialidades",
+            e -> map("id", e.getId(), "nombre", e.getNombre(), "descripcion", e.getDescripcion(),
+                    "version", e.getVersion()),
+            m -> {
+                Especialidad e = new Especialidad(entero(m, "id"), texto(m, "nombre"), texto(m, "descripcion"));
+                e.setVersion(entero(m, "version"));
+                return e;
+            },
+            Especialidad::getId);
+
+    public static final EntidadJson<Horario> HORARIOS = new EntidadJson<>("horarios",
+            h -> map("id", h.getId(), "medicoId", h.getMedicoId(), "diaSemana", h.getDiaSemana(),
+                    "horaInicio", h.getHoraInicio(), "horaFin", h.getHoraFin(), "version", h.getVersion()),
+            m -> {
+                Horario h = new Horario(entero(m, "id"), entero(m, "medicoId"), texto(m, "diaSemana"),
+                        hora(m, "horaInicio"), hora(m, "horaFin"));
+                h.setVersion(entero(m, "version"));
+                return h;
+            },
+            Horario::getId);
+
+    public static final EntidadJson<User> USUARIOS = new EntidadJson<>("usuarios",
+            u -> map("id", u.getId(), "name", u.getName(), "email", u.getEmail(), "status", u.getStatus(),
+                    "version", u.getVersion()),
+            m -> {
+                User u = new User(entero(m, "id"), texto(m, "name"), texto(m, "password"), texto(m, "email"),
+                        (byte) entero(m, "status"));
+                u.setVersion(entero(m, "version"));
+                return u;
+            },
+            User::getId);
+
+    private final String nombre;
+    private final Function<T, Map<String, Object>> aMap;
+    private final Function<Map<String, Object>, T> desdeMap;
+    private final ToIntFunction<T> id;
+
+    private EntidadJson(String nombre, Function<T, Map<String, Object>> aMap,
+                        Function<Map<String, Object>, T> desdeMap, ToIntFunction<T> id) {
+        this.nombre = nombre;
+        this.aMap = aMap;
+        this.desdeMap = desdeMap;
+        this.id = id;
+    }
+
+    /**
+     * @return El nombre de la colección en las rutas de la API (ej. "pacientes" en /api/pacientes).
+     */
+    public String getNombre() {
+        return nombre;
+    }
+
+    public Map<String, Object> toMap(T entidad) {
+        return aMap.apply(entidad);
+    }
+
+    /**
+     * @throws IllegalArgumentException Si falta una propiedad obligatoria o tiene un formato inválido.
+     */
+    public T fromMap(Map<String, Object> map) {
+        return desdeMap.apply(map);
+    }
+
+    public int getId(T entidad) {
+        return id.applyAsInt(entidad);
+    }
+
+    /**
+     * Crea el Map de una entidad a partir de pares clave, valor. Las fechas y horas se convierten a texto.
+     */
+    static Map<String, Object> map(Object... clavesYValores) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        for (int i = 0; i < clavesYValores.length; i += 2) {
+            Object v = clavesYValores[i + 1];
+            if (v instanceof Date || v instanceof Time) {
+                v = v.toString();
+            } else if (v instanceof Byte) {
+                v = ((Byte) v).intValue();
+            }
+            m.put((String) clavesYValores[i], v);
+        }
+        return m;
+    }
+
+    static int entero(Map<String, Object> m, String clave) {
+        Object v = m.get(clave);
+        if (v == null) {
+            return 0;
+        }
+        if (!(v instanceof Number)) {
+            throw new IllegalArgumentException("'" + clave + "' debe ser numérico");
+        }
+        return ((Number) v).intValue();
+    }
+
+    static double decimal(Map<String, Object> m, String clave) {
+        Object v = m.get(clave);
+        if (v == null) {
+            return 0;
+        }
+        if (!(v instanceof Number)) {
+            throw new IllegalArgumentException("'" + clave + "' debe ser numérico");
+        }
+        return ((Number) v).doubleValue();
+    }
+
+    static String texto(Map<String, Object> m, String clave) {
+        Object v = m.get(clave);
+        return v == null ? null : v.toString();
+    }
+
+    static Date fecha(Map<String, Object> m, String clave) {
+        String v = texto(m, clave);
+        return v == null ? null : Date.valueOf(v); // Date.valueOf lanza IllegalArgumentException si es inválida.
+    }
+
+    static Time hora(Map<String, Object> m, String clave) {
+        String v = texto(m, clave);
+        return v == null ? null : Time.valueOf(v);
+    }
+}
@@ -0,0 +1,163 @@
+package ale2025.persistencia;
+
+import ale2025.utils.IntObjectMap;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caché de entidades por ID, segura para varios hilos.
+ *
+ * Se llena con las lecturas (getById y búsquedas) y se invalida con cada modificación o eliminación.
+ * Las entidades del dominio son mutables, por lo que quien reciba una entidad de la caché no debe
+ * modificarla; el servidor HTTP solo las serializa.
+ *
+ * Opcionalmente las entradas vencen después de un tiempo, para acotar cuánto puede quedar desactualizada
+ * una entidad que se modificó desde otra terminal.
+ *
+ * También opcionalmente se limita la cantidad de entradas, con dos generaciones: las entradas nuevas van
+ * a la generación actual y, cuando esta llega a la mitad del límite, pasa a ser la anterior y se descarta
+ * la que había. Una entrada de la generación anterior que se vuelve a consultar pasa a la actual, así que
+ * se descartan las que no se usaron durante la última media capacidad de inserciones (una aproximación a
+ * LRU sin listas ni nodos por entrada).
+ *
+ * Las entradas se guardan en un {@link IntObjectMap} (sin un Integer ni un nodo por entrada) protegido por
+ * el monitor de la caché; las secciones críticas son solo la consulta o la modificación del mapa, y la
+ * carga desde la base de datos se hace fuera de ellas.
+ *
+ * @param <T> Tipo de la entidad.
+ */
+public final class EntityCache<T> {
+    // Protegidas por this. Sin límite de entradas solo se usa la generación actual.
+    private IntObjectMap<Entrada<T>> entidades = new IntObjectMap<>(); // Generación actual.
+    private IntObjectMap<Entrada<T>> anteriores = new IntObjectMap<>(); // Generación anterior.
+    private final long vigenciaNanos; // 0: las entradas no vencen.
+    private final int maxEntradas;    // 0: sin límite.
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+
+    /** Carga una entidad por ID desde la base de datos. */
+    @FunctionalInterface
+    public interface Cargador<T> {
+        T cargar(int id) throws SQLException;
+    }
+
+    public EntityCache() {
+        this(0);
+    }
+
+    /**
+     * @param vigenciaMs Tiempo que una entrada se considera válida (0 para que no venza).
+     */
+    public EntityCache(long vigenciaMs) {
+        this(vigenciaMs, 0);
+    }
+
+    /**
+     * @param vigenciaMs  Tiempo que una entrada se considera válida (0 para que no venza).
+     * @param maxEntradas Cantidad máxima de entradas (0 para no limitarla).
+     */
+    public EntityCache(long vigenciaMs, int maxEntradas) {
+        if (maxEntradas < 0) {
+            throw new IllegalArgumentException("La cantidad máxima de entradas no puede ser negativa");
+        }
+        this.vigenciaNanos = TimeUnit.MILLISECONDS.toNanos(vigenciaMs);
+        this.maxEntradas = maxEntradas;
+    }
+
+    /**
+     * Retorna la entidad de la caché o, si no está (o venció), la carga y la guarda.
+     *
+     * @return La entidad, o null si no existe (los resultados null no se guardan).
+     */
+    public T get(int id, Cargador<T> cargador) throws SQLException {
+        Entrada<T> entrada = buscar(id);
+        if (entrada != null && vigente(entrada)) {
+            aciertos.increment();
+            return entrada.entidad;
+        }
+        fallos.increment();
+        T entidad = cargador.cargar(id);
+        if (entidad != null) {
+            put(id, entidad);
+        }
+        return entidad;
+    }
+
+    /**
+     * @return La entidad si está en la caché y vigente; null en caso contrario (sin cargarla).
+     */
+    public T peek(int id) {
+        Entrada<T> entrada = buscar(id);
+        return entrada != null && vigente(entrada) ? entrada.entidad : null;
+    }
+
+    public void put(int id, T entidad) {
+        Entrada<T> entrada = new Entrada<>(entidad, System.nanoTime());
+        synchronized (this) {
+            guardar(id, entrada);
+        }
+    }
+
+    public synchronized void invalidate(int id) {
+        entidades.remove(id);
+        anteriores.remove(id);
+    }
+
+    public synchronized void clear() {
+        entidades.clear();
+        anteriores.clear();
+    }
+
+    public synchronized int size() {
+        return entidades.size() + anteriores.size();
+    }
+
+    public long getAciertos() {
+        return aciertos.sum();
+    }
+
+    public long getFallos() {
+        return fallos.sum();
+    }
+
+    private synchronized Entrada<T> buscar(int id) {
+        Entrada<T> entrada = entidades.get(id);
+        if (entrada == null && maxEntradas > 0) {
+            entrada = anteriores.remove(id);
+            if (entrada != null) {
+                guardar(id, entrada); // Se usó: pasa a la generación actual.
+            }
+        }
+        return entrada;
+    }
+
+    // Llamar con el monitor tomado.
+    private void guardar(int id, Entrada<T> entrada) {
+        entidades.put(id, entrada);
+        if (maxEntradas == 0) {
+            return;
+        }
+        anteriores.remove(id);
+        if (entidades.size() >= Math.max(1, maxEntradas / 2)) {
+            // Cada generación tiene a lo sumo la mitad del límite: se descarta la anterior y la actual la reemplaza.
+            anteriores = entidades;
+            entidades = new IntObjectMap<>();
+        }
+    }
+
+    private boolean vigente(Entrada<T> entrada) {
+        return vigenciaNanos == 0 || System.nanoTime() - entrada.cargada < vigenciaNanos;
+    }
+
+    private static final class Entrada<T> {
+        private final T entidad;
+        private final long cargada; // System.nanoTime() al guardarla.
+
+        Entrada(T entidad, long cargada) {
+            this.entidad = entidad;
+            this.cargada = cargada;
+        }
+    }
+}
@@ -4,18 +4,44 @@ import java.sql.PreparedStatement; // Clase para ejecutar consultas SQL preparad
 import java.sql.ResultSet;          // Interfaz para representar el resultado de una consulta SQL.
 import java.sql.SQLException;       // Clase para manejar errores relacionados con la base de datos SQL.
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Flow; // Publicador de resultados con control de demanda.
 
 import ale2025.dominio.Especialidad; // Clase que representa la entidad de especialidad en el dominio de la aplicación.
+import ale2025.utils.CUD; // Operación registrada en la auditoría.
 
-public class EspecialidadDAO {
-    private ConnectionManager conn; // Objeto para gestionar la conexión con la base de datos.
-    private PreparedStatement ps;   // Objeto para ejecutar consultas SQL preparadas.
-    private ResultSet rs;           // Objeto para almacenar el resultado de una consulta SQL.
+public class EspecialidadDAO implements Dao<Especialidad> {
+    private final ConnectionManager conn; // Objeto para gestionar la conexión con la base de datos.
+    private static EspecialidadDAO instance; // Instancia compartida, ver getInstance().
+    // Sincronización masiva de especialidades, ver upsert(). Sin ID, se buscan por nombre (es único).
+    private static final Upsert<Especialidad> UPSERT = new Upsert<>(EntidadJson.ESPECIALIDADES, "Especialidades",
+            "t.id = s.id OR (s.id = 0 AND t.nombre = s.nombre)",
+            new String[]{"nombre", "descripcion"},
+            new String[]{null, null},
+            Especialidad::getId, e -> e.getId() > 0 ? (Object) e.getId() : e.getNombre(),
+            Especialidad::setId, Especialidad::setVersion,
+            (ps, i, e) -> {
+                ps.setString(i, e.getNombre());
+                ps.setString(i + 1, e.getDescripcion());
+            });
 
     public EspecialidadDAO() {
         conn = ConnectionManager.getInstance();
     }
 
+    /**
+     * Retorna la instancia compartida del DAO (no guarda estado entre llamadas, por lo que puede compartirse).
+     * Si la propiedad del sistema ale2025.api.url está definida, la instancia trabaja contra el servidor
+     * HTTP de la clínica en lugar de conectarse directamente a la base de datos.
+     */
+    public static synchronized EspecialidadDAO getInstance() {
+        if (instance == null) {
+            instance = ApiClient.isConfigured() ? new RemoteDaos.Especialidades(ApiClient.getInstance()) : new EspecialidadDAO();
+        }
+        return instance;
+    }
+
     /**
      * Crea una nueva especialidad en la base de datos.
      *
@@ -27,10 +53,12 @@ public class EspecialidadDAO {
     public Especialidad create(Especialidad especialidad) throws SQLException {
         Especialidad res = null; // Variable para almacenar la especialidad creada que se retornará.
         PreparedStatement localPs = null; // Usar una variable local para el PreparedStatement del try
+        DaoCall call = DaoMetrics.start("EspecialidadDAO.create"); // Medición de latencia, filas y errores.
+        int idGenerado = 0; // ID asignado por la base de datos.
         try {
             // Preparar la sentencia SQL para la inserción de una nueva especialidad.
             // Se especifica que se retornen las claves generadas automáticamente.
-            localPs = conn.connect().prepareStatement(
+            localPs = call.prepareStatement(conn,
                     "INSERT INTO " +
                             "Especialidades (nombre, descripcion)" +
                             "VALUES (?, ?)",
@@ -40,7 +68,7 @@ public class EspecialidadDAO {
             localPs.setString(1, especialidad.getNombre()); // Asignar el nombre de la especialidad.
             localPs.setString(2, especialidad.getDescripcion()); // Asignar la descripción de la especialidad.
             // Ejecutar la sentencia de inserción y obtener el número de filas afectadas.
-            int affectedRows = localPs.executeUpdate();
+            int affectedRows = call.rows(localPs.executeUpdate());
             // Verificar si la inserción fue exitosa (al menos una fila afectada).
             if (affectedRows != 0) {
                 // Obtener las claves generadas automáticamente por la base de datos (en este caso, el ID).
@@ -48,15 +76,14 @@ public class EspecialidadDAO {
                 // Mover el cursor al primer resultado (si existe).
                 if (generatedKeys.next()) {
                     // Obtener el ID generado. Generalmente la primera columna contiene la clave primaria.
-                    int idGenerado = generatedKeys.getInt(1);
-                    // Recuperar la especialidad completa utilizando el ID generado.
-                    res = getById(idGenerado);
+                    idGenerado = generatedKeys.getInt(1);
                 } else {
                     // Lanzar una excepción si la creación de la especialidad falló y no se obtuvo un ID.
                     throw new SQLException("Creating especialidad failed, no ID obtained.");
                 }
             }
         } catch (SQLException ex) {
+            call.error(); // Registrar el error en las métricas.
             // Capturar cualquier excepción SQL que ocurra durante el proceso.
             throw new SQLException("Error al crear la especialidad: " + ex.getMessage(), ex);
         } finally {
@@ -68,7 +95,14 @@ public class EspecialidadDAO {
                     System.err.println("Error al cerrar PreparedStatement en create (EspecialidadDAO): " + e.getMessage());
                 }
             }
-            conn.disconnect(); // Desconectar de la base de datos.
+            call.end(); // Registrar la medición de la llamada y liberar la conexión.
+        }
+        if (idGenerado != 0) {
+            // Recuperar la especialidad completa utilizando el ID generado, una vez liberada la conexión de la inserción.
+            res = getById(idGenerado);
+        }
+        if (res != null) {
+            AuditLog.registrar(CUD.CREATE, EntidadJson.ESPECIALIDADES, null, res); // Alta, con el ID definitivo.
         }
         return res; // Retornar la especialidad creada (con su ID asignado) o null si hubo un error.
     }
@@ -81,31 +115,50 @@ public class EspecialidadDAO {
      * correctamente establecidos para realizar la actualización.
      * @return true si la actualización de la especialidad fue exitosa (al menos una fila afectada),
      * false en caso contrario.
+     * @throws VersionConflictException Si la especialidad fue modificada o eliminada desde que se leyó.
      * @throws SQLException Si ocurre un error al interactuar con la base de datos
      * durante la actualización de la especialidad.
      */
     public boolean update(Especialidad especialidad) throws SQLException {
         boolean res = false; // Variable para indicar si la actualización fue exitosa.
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        Map<String, Object> antes = null; // Valores que reemplazó la escritura, para la auditoría.
+        DaoCall call = DaoMetrics.start("EspecialidadDAO.update"); // Medición de latencia, filas y errores.
         try {
             // Preparar la sentencia SQL para actualizar la información de una especialidad.
-            ps = conn.connect().prepareStatement(
+            ps = call.prepareStatement(conn,
                     "UPDATE Especialidades " +
-                            "SET nombre = ?, descripcion = ? " +
-                            "WHERE id = ?"
+                            "SET nombre = ?, descripcion = ?, version = version + 1 " +
+                            "OUTPUT deleted.id, deleted.nombre, deleted.descripcion, deleted.version " + // La fila tal como estaba, en la misma sentencia.
+                            "WHERE id = ? AND version = ?"
             );
             // Establecer los valores de los parámetros en la sentencia preparada.
             ps.setString(1, especialidad.getNombre()); // Asignar el nuevo nombre de la especialidad.
             ps.setString(2, especialidad.getDescripcion()); // Asignar la nueva descripción de la especialidad.
             ps.setInt(3, especialidad.getId()); // Establecer la condición WHERE para identificar la especialidad a actualizar por su ID.
+            ps.setInt(4, especialidad.getVersion()); // Solo si la fila sigue con la versión que se leyó.
             // Ejecutar la sentencia de actualización y verificar si se afectó alguna fila.
-            if (ps.executeUpdate() > 0) {
-                res = true; // Si executeUpdate() retorna un valor mayor que 0, significa que la actualización fue exitosa.
+            rs = ps.executeQuery(); // OUTPUT devuelve la fila antes de la escritura.
+            if (rs.next()) {
+                antes = EntidadJson.ESPECIALIDADES.toMap(map(rs));
+                res = true; // Se afectó la fila: la escritura fue exitosa.
+                especialidad.setVersion(especialidad.getVersion() + 1); // La fila quedó con la versión siguiente.
             }
+            call.rows(res ? 1 : 0); // Registrar las filas afectadas.
         } catch (SQLException ex) {
+            call.error(); // Registrar el error en las métricas.
             // Capturar cualquier excepción SQL que ocurra durante el proceso.
             throw new SQLException("Error al modificar la especialidad: " + ex.getMessage(), ex);
         } finally {
             // Bloque finally para asegurar que los recursos se liberen.
+            if (rs != null) {
+                try {
+                    rs.close(); // Cerrar el conjunto de resultados para liberar recursos.
+                } catch (SQLException e) {
+                    System.err.println("Error al cerrar ResultSet en update (EspecialidadDAO): " + e.getMessage());
+                }
+            }
             if (ps != null) {
                 try {
                     ps.close(); // Cerrar la sentencia preparada para liberar recursos.
@@ -113,8 +166,12 @@ public class EspecialidadDAO {
                     System.err.println("Error al cerrar PreparedStatement en update (EspecialidadDAO): " + e.getMessage());
                 }
             }
-            conn.disconnect(); // Desconectar de la base de datos.
+            call.end(); // Registrar la medición de la llamada y liberar la conexión.
+        }
+        if (!res) {
+            throw conflicto(especialidad.getId()); // No se afectó ninguna fila: cambió o fue eliminada desde que se leyó.
         }
+        AuditLog.registrar(CUD.UPDATE, EntidadJson.ESPECIALIDADES, antes, especialidad); // Solo si la escritura se aplicó.
         return res; // Retornar el resultado de la operación de actualización.
     }
 
@@ -125,27 +182,46 @@ public class EspecialidadDAO {
      * Se requiere que el objeto Especialidad tenga el campo 'id' correctamente establecido.
      * @return true si la eliminación de la especialidad fue exitosa (al menos una fila afectada),
      * false en caso contrario.
+     * @throws VersionConflictException Si la especialidad fue modificada o eliminada desde que se leyó.
      * @throws SQLException Si ocurre un error al interactuar con la base de datos
      * durante la eliminación de la especialidad.
      */
     public boolean delete(Especialidad especialidad) throws SQLException {
         boolean res = false; // Variable para indicar si la eliminación fue exitosa.
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        Map<String, Object> antes = null; // Valores que reemplazó la escritura, para la auditoría.
+        DaoCall call = DaoMetrics.start("EspecialidadDAO.delete"); // Medición de latencia, filas y errores.
         try {
             // Preparar la sentencia SQL para eliminar una especialidad por su ID.
-            ps = conn.connect().prepareStatement(
-                    "DELETE FROM Especialidades WHERE id = ?"
+            ps = call.prepareStatement(conn,
+                    "DELETE FROM Especialidades " +
+                            "OUTPUT deleted.id, deleted.nombre, deleted.descripcion, deleted.version " + // La fila tal como estaba, en la misma sentencia.
+                            "WHERE id = ? AND version = ?"
             );
             // Establecer el valor del parámetro en la sentencia preparada (el ID de la especialidad a eliminar).
             ps.setInt(1, especialidad.getId());
+            ps.setInt(2, especialidad.getVersion()); // Solo si la fila sigue con la versión que se leyó.
             // Ejecutar la sentencia de eliminación y verificar si se afectó alguna fila.
-            if (ps.executeUpdate() > 0) {
-                res = true; // Si executeUpdate() retorna un valor mayor que 0, significa que la eliminación fue exitosa.
+            rs = ps.executeQuery(); // OUTPUT devuelve la fila antes de la escritura.
+            if (rs.next()) {
+                antes = EntidadJson.ESPECIALIDADES.toMap(map(rs));
+                res = true; // Se afectó la fila: la escritura fue exitosa.
             }
+            call.rows(res ? 1 : 0); // Registrar las filas afectadas.
         } catch (SQLException ex) {
+            call.error(); // Registrar el error en las métricas.
             // Capturar cualquier excepción SQL que ocurra durante el proceso.
             throw new SQLException("Error al eliminar la especialidad: " + ex.getMessage(), ex);
         } finally {
             // Bloque finally para asegurar que los recursos se liberen.
+            if (rs != null) {
+                try {
+                    rs.close(); // Cerrar el conjunto de resultados para liberar recursos.
+                } catch (SQLException e) {
+                    System.err.println("Error al cerrar ResultSet en delete (EspecialidadDAO): " + e.getMessage());
+                }
+            }
             if (ps != null) {
                 try {
                     ps.close(); // Cerrar la sentencia preparada para liberar recursos.
@@ -153,8 +229,12 @@ public class EspecialidadDAO {
                     System.err.println("Error al cerrar PreparedStatement en delete (EspecialidadDAO): " + e.getMessage());
                 }
             }
-            conn.disconnect(); // Desconectar de la base de datos.
+            call.end(); // Registrar la medición de la llamada y liberar la conexión.
+        }
+        if (!res) {
+            throw conflicto(especialidad.getId()); // No se afectó ninguna fila: cambió o fue eliminada desde que se leyó.
         }
+        AuditLog.registrar(CUD.DELETE, EntidadJson.ESPECIALIDADES, antes, especialidad); // Solo si la escritura se aplicó.
         return res; // Retornar el resultado de la operación de eliminación.
     }
 
@@ -171,9 +251,12 @@ public class EspecialidadDAO {
      */
     public ArrayList<Especialidad> search(String nombre) throws SQLException {
         ArrayList<Especialidad> records = new ArrayList<>(); // Lista para almacenar las especialidades encontradas.
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        DaoCall call = DaoMetrics.start("EspecialidadDAO.search"); // Medición de latencia, filas y errores.
         try {
             // Preparar la sentencia SQL para buscar especialidades por nombre (usando LIKE para búsqueda parcial).
-            ps = conn.connect().prepareStatement("SELECT id, nombre, descripcion " +
+            ps = call.prepareStatement(conn, "SELECT id, nombre, descripcion, version " +
                     "FROM Especialidades " +
                     "WHERE nombre LIKE ?");
             // Establecer el valor del parámetro en la sentencia preparada.
@@ -183,16 +266,11 @@ public class EspecialidadDAO {
             rs = ps.executeQuery();
             // Iterar a través de cada fila del resultado.
             while (rs.next()) {
-                // Crear un nuevo objeto Especialidad para cada registro encontrado.
-                Especialidad especialidad = new Especialidad();
-                // Asignar los valores de las columnas a los atributos del objeto Especialidad.
-                especialidad.setId(rs.getInt(1)); // Obtener el ID de la especialidad.
-                especialidad.setNombre(rs.getString(2)); // Obtener el nombre de la especialidad.
-                especialidad.setDescripcion(rs.getString(3)); // Obtener la descripción de la especialidad.
-                // Agregar el objeto Especialidad a la lista de resultados.
-                records.add(especialidad);
+                records.add(map(rs)); // Crear un objeto Especialidad para cada registro encontrado.
             }
+            call.rows(records.size()); // Registrar la cantidad de filas encontradas.
         } catch (SQLException ex) {
+            call.error(); // Registrar el error en las métricas.
             // Capturar cualquier excepción SQL que ocurra durante el proceso.
             throw new SQLException("Error al buscar especialidades: " + ex.getMessage(), ex);
         } finally {
@@ -211,11 +289,41 @@ public class EspecialidadDAO {
                     System.err.println("Error al cerrar ResultSet en search (EspecialidadDAO): " + e.getMessage());
                 }
             }
-            conn.disconnect(); // Desconectar de la base de datos.
+            call.end(); // Registrar la medición de la llamada y liberar la conexión.
         }
         return records; // Retornar la lista de especialidades encontradas.
     }
 
+    /**
+     * Variante de {@link #search(String)} que emite las especialidades a medida que avanza el cursor, en lugar de
+     * retornarlos en una lista. Solo se leen filas mientras el suscriptor tenga demanda pendiente.
+     *
+     * @param nombre El mismo criterio de búsqueda de {@link #search(String)}.
+     * @return Un publicador; cada suscripción ejecuta la consulta.
+     */
+    public Flow.Publisher<Especialidad> searchPublisher(String nombre) {
+        return new SearchPublisher<>(conn, "EspecialidadDAO.searchPublisher",
+                "SELECT id, nombre, descripcion, version " +
+                        "FROM Especialidades " +
+                        "WHERE nombre LIKE ?",
+                ps -> ps.setString(1, "%" + nombre + "%"),
+                EspecialidadDAO::map);
+    }
+
+    /**
+     * Convierte la fila actual del cursor en un objeto Especialidad.
+     */
+    private static Especialidad map(ResultSet rs) throws SQLException {
+        // Crear un nuevo objeto Especialidad con los valores de la fila.
+        Especialidad especialidad = new Especialidad();
+        // Asignar los valores de las columnas a los atributos del objeto Especialidad.
+        especialidad.setId(rs.getInt(1)); // Obtener el ID de la especialidad.
+        especialidad.setNombre(rs.getString(2)); // Obtener el nombre de la especialidad.
+        especialidad.setDescripcion(rs.getString(3)); // Obtener la descripción de la especialidad.
+        especialidad.setVersion(rs.getInt(4)); // Obtener la versión de la fila.
+        return especialidad;
+    }
+
     /**
      * Obtiene una especialidad de la base de datos basado en su ID.
      *
@@ -227,9 +335,12 @@ public class EspecialidadDAO {
      */
     public Especialidad getById(int id) throws SQLException {
         Especialidad especialidad = null; // Inicializar a null si no se encuentra la especialidad.
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        DaoCall call = DaoMetrics.start("EspecialidadDAO.getById"); // Medición de latencia, filas y errores.
         try {
             // Preparar la sentencia SQL para seleccionar una especialidad por su ID.
-            ps = conn.connect().prepareStatement("SELECT id, nombre, descripcion " +
+            ps = call.prepareStatement(conn, "SELECT id, nombre, descripcion, version " +
                     "FROM Especialidades " +
                     "WHERE id = ?");
             // Establecer el valor del parámetro en la sentencia preparada (el ID a buscar).
@@ -243,8 +354,11 @@ public class EspecialidadDAO {
                 especialidad.setId(rs.getInt(1)); // Obtener el ID de la especialidad.
                 especialidad.setNombre(rs.getString(2)); // Obtener el nombre de la especialidad.
                 especialidad.setDescripcion(rs.getString(3)); // Obtener la descripción de la especialidad.
+                especialidad.setVersion(rs.getInt(4)); // Obtener la versión de la fila.
             }
+            call.rows(especialidad != null ? 1 : 0); // Registrar si se encontró el registro.
         } catch (SQLException ex) {
+            call.error(); // Registrar el error en las métricas.
             // Capturar cualquier excepción SQL que ocurra durante el proceso.
             throw new SQLException("Error al obtener una especialidad por id: " + ex.getMessage(), ex);
         } finally {
@@ -263,8 +377,41 @@ public class EspecialidadDAO {
                     System.err.println("Error al cerrar ResultSet en getById (EspecialidadDAO): " + e.getMessage());
                 }
             }
-            conn.disconnect(); // Desconectar de la base de datos.
+            call.end(); // Registrar la medición de la llamada y liberar la conexión.
         }
         return especialidad; // Retornar el objeto Especialidad encontrado o null si no existe.
     }
+
+    /**
+     * Sincroniza un lote de especialidades (por ejemplo, desde el sistema de recursos humanos) con una sentencia
+     * MERGE por bloque, en lugar de un getById más un create o update por cada uno.
+     * Cada especialidad se busca por su ID o, si su ID es 0, por su nombre: si existe y alguno de sus datos
+     * cambió se modifica (y se incrementa su versión), y si no existe se inserta con un ID nuevo.
+     * A las especialidades insertadas se les asigna su ID, y a las insertadas o modificadas, su versión nueva.
+     *
+     * @param especialidades Las especialidades a sincronizar. Si dos tienen el mismo ID o nombre, solo se aplica la última.
+     * @return La cantidad de especialidades insertadas, modificadas y sin cambios.
+     * @throws SQLException Si ocurre un error al aplicar un bloque. Los bloques anteriores quedan aplicados.
+     */
+    public Upsert.Resultado upsert(List<Especialidad> especialidades) throws SQLException {
+        DaoCall call = DaoMetrics.start("EspecialidadDAO.upsert"); // Medición de latencia, filas y errores.
+        try {
+            Upsert.Resultado res = UPSERT.aplicar(call, conn, especialidades);
+            call.rows(res.getInsertadas() + res.getActualizadas()); // Registrar las filas afectadas.
+            return res;
+        } catch (SQLException ex) {
+            call.error(); // Registrar el error en las métricas.
+            throw new SQLException("Error al sincronizar las especialidades: " + ex.getMessage(), ex);
+        } finally {
+            call.end(); // Registrar la medición de la llamada y liberar la conexión.
+        }
+    }
+
+    /**
+     * Excepción para una modificación o eliminación que no afectó ninguna fila: la especialidad fue modificada
+     * (su versión ya no es la leída) o eliminada. Se consulta la fila para distinguir ambos casos.
+     */
+    private VersionConflictException conflicto(int id) throws SQLException {
+        return new VersionConflictException(EntidadJson.ESPECIALIDADES.getNombre(), id, getById(id) == null);
+    }
 }
\ No newline at end of file
@@ -4,19 +4,47 @@ import java.sql.PreparedStatement; // Clase para ejecutar consultas SQL preparad
 import java.sql.ResultSet;          // Interfaz para representar el resultado de una consulta SQL.
 import java.sql.SQLException;       // Clase para manejar errores relacionados con la base de datos SQL.
 import java.sql.Time;               // Necesario para los tipos TIME de SQL
+import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Flow; // Publicador de resultados con control de demanda.
 
 import ale2025.dominio.Horario; // Clase que representa la entidad de horario en el dominio de la aplicación.
+import ale2025.dominio.HorarioCompacto; // Representación compacta para cargas masivas.
+import ale2025.utils.CUD; // Operación registrada en la auditoría.
 
-public class HorarioDAO {
-    private ConnectionManager conn; // Objeto para gestionar la conexión con la base de datos.
-    private PreparedStatement ps;   // Objeto para ejecutar consultas SQL preparadas.
-    private ResultSet rs;           // Objeto para almacenar el resultado de una consulta SQL.
+public class HorarioDAO implements Dao<Horario> {
+    private final ConnectionManager conn; // Objeto para gestionar la conexión con la base de datos.
+    private static HorarioDAO instance; // Instancia compartida, ver getInstance().
+    // Sincronización masiva de horarios, ver upsert().
+    private static final Upsert<Horario> UPSERT = new Upsert<>(EntidadJson.HORARIOS, "Horarios", "t.id = s.id",
+            new String[]{"medicoId", "diaSemana", "horaInicio", "horaFin"},
+            new String[]{null, null, "TIME", "TIME"},
+            Horario::getId, h -> h.getId() > 0 ? h.getId() : null, Horario::setId, Horario::setVersion,
+            (ps, i, h) -> {
+                ps.setInt(i, h.getMedicoId());
+                ps.setString(i + 1, h.getDiaSemana());
+                ps.setTime(i + 2, h.getHoraInicio());
+                ps.setTime(i + 3, h.getHoraFin());
+            });
 
     public HorarioDAO() {
         conn = ConnectionManager.getInstance();
     }
 
+    /**
+     * Retorna la instancia compartida del DAO (no guarda estado entre llamadas, por lo que puede compartirse).
+     * Si la propiedad del sistema ale2025.api.url está definida, la instancia trabaja contra el servidor
+     * HTTP de la clínica en lugar de conectarse directamente a la base de datos.
+     */
+    public static synchronized HorarioDAO getInstance() {
+        if (instance == null) {
+            instance = ApiClient.isConfigured() ? new RemoteDaos.Horarios(ApiClient.getInstance()) : new HorarioDAO();
+        }
+        return instance;
+    }
+
     /**
      * Crea un nuevo horario en la base de datos.
      *
@@ -28,10 +56,12 @@ public class HorarioDAO {
     public Horario create(Horario horario) throws SQLException {
         Horario res = null; // Variable para almacenar el horario creado que se retornará.
         PreparedStatement localPs = null; // Usar una variable local para el PreparedStatement del try
+        DaoCall call = DaoMetrics.start("HorarioDAO.create"); // Medición de latencia, filas y errores.
+        int idGenerado = 0; // ID asignado por la base de datos.
         try {
             // Preparar la sentencia SQL para la inserción de un nuevo horario.
             // Se especifica que se retornen las claves generadas automáticamente.
-            localPs = conn.connect().prepareStatement(
+            localPs = call.prepareStatement(conn,
                     "INSERT INTO " +
                             "Horarios (medicoId, diaSemana, horaInicio, horaFin)" +
                             "VALUES (?, ?, ?, ?)",
@@ -43,7 +73,7 @@ public class HorarioDAO {
             localPs.setTime(3, horario.getHoraInicio()); // Asignar la hora de inicio.
             localPs.setTime(4, horario.getHoraFin()); // Asignar la hora de fin.
             // Ejecutar la sentencia de inserción y obtener el número de filas afectadas.
-            int affectedRows = localPs.executeUpdate();
+            int affectedRows = call.rows(localPs.executeUpdate());
             // Verificar si la inserción fue exitosa (al menos una fila afectada).
             if (affectedRows != 0) {
                 // Obtener las claves generadas automáticamente por la base de datos (en este caso, el ID).
@@ -51,15 +81,14 @@ public class HorarioDAO {
                 // Mover el cursor al primer resultado (si existe).
                 if (generatedKeys.next()) {
                     // Obtener el ID generado. Generalmente la primera columna contiene la clave primaria.
-                    int idGenerado = generatedKeys.getInt(1);
-                    // Recuperar el horario completo utilizando el ID generado.
-                    res = getById(idGenerado);
+                    idGenerado = generatedKeys.getInt(1);
                 } else {
                     // Lanzar una excepción si la creación del horario falló y no se obtuvo un ID.
                     throw new SQLException("Creating horario failed, no ID obtained.");
                 }
             }
         } catch (SQLException ex) {
+            call.error(); // Registrar el error en las métricas.
             // Capturar cualquier excepción SQL que ocurra durante el proceso.
             throw new SQLException("Error al crear el horario: " + ex.getMessage(), ex);
         } finally {
@@ -71,7 +100,15 @@ public class HorarioDAO {
                     System.err.println("Error al cerrar PreparedStatement en create (HorarioDAO): " + e.getMessage());
                 }
             }
-            conn.disconnect(); // Desconectar de la base de datos.
+            call.end(); // Registrar la medición de la llamada y liberar la conexión.
+        }
+        if (idGenerado != 0) {
+            // Recuperar el horario completo utilizando el ID generado, una vez liberada la conexión de la inserción.
+            res = getById(idGenerado);
+        }
+        if (res != null) {
+            AuditLog.registrar(CUD.CREATE, EntidadJson.HORARIOS, null, res); // Alta, con el ID definitivo.
+            Disponibilidad.getInstance().guardado(res); // Recalcular los turnos del médico.
         }
         return res; // Retornar el horario creado (con su ID asignado) o null si hubo un error.
     }
@@ -84,17 +121,23 @@ public class HorarioDAO {
      * correctamente establecidos para realizar la actualización.
      * @return true si la actualización del horario fue exitosa (al menos una fila afectada),
      * false en caso contrario.
+     * @throws VersionConflictException Si el horario fue modificado o eliminado desde que se leyó.
      * @throws SQLException Si ocurre un error al interactuar con la base de datos
      * durante la actualización del horario.
      */
     public boolean update(Horario horario) throws SQLException {
         boolean res = false; // Variable para indicar si la actualización fue exitosa.
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        Map<String, Object> antes = null; // Valores que reemplazó la escritura, para la auditoría.
+        DaoCall call = DaoMetrics.start("HorarioDAO.update"); // Medición de latencia, filas y errores.
         try {
             // Preparar la sentencia SQL para actualizar la información de un horario.
-            ps = conn.connect().prepareStatement(
+            ps = call.prepareStatement(conn,
                     "UPDATE Horarios " +
-                            "SET medicoId = ?, diaSemana = ?, horaInicio = ?, horaFin = ? " +
-                            "WHERE id = ?"
+                            "SET medicoId = ?, diaSemana = ?, horaInicio = ?, horaFin = ?, version = version + 1 " +
+                            "OUTPUT deleted.id, deleted.medicoId, deleted.diaSemana, deleted.horaInicio, deleted.horaFin, deleted.version " + // La fila tal como estaba, en la misma sentencia.
+                            "WHERE id = ? AND version = ?"
             );
             // Establecer los valores de los parámetros en la sentencia preparada.
             ps.setInt(1, horario.getMedicoId()); // Asignar el nuevo ID del médico.
@@ -102,15 +145,28 @@ public class HorarioDAO {
             ps.setTime(3, horario.getHoraInicio()); // Asignar la nueva hora de inicio.
             ps.setTime(4, horario.getHoraFin()); // Asignar la nueva hora de fin.
             ps.setInt(5, horario.getId()); // Establecer la condición WHERE para identificar al horario a actualizar por su ID.
+            ps.setInt(6, horario.getVersion()); // Solo si la fila sigue con la versión que se leyó.
             // Ejecutar la sentencia de actualización y verificar si se afectó alguna fila.
-            if (ps.executeUpdate() > 0) {
-                res = true; // Si executeUpdate() retorna un valor mayor que 0, significa que la actualización fue exitosa.
+            rs = ps.executeQuery(); // OUTPUT devuelve la fila antes de la escritura.
+            if (rs.next()) {
+                antes = EntidadJson.HORARIOS.toMap(map(rs));
+                res = true; // Se afectó la fila: la escritura fue exitosa.
+                horario.setVersion(horario.getVersion() + 1); // La fila quedó con la versión siguiente.
             }
+            call.rows(res ? 1 : 0); // Registrar las filas afectadas.
         } catch (SQLException ex) {
+            call.error(); // Registrar el error en las métricas.
             // Capturar cualquier excepción SQL que ocurra durante el proceso.
             throw new SQLException("Error al modificar el horario: " + ex.getMessage(), ex);
         } finally {
             // Bloque finally para asegurar que los recursos se liberen.
+            if (rs != null) {
+                try {
+                    rs.close(); // Cerrar el conjunto de resultados para liberar recursos.
+                } catch (SQLException e) {
+                    System.err.println("Error al cerrar ResultSet en update (HorarioDAO): " + e.getMessage());
+                }
+            }
             if (ps != null) {
                 try {
                     ps.close(); // Cerrar la sentencia preparada para liberar recursos.
@@ -118,8 +174,13 @@ public class HorarioDAO {
                     System.err.println("Error al cerrar PreparedStatement en update (HorarioDAO): " + e.getMessage());
                 }
             }
-            conn.disconnect(); // Desconectar de la base de datos.
+            call.end(); // Registrar la medición de la llamada y liberar la conexión.
+        }
+        if (!res) {
+            throw conflicto(horario.getId()); // No se afectó ninguna fila: cambió o fue eliminada desde que se leyó.
         }
+        AuditLog.registrar(CUD.UPDATE, EntidadJson.HORARIOS, antes, horario); // Solo si la escritura se aplicó.
+        Disponibilidad.getInstance().guardado(horario); // Recalcular los turnos del médico.
         return res; // Retornar el resultado de la operación de actualización.
     }
 
@@ -130,27 +191,46 @@ public class HorarioDAO {
      * Se requiere que el objeto Horario tenga el campo 'id' correctamente establecido.
      * @return true si la eliminación del horario fue exitosa (al menos una fila afectada),
      * false en caso contrario.
+     * @throws VersionConflictException Si el horario fue modificado o eliminado desde que se leyó.
      * @throws SQLException Si ocurre un error al interactuar con la base de datos
      * durante la eliminación del horario.
      */
     public boolean delete(Horario horario) throws SQLException {
         boolean res = false; // Variable para indicar si la eliminación fue exitosa.
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        Map<String, Object> antes = null; // Valores que reemplazó la escritura, para la auditoría.
+        DaoCall call = DaoMetrics.start("HorarioDAO.delete"); // Medición de latencia, filas y errores.
         try {
             // Preparar la sentencia SQL para eliminar un horario por su ID.
-            ps = conn.connect().prepareStatement(
-                    "DELETE FROM Horarios WHERE id = ?"
+            ps = call.prepareStatement(conn,
+                    "DELETE FROM Horarios " +
+                            "OUTPUT deleted.id, deleted.medicoId, deleted.diaSemana, deleted.horaInicio, deleted.horaFin, deleted.version " + // La fila tal como estaba, en la misma sentencia.
+                            "WHERE id = ? AND version = ?"
             );
             // Establecer el valor del parámetro en la sentencia preparada (el ID del horario a eliminar).
             ps.setInt(1, horario.getId());
+            ps.setInt(2, horario.getVersion()); // Solo si la fila sigue con la versión que se leyó.
             // Ejecutar la sentencia de eliminación y verificar si se afectó alguna fila.
-            if (ps.executeUpdate() > 0) {
-                res = true; // Si executeUpdate() retorna un valor mayor que 0, significa que la eliminación fue exitosa.
+            rs = ps.executeQuery(); // OUTPUT devuelve la fila antes de la escritura.
+            if (rs.next()) {
+                antes = EntidadJson.HORARIOS.toMap(map(rs));
+                res = true; // Se afectó la fila: la escritura fue exitosa.
             }
+            call.rows(res ? 1 : 0); // Registrar las filas afectadas.
         } catch (SQLException ex) {
+            call.error(); // Registrar el error en las métricas.
             // Capturar cualquier excepción SQL que ocurra durante el proceso.
             throw new SQLException("Error al eliminar el horario: " + ex.getMessage(), ex);
         } finally {
             // Bloque finally para asegurar que los recursos se liberen.
+            if (rs != null) {
+                try {
+                    rs.close(); // Cerrar el conjunto de resultados para liberar recursos.
+                } catch (SQLException e) {
+                    System.err.println("Error al cerrar ResultSet en delete (HorarioDAO): " + e.getMessage());
+                }
+            }
             if (ps != null) {
                 try {
                     ps.close(); // Cerrar la sentencia preparada para liberar recursos.
@@ -158,8 +238,13 @@ public class HorarioDAO {
                     System.err.println("Error al cerrar PreparedStatement en delete (HorarioDAO): " + e.getMessage());
                 }
             }
-            conn.disconnect(); // Desconectar de la base de datos.
+            call.end(); // Registrar la medición de la llamada y liberar la conexión.
+        }
+        if (!res) {
+            throw conflicto(horario.getId()); // No se afectó ninguna fila: cambió o fue eliminada desde que se leyó.
         }
+        AuditLog.registrar(CUD.DELETE, EntidadJson.HORARIOS, antes, horario); // Solo si la escritura se aplicó.
+        Disponibilidad.getInstance().eliminado(horario); // Recalcular los turnos del médico.
         return res; // Retornar el resultado de la operación de eliminación.
     }
 
@@ -176,9 +261,12 @@ public class HorarioDAO {
      */
     public ArrayList<Horario> search(String diaSemana) throws SQLException {
         ArrayList<Horario> records = new ArrayList<>(); // Lista para almacenar los horarios encontrados.
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        DaoCall call = DaoMetrics.start("HorarioDAO.search"); // Medición de latencia, filas y errores.
         try {
             // Preparar la sentencia SQL para buscar horarios por día de la semana (usando LIKE para búsqueda parcial).
-            ps = conn.connect().prepareStatement("SELECT id, medicoId, diaSemana, horaInicio, horaFin " +
+            ps = call.prepareStatement(conn, "SELECT id, medicoId, diaSemana, horaInicio, horaFin, version " +
                     "FROM Horarios " +
                     "WHERE diaSemana LIKE ?");
             // Establecer el valor del parámetro en la sentencia preparada.
@@ -188,18 +276,11 @@ public class HorarioDAO {
             rs = ps.executeQuery();
             // Iterar a través de cada fila del resultado.
             while (rs.next()) {
-                // Crear un nuevo objeto Horario para cada registro encontrado.
-                Horario horario = new Horario();
-                // Asignar los valores de las columnas a los atributos del objeto Horario.
-                horario.setId(rs.getInt(1)); // Obtener el ID del horario.
-                horario.setMedicoId(rs.getInt(2)); // Obtener el ID del médico asociado.
-                horario.setDiaSemana(rs.getString(3)); // Obtener el día de la semana.
-                horario.setHoraInicio(rs.getTime(4)); // Obtener la hora de inicio.
-                horario.setHoraFin(rs.getTime(5)); // Obtener la hora de fin.
-                // Agregar el objeto Horario a la lista de resultados.
-                records.add(horario);
+                records.add(map(rs)); // Crear un objeto Horario para cada registro encontrado.
             }
+            call.rows(records.size()); // Registrar la cantidad de filas encontradas.
         } catch (SQLException ex) {
+            call.error(); // Registrar el error en las métricas.
             // Capturar cualquier excepción SQL que ocurra durante el proceso.
             throw new SQLException("Error al buscar horarios: " + ex.getMessage(), ex);
         } finally {
@@ -218,11 +299,97 @@ public class HorarioDAO {
                     System.err.println("Error al cerrar ResultSet en search (HorarioDAO): " + e.getMessage());
                 }
             }
-            conn.disconnect(); // Desconectar de la base de datos.
+            call.end(); // Registrar la medición de la llamada y liberar la conexión.
         }
         return records; // Retornar la lista de horarios encontrados.
     }
 
+    /**
+     * Variante de {@link #search(String)} que emite los horarios a medida que avanza el cursor, en lugar de
+     * retornarlos en una lista. Solo se leen filas mientras el suscriptor tenga demanda pendiente.
+     *
+     * @param diaSemana El mismo criterio de búsqueda de {@link #search(String)}.
+     * @return Un publicador; cada suscripción ejecuta la consulta.
+     */
+    public Flow.Publisher<Horario> searchPublisher(String diaSemana) {
+        return new SearchPublisher<>(conn, "HorarioDAO.searchPublisher",
+                "SELECT id, medicoId, diaSemana, horaInicio, horaFin, version " +
+                        "FROM Horarios " +
+                        "WHERE diaSemana LIKE ?",
+                ps -> ps.setString(1, "%" + diaSemana + "%"),
+                HorarioDAO::map);
+    }
+
+    /**
+     * Obtiene todos los horarios en su representación compacta (ver HorarioCompacto), ordenados por médico,
+     * para procesos que necesitan los horarios de todos los médicos a la vez. Las horas se leen
+     * directamente como LocalTime, sin crear objetos java.sql.Time.
+     *
+     * @return Un ArrayList con todos los horarios.
+     * @throws SQLException Si ocurre un error al interactuar con la base de datos.
+     */
+    public ArrayList<HorarioCompacto> getAllCompactos() throws SQLException {
+        ArrayList<HorarioCompacto> records = new ArrayList<>();
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        DaoCall call = DaoMetrics.start("HorarioDAO.getAllCompactos"); // Medición de latencia, filas y errores.
+        try {
+            ps = call.prepareStatement(conn, "SELECT id, medicoId, diaSemana, horaInicio, horaFin, version " +
+                    "FROM Horarios " +
+                    "ORDER BY medicoId, id");
+            rs = ps.executeQuery();
+            while (rs.next()) {
+                records.add(mapCompacto(rs));
+            }
+            call.rows(records.size()); // Registrar la cantidad de filas encontradas.
+        } catch (SQLException ex) {
+            call.error(); // Registrar el error en las métricas.
+            throw new SQLException("Error al obtener los horarios: " + ex.getMessage(), ex);
+        } finally {
+            if (ps != null) {
+                try {
+                    ps.close();
+                } catch (SQLException e) {
+                    System.err.println("Error al cerrar PreparedStatement en getAllCompactos (HorarioDAO): " + e.getMessage());
+                }
+            }
+            if (rs != null) {
+                try {
+                    rs.close();
+                } catch (SQLException e) {
+                    System.err.println("Error al cerrar ResultSet en getAllCompactos (HorarioDAO): " + e.getMessage());
+                }
+            }
+            call.end(); // Registrar la medición de la llamada y liberar la conexión.
+        }
+        return records;
+    }
+
+    /**
+     * Convierte la fila actual del cursor (las mismas columnas que {@link #map(ResultSet)}) en un horario compacto.
+     */
+    static HorarioCompacto mapCompacto(ResultSet rs) throws SQLException {
+        return new HorarioCompacto(rs.getInt(1), rs.getInt(2), HorarioCompacto.dia(rs.getString(3)),
+                HorarioCompacto.minuto(rs.getObject(4, LocalTime.class)),
+                HorarioCompacto.minuto(rs.getObject(5, LocalTime.class)), rs.getInt(6));
+    }
+
+    /**
+     * Convierte la fila actual del cursor en un objeto Horario.
+     */
+    private static Horario map(ResultSet rs) throws SQLException {
+        // Crear un nuevo objeto Horario con los valores de la fila.
+        Horario horario = new Horario();
+        // Asignar los valores de las columnas a los atributos del objeto Horario.
+        horario.setId(rs.getInt(1)); // Obtener el ID del horario.
+        horario.setMedicoId(rs.getInt(2)); // Obtener el ID del médico asociado.
+        horario.setDiaSemana(rs.getString(3)); // Obtener el día de la semana.
+        horario.setHoraInicio(rs.getTime(4)); // Obtener la hora de inicio.
+        horario.setHoraFin(rs.getTime(5)); // Obtener la hora de fin.
+        horario.setVersion(rs.getInt(6)); // Obtener la versión de la fila.
+        return horario;
+    }
+
     /**
      * Obtiene un horario de la base de datos basado en su ID.
      *
@@ -234,9 +401,12 @@ public class HorarioDAO {
      */
     public Horario getById(int id) throws SQLException {
         Horario horario = null; // Inicializar a null si no se encuentra el horario.
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        DaoCall call = DaoMetrics.start("HorarioDAO.getById"); // Medición de latencia, filas y errores.
         try {
             // Preparar la sentencia SQL para seleccionar un horario por su ID.
-            ps = conn.connect().prepareStatement("SELECT id, medicoId, diaSemana, horaInicio, horaFin " +
+            ps = call.prepareStatement(conn, "SELECT id, medicoId, diaSemana, horaInicio, horaFin, version " +
                     "FROM Horarios " +
                     "WHERE id = ?");
             // Establecer el valor del parámetro en la sentencia preparada (el ID a buscar).
@@ -252,8 +422,11 @@ public class HorarioDAO {
                 horario.setDiaSemana(rs.getString(3)); // Obtener el día de la semana.
                 horario.setHoraInicio(rs.getTime(4)); // Obtener la hora de inicio.
                 horario.setHoraFin(rs.getTime(5)); // Obtener la hora de fin.
+                horario.setVersion(rs.getInt(6)); // Obtener la versión de la fila.
             }
+            call.rows(horario != null ? 1 : 0); // Registrar si se encontró el registro.
         } catch (SQLException ex) {
+            call.error(); // Registrar el error en las métricas.
             // Capturar cualquier excepción SQL que ocurra durante el proceso.
             throw new SQLException("Error al obtener un horario por id: " + ex.getMessage(), ex);
         } finally {
@@ -272,8 +445,43 @@ public class HorarioDAO {
                     System.err.println("Error al cerrar ResultSet en getById (HorarioDAO): " + e.getMessage());
                 }
             }
-            conn.disconnect(); // Desconectar de la base de datos.
+            call.end(); // Registrar la medición de la llamada y liberar la conexión.
         }
         return horario; // Retornar el objeto Horario encontrado o null si no existe.
     }
+
+    /**
+     * Sincroniza un lote de horarios (por ejemplo, desde el sistema de recursos humanos) con una sentencia
+     * MERGE por bloque, en lugar de un getById más un create o update por cada uno.
+     * Cada horario se busca por su ID: si existe y alguno de sus datos cambió se modifica (y se incrementa su
+     * versión), y si no existe o su ID es 0 se inserta con un ID nuevo.
+     * A los horarios insertados se les asigna su ID, y a los insertados o modificados, su versión nueva.
+     *
+     * @param horarios Los horarios a sincronizar. Si dos tienen el mismo ID, solo se aplica el último.
+     * @return La cantidad de horarios insertados, modificados y sin cambios.
+     * @throws SQLException Si ocurre un error al aplicar un bloque. Los bloques anteriores quedan aplicados.
+     */
+    public Upsert.Resultado upsert(List<Horario> horarios) throws SQLException {
+        DaoCall call = DaoMetrics.start("HorarioDAO.upsert"); // Medición de latencia, filas y errores.
+        try {
+            Upsert.Resultado res = UPSERT.aplicar(call, conn, horarios);
+            call.rows(res.getInsertadas() + res.getActualizadas()); // Registrar las filas afectadas.
+            horarios.forEach(Disponibilidad.getInstance()::guardado); // Recalcular los turnos de los médicos.
+            return res;
+        } catch (SQLException ex) {
+            call.error(); // Registrar el error en las métricas.
+            Disponibilidad.getInstance().invalidar(); // Los bloques anteriores quedaron aplicados.
+            throw new SQLException("Error al sincronizar los horarios: " + ex.getMessage(), ex);
+        } finally {
+            call.end(); // Registrar la medición de la llamada y liberar la conexión.
+        }
+    }
+
+    /**
+     * Excepción para una modificación o eliminación que no afectó ninguna fila: el horario fue modificado
+     * (su versión ya no es la leída) o eliminado. Se consulta la fila para distinguir ambos casos.
+     */
+    private VersionConflictException conflicto(int id) throws SQLException {
+        return new VersionConflictException(EntidadJson.HORARIOS.getNombre(), id, getById(id) == null);
+    }
 }
@@ -4,18 +4,43 @@ import java.sql.PreparedStatement; // Clase para ejecutar consultas SQL preparad
 import java.sql.ResultSet;          // Interfaz para representar el resultado de una consulta SQL.
 import java.sql.SQLException;       // Clase para manejar errores relacionados con la base de datos SQL.
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Flow; // Publicador de resultados con control de demanda.
 
 import ale2025.dominio.Medico; // Clase que representa la entidad de médico en el dominio de la aplicación.
+import ale2025.utils.CUD; // Operación registrada en la auditoría.
 
-public class MedicoDAO {
-    private ConnectionManager conn; // Objeto para gestionar la conexión con la base de datos.
-    private PreparedStatement ps;   // Objeto para ejecutar consultas SQL preparadas.
-    private ResultSet rs;           // Objeto para almacenar el resultado de una consulta SQL.
+public class MedicoDAO implements Dao<Medico> {
+    private final ConnectionManager conn; // Objeto para gestionar la conexión con la base de datos.
+    private static MedicoDAO instance; // Instancia compartida, ver getInstance().
+    // Sincronización masiva de médicos, ver upsert().
+    private static final Upsert<Medico> UPSERT = new Upsert<>(EntidadJson.MEDICOS, "Medicos", "t.id = s.id",
+            new String[]{"nombreCompleto", "especialidadId", "sueldo"},
+            new String[]{null, null, "DECIMAL(10,2)"},
+            Medico::getId, m -> m.getId() > 0 ? m.getId() : null, Medico::setId, Medico::setVersion,
+            (ps, i, m) -> {
+                ps.setString(i, m.getNombreCompleto());
+                ps.setInt(i + 1, m.getEspecialidadId());
+                ps.setDouble(i + 2, m.getSueldo());
+            });
 
     public MedicoDAO() {
         conn = ConnectionManager.getInstance();
     }
 
+    /**
+     * Retorna la instancia compartida del DAO (no guarda estado entre llamadas, por lo que puede compartirse).
+     * Si la propiedad del sistema ale2025.api.url está definida, la instancia trabaja contra el servidor
+     * HTTP de la clínica en lugar de conectarse directamente a la base de datos.
+     */
+    public static synchronized MedicoDAO getInstance() {
+        if (instance == null) {
+            instance = ApiClient.isConfigured() ? new RemoteDaos.Medicos(ApiClient.getInstance()) : new MedicoDAO();
+        }
+        return instance;
+    }
+
     /**
      * Crea un nuevo médico en la base de datos.
      *
@@ -27,10 +52,12 @@ public class MedicoDAO {
     public Medico create(Medico medico) throws SQLException {
         Medico res = null; // Variable para almacenar el médico creado que se retornará.
         PreparedStatement localPs = null; // Usar una variable local para el PreparedStatement del try
+        DaoCall call = DaoMetrics.start("MedicoDAO.create"); // Medición de latencia, filas y errores.
+        int idGenerado = 0; // ID asignado por la base de datos.
         try {
             // Preparar la sentencia SQL para la inserción de un nuevo médico.
             // Se especifica que se retornen las claves generadas automáticamente.
-            localPs = conn.connect().prepareStatement(
+            localPs = call.prepareStatement(conn,
                     "INSERT INTO " +
                             "Medicos (nombreCompleto, especialidadId, sueldo)" +
                             "VALUES (?, ?, ?)",
@@ -41,7 +68,7 @@ public class MedicoDAO {
             localPs.setInt(2, medico.getEspecialidadId()); // Asignar el ID de la especialidad del médico.
             localPs.setDouble(3, medico.getSueldo()); // Asignar el sueldo del médico.
             // Ejecutar la sentencia de inserción y obtener el número de filas afectadas.
-            int affectedRows = localPs.executeUpdate();
+            int affectedRows = call.rows(localPs.executeUpdate());
             // Verificar si la inserción fue exitosa (al menos una fila afectada).
             if (affectedRows != 0) {
                 // Obtener las claves generadas automáticamente por la base de datos (en este caso, el ID).
@@ -49,15 +76,14 @@ public class MedicoDAO {
                 // Mover el cursor al primer resultado (si existe).
                 if (generatedKeys.next()) {
                     // Obtener el ID generado. Generalmente la primera columna contiene la clave primaria.
-                    int idGenerado = generatedKeys.getInt(1);
-                    // Recuperar el médico completo utilizando el ID generado.
-                    res = getById(idGenerado);
+                    idGenerado = generatedKeys.getInt(1);
                 } else {
                     // Lanzar una excepción si la creación del médico falló y no se obtuvo un ID.
                     throw new SQLException("Creating medico failed, no ID obtained.");
                 }
             }
         } catch (SQLException ex) {
+            call.error(); // Registrar el error en las métricas.
             // Capturar cualquier excepción SQL que ocurra durante el proceso.
             throw new SQLException("Error al crear el médico: " + ex.getMessage(), ex);
         } finally {
@@ -69,7 +95,14 @@ public class MedicoDAO {
                     System.err.println("Error al cerrar PreparedStatement en create (MedicoDAO): " + e.getMessage());
                 }
             }
-            conn.disconnect(); // Desconectar de la base de datos.
+            call.end(); // Registrar la medición de la llamada y liberar la conexión.
+        }
+        if (idGenerado != 0) {
+            // Recuperar el médico completo utilizando el ID generado, una vez liberada la conexión de la inserción.
+            res = getById(idGenerado);
+        }
+        if (res != null) {
+            AuditLog.registrar(CUD.CREATE, EntidadJson.MEDICOS, null, res); // Alta, con el ID definitivo.
         }
         return res; // Retornar el médico creado (con su ID asignado) o null si hubo un error.
     }
@@ -82,32 +115,51 @@ public class MedicoDAO {
      * correctamente establecidos para realizar la actualización.
      * @return true si la actualización del médico fue exitosa (al menos una fila afectada),
      * false en caso contrario.
+     * @throws VersionConflictException Si el médico fue modificado o eliminado desde que se leyó.
      * @throws SQLException Si ocurre un error al interactuar con la base de datos
      * durante la actualización del médico.
      */
     public boolean update(Medico medico) throws SQLException {
         boolean res = false; // Variable para indicar si la actualización fue exitosa.
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        Map<String, Object> antes = null; // Valores que reemplazó la escritura, para la auditoría.
+        DaoCall call = DaoMetrics.start("MedicoDAO.update"); // Medición de latencia, filas y errores.
         try {
             // Preparar la sentencia SQL para actualizar la información de un médico.
-            ps = conn.connect().prepareStatement(
+            ps = call.prepareStatement(conn,
                     "UPDATE Medicos " +
-                            "SET nombreCompleto = ?, especialidadId = ?, sueldo = ? " +
-                            "WHERE id = ?"
+                            "SET nombreCompleto = ?, especialidadId = ?, sueldo = ?, version = version + 1 " +
+                            "OUTPUT deleted.id, deleted.nombreCompleto, deleted.especialidadId, deleted.sueldo, deleted.version " + // La fila tal como estaba, en la misma sentencia.
+                            "WHERE id = ? AND version = ?"
             );
             // Establecer los valores de los parámetros en la sentencia preparada.
             ps.setString(1, medico.getNombreCompleto()); // Asignar el nuevo nombre completo del médico.
             ps.setInt(2, medico.getEspecialidadId()); // Asignar el nuevo ID de especialidad del médico.
             ps.setDouble(3, medico.getSueldo()); // Asignar el nuevo sueldo del médico.
             ps.setInt(4, medico.getId()); // Establecer la condición WHERE para identificar al médico a actualizar por su ID.
+            ps.setInt(5, medico.getVersion()); // Solo si la fila sigue con la versión que se leyó.
             // Ejecutar la sentencia de actualización y verificar si se afectó alguna fila.
-            if (ps.executeUpdate() > 0) {
-                res = true; // Si executeUpdate() retorna un valor mayor que 0, significa que la actualización fue exitosa.
+            rs = ps.executeQuery(); // OUTPUT devuelve la fila antes de la escritura.
+            if (rs.next()) {
+                antes = EntidadJson.MEDICOS.toMap(map(rs));
+                res = true; // Se afectó la fila: la escritura fue exitosa.
+                medico.setVersion(medico.getVersion() + 1); // La fila quedó con la versión siguiente.
             }
+            call.rows(res ? 1 : 0); // Registrar las filas afectadas.
         } catch (SQLException ex) {
+            call.error(); // Registrar el error en las métricas.
             // Capturar cualquier excepción SQL que ocurra durante el proceso.
             throw new SQLException("Error al modificar el médico: " + ex.getMessage(), ex);
         } finally {
             // Bloque finally para asegurar que los recursos se liberen.
+            if (rs != null) {
+                try {
+                    rs.close(); // Cerrar el conjunto de resultados para liberar recursos.
+                } catch (SQLException e) {
+                    System.err.println("Error al cerrar ResultSet en update (MedicoDAO): " + e.getMessage());
+                }
+            }
             if (ps != null) {
                 try {
                     ps.close(); // Cerrar la sentencia preparada para liberar recursos.
@@ -115,8 +167,12 @@ public class MedicoDAO {
                     System.err.println("Error al cerrar PreparedStatement en update (MedicoDAO): " + e.getMessage());
                 }
             }
-            conn.disconnect(); // Desconectar de la base de datos.
+            call.end(); // Registrar la medición de la llamada y liberar la conexión.
+        }
+        if (!res) {
+            throw conflicto(medico.getId()); // No se afectó ninguna fila: cambió o fue eliminada desde que se leyó.
         }
+        AuditLog.registrar(CUD.UPDATE, EntidadJson.MEDICOS, antes, medico); // Solo si la escritura se aplicó.
         return res; // Retornar el resultado de la operación de actualización.
     }
 
@@ -127,27 +183,49 @@ public class MedicoDAO {
      * Se requiere que el objeto Medico tenga el campo 'id' correctamente establecido.
      * @return true si la eliminación del médico fue exitosa (al menos una fila afectada),
      * false en caso contrario.
+     * @throws VersionConflictException Si el médico fue modificado o eliminado desde que se leyó.
      * @throws SQLException Si ocurre un error al interactuar con la base de datos
-     * durante la eliminación del médico.
+     * durante la eliminación del médico, o si tiene citas, recientes o archivadas en CitasHistorico.
      */
     public boolean delete(Medico medico) throws SQLException {
         boolean res = false; // Variable para indicar si la eliminación fue exitosa.
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        Map<String, Object> antes = null; // Valores que reemplazó la escritura, para la auditoría.
+        DaoCall call = DaoMetrics.start("MedicoDAO.delete"); // Medición de latencia, filas y errores.
         try {
             // Preparar la sentencia SQL para eliminar un médico por su ID.
-            ps = conn.connect().prepareStatement(
-                    "DELETE FROM Medicos WHERE id = ?"
+            ps = call.prepareStatement(conn,
+                    "DECLARE @antes TABLE (id INT, nombreCompleto VARCHAR(50), especialidadId INT, sueldo DECIMAL(10,2), version INT); " +
+                            "DELETE FROM Medicos " +
+                            "OUTPUT deleted.id, deleted.nombreCompleto, deleted.especialidadId, deleted.sueldo, deleted.version " +
+                            "INTO @antes " + // Con triggers de DELETE, OUTPUT debe ir a una tabla (ver script.sql).
+                            "WHERE id = ? AND version = ?; " +
+                            "SELECT id, nombreCompleto, especialidadId, sueldo, version FROM @antes"
             );
             // Establecer el valor del parámetro en la sentencia preparada (el ID del médico a eliminar).
             ps.setInt(1, medico.getId());
+            ps.setInt(2, medico.getVersion()); // Solo si la fila sigue con la versión que se leyó.
             // Ejecutar la sentencia de eliminación y verificar si se afectó alguna fila.
-            if (ps.executeUpdate() > 0) {
-                res = true; // Si executeUpdate() retorna un valor mayor que 0, significa que la eliminación fue exitosa.
+            rs = DaoCall.primerResultado(ps); // El conteo del DELETE se salta: interesa el SELECT.
+            if (rs.next()) {
+                antes = EntidadJson.MEDICOS.toMap(map(rs));
+                res = true; // Se afectó la fila: la escritura fue exitosa.
             }
+            call.rows(res ? 1 : 0); // Registrar las filas afectadas.
         } catch (SQLException ex) {
+            call.error(); // Registrar el error en las métricas.
             // Capturar cualquier excepción SQL que ocurra durante el proceso.
             throw new SQLException("Error al eliminar el médico: " + ex.getMessage(), ex);
         } finally {
             // Bloque finally para asegurar que los recursos se liberen.
+            if (rs != null) {
+                try {
+                    rs.close(); // Cerrar el conjunto de resultados para liberar recursos.
+                } catch (SQLException e) {
+                    System.err.println("Error al cerrar ResultSet en delete (MedicoDAO): " + e.getMessage());
+                }
+            }
             if (ps != null) {
                 try {
                     ps.close(); // Cerrar la sentencia preparada para liberar recursos.
@@ -155,8 +233,12 @@ public class MedicoDAO {
                     System.err.println("Error al cerrar PreparedStatement en delete (MedicoDAO): " + e.getMessage());
                 }
             }
-            conn.disconnect(); // Desconectar de la base de datos.
+            call.end(); // Registrar la medición de la llamada y liberar la conexión.
         }
+        if (!res) {
+            throw conflicto(medico.getId()); // No se afectó ninguna fila: cambió o fue eliminada desde que se leyó.
+        }
+        AuditLog.registrar(CUD.DELETE, EntidadJson.MEDICOS, antes, medico); // Solo si la escritura se aplicó.
         return res; // Retornar el resultado de la operación de eliminación.
     }
 
@@ -173,9 +255,12 @@ public class MedicoDAO {
      */
     public ArrayList<Medico> search(String nombreCompleto) throws SQLException {
         ArrayList<Medico> records = new ArrayList<>(); // Lista para almacenar los médicos encontrados.
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        DaoCall call = DaoMetrics.start("MedicoDAO.search"); // Medición de latencia, filas y errores.
         try {
             // Preparar la sentencia SQL para buscar médicos por nombre completo (usando LIKE para búsqueda parcial).
-            ps = conn.connect().prepareStatement("SELECT id, nombreCompleto, especialidadId, sueldo " +
+            ps = call.prepareStatement(conn, "SELECT id, nombreCompleto, especialidadId, sueldo, version " +
                     "FROM Medicos " +
                     "WHERE nombreCompleto LIKE ?");
             // Establecer el valor del parámetro en la sentencia preparada.
@@ -185,17 +270,11 @@ public class MedicoDAO {
             rs = ps.executeQuery();
             // Iterar a través de cada fila del resultado.
             while (rs.next()) {
-                // Crear un nuevo objeto Medico para cada registro encontrado.
-                Medico medico = new Medico();
-                // Asignar los valores de las columnas a los atributos del objeto Medico.
-                medico.setId(rs.getInt(1)); // Obtener el ID del médico.
-                medico.setNombreCompleto(rs.getString(2)); // Obtener el nombre completo del médico.
-                medico.setEspecialidadId(rs.getInt(3)); // Obtener el ID de la especialidad del médico.
-                medico.setSueldo(rs.getDouble(4)); // Obtener el sueldo del médico.
-                // Agregar el objeto Medico a la lista de resultados.
-                records.add(medico);
+                records.add(map(rs)); // Crear un objeto Medico para cada registro encontrado.
             }
+            call.rows(records.size()); // Registrar la cantidad de filas encontradas.
         } catch (SQLException ex) {
+            call.error(); // Registrar el error en las métricas.
             // Capturar cualquier excepción SQL que ocurra durante el proceso.
             throw new SQLException("Error al buscar médicos: " + ex.getMessage(), ex);
         } finally {
@@ -214,11 +293,42 @@ public class MedicoDAO {
                     System.err.println("Error al cerrar ResultSet en search (MedicoDAO): " + e.getMessage());
                 }
             }
-            conn.disconnect(); // Desconectar de la base de datos.
+            call.end(); // Registrar la medición de la llamada y liberar la conexión.
         }
         return records; // Retornar la lista de médicos encontrados.
     }
 
+    /**
+     * Variante de {@link #search(String)} que emite los médicos a medida que avanza el cursor, en lugar de
+     * retornarlos en una lista. Solo se leen filas mientras el suscriptor tenga demanda pendiente.
+     *
+     * @param nombreCompleto El mismo criterio de búsqueda de {@link #search(String)}.
+     * @return Un publicador; cada suscripción ejecuta la consulta.
+     */
+    public Flow.Publisher<Medico> searchPublisher(String nombreCompleto) {
+        return new SearchPublisher<>(conn, "MedicoDAO.searchPublisher",
+                "SELECT id, nombreCompleto, especialidadId, sueldo, version " +
+                        "FROM Medicos " +
+                        "WHERE nombreCompleto LIKE ?",
+                ps -> ps.setString(1, "%" + nombreCompleto + "%"),
+                MedicoDAO::map);
+    }
+
+    /**
+     * Convierte la fila actual del cursor en un objeto Medico.
+     */
+    private static Medico map(ResultSet rs) throws SQLException {
+        // Crear un nuevo objeto Medico con los valores de la fila.
+        Medico medico = new Medico();
+        // Asignar los valores de las columnas a los atributos del objeto Medico.
+        medico.setId(rs.getInt(1)); // Obtener el ID del médico.
+        medico.setNombreCompleto(rs.getString(2)); // Obtener el nombre completo del médico.
+        medico.setEspecialidadId(rs.getInt(3)); // Obtener el ID de la especialidad del médico.
+        medico.setSueldo(rs.getDouble(4)); // Obtener el sueldo del médico.
+        medico.setVersion(rs.getInt(5)); // Obtener la versión de la fila.
+        return medico;
+    }
+
     /**
      * Obtiene un médico de la base de datos basado en su ID.
      *
@@ -230,9 +340,12 @@ public class MedicoDAO {
      */
     public Medico getById(int id) throws SQLException {
         Medico medico = null; // Inicializar a null si no se encuentra el médico.
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        DaoCall call = DaoMetrics.start("MedicoDAO.getById"); // Medición de latencia, filas y errores.
         try {
             // Preparar la sentencia SQL para seleccionar un médico por su ID.
-            ps = conn.connect().prepareStatement("SELECT id, nombreCompleto, especialidadId, sueldo " +
+            ps = call.prepareStatement(conn, "SELECT id, nombreCompleto, especialidadId, sueldo, version " +
                     "FROM Medicos " +
                     "WHERE id = ?");
             // Establecer el valor del parámetro en la sentencia preparada (el ID a buscar).
@@ -247,8 +360,11 @@ public class MedicoDAO {
                 medico.setNombreCompleto(rs.getString(2)); // Obtener el nombre completo del médico.
                 medico.setEspecialidadId(rs.getInt(3)); // Obtener el ID de la especialidad del médico.
                 medico.setSueldo(rs.getDouble(4)); // Obtener el sueldo del médico.
+                medico.setVersion(rs.getInt(5)); // Obtener la versión de la fila.
             }
+            call.rows(medico != null ? 1 : 0); // Registrar si se encontró el registro.
         } catch (SQLException ex) {
+            call.error(); // Registrar el error en las métricas.
             // Capturar cualquier excepción SQL que ocurra durante el proceso.
             throw new SQLException("Error al obtener un médico por id: " + ex.getMessage(), ex);
         } finally {
@@ -267,8 +383,41 @@ public class MedicoDAO {
                     System.err.println("Error al cerrar ResultSet en getById (MedicoDAO): " + e.getMessage());
                 }
             }
-            conn.disconnect(); // Desconectar de la base de datos.
+            call.end(); // Registrar la medición de la llamada y liberar la conexión.
         }
         return medico; // Retornar el objeto Medico encontrado o null si no existe.
     }
+
+    /**
+     * Sincroniza un lote de médicos (por ejemplo, desde el sistema de recursos humanos) con una sentencia
+     * MERGE por bloque, en lugar de un getById más un create o update por cada uno.
+     * Cada médico se busca por su ID: si existe y alguno de sus datos cambió se modifica (y se incrementa su
+     * versión), y si no existe o su ID es 0 se inserta con un ID nuevo.
+     * A los médicos insertados se les asigna su ID, y a los insertados o modificados, su versión nueva.
+     *
+     * @param medicos Los médicos a sincronizar. Si dos tienen el mismo ID, solo se aplica el último.
+     * @return La cantidad de médicos insertados, modificados y sin cambios.
+     * @throws SQLException Si ocurre un error al aplicar un bloque. Los bloques anteriores quedan aplicados.
+     */
+    public Upsert.Resultado upsert(List<Medico> medicos) throws SQLException {
+        DaoCall call = DaoMetrics.start("MedicoDAO.upsert"); // Medición de latencia, filas y errores.
+        try {
+            Upsert.Resultado res = UPSERT.aplicar(call, conn, medicos);
+            call.rows(res.getInsertadas() + res.getActualizadas()); // Registrar las filas afectadas.
+            return res;
+        } catch (SQLException ex) {
+            call.error(); // Registrar el error en las métricas.
+            throw new SQLException("Error al sincronizar los médicos: " + ex.getMessage(), ex);
+        } finally {
+            call.end(); // Registrar la medición de la llamada y liberar la conexión.
+        }
+    }
+
+    /**
+     * Excepción para una modificación o eliminación que no afectó ninguna fila: el médico fue modificado
+     * (su versión ya no es la leída) o eliminado. Se consulta la fila para distinguir ambos casos.
+     */
+    private VersionConflictException conflicto(int id) throws SQLException {
+        return new VersionConflictException(EntidadJson.MEDICOS.getNombre(), id, getById(id) == null);
+    }
 }
\ No newline at end of file
@@ -5,18 +5,32 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.Flow;
 
 import ale2025.dominio.Paciente;
+import ale2025.utils.CUD; // Operación registrada en la auditoría.
 
-public class PacienteDAO {
-    private ConnectionManager conn;
-    private PreparedStatement ps;
-    private ResultSet rs;
+public class PacienteDAO implements Dao<Paciente> {
+    private final ConnectionManager conn; // Las sentencias y resultados son locales a cada método.
+    private static PacienteDAO instance; // Instancia compartida, ver getInstance().
 
     public PacienteDAO() {
         conn = ConnectionManager.getInstance();
     }
 
+    /**
+     * Retorna la instancia compartida del DAO (no guarda estado entre llamadas, por lo que puede compartirse).
+     * Si la propiedad del sistema ale2025.api.url está definida, la instancia trabaja contra el servidor
+     * HTTP de la clínica en lugar de conectarse directamente a la base de datos.
+     */
+    public static synchronized PacienteDAO getInstance() {
+        if (instance == null) {
+            instance = ApiClient.isConfigured() ? new RemoteDaos.Pacientes(ApiClient.getInstance()) : new PacienteDAO();
+        }
+        return instance;
+    }
+
     /**
      * Crea un nuevo paciente en la base de datos.
      *
@@ -28,10 +42,12 @@ public class PacienteDAO {
     public Paciente create(Paciente paciente) throws SQLException {
         Paciente res = null; // Variable para almacenar el paciente creado que se retornará.
         PreparedStatement localPs = null; // Usar una variable local para el PreparedStatement del try
+        DaoCall call = DaoMetrics.start("PacienteDAO.create"); // Medición de latencia, filas y errores.
+        int idGenerado = 0; // ID asignado por la base de datos.
         try {
             // Preparar la sentencia SQL para la inserción de un nuevo paciente.
             // Se especifica que se retornen las claves generadas automáticamente.
-            localPs = conn.connect().prepareStatement(
+            localPs = call.prepareStatement(conn,
                     "INSERT INTO " +
                             "Pacientes (nombreCompleto, telefono, fechaNacimiento)" +
                             "VALUES (?, ?, ?)",
@@ -42,7 +58,7 @@ public class PacienteDAO {
             localPs.setString(2, paciente.getTelefono()); // Asignar el teléfono del paciente.
             localPs.setDate(3, paciente.getFechaNacimiento()); // Asignar la fecha de nacimiento del paciente.
             // Ejecutar la sentencia de inserción y obtener el número de filas afectadas.
-            int affectedRows = localPs.executeUpdate();
+            int affectedRows = call.rows(localPs.executeUpdate());
             // Verificar si la inserción fue exitosa (al menos una fila afectada).
             if (affectedRows != 0) {
                 // Obtener las claves generadas automáticamente por la base de datos (en este caso, el ID).
@@ -50,15 +66,14 @@ public class PacienteDAO {
                 // Mover el cursor al primer resultado (si existe).
                 if (generatedKeys.next()) {
                     // Obtener el ID generado. Generalmente la primera columna contiene la clave primaria.
-                    int idGenerado = generatedKeys.getInt(1);
-                    // Recuperar el paciente completo utilizando el ID generado.
-                    res = getById(idGenerado);
+                    idGenerado = generatedKeys.getInt(1);
                 } else {
                     // Lanzar una excepción si la creación del paciente falló y no se obtuvo un ID.
                     throw new SQLException("Creating patient failed, no ID obtained.");
                 }
             }
         } catch (SQLException ex) {
+            call.error(); // Registrar el error en las métricas.
             // Capturar cualquier excepción SQL que ocurra durante el proceso.
             throw new SQLException("Error al crear el paciente: " + ex.getMessage(), ex);
         } finally {
@@ -71,7 +86,14 @@ public class PacienteDAO {
                     System.err.println("Error al cerrar PreparedStatement en create: " + e.getMessage());
                 }
             }
-            conn.disconnect(); // Desconectar de la base de datos.
+            call.end(); // Registrar la medición de la llamada y liberar la conexión.
+        }
+        if (idGenerado != 0) {
+            // Recuperar el paciente completo utilizando el ID generado, una vez liberada la conexión de la inserción.
+            res = getById(idGenerado);
+        }
+        if (res != null) {
+            AuditLog.registrar(CUD.CREATE, EntidadJson.PACIENTES, null, res); // Alta, con el ID definitivo.
         }
         return res; // Retornar el paciente creado (con su ID asignado) o null si hubo un error.
     }
@@ -84,32 +106,51 @@ public class PacienteDAO {
      * correctamente establecidos para realizar la actualización.
      * @return true si la actualización del paciente fue exitosa (al menos una fila afectada),
      * false en caso contrario.
+     * @throws VersionConflictException Si el paciente fue modificado o eliminado desde que se leyó.
      * @throws SQLException Si ocurre un error al interactuar con la base de datos
      * durante la actualización del paciente.
      */
     public boolean update(Paciente paciente) throws SQLException {
         boolean res = false; // Variable para indicar si la actualización fue exitosa.
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        Map<String, Object> antes = null; // Valores que reemplazó la escritura, para la auditoría.
+        DaoCall call = DaoMetrics.start("PacienteDAO.update"); // Medición de latencia, filas y errores.
         try {
             // Preparar la sentencia SQL para actualizar la información de un paciente.
-            ps = conn.connect().prepareStatement(
+            ps = call.prepareStatement(conn,
                     "UPDATE Pacientes " +
-                            "SET nombreCompleto = ?, telefono= ?, fechaNacimiento = ? " +
-                            "WHERE id = ?"
+                            "SET nombreCompleto = ?, telefono= ?, fechaNacimiento = ?, version = version + 1 " +
+                            "OUTPUT deleted.id, deleted.nombreCompleto, deleted.telefono, deleted.fechaNacimiento, deleted.version " + // La fila tal como estaba, en la misma sentencia.
+                            "WHERE id = ? AND version = ?"
             );
             // Establecer los valores de los parámetros en la sentencia preparada.
             ps.setString(1, paciente.getNombreCompleto()); // Asignar el nuevo nombre del paciente.
             ps.setString(2, paciente.getTelefono()); // Asignar el nuevo teléfono del paciente.
             ps.setDate(3, paciente.getFechaNacimiento()); // Asignar la nueva fecha de nacimiento del paciente.
             ps.setInt(4, paciente.getId()); // Establecer la condición WHERE para identificar el paciente a actualizar por su ID.
+            ps.setInt(5, paciente.getVersion()); // Solo si la fila sigue con la versión que se leyó.
             // Ejecutar la sentencia de actualización y verificar si se afectó alguna fila.
-            if (ps.executeUpdate() > 0) {
-                res = true; // Si executeUpdate() retorna un valor mayor que 0, significa que la actualización fue exitosa.
+            rs = ps.executeQuery(); // OUTPUT devuelve la fila antes de la escritura.
+            if (rs.next()) {
+                antes = EntidadJson.PACIENTES.toMap(map(rs));
+                res = true; // Se afectó la fila: la escritura fue exitosa.
+                paciente.setVersion(paciente.getVersion() + 1); // La fila quedó con la versión siguiente.
             }
+            call.rows(res ? 1 : 0); // Registrar las filas afectadas.
         } catch (SQLException ex) {
+            call.error(); // Registrar el error en las métricas.
             // Capturar cualquier excepción SQL que ocurra durante el proceso.
             throw new SQLException("Error al modificar el paciente: " + ex.getMessage(), ex);
         } finally {
             // Bloque finally para asegurar que los recursos se liberen.
+            if (rs != null) {
+                try {
+                    rs.close(); // Cerrar el conjunto de resultados para liberar recursos.
+                } catch (SQLException e) {
+                    System.err.println("Error al cerrar ResultSet en update (PacienteDAO): " + e.getMessage());
+                }
+            }
             if (ps != null) {
                 try {
                     ps.close(); // Cerrar la sentencia preparada para liberar recursos.
@@ -117,8 +158,12 @@ public class PacienteDAO {
                     System.err.println("Error al cerrar PreparedStatement en update: " + e.getMessage());
                 }
             }
-            conn.disconnect(); // Desconectar de la base de datos.
+            call.end(); // Registrar la medición de la llamada y liberar la conexión.
         }
+        if (!res) {
+            throw conflicto(paciente.getId()); // No se afectó ninguna fila: cambió o fue eliminada desde que se leyó.
+        }
+        AuditLog.registrar(CUD.UPDATE, EntidadJson.PACIENTES, antes, paciente); // Solo si la escritura se aplicó.
         return res; // Retornar el resultado de la operación de actualización.
     }
 
@@ -129,27 +174,49 @@ public class PacienteDAO {
      * Se requiere que el objeto Paciente tenga el campo 'id' correctamente establecido.
      * @return true si la eliminación del paciente fue exitosa (al menos una fila afectada),
      * false en caso contrario.
+     * @throws VersionConflictException Si el paciente fue modificado o eliminado desde que se leyó.
      * @throws SQLException Si ocurre un error al interactuar con la base de datos
-     * durante la eliminación del paciente.
+     * durante la eliminación del paciente, o si tiene citas, recientes o archivadas en CitasHistorico.
      */
     public boolean delete(Paciente paciente) throws SQLException {
         boolean res = false; // Variable para indicar si la eliminación fue exitosa.
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        Map<String, Object> antes = null; // Valores que reemplazó la escritura, para la auditoría.
+        DaoCall call = DaoMetrics.start("PacienteDAO.delete"); // Medición de latencia, filas y errores.
         try {
             // Preparar la sentencia SQL para eliminar un paciente por su ID.
-            ps = conn.connect().prepareStatement(
-                    "DELETE FROM Pacientes WHERE id = ?"
+            ps = call.prepareStatement(conn,
+                    "DECLARE @antes TABLE (id INT, nombreCompleto VARCHAR(50), telefono VARCHAR(9), fechaNacimiento DATE, version INT); " +
+                            "DELETE FROM Pacientes " +
+                            "OUTPUT deleted.id, deleted.nombreCompleto, deleted.telefono, deleted.fechaNacimiento, deleted.version " +
+                            "INTO @antes " + // Con triggers de DELETE, OUTPUT debe ir a una tabla (ver script.sql).
+                            "WHERE id = ? AND version = ?; " +
+                            "SELECT id, nombreCompleto, telefono, fechaNacimiento, version FROM @antes"
             );
             // Establecer el valor del parámetro en la sentencia preparada (el ID del paciente a eliminar).
             ps.setInt(1, paciente.getId());
+            ps.setInt(2, paciente.getVersion()); // Solo si la fila sigue con la versión que se leyó.
             // Ejecutar la sentencia de eliminación y verificar si se afectó alguna fila.
-            if (ps.executeUpdate() > 0) {
-                res = true; // Si executeUpdate() retorna un valor mayor que 0, significa que la eliminación fue exitosa.
+            rs = DaoCall.primerResultado(ps); // El conteo del DELETE se salta: interesa el SELECT.
+            if (rs.next()) {
+                antes = EntidadJson.PACIENTES.toMap(map(rs));
+                res = true; // Se afectó la fila: la escritura fue exitosa.
             }
+            call.rows(res ? 1 : 0); // Registrar las filas afectadas.
         } catch (SQLException ex) {
+            call.error(); // Registrar el error en las métricas.
             // Capturar cualquier excepción SQL que ocurra durante el proceso.
             throw new SQLException("Error al eliminar el paciente: " + ex.getMessage(), ex);
         } finally {
             // Bloque finally para asegurar que los recursos se liberen.
+            if (rs != null) {
+                try {
+                    rs.close(); // Cerrar el conjunto de resultados para liberar recursos.
+                } catch (SQLException e) {
+                    System.err.println("Error al cerrar ResultSet en delete (PacienteDAO): " + e.getMessage());
+                }
+            }
             if (ps != null) {
                 try {
                     ps.close(); // Cerrar la sentencia preparada para liberar recursos.
@@ -157,8 +224,12 @@ public class PacienteDAO {
                     System.err.println("Error al cerrar PreparedStatement en delete: " + e.getMessage());
                 }
             }
-            conn.disconnect(); // Desconectar de la base de datos.
+            call.end(); // Registrar la medición de la llamada y liberar la conexión.
         }
+        if (!res) {
+            throw conflicto(paciente.getId()); // No se afectó ninguna fila: cambió o fue eliminada desde que se leyó.
+        }
+        AuditLog.registrar(CUD.DELETE, EntidadJson.PACIENTES, antes, paciente); // Solo si la escritura se aplicó.
         return res; // Retornar el resultado de la operación de eliminación.
     }
 
@@ -175,9 +246,12 @@ public class PacienteDAO {
      */
     public ArrayList<Paciente> search(String nombreCompleto) throws SQLException {
         ArrayList<Paciente> records = new ArrayList<>(); // Lista para almacenar los pacientes encontrados.
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        DaoCall call = DaoMetrics.start("PacienteDAO.search"); // Medición de latencia, filas y errores.
         try {
             // Preparar la sentencia SQL para buscar pacientes por nombre (usando LIKE para búsqueda parcial).
-            ps = conn.connect().prepareStatement("SELECT id, nombreCompleto, telefono, fechaNacimiento " +
+            ps = call.prepareStatement(conn, "SELECT id, nombreCompleto, telefono, fechaNacimiento, version " +
                     "FROM Pacientes " +
                     "WHERE nombreCompleto LIKE ?");
             // Establecer el valor del parámetro en la sentencia preparada.
@@ -187,17 +261,11 @@ public class PacienteDAO {
             rs = ps.executeQuery();
             // Iterar a través de cada fila del resultado.
             while (rs.next()) {
-                // Crear un nuevo objeto Paciente para cada registro encontrado.
-                Paciente paciente = new Paciente();
-                // Asignar los valores de las columnas a los atributos del objeto Paciente.
-                paciente.setId(rs.getInt(1)); // Obtener el ID del paciente.
-                paciente.setNombreCompleto(rs.getString(2)); // Obtener el nombre del paciente.
-                paciente.setTelefono(rs.getString(3)); // Obtener el teléfono del paciente.
-                paciente.setFechaNacimiento(rs.getDate(4)); // Obtener la fecha de nacimiento del paciente.
-                // Agregar el objeto Paciente a la lista de resultados.
-                records.add(paciente);
+                records.add(map(rs)); // Crear un objeto Paciente para cada registro encontrado.
             }
+            call.rows(records.size()); // Registrar la cantidad de filas encontradas.
         } catch (SQLException ex) {
+            call.error(); // Registrar el error en las métricas.
             // Capturar cualquier excepción SQL que ocurra durante el proceso.
             throw new SQLException("Error al buscar pacientes: " + ex.getMessage(), ex);
         } finally {
@@ -216,11 +284,150 @@ public class PacienteDAO {
                     System.err.println("Error al cerrar ResultSet en search: " + e.getMessage());
                 }
             }
-            conn.disconnect(); // Desconectar de la base de datos.
+            call.end(); // Registrar la medición de la llamada y liberar la conexión.
         }
         return records; // Retornar la lista de pacientes encontrados.
     }
 
+    /**
+     * Variante de {@link #search(String)} que emite los pacientes a medida que avanza el cursor, en lugar de
+     * retornarlos en una lista. Solo se leen filas mientras el suscriptor tenga demanda pendiente.
+     *
+     * @param nombreCompleto El mismo criterio de búsqueda de {@link #search(String)}.
+     * @return Un publicador; cada suscripción ejecuta la consulta.
+     */
+    public Flow.Publisher<Paciente> searchPublisher(String nombreCompleto) {
+        return new SearchPublisher<>(conn, "PacienteDAO.searchPublisher",
+                "SELECT id, nombreCompleto, telefono, fechaNacimiento, version " +
+                        "FROM Pacientes " +
+                        "WHERE nombreCompleto LIKE ?",
+                ps -> ps.setString(1, "%" + nombreCompleto + "%"),
+                PacienteDAO::map);
+    }
+
+    /**
+     * Obtiene los pacientes que tienen alguna cita en la fecha indicada (sin repetir).
+     * Se usa para precargar los nombres que muestra la lista de citas del día.
+     *
+     * @param fechaCita La fecha en formato YYYY-MM-DD.
+     * @return Un ArrayList con los pacientes; vacío si no hay citas en esa fecha.
+     * @throws SQLException Si ocurre un error al interactuar con la base de datos.
+     */
+    public ArrayList<Paciente> searchByFechaCita(String fechaCita) throws SQLException {
+        ArrayList<Paciente> records = new ArrayList<>();
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        // Si la fecha es anterior al límite del archivo, las citas pueden estar en el histórico.
+        boolean historico = CitaDAO.usaHistorico(fechaCita); // Antes de la llamada: puede leer la base.
+        DaoCall call = DaoMetrics.start("PacienteDAO.searchByFechaCita"); // Medición de latencia, filas y errores.
+        try {
+            ps = call.prepareStatement(conn, "SELECT p.id, p.nombreCompleto, p.telefono, p.fechaNacimiento, p.version " +
+                    "FROM Pacientes p " +
+                    "WHERE EXISTS (SELECT 1 FROM Citas c WHERE c.pacienteId = p.id AND c.fechaCita = ?)" +
+                    (historico ? " OR EXISTS (SELECT 1 FROM CitasHistorico h WHERE h.pacienteId = p.id AND h.fechaCita = ?)" : ""));
+            ps.setDate(1, Date.valueOf(fechaCita));
+            if (historico) {
+                ps.setDate(2, Date.valueOf(fechaCita));
+            }
+            rs = ps.executeQuery();
+            while (rs.next()) {
+                records.add(map(rs));
+            }
+            call.rows(records.size()); // Registrar la cantidad de filas encontradas.
+        } catch (SQLException ex) {
+            call.error(); // Registrar el error en las métricas.
+            throw new SQLException("Error al buscar los pacientes de la fecha: " + ex.getMessage(), ex);
+        } finally {
+            if (ps != null) {
+                try {
+                    ps.close();
+                } catch (SQLException e) {
+                    System.err.println("Error al cerrar PreparedStatement en searchByFechaCita: " + e.getMessage());
+                }
+            }
+            if (rs != null) {
+                try {
+                    rs.close();
+                } catch (SQLException e) {
+                    System.err.println("Error al cerrar ResultSet en searchByFechaCita: " + e.getMessage());
+                }
+            }
+            call.end(); // Registrar la medición de la llamada y liberar la conexión.
+        }
+        return records;
+    }
+
+    /**
+     * Obtiene los pacientes con los que el usuario trabajó recientemente, según la tabla de auditoría:
+     * los que modificó directamente y los de las citas que registró, en los últimos 30 días.
+     *
+     * @param usuario El email del usuario (el mismo que figura en la auditoría).
+     * @param max     Cantidad máxima de pacientes.
+     * @return Un ArrayList con los pacientes, del más reciente al más antiguo.
+     * @throws SQLException Si ocurre un error al interactuar con la base de datos.
+     */
+    public ArrayList<Paciente> getRecientes(String usuario, int max) throws SQLException {
+        ArrayList<Paciente> records = new ArrayList<>();
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        DaoCall call = DaoMetrics.start("PacienteDAO.getRecientes"); // Medición de latencia, filas y errores.
+        try {
+            ps = call.prepareStatement(conn, "WITH Recientes AS (" +
+                    "SELECT CASE WHEN entidad = 'pacientes' THEN entidadId " +
+                    "ELSE TRY_CAST(JSON_VALUE(COALESCE(despues, antes), '$.pacienteId') AS INT) END AS pacienteId, fecha " +
+                    "FROM Auditoria " +
+                    "WHERE usuario = ? AND entidad IN ('pacientes', 'citas') " +
+                    "AND fecha >= DATEADD(DAY, -30, SYSDATETIME())) " +
+                    "SELECT TOP (?) p.id, p.nombreCompleto, p.telefono, p.fechaNacimiento, p.version " +
+                    "FROM Pacientes p " +
+                    "JOIN (SELECT pacienteId, MAX(fecha) AS ultima FROM Recientes GROUP BY pacienteId) r " +
+                    "ON r.pacienteId = p.id " +
+                    "ORDER BY r.ultima DESC");
+            ps.setString(1, usuario);
+            ps.setInt(2, max);
+            rs = ps.executeQuery();
+            while (rs.next()) {
+                records.add(map(rs));
+            }
+            call.rows(records.size()); // Registrar la cantidad de filas encontradas.
+        } catch (SQLException ex) {
+            call.error(); // Registrar el error en las métricas.
+            throw new SQLException("Error al obtener los pacientes recientes: " + ex.getMessage(), ex);
+        } finally {
+            if (ps != null) {
+                try {
+                    ps.close();
+                } catch (SQLException e) {
+                    System.err.println("Error al cerrar PreparedStatement en getRecientes: " + e.getMessage());
+                }
+            }
+            if (rs != null) {
+                try {
+                    rs.close();
+                } catch (SQLException e) {
+                    System.err.println("Error al cerrar ResultSet en getRecientes: " + e.getMessage());
+                }
+            }
+            call.end(); // Registrar la medición de la llamada y liberar la conexión.
+        }
+        return records;
+    }
+
+    /**
+     * Convierte la fila actual del cursor en un objeto Paciente.
+     */
+    static Paciente map(ResultSet rs) throws SQLException {
+        // Crear un nuevo objeto Paciente con los valores de la fila.
+        Paciente paciente = new Paciente();
+        // Asignar los valores de las columnas a los atributos del objeto Paciente.
+        paciente.setId(rs.getInt(1)); // Obtener el ID del paciente.
+        paciente.setNombreCompleto(rs.getString(2)); // Obtener el nombre del paciente.
+        paciente.setTelefono(rs.getString(3)); // Obtener el teléfono del paciente.
+        paciente.setFechaNacimiento(rs.getDate(4)); // Obtener la fecha de nacimiento del paciente.
+        paciente.setVersion(rs.getInt(5)); // Obtener la versión de la fila.
+        return paciente;
+    }
+
     /**
      * Obtiene un paciente de la base de datos basado en su ID.
      *
@@ -232,9 +439,12 @@ public class PacienteDAO {
      */
     public Paciente getById(int id) throws SQLException {
         Paciente paciente = null; // Inicializar a null si no se encuentra el paciente.
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        DaoCall call = DaoMetrics.start("PacienteDAO.getById"); // Medición de latencia, filas y errores.
         try {
             // Preparar la sentencia SQL para seleccionar un paciente por su ID.
-            ps = conn.connect().prepareStatement("SELECT id, nombreCompleto, telefono, fechaNacimiento " +
+            ps = call.prepareStatement(conn, "SELECT id, nombreCompleto, telefono, fechaNacimiento, version " +
                     "FROM Pacientes " +
                     "WHERE id = ?");
             // Establecer el valor del parámetro en la sentencia preparada (el ID a buscar).
@@ -249,8 +459,11 @@ public class PacienteDAO {
                 paciente.setNombreCompleto(rs.getString(2)); // Obtener el nombre del paciente.
                 paciente.setTelefono(rs.getString(3)); // Obtener el teléfono del paciente.
                 paciente.setFechaNacimiento(rs.getDate(4)); // Obtener la fecha de nacimiento del paciente.
+                paciente.setVersion(rs.getInt(5)); // Obtener la versión de la fila.
             }
+            call.rows(paciente != null ? 1 : 0); // Registrar si se encontró el registro.
         } catch (SQLException ex) {
+            call.error(); // Registrar el error en las métricas.
             // Capturar cualquier excepción SQL que ocurra durante el proceso.
             throw new SQLException("Error al obtener un paciente por id: " + ex.getMessage(), ex);
         } finally {
@@ -269,8 +482,16 @@ public class PacienteDAO {
                     System.err.println("Error al cerrar ResultSet en getById: " + e.getMessage());
                 }
             }
-            conn.disconnect(); // Desconectar de la base de datos.
+            call.end(); // Registrar la medición de la llamada y liberar la conexión.
         }
         return paciente; // Retornar el objeto Paciente encontrado o null si no existe.
     }
+
+    /**
+     * Excepción para una modificación o eliminación que no afectó ninguna fila: el paciente fue modificado
+     * (su versión ya no es la leída) o eliminado. Se consulta la fila para distinguir ambos casos.
+     */
+    private VersionConflictException conflicto(int id) throws SQLException {
+        return new VersionConflictException(EntidadJson.PACIENTES.getNombre(), id, getById(id) == null);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,645 @@
+package ale2025.persistencia;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+import ale2025.dominio.Paciente;
+
+/**
+ * Detección de pacientes duplicados: el mismo paciente registrado dos veces con el nombre escrito de otra
+ * forma ("José González" y "Jose Gonsales"), pensada para ejecutarse sin interfaz gráfica.
+ *
+ * Comparar todos los pares es O(n²), así que los pacientes se agrupan en bloques (blocking) y solo se
+ * comparan los de un mismo bloque. Cada paciente entra en tres bloques: los de su fecha de nacimiento junto
+ * con la clave fonética del primer nombre, con la del último apellido y con la menor de las claves de sus
+ * palabras (que no depende del orden, para "Ana López" y "López Ana"); así se encuentran los duplicados con
+ * una diferencia en el nombre o en el apellido, pero no los que tienen otra fecha de nacimiento. Los
+ * pacientes sin fecha de nacimiento o sin letras en el nombre no entran en ningún bloque.
+ *
+ * Cada par candidato se puntúa de 0 a 1 con la similitud de Jaro-Winkler de los nombres (también con las
+ * palabras ordenadas, por si se invirtió el orden), que el teléfono sube si coincide y baja si es distinto.
+ * Los bloques se reparten entre los hilos de un ForkJoinPool, y los pares que alcanzan el umbral se
+ * retornan ordenados de más a menos probable. Nada se modifica: la fusión queda a cargo de una persona.
+ */
+public class PacienteDeduplicator {
+    /** Puntaje mínimo para informar un par. */
+    public static final double DEFAULT_UMBRAL = 0.88;
+
+    private static final int FETCH_SIZE = 1000;          // Filas que el driver trae por viaje a la base de datos.
+    private static final int BLOQUES_POR_TAREA = 512;    // Bloques que una tarea compara sin dividirse.
+    private static final int FILAS_POR_ORDEN = 8192;     // Filas que una tarea ordena sin dividirse.
+    private static final double AJUSTE_TELEFONO = 0.05;  // Cuánto suma o resta el teléfono al puntaje.
+
+    private final ConnectionManager conn; // Objeto para gestionar la conexión con la base de datos.
+    private final double umbral;
+    private final int paralelismo;
+
+    public PacienteDeduplicator() {
+        this(DEFAULT_UMBRAL, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param umbral      Puntaje mínimo (de 0 a 1) para informar un par.
+     * @param paralelismo Hilos que comparan los bloques.
+     */
+    public PacienteDeduplicator(double umbral, int paralelismo) {
+        if (umbral < 0 || umbral > 1) {
+            throw new IllegalArgumentException("El umbral debe estar entre 0 y 1");
+        }
+        if (paralelismo <= 0) {
+            throw new IllegalArgumentException("El paralelismo debe ser mayor que 0");
+        }
+        conn = ConnectionManager.getInstance();
+        this.umbral = umbral;
+        this.paralelismo = paralelismo;
+    }
+
+    /**
+     * Busca duplicados entre todos los pacientes de la base de datos.
+     *
+     * @return Un Resultado con los pares probables, ordenados de mayor a menor puntaje.
+     * @throws SQLException Si ocurre un error al leer los pacientes.
+     */
+    public Resultado buscar() throws SQLException {
+        long inicio = System.nanoTime();
+        Filas filas = new Filas(FETCH_SIZE);
+        Connection connection = null;
+        PreparedStatement localPs = null;
+        ResultSet localRs = null;
+        try {
+            connection = conn.connect();
+            // Cursor de solo avance y solo lectura: las filas se guardan en arreglos compactos a medida que llegan.
+            localPs = connection.prepareStatement("SELECT id, nombreCompleto, telefono, fechaNacimiento FROM Pacientes",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            localPs.setFetchSize(FETCH_SIZE);
+            localRs = localPs.executeQuery();
+            while (localRs.next()) {
+                filas.agregar(localRs.getInt(1), localRs.getString(2), localRs.getString(3),
+                        localRs.getObject(4, LocalDate.class));
+            }
+        } catch (SQLException ex) {
+            throw new SQLException("Error al leer los pacientes: " + ex.getMessage(), ex);
+        } finally {
+            if (localRs != null) {
+                try {
+                    localRs.close(); // Cerrar el conjunto de resultados para liberar recursos.
+                } catch (SQLException e) {
+                    System.err.println("Error al cerrar ResultSet en buscar (PacienteDeduplicator): " + e.getMessage());
+                }
+            }
+            if (localPs != null) {
+                try {
+                    localPs.close(); // Cerrar la sentencia preparada para liberar recursos.
+                } catch (SQLException e) {
+                    System.err.println("Error al cerrar PreparedStatement en buscar (PacienteDeduplicator): " + e.getMessage());
+                }
+            }
+            if (connection != null) {
+                try {
+                    connection.close(); // Devolver la conexión al grupo.
+                } catch (SQLException e) {
+                    System.err.println("Error al liberar la conexión en buscar (PacienteDeduplicator): " + e.getMessage());
+                }
+            }
+        }
+        return detectar(filas, inicio);
+    }
+
+    /**
+     * Busca duplicados entre los pacientes indicados (por ejemplo, los de un archivo antes de importarlo).
+     *
+     * @return Un Resultado con los pares probables, ordenados de mayor a menor puntaje.
+     */
+    public Resultado buscar(List<Paciente> pacientes) {
+        long inicio = System.nanoTime();
+        Filas filas = new Filas(pacientes.size());
+        for (Paciente p : pacientes) {
+            filas.agregar(p.getId(), p.getNombreCompleto(), p.getTelefono(),
+                    p.getFechaNacimiento() != null ? p.getFechaNacimiento().toLocalDate() : null);
+        }
+        return detectar(filas, inicio);
+    }
+
+    /**
+     * Escribe los pares en un archivo CSV, en el orden del resultado.
+     */
+    public static void escribirCsv(Resultado res, Path destino) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(destino, StandardCharsets.UTF_8)) {
+            out.write("puntaje,idA,nombreA,telefonoA,idB,nombreB,telefonoB,fechaNacimiento");
+            out.newLine();
+            for (Candidato c : res.candidatos) {
+                out.write(String.format(Locale.ROOT, "%.3f,%d,%s,%s,%d,%s,%s,%s", c.puntaje,
+                        c.idA, csv(c.nombreA), csv(c.telefonoA), c.idB, csv(c.nombreB), csv(c.telefonoB),
+                        c.fechaNacimiento));
+                out.newLine();
+            }
+        }
+    }
+
+    private Resultado detectar(Filas filas, long inicio) {
+        Resultado res = new Resultado();
+        res.pacientes = filas.n;
+        // Primer nombre, último apellido y la menor clave de las palabras (independiente del orden).
+        String[][] claves = {new String[filas.n], new String[filas.n], new String[filas.n]};
+        for (int i = 0; i < filas.n; i++) {
+            String[] palabras = filas.normalizados[i].isEmpty() ? new String[0] : filas.normalizados[i].split(" ");
+            claves[0][i] = palabras.length > 0 ? claveFonetica(palabras[0]) : "";
+            claves[1][i] = palabras.length > 0 ? claveFonetica(palabras[palabras.length - 1]) : "";
+            String menor = "";
+            for (String palabra : palabras) {
+                String clave = claveFonetica(palabra);
+                if (menor.isEmpty() || (!clave.isEmpty() && clave.compareTo(menor) < 0)) {
+                    menor = clave;
+                }
+            }
+            claves[2][i] = menor;
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(paralelismo);
+        try {
+            List<Candidato> candidatos = new ArrayList<>();
+            for (int pasada = 0; pasada < claves.length; pasada++) {
+                Bloques bloques = Bloques.de(filas, claves[pasada], pool);
+                res.bloques += bloques.cantidad();
+                Comparacion tarea = new Comparacion(filas, bloques, claves, pasada, 0, bloques.cantidad());
+                candidatos.addAll(pool.invoke(tarea));
+                res.comparaciones += tarea.comparaciones;
+            }
+            candidatos.sort(Comparator.comparingDouble((Candidato c) -> -c.puntaje)
+                    .thenComparingInt(c -> c.idA).thenComparingInt(c -> c.idB));
+            res.candidatos = candidatos;
+        } finally {
+            pool.shutdown();
+        }
+        res.segundos = (System.nanoTime() - inicio) / 1_000_000_000.0;
+        return res;
+    }
+
+    /**
+     * Puntaje de 0 a 1 de que dos pacientes con la misma fecha de nacimiento sean la misma persona.
+     *
+     * @param nombreA   Nombre normalizado (ver {@link #normalizar(String)}).
+     * @param ordenadoA El nombre normalizado con sus palabras ordenadas.
+     * @param telefonoA Dígitos del teléfono, o null si no se registró.
+     */
+    static double puntaje(String nombreA, String ordenadoA, String telefonoA,
+                          String nombreB, String ordenadoB, String telefonoB) {
+        double nombre = Math.max(jaroWinkler(nombreA, nombreB), jaroWinkler(ordenadoA, ordenadoB));
+        if (telefonoA != null && telefonoB != null) {
+            nombre += telefonoA.equals(telefonoB) ? AJUSTE_TELEFONO : -AJUSTE_TELEFONO;
+        }
+        return Math.max(0, Math.min(1, nombre));
+    }
+
+    /**
+     * Nombre en minúsculas, sin acentos ni signos y con un solo espacio entre palabras.
+     */
+    static String normalizar(String nombre) {
+        if (nombre == null) {
+            return "";
+        }
+        String sinAcentos = Normalizer.normalize(nombre, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return sinAcentos.toLowerCase(Locale.ROOT).replaceAll("[^a-z]+", " ").trim();
+    }
+
+    /**
+     * Clave fonética de una palabra (normalizada) según la pronunciación del español: las letras que suenan
+     * igual reciben el mismo código (b/v, s/z/c ante e-i, k/q/c, j/g ante e-i, y/ll), la h muda se descarta
+     * y las letras repetidas se escriben una vez. "gonzalez", "gonsales" y "gonzales" tienen la clave
+     * "gonsales"; "baldez" y "valdes", "baldes".
+     */
+    static String claveFonetica(String palabra) {
+        StringBuilder sb = new StringBuilder(palabra.length());
+        int n = palabra.length();
+        for (int i = 0; i < n; i++) {
+            char c = palabra.charAt(i);
+            char sig = i + 1 < n ? palabra.charAt(i + 1) : ' ';
+            boolean suave = sig == 'e' || sig == 'i';
+            char codigo;
+            switch (c) {
+                case 'v':
+                case 'w':
+                    codigo = 'b';
+                    break;
+                case 'z':
+                    codigo = 's';
+                    break;
+                case 'c':
+                    if (sig == 'h') {
+                        codigo = 'C'; // "ch" tiene sonido propio.
+                        i++;
+                    } else {
+                        codigo = suave ? 's' : 'k';
+                    }
+                    break;
+                case 'q':
+                    codigo = 'k';
+                    if (sig == 'u') {
+                        i++; // "qu" suena como k.
+                    }
+                    break;
+                case 'g':
+                    codigo = suave ? 'j' : 'g';
+                    if (sig == 'u' && i + 2 < n && (palabra.charAt(i + 2) == 'e' || palabra.charAt(i + 2) == 'i')) {
+                        i++; // "gue", "gui": la u no suena.
+                    }
+                    break;
+                case 'l':
+                    codigo = 'l';
+                    if (sig == 'l') {
+                        codigo = 'y'; // "ll" suena como y.
+                        i++;
+                    }
+                    break;
+                case 'h':
+                    continue; // Muda.
+                case 'x':
+                    codigo = 'x';
+                    break;
+                default:
+                    codigo = c;
+            }
+            if (sb.length() == 0 || sb.charAt(sb.length() - 1) != codigo) {
+                sb.append(codigo);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Similitud de Jaro-Winkler (de 0 a 1), que favorece a los nombres con el mismo comienzo.
+     */
+    static double jaroWinkler(String a, String b) {
+        if (a.equals(b)) {
+            return 1;
+        }
+        int la = a.length();
+        int lb = b.length();
+        if (la == 0 || lb == 0) {
+            return 0;
+        }
+        int ventana = Math.max(0, Math.max(la, lb) / 2 - 1);
+        boolean[] usadaA = new boolean[la];
+        boolean[] usadaB = new boolean[lb];
+        int coincidencias = 0;
+        for (int i = 0; i < la; i++) {
+            int desde = Math.max(0, i - ventana);
+            int hasta = Math.min(lb - 1, i + ventana);
+            for (int j = desde; j <= hasta; j++) {
+                if (!usadaB[j] && a.charAt(i) == b.charAt(j)) {
+                    usadaA[i] = true;
+                    usadaB[j] = true;
+                    coincidencias++;
+                    break;
+                }
+            }
+        }
+        if (coincidencias == 0) {
+            return 0;
+        }
+        int transposiciones = 0;
+        for (int i = 0, j = 0; i < la; i++) {
+            if (usadaA[i]) {
+                while (!usadaB[j]) {
+                    j++;
+                }
+                if (a.charAt(i) != b.charAt(j)) {
+                    transposiciones++;
+                }
+                j++;
+            }
+        }
+        double m = coincidencias;
+        double jaro = (m / la + m / lb + (m - transposiciones / 2.0) / m) / 3;
+        int prefijo = 0;
+        while (prefijo < Math.min(4, Math.min(la, lb)) && a.charAt(prefijo) == b.charAt(prefijo)) {
+            prefijo++;
+        }
+        return jaro + prefijo * 0.1 * (1 - jaro);
+    }
+
+    private static String csv(String valor) {
+        if (valor == null) {
+            return "";
+        }
+        return valor.contains(",") || valor.contains("\"") ? '"' + valor.replace("\"", "\"\"") + '"' : valor;
+    }
+
+    /**
+     * Pacientes en arreglos paralelos, con el nombre ya normalizado y con sus palabras ordenadas. El
+     * teléfono se guarda tal como se registró, para el informe, y con solo sus dígitos, para comparar.
+     */
+    private static final class Filas {
+        private int n;
+        private int[] ids;
+        private String[] nombres;
+        private String[] normalizados;
+        private String[] ordenados;
+        private String[] telefonos;
+        private String[] digitos;
+        private int[] fechas; // Días desde 1970-01-01; Integer.MIN_VALUE si no tiene fecha.
+
+        Filas(int capacidad) {
+            capacidad = Math.max(capacidad, 16);
+            ids = new int[capacidad];
+            nombres = new String[capacidad];
+            normalizados = new String[capacidad];
+            ordenados = new String[capacidad];
+            telefonos = new String[capacidad];
+            digitos = new String[capacidad];
+            fechas = new int[capacidad];
+        }
+
+        void agregar(int id, String nombre, String telefono, LocalDate fecha) {
+            if (n == ids.length) {
+                int capacidad = n * 2;
+                ids = Arrays.copyOf(ids, capacidad);
+                nombres = Arrays.copyOf(nombres, capacidad);
+                normalizados = Arrays.copyOf(normalizados, capacidad);
+                ordenados = Arrays.copyOf(ordenados, capacidad);
+                telefonos = Arrays.copyOf(telefonos, capacidad);
+                digitos = Arrays.copyOf(digitos, capacidad);
+                fechas = Arrays.copyOf(fechas, capacidad);
+            }
+            String normalizado = normalizar(nombre);
+            String[] palabras = normalizado.split(" ");
+            Arrays.sort(palabras);
+            ids[n] = id;
+            nombres[n] = nombre;
+            normalizados[n] = normalizado;
+            ordenados[n] = String.join(" ", palabras);
+            telefonos[n] = telefono;
+            String soloDigitos = telefono == null ? "" : telefono.replaceAll("\\D", "");
+            digitos[n] = soloDigitos.isEmpty() ? null : soloDigitos; // Sin dígitos cuenta como no registrado.
+            fechas[n] = fecha != null ? Math.toIntExact(fecha.toEpochDay()) : Integer.MIN_VALUE;
+            n++;
+        }
+    }
+
+    /**
+     * Pacientes ordenados por fecha de nacimiento y clave fonética: cada bloque es un tramo del orden. Los
+     * que no tienen fecha o cuya clave está vacía (nombre sin letras) quedan fuera.
+     */
+    private static final class Bloques {
+        private final int[] orden;   // Posiciones en Filas, agrupadas por bloque.
+        private final int[] inicios; // Comienzo de cada bloque en el orden (más el final, al terminar).
+
+        private Bloques(int[] orden, int[] inicios) {
+            this.orden = orden;
+            this.inicios = inicios;
+        }
+
+        static Bloques de(Filas filas, String[] claves, ForkJoinPool pool) {
+            Integer[] posiciones = new Integer[filas.n];
+            int n = 0;
+            for (int i = 0; i < filas.n; i++) {
+                if (filas.fechas[i] != Integer.MIN_VALUE && !claves[i].isEmpty()) {
+                    posiciones[n++] = i;
+                }
+            }
+            // Se ordena en el pool de la búsqueda (Arrays.parallelSort usaría el pool común de la JVM).
+            pool.invoke(new Orden(posiciones, new Integer[n], 0, n,
+                    Comparator.<Integer>comparingInt(i -> filas.fechas[i]).thenComparing(i -> claves[i])));
+            int[] orden = new int[n];
+            int[] inicios = new int[n + 1];
+            int bloques = 0;
+            for (int k = 0; k < n; k++) {
+                orden[k] = posiciones[k];
+                if (k == 0 || !mismoBloque(filas, claves, orden[k - 1], orden[k])) {
+                    inicios[bloques++] = k;
+                }
+            }
+            inicios[bloques] = n;
+            return new Bloques(orden, Arrays.copyOf(inicios, bloques + 1));
+        }
+
+        static boolean mismoBloque(Filas filas, String[] claves, int a, int b) {
+            return filas.fechas[a] == filas.fechas[b] && claves[a].equals(claves[b]);
+        }
+
+        int cantidad() {
+            return inicios.length - 1;
+        }
+    }
+
+    /**
+     * Ordenamiento por mezcla de un tramo: las mitades se ordenan en paralelo y se mezclan en el auxiliar.
+     */
+    private static final class Orden extends RecursiveAction {
+        private final Integer[] valores;
+        private final Integer[] auxiliar;
+        private final int desde;
+        private final int hasta;
+        private final Comparator<Integer> comparador;
+
+        Orden(Integer[] valores, Integer[] auxiliar, int desde, int hasta, Comparator<Integer> comparador) {
+            this.valores = valores;
+            this.auxiliar = auxiliar;
+            this.desde = desde;
+            this.hasta = hasta;
+            this.comparador = comparador;
+        }
+
+        @Override
+        protected void compute() {
+            if (hasta - desde <= FILAS_POR_ORDEN) {
+                Arrays.sort(valores, desde, hasta, comparador);
+                return;
+            }
+            int medio = (desde + hasta) >>> 1;
+            invokeAll(new Orden(valores, auxiliar, desde, medio, comparador),
+                    new Orden(valores, auxiliar, medio, hasta, comparador));
+            System.arraycopy(valores, desde, auxiliar, desde, hasta - desde);
+            int i = desde;
+            int j = medio;
+            for (int k = desde; k < hasta; k++) {
+                if (j >= hasta || (i < medio && comparador.compare(auxiliar[i], auxiliar[j]) <= 0)) {
+                    valores[k] = auxiliar[i++];
+                } else {
+                    valores[k] = auxiliar[j++];
+                }
+            }
+        }
+    }
+
+    /**
+     * Compara los pares de un tramo de bloques, dividiéndolo en mitades mientras tenga muchos bloques.
+     */
+    private final class Comparacion extends RecursiveTask<List<Candidato>> {
+        private final Filas filas;
+        private final Bloques bloques;
+        private final String[][] claves;
+        private final int pasada;
+        private final int desde;
+        private final int hasta;
+        private long comparaciones;
+
+        Comparacion(Filas filas, Bloques bloques, String[][] claves, int pasada, int desde, int hasta) {
+            this.filas = filas;
+            this.bloques = bloques;
+            this.claves = claves;
+            this.pasada = pasada;
+            this.desde = desde;
+            this.hasta = hasta;
+        }
+
+        @Override
+        protected List<Candidato> compute() {
+            if (hasta - desde > BLOQUES_POR_TAREA) {
+                int medio = (desde + hasta) >>> 1;
+                Comparacion izquierda = new Comparacion(filas, bloques, claves, pasada, desde, medio);
+                Comparacion derecha = new Comparacion(filas, bloques, claves, pasada, medio, hasta);
+                izquierda.fork();
+                List<Candidato> res = derecha.compute();
+                res.addAll(izquierda.join());
+                comparaciones = izquierda.comparaciones + derecha.comparaciones;
+                return res;
+            }
+            List<Candidato> res = new ArrayList<>();
+            for (int b = desde; b < hasta; b++) {
+                int inicio = bloques.inicios[b];
+                int fin = bloques.inicios[b + 1];
+                for (int x = inicio; x < fin; x++) {
+                    for (int y = x + 1; y < fin; y++) {
+                        comparar(bloques.orden[x], bloques.orden[y], res);
+                    }
+                }
+            }
+            return res;
+        }
+
+        private void comparar(int a, int b, List<Candidato> res) {
+            for (int p = 0; p < pasada; p++) {
+                if (!claves[p][a].isEmpty() && claves[p][a].equals(claves[p][b])) {
+                    return; // El par ya se comparó en una pasada anterior.
+                }
+            }
+            comparaciones++;
+            double puntaje = puntaje(filas.normalizados[a], filas.ordenados[a], filas.digitos[a],
+                    filas.normalizados[b], filas.ordenados[b], filas.digitos[b]);
+            if (puntaje >= umbral) {
+                int menor = filas.ids[a] < filas.ids[b] ? a : b;
+                int mayor = menor == a ? b : a;
+                res.add(new Candidato(filas.ids[menor], filas.nombres[menor], filas.telefonos[menor],
+                        filas.ids[mayor], filas.nombres[mayor], filas.telefonos[mayor],
+                        LocalDate.ofEpochDay(filas.fechas[a]), puntaje));
+            }
+        }
+    }
+
+    /**
+     * Par de pacientes que probablemente son la misma persona (A es el de menor ID).
+     */
+    public static final class Candidato {
+        private final int idA;
+        private final String nombreA;
+        private final String telefonoA;
+        private final int idB;
+        private final String nombreB;
+        private final String telefonoB;
+        private final LocalDate fechaNacimiento;
+        private final double puntaje;
+
+        Candidato(int idA, String nombreA, String telefonoA, int idB, String nombreB, String telefonoB,
+                  LocalDate fechaNacimiento, double puntaje) {
+            this.idA = idA;
+            this.nombreA = nombreA;
+            this.telefonoA = telefonoA;
+            this.idB = idB;
+            this.nombreB = nombreB;
+            this.telefonoB = telefonoB;
+            this.fechaNacimiento = fechaNacimiento;
+            this.puntaje = puntaje;
+        }
+
+        public int getIdA() {
+            return idA;
+        }
+
+        public String getNombreA() {
+            return nombreA;
+        }
+
+        public String getTelefonoA() {
+            return telefonoA;
+        }
+
+        public int getIdB() {
+            return idB;
+        }
+
+        public String getNombreB() {
+            return nombreB;
+        }
+
+        public String getTelefonoB() {
+            return telefonoB;
+        }
+
+        public LocalDate getFechaNacimiento() {
+            return fechaNacimiento;
+        }
+
+        public double getPuntaje() {
+            return puntaje;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.3f  %d %s  /  %d %s  (%s)", puntaje, idA, nombreA, idB, nombreB, fechaNacimiento);
+        }
+    }
+
+    /**
+     * Resumen de una búsqueda de duplicados.
+     */
+    public static class Resultado {
+        private int pacientes;
+        private long bloques;
+        private long comparaciones;
+        private List<Candidato> candidatos = List.of();
+        private double segundos;
+
+        public int getPacientes() {
+            return pacientes;
+        }
+
+        public long getComparaciones() {
+            return comparaciones;
+        }
+
+        /**
+         * @return Los pares probables, de mayor a menor puntaje.
+         */
+        public List<Candidato> getCandidatos() {
+            return candidatos;
+        }
+
+        public double getSegundos() {
+            return segundos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("pacientes=%d, bloques=%d, comparaciones=%d, candidatos=%d, %.1f s",
+                    pacientes, bloques, comparaciones, candidatos.size(), segundos);
+        }
+    }
+}
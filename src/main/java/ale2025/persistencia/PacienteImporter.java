@@ -0,0 +1,357 @@
+package ale2025.persistencia;
+
+import java.io.BufferedReader;      // Lector con búfer para recorrer el CSV línea por línea sin cargarlo completo en memoria.
+import java.io.BufferedWriter;      // Escritor con búfer para el archivo de filas rechazadas.
+import java.io.IOException;         // Errores de entrada/salida al leer el CSV o escribir el progreso.
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;         // Conexión usada para controlar la transacción de cada bloque.
+import java.sql.Date;               // Necesario para el tipo DATE de SQL
+import java.sql.PreparedStatement;  // Sentencia preparada reutilizada para el lote de inserciones.
+import java.sql.ResultSet;          // Pacientes insertados en el bloque, para la auditoría.
+import java.sql.SQLException;       // Clase para manejar errores relacionados con la base de datos SQL.
+import java.sql.Statement;          // Creación y eliminación de la tabla temporal de altas.
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+
+import ale2025.dominio.Paciente;
+import ale2025.utils.CUD;
+
+/**
+ * Importador masivo de pacientes desde un archivo CSV, pensado para ejecutarse sin interfaz gráfica.
+ *
+ * El archivo se lee en streaming (una línea a la vez), cada fila se valida contra los límites de
+ * columnas definidos en script.sql y las filas válidas se insertan con sentencias por lotes,
+ * confirmando una transacción por bloque. Al terminar cada bloque se guarda el número de la última
+ * línea confirmada en un archivo de progreso, de modo que una importación interrumpida puede
+ * reanudarse sin duplicar pacientes.
+ *
+ * Cada inserción copia la fila insertada (con su ID) a una tabla temporal de la conexión
+ * (OUTPUT inserted.* INTO #AltasImportadas); al confirmar el bloque se leen esas filas y cada paciente
+ * se registra en la auditoría con su ID definitivo.
+ *
+ * Formato esperado (la primera línea es el encabezado):
+ * nombreCompleto,telefono,fechaNacimiento
+ * La fecha se acepta como yyyy-MM-dd o dd/MM/yyyy (el formato que usan los formularios).
+ */
+public class PacienteImporter {
+    /** Longitud máxima de Pacientes.nombreCompleto (VARCHAR(50)). */
+    public static final int NOMBRE_MAX = 50;
+    /** Longitud máxima de Pacientes.telefono (VARCHAR(9)). */
+    public static final int TELEFONO_MAX = 9;
+    /** Cantidad de filas por defecto en cada lote/transacción. */
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+    private static final DateTimeFormatter FORMATO_UI = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private final ConnectionManager conn; // Objeto para gestionar la conexión con la base de datos.
+    private int chunkSize;          // Filas por transacción.
+
+    public PacienteImporter() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    public PacienteImporter(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("El tamaño del bloque debe ser mayor que 0");
+        }
+        conn = ConnectionManager.getInstance();
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Importa los pacientes del archivo indicado.
+     * Junto al CSV se crean dos archivos auxiliares:
+     * - &lt;archivo&gt;.progreso : número de la última línea confirmada (permite reanudar).
+     * - &lt;archivo&gt;.rechazados : filas que no pasaron la validación, con el número de línea y el motivo.
+     *
+     * @param csv Ruta del archivo CSV a importar.
+     * @return Un Resultado con las filas insertadas, rechazadas, omitidas y el rendimiento obtenido.
+     * @throws IOException Si ocurre un error al leer el CSV o al escribir los archivos auxiliares.
+     * @throws SQLException Si ocurre un error al insertar un bloque. El bloque en curso se revierte
+     * y el archivo de progreso conserva el último bloque confirmado.
+     */
+    public Resultado importFile(Path csv) throws IOException, SQLException {
+        Path progreso = csv.resolveSibling(csv.getFileName() + ".progreso");
+        Path rechazados = csv.resolveSibling(csv.getFileName() + ".rechazados");
+        long ultimaConfirmada = leerProgreso(progreso); // Líneas ya importadas en una ejecución anterior.
+
+        Resultado res = new Resultado();
+        long inicio = System.nanoTime();
+        Connection connection = null;
+        PreparedStatement localPs = null;
+        try (BufferedReader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8);
+             BufferedWriter rechazos = Files.newBufferedWriter(rechazados, StandardCharsets.UTF_8,
+                     StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            connection = conn.connect();
+            ejecutar(connection, "DROP TABLE IF EXISTS #AltasImportadas; " +
+                    "CREATE TABLE #AltasImportadas (id INT, nombreCompleto VARCHAR(50), telefono VARCHAR(9), " +
+                    "fechaNacimiento DATE, version INT)");
+            connection.setAutoCommit(false); // Una transacción por bloque, no por fila.
+            localPs = connection.prepareStatement(
+                    "INSERT INTO " +
+                            "Pacientes (nombreCompleto, telefono, fechaNacimiento) " +
+                            "OUTPUT inserted.id, inserted.nombreCompleto, inserted.telefono, " +
+                            "inserted.fechaNacimiento, inserted.version INTO #AltasImportadas " +
+                            "VALUES (?, ?, ?)"
+            );
+
+            String linea = reader.readLine(); // Encabezado, se descarta.
+            long numLinea = 1;
+            int enLote = 0;
+            while ((linea = reader.readLine()) != null) {
+                numLinea++;
+                if (numLinea <= ultimaConfirmada) {
+                    res.omitidas++; // Ya fue importada en una ejecución anterior.
+                    continue;
+                }
+                if (linea.isBlank()) {
+                    continue;
+                }
+                String error = agregarFila(localPs, linea);
+                if (error != null) {
+                    res.rechazadas++;
+                    rechazos.write(numLinea + ";" + error + ";" + linea);
+                    rechazos.newLine();
+                } else {
+                    enLote++;
+                }
+                if (enLote == chunkSize) {
+                    confirmarBloque(connection, localPs, progreso, numLinea, res);
+                    rechazos.flush();
+                    enLote = 0;
+                    reportar(res, inicio);
+                }
+            }
+            // Confirmar el último bloque incompleto y marcar el archivo como terminado.
+            confirmarBloque(connection, localPs, progreso, numLinea, res);
+        } catch (SQLException ex) {
+            if (connection != null) {
+                try {
+                    connection.rollback(); // Revertir únicamente el bloque en curso.
+                } catch (SQLException e) {
+                    System.err.println("Error al revertir el bloque en importFile (PacienteImporter): " + e.getMessage());
+                }
+            }
+            throw new SQLException("Error al importar pacientes: " + ex.getMessage(), ex);
+        } finally {
+            if (localPs != null) {
+                try {
+                    localPs.close(); // Cerrar la sentencia preparada para liberar recursos.
+                } catch (SQLException e) {
+                    System.err.println("Error al cerrar PreparedStatement en importFile (PacienteImporter): " + e.getMessage());
+                }
+            }
+            if (connection != null) {
+                try {
+                    connection.setAutoCommit(true);
+                    ejecutar(connection, "DROP TABLE IF EXISTS #AltasImportadas"); // La sesión sigue en el grupo.
+                } catch (SQLException e) {
+                    System.err.println("Error al eliminar la tabla temporal en importFile (PacienteImporter): " + e.getMessage());
+                }
+                try {
+                    connection.close(); // Devolver la conexión al grupo.
+                } catch (SQLException e) {
+                    System.err.println("Error al liberar la conexión en importFile (PacienteImporter): " + e.getMessage());
+                }
+            }
+        }
+        res.segundos = (System.nanoTime() - inicio) / 1_000_000_000.0;
+        return res;
+    }
+
+    /**
+     * Valida una fila del CSV y, si es correcta, la agrega al lote de la sentencia preparada.
+     *
+     * @return null si la fila se agregó al lote, o el motivo del rechazo.
+     */
+    private String agregarFila(PreparedStatement localPs, String linea) throws SQLException {
+        ArrayList<String> campos = parseLine(linea);
+        if (campos == null) {
+            return "Comillas sin cerrar";
+        }
+        if (campos.size() != 3) {
+            return "Se esperaban 3 columnas y se encontraron " + campos.size();
+        }
+        String nombre = campos.get(0).trim();
+        String telefono = campos.get(1).trim();
+        String fecha = campos.get(2).trim();
+
+        if (nombre.isEmpty()) {
+            return "nombreCompleto es obligatorio";
+        }
+        if (nombre.length() > NOMBRE_MAX) {
+            return "nombreCompleto excede " + NOMBRE_MAX + " caracteres";
+        }
+        if (telefono.length() > TELEFONO_MAX) {
+            return "telefono excede " + TELEFONO_MAX + " caracteres";
+        }
+        LocalDate fechaNacimiento = parseFecha(fecha);
+        if (fechaNacimiento == null) {
+            return "fechaNacimiento inválida: " + fecha;
+        }
+        if (fechaNacimiento.isAfter(LocalDate.now())) {
+            return "fechaNacimiento no puede ser futura";
+        }
+
+        localPs.setString(1, nombre); // Asignar el nombre completo del paciente.
+        localPs.setString(2, telefono.isEmpty() ? null : telefono); // telefono admite NULL en la tabla.
+        localPs.setDate(3, Date.valueOf(fechaNacimiento)); // Asignar la fecha de nacimiento.
+        localPs.addBatch();
+        return null;
+    }
+
+    /**
+     * Ejecuta el lote pendiente, confirma la transacción, registra las altas en la auditoría y guarda el progreso.
+     */
+    private void confirmarBloque(Connection connection, PreparedStatement localPs, Path progreso,
+                                 long numLinea, Resultado res) throws SQLException, IOException {
+        int[] filas = localPs.executeBatch();
+        ArrayList<Paciente> altas = leerAltas(connection); // En la misma transacción que las inserciones.
+        connection.commit();
+        res.insertadas += filas.length;
+        for (Paciente paciente : altas) {
+            AuditLog.registrar(CUD.CREATE, EntidadJson.PACIENTES, null, paciente);
+        }
+        // El progreso se escribe después del commit: si el proceso cae entre ambos pasos,
+        // como máximo se repite un bloque al reanudar.
+        Files.writeString(progreso, Long.toString(numLinea), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Lee y vacía la tabla temporal con los pacientes insertados en el bloque.
+     */
+    private static ArrayList<Paciente> leerAltas(Connection connection) throws SQLException {
+        ArrayList<Paciente> altas = new ArrayList<>();
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery(
+                     "SELECT id, nombreCompleto, telefono, fechaNacimiento, version FROM #AltasImportadas")) {
+            while (rs.next()) {
+                Paciente paciente = new Paciente(rs.getInt(1), rs.getString(2), rs.getString(3), rs.getDate(4));
+                paciente.setVersion(rs.getInt(5));
+                altas.add(paciente);
+            }
+        }
+        ejecutar(connection, "DELETE FROM #AltasImportadas");
+        return altas;
+    }
+
+    private static void ejecutar(Connection connection, String sql) throws SQLException {
+        try (Statement st = connection.createStatement()) {
+            st.execute(sql);
+        }
+    }
+
+    private void reportar(Resultado res, long inicio) {
+        double segundos = (System.nanoTime() - inicio) / 1_000_000_000.0;
+        System.out.printf("Pacientes insertados: %d, rechazados: %d (%.0f filas/s)%n",
+                res.insertadas, res.rechazadas, segundos > 0 ? res.insertadas / segundos : 0);
+    }
+
+    private static long leerProgreso(Path progreso) throws IOException {
+        if (!Files.exists(progreso)) {
+            return 0;
+        }
+        String valor = Files.readString(progreso, StandardCharsets.UTF_8).trim();
+        try {
+            return valor.isEmpty() ? 0 : Long.parseLong(valor);
+        } catch (NumberFormatException e) {
+            throw new IOException("Archivo de progreso inválido: " + progreso, e);
+        }
+    }
+
+    /**
+     * Convierte una fecha en formato yyyy-MM-dd o dd/MM/yyyy.
+     *
+     * @return La fecha, o null si el texto no corresponde a ninguno de los dos formatos.
+     */
+    static LocalDate parseFecha(String texto) {
+        try {
+            if (texto.indexOf('/') >= 0) {
+                return LocalDate.parse(texto, FORMATO_UI);
+            }
+            return LocalDate.parse(texto);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Separa una línea CSV en sus campos. Admite campos entre comillas dobles con comas
+     * y comillas escapadas (""), pero no campos que ocupen varias líneas.
+     *
+     * @return La lista de campos, o null si la línea tiene comillas sin cerrar.
+     */
+    static ArrayList<String> parseLine(String linea) {
+        ArrayList<String> campos = new ArrayList<>(3);
+        StringBuilder actual = new StringBuilder();
+        boolean enComillas = false;
+        for (int i = 0; i < linea.length(); i++) {
+            char c = linea.charAt(i);
+            if (enComillas) {
+                if (c == '"') {
+                    if (i + 1 < linea.length() && linea.charAt(i + 1) == '"') {
+                        actual.append('"');
+                        i++;
+                    } else {
+                        enComillas = false;
+                    }
+                } else {
+                    actual.append(c);
+                }
+            } else if (c == '"') {
+                enComillas = true;
+            } else if (c == ',') {
+                campos.add(actual.toString());
+                actual.setLength(0);
+            } else {
+                actual.append(c);
+            }
+        }
+        if (enComillas) {
+            return null;
+        }
+        campos.add(actual.toString());
+        return campos;
+    }
+
+    /**
+     * Resumen de una importación.
+     */
+    public static class Resultado {
+        private long insertadas;
+        private long rechazadas;
+        private long omitidas;
+        private double segundos;
+
+        public long getInsertadas() {
+            return insertadas;
+        }
+
+        public long getRechazadas() {
+            return rechazadas;
+        }
+
+        public long getOmitidas() {
+            return omitidas;
+        }
+
+        public double getSegundos() {
+            return segundos;
+        }
+
+        public double getFilasPorSegundo() {
+            return segundos > 0 ? insertadas / segundos : 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("insertadas=%d, rechazadas=%d, omitidas=%d, %.1f s, %.0f filas/s",
+                    insertadas, rechazadas, omitidas, segundos, getFilasPorSegundo());
+        }
+    }
+}
@@ -0,0 +1,349 @@
+package ale2025.persistencia;
+
+import ale2025.dominio.Cita;
+import ale2025.dominio.CitaCompacta;
+import ale2025.dominio.Especialidad;
+import ale2025.dominio.Horario;
+import ale2025.dominio.HorarioCompacto;
+import ale2025.dominio.Medico;
+import ale2025.dominio.Paciente;
+import ale2025.dominio.User;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+
+/**
+ * DAOs que trabajan contra el servidor HTTP en lugar de la base de datos. Los retorna getInstance()
+ * de cada DAO cuando ale2025.api.url está definida, de modo que los formularios no cambian.
+ */
+final class RemoteDaos {
+    private static final String SIN_UPSERT = "El servidor no admite la sincronización masiva; requiere conexión directa con la base de datos";
+    private static final String SIN_CARGA_MASIVA = "El servidor no admite la carga masiva; requiere conexión directa con la base de datos";
+    private static final String SIN_PRECARGA = "El servidor no expone las consultas de precarga; requieren conexión directa con la base de datos";
+
+    private RemoteDaos() {
+    }
+
+    static final class Citas extends CitaDAO {
+        private final ApiClient api;
+
+        Citas(ApiClient api) {
+            this.api = api;
+        }
+
+        @Override
+        public Cita create(Cita cita) throws SQLException {
+            return api.create(EntidadJson.CITAS, cita);
+        }
+
+        @Override
+        public boolean update(Cita cita) throws SQLException {
+            boolean ok = api.update(EntidadJson.CITAS, cita);
+            if (ok) {
+                cita.setVersion(cita.getVersion() + 1); // Igual que la fila en el servidor.
+            }
+            return ok;
+        }
+
+        @Override
+        public boolean delete(Cita cita) throws SQLException {
+            return api.delete(EntidadJson.CITAS, cita.getId(), cita.getVersion());
+        }
+
+        @Override
+        public ArrayList<Cita> search(String fechaCitaString) throws SQLException {
+            return api.search(EntidadJson.CITAS, fechaCitaString);
+        }
+
+        @Override
+        public Flow.Publisher<Cita> searchPublisher(String fechaCitaString) {
+            return api.searchPublisher(EntidadJson.CITAS, fechaCitaString);
+        }
+
+        @Override
+        public Cita getById(int id) throws SQLException {
+            return api.getById(EntidadJson.CITAS, id);
+        }
+
+        @Override
+        public ArrayList<Cita> searchRango(LocalDate desde, LocalDate hasta) throws SQLException {
+            throw new SQLException(SIN_CARGA_MASIVA); // Los rangos de fechas se leen junto a la base de datos.
+        }
+
+        @Override
+        public ArrayList<CitaCompacta> searchRangoCompacto(LocalDate desde, LocalDate hasta) throws SQLException {
+            throw new SQLException(SIN_CARGA_MASIVA);
+        }
+    }
+
+    static final class Pacientes extends PacienteDAO {
+        private final ApiClient api;
+
+        Pacientes(ApiClient api) {
+            this.api = api;
+        }
+
+        @Override
+        public Paciente create(Paciente paciente) throws SQLException {
+            return api.create(EntidadJson.PACIENTES, paciente);
+        }
+
+        @Override
+        public boolean update(Paciente paciente) throws SQLException {
+            boolean ok = api.update(EntidadJson.PACIENTES, paciente);
+            if (ok) {
+                paciente.setVersion(paciente.getVersion() + 1); // Igual que la fila en el servidor.
+            }
+            return ok;
+        }
+
+        @Override
+        public boolean delete(Paciente paciente) throws SQLException {
+            return api.delete(EntidadJson.PACIENTES, paciente.getId(), paciente.getVersion());
+        }
+
+        @Override
+        public ArrayList<Paciente> search(String nombreCompleto) throws SQLException {
+            return api.search(EntidadJson.PACIENTES, nombreCompleto);
+        }
+
+        @Override
+        public Flow.Publisher<Paciente> searchPublisher(String nombreCompleto) {
+            return api.searchPublisher(EntidadJson.PACIENTES, nombreCompleto);
+        }
+
+        @Override
+        public Paciente getById(int id) throws SQLException {
+            return api.getById(EntidadJson.PACIENTES, id);
+        }
+
+        @Override
+        public ArrayList<Paciente> searchByFechaCita(String fechaCita) throws SQLException {
+            throw new SQLException(SIN_PRECARGA); // CacheWarmup no la lanza en modo HTTP.
+        }
+
+        @Override
+        public ArrayList<Paciente> getRecientes(String usuario, int max) throws SQLException {
+            throw new SQLException(SIN_PRECARGA); // La auditoría se consulta solo con conexión directa.
+        }
+    }
+
+    static final class Medicos extends MedicoDAO {
+        private final ApiClient api;
+
+        Medicos(ApiClient api) {
+            this.api = api;
+        }
+
+        @Override
+        public Medico create(Medico medico) throws SQLException {
+            return api.create(EntidadJson.MEDICOS, medico);
+        }
+
+        @Override
+        public boolean update(Medico medico) throws SQLException {
+            boolean ok = api.update(EntidadJson.MEDICOS, medico);
+            if (ok) {
+                medico.setVersion(medico.getVersion() + 1); // Igual que la fila en el servidor.
+            }
+            return ok;
+        }
+
+        @Override
+        public boolean delete(Medico medico) throws SQLException {
+            return api.delete(EntidadJson.MEDICOS, medico.getId(), medico.getVersion());
+        }
+
+        @Override
+        public ArrayList<Medico> search(String nombreCompleto) throws SQLException {
+            return api.search(EntidadJson.MEDICOS, nombreCompleto);
+        }
+
+        @Override
+        public Flow.Publisher<Medico> searchPublisher(String nombreCompleto) {
+            return api.searchPublisher(EntidadJson.MEDICOS, nombreCompleto);
+        }
+
+        @Override
+        public Medico getById(int id) throws SQLException {
+            return api.getById(EntidadJson.MEDICOS, id);
+        }
+
+        @Override
+        public Upsert.Resultado upsert(List<Medico> medicos) throws SQLException {
+            throw new SQLException(SIN_UPSERT); // La sincronización masiva se ejecuta junto a la base de datos.
+        }
+    }
+
+    static final class Especialidades extends EspecialidadDAO {
+        private final ApiClient api;
+
+        Especialidades(ApiClient api) {
+            this.api = api;
+        }
+
+        @Override
+        public Especialidad create(Especialidad especialidad) throws SQLException {
+            return api.create(EntidadJson.ESPECIALIDADES, especialidad);
+        }
+
+        @Override
+        public boolean update(Especialidad especialidad) throws SQLException {
+            boolean ok = api.update(EntidadJson.ESPECIALIDADES, especialidad);
+            if (ok) {
+                especialidad.setVersion(especialidad.getVersion() + 1); // Igual que la fila en el servidor.
+            }
+            return ok;
+        }
+
+        @Override
+        public boolean delete(Especialidad especialidad) throws SQLException {
+            return api.delete(EntidadJson.ESPECIALIDADES, especialidad.getId(), especialidad.getVersion());
+        }
+
+        @Override
+        public ArrayList<Especialidad> search(String nombre) throws SQLException {
+            return api.search(EntidadJson.ESPECIALIDADES, nombre);
+        }
+
+        @Override
+        public Flow.Publisher<Especialidad> searchPublisher(String nombre) {
+            return api.searchPublisher(EntidadJson.ESPECIALIDADES, nombre);
+        }
+
+        @Override
+        public Especialidad getById(int id) throws SQLException {
+            return api.getById(EntidadJson.ESPECIALIDADES, id);
+        }
+
+        @Override
+        public Upsert.Resultado upsert(List<Especialidad> especialidades) throws SQLException {
+            throw new SQLException(SIN_UPSERT); // La sincronización masiva se ejecuta junto a la base de datos.
+        }
+    }
+
+    static final class Horarios extends HorarioDAO {
+        private final ApiClient api;
+
+        Horarios(ApiClient api) {
+            this.api = api;
+        }
+
+        @Override
+        public Horario create(Horario horario) throws SQLException {
+            Horario creado = api.create(EntidadJson.HORARIOS, horario);
+            if (creado != null) {
+                Disponibilidad.getInstance().guardado(creado);
+            }
+            return creado;
+        }
+
+        @Override
+        public boolean update(Horario horario) throws SQLException {
+            boolean ok = api.update(EntidadJson.HORARIOS, horario);
+            if (ok) {
+                horario.setVersion(horario.getVersion() + 1); // Igual que la fila en el servidor.
+                Disponibilidad.getInstance().guardado(horario);
+            }
+            return ok;
+        }
+
+        @Override
+        public boolean delete(Horario horario) throws SQLException {
+            boolean ok = api.delete(EntidadJson.HORARIOS, horario.getId(), horario.getVersion());
+            if (ok) {
+                Disponibilidad.getInstance().eliminado(horario);
+            }
+            return ok;
+        }
+
+        @Override
+        public ArrayList<Horario> search(String diaSemana) throws SQLException {
+            return api.search(EntidadJson.HORARIOS, diaSemana);
+        }
+
+        @Override
+        public Flow.Publisher<Horario> searchPublisher(String diaSemana) {
+            return api.searchPublisher(EntidadJson.HORARIOS, diaSemana);
+        }
+
+        @Override
+        public Horario getById(int id) throws SQLException {
+            return api.getById(EntidadJson.HORARIOS, id);
+        }
+
+        @Override
+        public Upsert.Resultado upsert(List<Horario> horarios) throws SQLException {
+            throw new SQLException(SIN_UPSERT); // La sincronización masiva se ejecuta junto a la base de datos.
+        }
+
+        @Override
+        public ArrayList<HorarioCompacto> getAllCompactos() throws SQLException {
+            ArrayList<HorarioCompacto> compactos = new ArrayList<>();
+            for (Horario horario : api.search(EntidadJson.HORARIOS, "")) { // Los horarios son pocos: se leen todos.
+                compactos.add(HorarioCompacto.de(horario));
+            }
+            return compactos;
+        }
+    }
+
+    static final class Usuarios extends UserDAO {
+        private final ApiClient api;
+
+        Usuarios(ApiClient api) {
+            this.api = api;
+        }
+
+        @Override
+        public User create(User user) throws SQLException {
+            // La contraseña viaja en texto plano al servidor, que la hashea igual que UserDAO.create.
+            return api.createUser(user);
+        }
+
+        @Override
+        public boolean update(User user) throws SQLException {
+            boolean ok = api.update(EntidadJson.USUARIOS, user);
+            if (ok) {
+                user.setVersion(user.getVersion() + 1); // Igual que la fila en el servidor.
+            }
+            return ok;
+        }
+
+        @Override
+        public boolean delete(User user) throws SQLException {
+            return api.delete(EntidadJson.USUARIOS, user.getId(), user.getVersion());
+        }
+
+        @Override
+        public ArrayList<User> search(String name) throws SQLException {
+            return api.search(EntidadJson.USUARIOS, name);
+        }
+
+        @Override
+        public Flow.Publisher<User> searchPublisher(String name) {
+            return api.searchPublisher(EntidadJson.USUARIOS, name);
+        }
+
+        @Override
+        public User getById(int id) throws SQLException {
+            return api.getById(EntidadJson.USUARIOS, id);
+        }
+
+        @Override
+        public User authenticate(User user) throws SQLException {
+            return api.authenticate(user);
+        }
+
+        @Override
+        public boolean updatePassword(User user) throws SQLException {
+            boolean ok = api.updatePassword(user);
+            if (ok) {
+                user.setVersion(user.getVersion() + 1); // Igual que la fila en el servidor.
+            }
+            return ok;
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package ale2025.persistencia;
+
+import java.sql.PreparedStatement; // Clase para ejecutar consultas SQL preparadas, previniendo inyecciones SQL.
+import java.sql.ResultSet;          // Cursor de solo avance que se recorre fila por fila.
+import java.sql.SQLException;       // Clase para manejar errores relacionados con la base de datos SQL.
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Publicador de los resultados de una búsqueda que respeta la demanda del suscriptor.
+ *
+ * Cada suscripción ejecuta la consulta en su propio hilo virtual y emite las filas a medida que
+ * avanza el cursor JDBC. Solo se leen filas mientras el suscriptor tenga demanda pendiente
+ * (pedida con {@link Flow.Subscription#request(long)}); sin demanda, el hilo espera sin leer
+ * más del cursor. Así un consumidor lento (el modelo de una tabla de Swing, un archivo) nunca
+ * obliga a cargar todo el resultado en memoria.
+ *
+ * Todas las señales (onSubscribe, onNext, onError, onComplete) se entregan desde el hilo de la
+ * suscripción, una a la vez. La conexión se mantiene tomada hasta que el cursor termina, ocurre
+ * un error o el suscriptor cancela. Para que un suscriptor detenido no retenga una conexión del grupo
+ * indefinidamente, si con el cursor abierto pasan ale2025.publisher.idleSeconds segundos (60 por
+ * defecto) sin demanda, se cierra el cursor, se libera la conexión y se envía onError con una
+ * TimeoutException.
+ *
+ * Si el suscriptor lanza una excepción en onSubscribe u onNext (regla 2.13 de Reactive Streams), la
+ * suscripción se da por cancelada: se cierra el cursor, se libera la conexión y no se le envía ninguna
+ * otra señal (tampoco onError); el error solo se informa en System.err.
+ *
+ * @param <T> Tipo de los objetos emitidos.
+ */
+final class SearchPublisher<T> implements Flow.Publisher<T> {
+    private static final int FETCH_SIZE = 500; // Filas que el driver trae por viaje a la base de datos.
+    // Espera máxima por demanda con el cursor abierto (y la conexión tomada).
+    private static final long IDLE_NANOS = TimeUnit.SECONDS.toNanos(Long.getLong("ale2025.publisher.idleSeconds", 60));
+
+    private final ConnectionManager conn;
+    private final String method;
+    private final String sql;
+    private final Parametros parametros;
+    private final Fila<T> fila;
+
+    /**
+     * @param conn Gestor de conexiones del DAO.
+     * @param method Nombre del método para las métricas (ej. "PacienteDAO.searchPublisher").
+     * @param sql Consulta a ejecutar.
+     * @param parametros Asigna los parámetros de la consulta.
+     * @param fila Convierte la fila actual del cursor en un objeto.
+     */
+    SearchPublisher(ConnectionManager conn, String method, String sql, Parametros parametros, Fila<T> fila) {
+        this.conn = conn;
+        this.method = method;
+        this.sql = sql;
+        this.parametros = parametros;
+        this.fila = fila;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("subscriber");
+        }
+        Suscripcion s = new Suscripcion(subscriber);
+        Thread.ofVirtual().name("search-publisher-" + method).start(s::run);
+    }
+
+    /** Asigna los parámetros de la sentencia preparada. */
+    @FunctionalInterface
+    interface Parametros {
+        void asignar(PreparedStatement ps) throws SQLException;
+    }
+
+    /** Convierte la fila actual del cursor en un objeto. */
+    @FunctionalInterface
+    interface Fila<T> {
+        T leer(ResultSet rs) throws SQLException;
+    }
+
+    private final class Suscripcion implements Flow.Subscription {
+        private final Flow.Subscriber<? super T> subscriber;
+        // ReentrantLock en lugar de synchronized: la espera de un hilo virtual no bloquea su hilo portador.
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition hayDemanda = lock.newCondition();
+        private long demanda;
+        private boolean cancelada;
+        private volatile IllegalArgumentException pedidoInvalido;
+
+        Suscripcion(Flow.Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            lock.lock();
+            try {
+                if (n <= 0) {
+                    // Regla 3.9 de Reactive Streams: se informa con onError y se cancela.
+                    pedidoInvalido = new IllegalArgumentException("La demanda debe ser positiva: " + n);
+                } else {
+                    demanda += n;
+                    if (demanda < 0) {
+                        demanda = Long.MAX_VALUE; // Demanda ilimitada.
+                    }
+                }
+                hayDemanda.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            lock.lock();
+            try {
+                cancelada = true;
+                hayDemanda.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Espera hasta que haya demanda.
+         *
+         * @param conCursor true si el cursor está abierto: la espera se limita a IDLE_NANOS.
+         * @return false si la suscripción fue cancelada (o recibió un pedido inválido).
+         * @throws TimeoutException Si con el cursor abierto venció la espera sin demanda.
+         */
+        private boolean esperarDemanda(boolean conCursor) throws InterruptedException, TimeoutException {
+            lock.lock();
+            try {
+                long restante = IDLE_NANOS;
+                while (demanda == 0 && !cancelada && pedidoInvalido == null) {
+                    if (!conCursor) {
+                        hayDemanda.await();
+                    } else if (restante > 0) {
+                        restante = hayDemanda.awaitNanos(restante);
+                    } else {
+                        throw new TimeoutException("El suscriptor no pidió más filas en "
+                                + TimeUnit.NANOSECONDS.toSeconds(IDLE_NANOS) + " s (" + method + ")");
+                    }
+                }
+                if (pedidoInvalido != null || cancelada) {
+                    return false;
+                }
+                if (demanda != Long.MAX_VALUE) {
+                    demanda--;
+                }
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private boolean isCancelada() {
+            lock.lock();
+            try {
+                return cancelada;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void run() {
+            try {
+                subscriber.onSubscribe(this);
+            } catch (RuntimeException ex) {
+                suscriptorFallo("onSubscribe", ex); // Aún no se tomó ninguna conexión.
+                return;
+            }
+            PreparedStatement ps = null;
+            ResultSet rs = null;
+            int filas = 0;
+            Throwable error = null;
+            DaoCall call = DaoMetrics.start(method); // Medición de latencia, filas y errores.
+            try {
+                // No se ejecuta la consulta hasta que el suscriptor pida la primera fila.
+                if (esperarDemanda(false)) {
+                    ps = call.prepareStatement(conn, sql);
+                    ps.setFetchSize(FETCH_SIZE);
+                    parametros.asignar(ps);
+                    rs = ps.executeQuery();
+                    // La demanda de la primera fila ya se tomó; para las siguientes se espera antes de emitir.
+                    boolean primera = true;
+                    while (rs.next() && (primera || esperarDemanda(true))) {
+                        primera = false;
+                        T valor = fila.leer(rs);
+                        try {
+                            subscriber.onNext(valor);
+                        } catch (RuntimeException ex) {
+                            suscriptorFallo("onNext", ex); // Cancela: abajo se liberan los recursos sin más señales.
+                            break;
+                        }
+                        filas++;
+                    }
+                }
+            } catch (SQLException ex) {
+                call.error(); // Registrar el error en las métricas.
+                error = new SQLException("Error al buscar (" + method + "): " + ex.getMessage(), ex);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                error = ex;
+            } catch (TimeoutException ex) {
+                error = ex; // El cursor y la conexión se liberan abajo.
+            } catch (RuntimeException ex) {
+                call.error();
+                error = ex;
+            } finally {
+                // Bloque finally para asegurar que los recursos se liberen.
+                if (rs != null) {
+                    try {
+                        rs.close(); // Cerrar el conjunto de resultados para liberar recursos.
+                    } catch (SQLException e) {
+                        System.err.println("Error al cerrar ResultSet en " + method + ": " + e.getMessage());
+                    }
+                }
+                if (ps != null) {
+                    try {
+                        ps.close(); // Cerrar la sentencia preparada para liberar recursos.
+                    } catch (SQLException e) {
+                        System.err.println("Error al cerrar PreparedStatement en " + method + ": " + e.getMessage());
+                    }
+                }
+                call.rows(filas);
+                call.end(); // Registrar la medición de la llamada y liberar la conexión.
+            }
+            // Las señales finales se envían con la conexión ya liberada. Tras cancel() no se envía nada.
+            if (isCancelada()) {
+                return;
+            } else if (pedidoInvalido != null) {
+                subscriber.onError(pedidoInvalido);
+            } else if (error != null) {
+                subscriber.onError(error);
+            } else {
+                subscriber.onComplete();
+            }
+        }
+
+        // Regla 2.13: el suscriptor que lanza una excepción no recibe más señales; la suscripción queda cancelada.
+        private void suscriptorFallo(String senal, RuntimeException ex) {
+            System.err.println("El suscriptor de " + method + " lanzó una excepción en " + senal
+                    + "; se cancela la suscripción: " + ex);
+            cancel();
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package ale2025.persistencia;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registro de consultas lentas de la capa de persistencia.
+ *
+ * Está desactivado por defecto: solo con ale2025.slowlog.enabled=true las sentencias se envuelven para
+ * capturar sus parámetros; desactivado, los DAOs usan la sentencia del driver sin intermediarios.
+ *
+ * Toda sentencia que supere el umbral se registra con su SQL, los tipos y valores de los parámetros
+ * (los valores pueden ocultarse), la cantidad de filas y el formulario que la originó. Por debajo del
+ * umbral se puede registrar además una muestra de 1 de cada N sentencias.
+ *
+ * La escritura es asíncrona: el hilo que ejecuta la consulta solo encola la entrada (sin bloquearse);
+ * un hilo en segundo plano la escribe en el archivo. Si la cola se llena, la entrada se descarta y se
+ * contabiliza en {@link #getDropped()}. Si falla la escritura del archivo, la entrada se descarta de la
+ * misma forma y el hilo vuelve a abrir el archivo al cabo de un momento, sin dejar de atender la cola.
+ *
+ * Configuración (propiedades del sistema):
+ * - ale2025.slowlog.enabled    : activar el registro (por defecto false).
+ * - ale2025.slowlog.thresholdMs : umbral en milisegundos (por defecto 500; negativo lo deshabilita).
+ * - ale2025.slowlog.sampleRate  : registrar 1 de cada N sentencias rápidas (por defecto 0, sin muestreo).
+ * - ale2025.slowlog.redact      : ocultar los valores de los parámetros (por defecto true).
+ * - ale2025.slowlog.file        : archivo de salida (por defecto slow-queries.log).
+ */
+public final class SlowQueryLog {
+    private static final boolean ENABLED = Boolean.getBoolean("ale2025.slowlog.enabled");
+    private static final long THRESHOLD_NANOS = Long.getLong("ale2025.slowlog.thresholdMs", 500) * 1_000_000L;
+    private static final int SAMPLE_RATE = Integer.getInteger("ale2025.slowlog.sampleRate", 0);
+    private static final boolean REDACT = Boolean.parseBoolean(System.getProperty("ale2025.slowlog.redact", "true"));
+    private static final Path FILE = Path.of(System.getProperty("ale2025.slowlog.file", "slow-queries.log"));
+    private static final int QUEUE_CAPACITY = 4096;
+    private static final long RETRY_MS = 5000; // Espera antes de volver a abrir el archivo tras un error.
+
+    private static final BlockingQueue<Entry> QUEUE = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private static final LongAdder DROPPED = new LongAdder();
+    private static final StackWalker WALKER = StackWalker.getInstance();
+    private static final AtomicBoolean WRITER_STARTED = new AtomicBoolean(); // El hilo escritor se crea una sola vez.
+
+    private SlowQueryLog() {
+    }
+
+    /**
+     * @return true si el registro está activado y tiene umbral o muestreo, y vale la pena capturar parámetros.
+     */
+    static boolean isEnabled() {
+        return ENABLED && (THRESHOLD_NANOS >= 0 || SAMPLE_RATE > 0);
+    }
+
+    /**
+     * @return La cantidad de entradas descartadas porque la cola estaba llena.
+     */
+    public static long getDropped() {
+        return DROPPED.sum();
+    }
+
+    /**
+     * Envuelve la sentencia para capturar los parámetros asignados con setXxx(indice, valor).
+     */
+    static PreparedStatement capture(PreparedStatement ps, ArrayList<Object> params) {
+        return (PreparedStatement) Proxy.newProxyInstance(SlowQueryLog.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, (proxy, m, args) -> {
+                    if (args != null && args.length >= 2 && m.getName().startsWith("set") && args[0] instanceof Integer) {
+                        int index = (Integer) args[0];
+                        while (params.size() < index) {
+                            params.add(null);
+                        }
+                        params.set(index - 1, m.getName().equals("setNull") ? new NullParam() : args[1]);
+                    }
+                    try {
+                        return m.invoke(ps, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    /**
+     * Decide si la llamada debe registrarse y, en ese caso, la encola. Nunca bloquea.
+     */
+    static void offer(String method, String sql, ArrayList<Object> params, long nanos, int rows, boolean failed) {
+        if (!ENABLED) {
+            return;
+        }
+        boolean slow = THRESHOLD_NANOS >= 0 && nanos >= THRESHOLD_NANOS;
+        boolean sampled = !slow && SAMPLE_RATE > 0 && ThreadLocalRandom.current().nextInt(SAMPLE_RATE) == 0;
+        if (!slow && !sampled) {
+            return;
+        }
+        Entry e = new Entry(LocalDateTime.now(), slow, method, sql,
+                params == null ? null : describe(params), nanos, rows, failed, callingForm());
+        if (!QUEUE.offer(e)) {
+            DROPPED.increment();
+            return;
+        }
+        if (!WRITER_STARTED.get() && WRITER_STARTED.compareAndSet(false, true)) {
+            startWriter(); // Solo la primera entrada; las demás no toman ningún bloqueo.
+        }
+    }
+
+    /**
+     * Busca en la pila el primer método de la capa de presentación (el formulario que originó la consulta).
+     */
+    private static String callingForm() {
+        return WALKER.walk(frames -> frames
+                .filter(f -> f.getClassName().startsWith("ale2025.presentacion."))
+                .findFirst()
+                .map(f -> f.getClassName().substring("ale2025.presentacion.".length()) + "." + f.getMethodName())
+                .orElse("-"));
+    }
+
+    private static String describe(ArrayList<Object> params) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < params.size(); i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            Object v = params.get(i);
+            sb.append(i + 1).append(':');
+            if (v == null || v instanceof NullParam) {
+                sb.append("NULL");
+            } else {
+                sb.append(v.getClass().getSimpleName());
+                if (!REDACT) {
+                    sb.append("='").append(v).append('\'');
+                }
+            }
+        }
+        return sb.append(']').toString();
+    }
+
+    // El hilo no termina ante errores de escritura (ver writeLoop), por eso basta con crearlo una vez.
+    private static void startWriter() {
+        Thread writer = new Thread(SlowQueryLog::writeLoop, "slow-query-log");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    private static void writeLoop() {
+        while (true) {
+            try (BufferedWriter out = Files.newBufferedWriter(FILE, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                while (true) {
+                    Entry e = QUEUE.take();
+                    try {
+                        out.write(e.toString());
+                        out.newLine();
+                        if (QUEUE.isEmpty()) {
+                            out.flush(); // Vaciar el búfer solo cuando no hay más entradas pendientes.
+                        }
+                    } catch (IOException | RuntimeException ex) {
+                        DROPPED.increment();
+                        throw ex;
+                    }
+                }
+            } catch (IOException | RuntimeException ex) {
+                System.err.println("Error al escribir el registro de consultas lentas: " + ex.getMessage());
+                try {
+                    Thread.sleep(RETRY_MS); // Volver a abrir el archivo más tarde; las entradas siguen encolándose.
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /** Marca de un parámetro asignado con setNull. */
+    private static final class NullParam {
+    }
+
+    private static final class Entry {
+        private final LocalDateTime when;
+        private final boolean slow;
+        private final String method;
+        private final String sql;
+        private final String params;
+        private final long nanos;
+        private final int rows;
+        private final boolean failed;
+        private final String form;
+
+        Entry(LocalDateTime when, boolean slow, String method, String sql, String params,
+              long nanos, int rows, boolean failed, String form) {
+            this.when = when;
+            this.slow = slow;
+            this.method = method;
+            this.sql = sql;
+            this.params = params;
+            this.nanos = nanos;
+            this.rows = rows;
+            this.failed = failed;
+            this.form = form;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s | %s | %.3f ms | filas=%d%s | %s | %s | %s | %s",
+                    when, slow ? "LENTA" : "MUESTRA", nanos / 1_000_000.0, rows, failed ? " | ERROR" : "",
+                    method, form, sql == null ? "-" : sql.replaceAll("\\s+", " "), params == null ? "[]" : params);
+        }
+    }
+}
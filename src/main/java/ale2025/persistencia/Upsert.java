@@ -0,0 +1,278 @@
+package ale2025.persistencia;
+
+import ale2025.utils.CUD;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * Sincronización masiva de una tabla: inserta las entidades que no existen y modifica las que cambiaron,
+ * con una sola sentencia MERGE por bloque en lugar de un getById más un create o update por registro.
+ *
+ * Cada bloque se envía como una tabla de valores (VALUES (...), (...)) y se aplica así:
+ * <pre>
+ * MERGE Tabla WITH (HOLDLOCK) AS t
+ * USING (SELECT ... FROM (VALUES ...) AS v (...)) AS s
+ * ON condición
+ * WHEN MATCHED AND EXISTS (SELECT s.columnas EXCEPT SELECT t.columnas) THEN UPDATE ...
+ * WHEN NOT MATCHED BY TARGET THEN INSERT ...
+ * OUTPUT $action, s.fila, inserted.id, inserted.version, deleted.version, deleted.columnas;
+ * </pre>
+ * Los valores numéricos y de hora se convierten al tipo de su columna antes de compararlos (un double
+ * enviado por JDBC no es igual a un DECIMAL(10,2)), y EXCEPT compara NULL con NULL como iguales; así, una
+ * fila cuyos datos no cambiaron no se modifica ni incrementa su versión.
+ *
+ * Con OUTPUT se cuentan las filas insertadas y modificadas, y se asigna a cada entidad su ID y su versión
+ * nueva. Cada fila insertada o modificada se registra en la auditoría al terminar su bloque; como valores
+ * anteriores de una modificación se registran los que devolvió OUTPUT (deleted.*). Cada MERGE es atómico, pero los bloques se confirman por separado: si uno falla, los anteriores
+ * quedan aplicados, y volver a ejecutar la sincronización con los mismos datos los deja sin cambios.
+ *
+ * @param <T> Tipo de la entidad.
+ */
+public final class Upsert<T> {
+    /** Parámetros por sentencia; SQL Server admite hasta 2100. */
+    static final int MAX_PARAMETROS = 2000;
+
+    /**
+     * Asigna los valores de las columnas de una entidad, empezando en el parámetro indicado y en el
+     * mismo orden que las columnas.
+     */
+    interface Parametros<T> {
+        void asignar(PreparedStatement ps, int indice, T entidad) throws SQLException;
+    }
+
+    private final EntidadJson<T> tipo;
+    private final String tabla;
+    private final String condicion;
+    private final String[] columnas;
+    private final String[] tipos;
+    private final ToIntFunction<T> id;
+    private final Function<T, Object> clave;
+    private final ObjIntConsumer<T> setId;
+    private final ObjIntConsumer<T> setVersion;
+    private final Parametros<T> parametros;
+    private final int filasPorBloque;
+    private final String sqlBloque; // Sentencia para un bloque completo, se genera una sola vez.
+
+    /**
+     * @param tipo       Tipo de la entidad, para la auditoría.
+     * @param tabla      Nombre de la tabla.
+     * @param condicion  Condición del ON, con t para la tabla y s para los valores (por ejemplo, t.id = s.id).
+     * @param columnas   Columnas que se sincronizan, sin el id ni la versión.
+     * @param tipos      Tipo SQL al que se convierte cada valor, como en script.sql; null para no convertirlo
+     *                   (los textos no se convierten, para que uno demasiado largo falle en lugar de truncarse).
+     * @param id         Obtiene el ID de la entidad; 0 si es nueva.
+     * @param clave      Identifica a la entidad dentro del lote: si dos entidades tienen la misma clave solo
+     *                   se aplica la última (un MERGE no puede modificar la misma fila dos veces). null si
+     *                   la entidad no se puede repetir (por ejemplo, una nueva sin otra clave).
+     * @param setId      Asigna el ID generado a las entidades insertadas.
+     * @param setVersion Asigna la versión nueva a las entidades insertadas o modificadas.
+     * @param parametros Asigna los valores de las columnas.
+     */
+    Upsert(EntidadJson<T> tipo, String tabla, String condicion, String[] columnas, String[] tipos, ToIntFunction<T> id,
+           Function<T, Object> clave, ObjIntConsumer<T> setId, ObjIntConsumer<T> setVersion,
+           Parametros<T> parametros) {
+        this.tipo = tipo;
+        this.tabla = tabla;
+        this.condicion = condicion;
+        this.columnas = columnas;
+        this.tipos = tipos;
+        this.id = id;
+        this.clave = clave;
+        this.setId = setId;
+        this.setVersion = setVersion;
+        this.parametros = parametros;
+        this.filasPorBloque = MAX_PARAMETROS / (columnas.length + 2); // Más la posición en el lote y el id.
+        this.sqlBloque = sql(filasPorBloque);
+    }
+
+    /**
+     * Aplica las entidades en bloques, usando la conexión de la llamada indicada.
+     *
+     * @return La cantidad de entidades insertadas, modificadas y sin cambios.
+     */
+    Resultado aplicar(DaoCall call, ConnectionManager conn, List<T> entidades) throws SQLException {
+        ArrayList<T> lote = sinRepetidos(entidades);
+        Resultado res = new Resultado();
+        res.repetidas = entidades.size() - lote.size();
+        for (int desde = 0; desde < lote.size(); desde += filasPorBloque) {
+            aplicarBloque(call, conn, lote.subList(desde, Math.min(desde + filasPorBloque, lote.size())), res);
+        }
+        return res;
+    }
+
+    private void aplicarBloque(DaoCall call, ConnectionManager conn, List<T> bloque, Resultado res) throws SQLException {
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            ps = call.prepareStatement(conn, bloque.size() == filasPorBloque ? sqlBloque : sql(bloque.size()));
+            int p = 1;
+            for (int i = 0; i < bloque.size(); i++) {
+                T entidad = bloque.get(i);
+                ps.setInt(p++, i); // Posición en el bloque, para relacionar cada fila de OUTPUT con su entidad.
+                ps.setInt(p++, id.applyAsInt(entidad));
+                parametros.asignar(ps, p, entidad);
+                p += columnas.length;
+            }
+            rs = ps.executeQuery();
+            ArrayList<T> insertadas = new ArrayList<>();
+            ArrayList<T> modificadas = new ArrayList<>();
+            ArrayList<Map<String, Object>> anteriores = new ArrayList<>();
+            while (rs.next()) {
+                T entidad = bloque.get(rs.getInt(2));
+                if ("INSERT".equals(rs.getString(1))) {
+                    insertadas.add(entidad);
+                    setId.accept(entidad, rs.getInt(3));
+                } else {
+                    modificadas.add(entidad);
+                    anteriores.add(anterior(rs, rs.getInt(3)));
+                }
+                setVersion.accept(entidad, rs.getInt(4));
+            }
+            res.insertadas += insertadas.size();
+            res.actualizadas += modificadas.size();
+            res.sinCambios += bloque.size() - insertadas.size() - modificadas.size();
+            res.bloques++;
+            // El MERGE ya se confirmó: se registra cada fila con su ID y su versión definitivos.
+            for (T entidad : insertadas) {
+                AuditLog.registrar(CUD.CREATE, tipo, null, entidad);
+            }
+            for (int i = 0; i < modificadas.size(); i++) {
+                AuditLog.registrar(CUD.UPDATE, tipo, anteriores.get(i), modificadas.get(i));
+            }
+        } finally {
+            if (rs != null) {
+                try {
+                    rs.close();
+                } catch (SQLException e) {
+                    System.err.println("Error al cerrar ResultSet en el MERGE de " + tabla + ": " + e.getMessage());
+                }
+            }
+            if (ps != null) {
+                try {
+                    ps.close();
+                } catch (SQLException e) {
+                    System.err.println("Error al cerrar PreparedStatement en el MERGE de " + tabla + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    // Valores de la fila antes de modificarla (columnas deleted.* del OUTPUT), con los nombres de las columnas.
+    private Map<String, Object> anterior(ResultSet rs, int idFila) throws SQLException {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("id", idFila);
+        for (int c = 0; c < columnas.length; c++) {
+            m.put(columnas[c], rs.getObject(6 + c));
+        }
+        m.put("version", rs.getInt(5));
+        return m;
+    }
+
+    // Si una clave se repite, se conserva la última entidad en la posición de la primera.
+    private ArrayList<T> sinRepetidos(List<T> entidades) {
+        HashMap<Object, T> porClave = new HashMap<>();
+        ArrayList<T> lote = new ArrayList<>(entidades.size());
+        for (T entidad : entidades) {
+            Object k = clave.apply(entidad);
+            if (k == null) {
+                lote.add(entidad);
+            } else if (porClave.put(k, entidad) == null) {
+                lote.add(entidad);
+            }
+        }
+        if (lote.size() < entidades.size()) {
+            lote.replaceAll(entidad -> {
+                Object k = clave.apply(entidad);
+                return k == null ? entidad : porClave.get(k);
+            });
+        }
+        return lote;
+    }
+
+    private String sql(int filas) {
+        String lista = String.join(", ", columnas);
+        StringBuilder sql = new StringBuilder("MERGE ").append(tabla).append(" WITH (HOLDLOCK) AS t ")
+                .append("USING (SELECT v.fila, v.id");
+        for (int c = 0; c < columnas.length; c++) {
+            if (tipos[c] == null) {
+                sql.append(", v.").append(columnas[c]);
+            } else {
+                sql.append(", CAST(v.").append(columnas[c]).append(" AS ").append(tipos[c]).append(") AS ").append(columnas[c]);
+            }
+        }
+        sql.append(" FROM (VALUES ");
+        String fila = "(?, ?" + ", ?".repeat(columnas.length) + ")";
+        for (int i = 0; i < filas; i++) {
+            sql.append(i == 0 ? "" : ", ").append(fila);
+        }
+        sql.append(") AS v (fila, id, ").append(lista).append(")) AS s ")
+                .append("ON ").append(condicion).append(' ')
+                .append("WHEN MATCHED AND EXISTS (SELECT ").append(prefijar("s.", columnas))
+                .append(" EXCEPT SELECT ").append(prefijar("t.", columnas)).append(") THEN UPDATE SET ");
+        for (String columna : columnas) {
+            sql.append(columna).append(" = s.").append(columna).append(", ");
+        }
+        sql.append("version = t.version + 1 ")
+                .append("WHEN NOT MATCHED BY TARGET THEN INSERT (").append(lista).append(") ")
+                .append("VALUES (").append(prefijar("s.", columnas)).append(") ")
+                .append("OUTPUT $action, s.fila, inserted.id, inserted.version, deleted.version, ")
+                .append(prefijar("deleted.", columnas)).append(';');
+        return sql.toString();
+    }
+
+    private static String prefijar(String prefijo, String[] columnas) {
+        StringBuilder res = new StringBuilder();
+        for (String columna : columnas) {
+            res.append(res.length() == 0 ? "" : ", ").append(prefijo).append(columna);
+        }
+        return res.toString();
+    }
+
+    /**
+     * Resumen de una sincronización.
+     */
+    public static class Resultado {
+        private int insertadas;
+        private int actualizadas;
+        private int sinCambios;
+        private int repetidas;
+        private int bloques;
+
+        public int getInsertadas() {
+            return insertadas;
+        }
+
+        public int getActualizadas() {
+            return actualizadas;
+        }
+
+        public int getSinCambios() {
+            return sinCambios;
+        }
+
+        /** Entidades descartadas porque otra posterior del mismo lote tenía la misma clave. */
+        public int getRepetidas() {
+            return repetidas;
+        }
+
+        public int getBloques() {
+            return bloques;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("insertadas=%d, actualizadas=%d, sin cambios=%d, repetidas=%d, bloques=%d",
+                    insertadas, actualizadas, sinCambios, repetidas, bloques);
+        }
+    }
+}
@@ -3,17 +3,31 @@ package ale2025.persistencia;
 import java.sql.PreparedStatement; // Clase para ejecutar consultas SQL preparadas, previniendo inyecciones SQL.
 import java.sql.ResultSet;        // Interfaz para representar el resultado de una consulta SQL.
 import java.sql.SQLException;     // Clase para manejar errores relacionados con la base de datos SQL.
-import java.util.ArrayList;       // Clase para crear listas dinámicas de objetos.
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.Flow; // Publicador de resultados con control de demanda.       // Clase para crear listas dinámicas de objetos.
 import ale2025.dominio.User;        // Clase que representa la entidad de usuario en el dominio de la aplicación.
+import ale2025.utils.CUD; // Operación registrada en la auditoría.
 import ale2025.utils.PasswordHasher; // Clase utilitaria para el manejo seguro de contraseñas (hash, verificación).
-public class UserDAO {
-    private ConnectionManager conn; // Objeto para gestionar la conexión con la base de datos.
-    private PreparedStatement ps;   // Objeto para ejecutar consultas SQL preparadas.
-    private ResultSet rs;           // Objeto para almacenar el resultado de una consulta SQL.
+public class UserDAO implements Dao<User> {
+    private final ConnectionManager conn; // Objeto para gestionar la conexión con la base de datos.
+    private static UserDAO instance; // Instancia compartida, ver getInstance().
 
     public UserDAO(){
         conn = ConnectionManager.getInstance();
     }
+
+    /**
+     * Retorna la instancia compartida del DAO (no guarda estado entre llamadas, por lo que puede compartirse).
+     * Si la propiedad del sistema ale2025.api.url está definida, la instancia trabaja contra el servidor
+     * HTTP de la clínica en lugar de conectarse directamente a la base de datos.
+     */
+    public static synchronized UserDAO getInstance() {
+        if (instance == null) {
+            instance = ApiClient.isConfigured() ? new RemoteDaos.Usuarios(ApiClient.getInstance()) : new UserDAO();
+        }
+        return instance;
+    }
     /**
      * Crea un nuevo usuario en la base de datos.
      *
@@ -28,10 +42,13 @@ public class UserDAO {
      */
     public User create(User user) throws SQLException {
         User res = null; // Variable para almacenar el usuario creado que se retornará.
+        PreparedStatement ps = null;
+        DaoCall call = DaoMetrics.start("UserDAO.create"); // Medición de latencia, filas y errores.
+        int idGenerado = 0; // ID asignado por la base de datos.
         try{
             // Preparar la sentencia SQL para la inserción de un nuevo usuario.
             // Se especifica que se retornen las claves generadas automáticamente.
-            PreparedStatement ps = conn.connect().prepareStatement(
+            ps = call.prepareStatement(conn,
                     "INSERT INTO " +
                             "Users (name, passwordHash, email, status)" +
                             "VALUES (?, ?, ?, ?)",
@@ -43,7 +60,7 @@ public class UserDAO {
             ps.setString(3, user.getEmail()); // Asignar el correo electrónico del usuario.
             ps.setByte(4, user.getStatus());   // Asignar el estado del usuario.
             // Ejecutar la sentencia de inserción y obtener el número de filas afectadas.
-            int affectedRows = ps.executeUpdate();
+            int affectedRows = call.rows(ps.executeUpdate());
             // Verificar si la inserción fue exitosa (al menos una fila afectada).
             if (affectedRows != 0) {
                 // Obtener las claves generadas automáticamente por la base de datos (en este caso, el ID).
@@ -51,22 +68,33 @@ public class UserDAO {
                 // Mover el cursor al primer resultado (si existe).
                 if (generatedKeys.next()) {
                     // Obtener el ID generado. Generalmente la primera columna contiene la clave primaria.
-                    int idGenerado= generatedKeys.getInt(1);
-                    // Recuperar el usuario completo utilizando el ID generado.
-                    res = getById(idGenerado);
+                    idGenerado = generatedKeys.getInt(1);
                 } else {
                     // Lanzar una excepción si la creación del usuario falló y no se obtuvo un ID.
                     throw new SQLException("Creating user failed, no ID obtained.");
                 }
             }
-            ps.close(); // Cerrar la sentencia preparada para liberar recursos.
         }catch (SQLException ex){
+            call.error(); // Registrar el error en las métricas.
             // Capturar cualquier excepción SQL que ocurra durante el proceso.
             throw new SQLException("Error al crear el usuario: " + ex.getMessage(), ex);
         } finally {
             // Bloque finally para asegurar que los recursos se liberen.
-            ps = null;         // Establecer la sentencia preparada a null.
-            conn.disconnect(); // Desconectar de la base de datos.
+            if (ps != null) {
+                try {
+                    ps.close(); // Cerrar la sentencia preparada para liberar recursos.
+                } catch (SQLException e) {
+                    System.err.println("Error al cerrar PreparedStatement en create (UserDAO): " + e.getMessage());
+                }
+            }
+            call.end(); // Registrar la medición de la llamada y liberar la conexión.
+        }
+        if (idGenerado != 0) {
+            // Recuperar el usuario completo utilizando el ID generado, una vez liberada la conexión de la inserción.
+            res = getById(idGenerado);
+        }
+        if (res != null) {
+            AuditLog.registrar(CUD.CREATE, EntidadJson.USUARIOS, null, res); // Alta, con el ID definitivo.
         }
         return res; // Retornar el usuario creado (con su ID asignado) o null si hubo un error.
     }
@@ -78,36 +106,64 @@ public class UserDAO {
      * correctamente establecidos para realizar la actualización.
      * @return true si la actualización del usuario fue exitosa (al menos una fila afectada),
      * false en caso contrario.
+     * @throws VersionConflictException Si el usuario fue modificado o eliminado desde que se leyó.
      * @throws SQLException Si ocurre un error al interactuar con la base de datos
      * durante la actualización del usuario.
      */
     public boolean update(User user) throws SQLException{
         boolean res = false; // Variable para indicar si la actualización fue exitosa.
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        Map<String, Object> antes = null; // Valores que reemplazó la escritura, para la auditoría.
+        DaoCall call = DaoMetrics.start("UserDAO.update"); // Medición de latencia, filas y errores.
         try{
             // Preparar la sentencia SQL para actualizar la información de un usuario.
-            ps = conn.connect().prepareStatement(
+            ps = call.prepareStatement(conn,
                     "UPDATE Users " +
-                            "SET name = ?, email = ?, status = ? " +
-                            "WHERE id = ?"
+                            "SET name = ?, email = ?, status = ?, version = version + 1 " +
+                            "OUTPUT deleted.id, deleted.name, deleted.email, deleted.status, deleted.version " + // La fila tal como estaba, en la misma sentencia.
+                            "WHERE id = ? AND version = ?"
             );
             // Establecer los valores de los parámetros en la sentencia preparada.
             ps.setString(1, user.getName());  // Asignar el nuevo nombre del usuario.
             ps.setString(2, user.getEmail()); // Asignar el nuevo correo electrónico del usuario.
             ps.setByte(3, user.getStatus());    // Asignar el nuevo estado del usuario.
             ps.setInt(4, user.getId());       // Establecer la condición WHERE para identificar el usuario a actualizar por su ID.
+            ps.setInt(5, user.getVersion()); // Solo si la fila sigue con la versión que se leyó.
             // Ejecutar la sentencia de actualización y verificar si se afectó alguna fila.
-            if(ps.executeUpdate() > 0){
-                res = true; // Si executeUpdate() retorna un valor mayor que 0, significa que la actualización fue exitosa.
+            rs = ps.executeQuery(); // OUTPUT devuelve la fila antes de la escritura.
+            if (rs.next()) {
+                antes = EntidadJson.USUARIOS.toMap(map(rs));
+                res = true; // Se afectó la fila: la escritura fue exitosa.
+                user.setVersion(user.getVersion() + 1); // La fila quedó con la versión siguiente.
             }
-            ps.close(); // Cerrar la sentencia preparada para liberar recursos.
+            call.rows(res ? 1 : 0); // Registrar las filas afectadas.
         }catch (SQLException ex){
+            call.error(); // Registrar el error en las métricas.
             // Capturar cualquier excepción SQL que ocurra durante el proceso.
             throw new SQLException("Error al modificar el usuario: " + ex.getMessage(), ex);
         } finally {
             // Bloque finally para asegurar que los recursos se liberen.
-            ps = null;         // Establecer la sentencia preparada a null.
-            conn.disconnect(); // Desconectar de la base de datos.
+            if (rs != null) {
+                try {
+                    rs.close(); // Cerrar el conjunto de resultados para liberar recursos.
+                } catch (SQLException e) {
+                    System.err.println("Error al cerrar ResultSet en update (UserDAO): " + e.getMessage());
+                }
+            }
+            if (ps != null) {
+                try {
+                    ps.close(); // Cerrar la sentencia preparada para liberar recursos.
+                } catch (SQLException e) {
+                    System.err.println("Error al cerrar PreparedStatement en create (UserDAO): " + e.getMessage());
+                }
+            }
+            call.end(); // Registrar la medición de la llamada y liberar la conexión.
+        }
+        if (!res) {
+            throw conflicto(user.getId()); // No se afectó ninguna fila: cambió o fue eliminada desde que se leyó.
         }
+        AuditLog.registrar(CUD.UPDATE, EntidadJson.USUARIOS, antes, user); // Solo si la escritura se aplicó.
         return res; // Retornar el resultado de la operación de actualización.
     }
     /**
@@ -117,31 +173,59 @@ public class UserDAO {
      * Se requiere que el objeto User tenga el campo 'id' correctamente establecido.
      * @return true si la eliminación del usuario fue exitosa (al menos una fila afectada),
      * false en caso contrario.
+     * @throws VersionConflictException Si el usuario fue modificado o eliminado desde que se leyó.
      * @throws SQLException Si ocurre un error al interactuar con la base de datos
      * durante la eliminación del usuario.
      */
     public boolean delete(User user) throws SQLException{
         boolean res = false; // Variable para indicar si la eliminación fue exitosa.
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        Map<String, Object> antes = null; // Valores que reemplazó la escritura, para la auditoría.
+        DaoCall call = DaoMetrics.start("UserDAO.delete"); // Medición de latencia, filas y errores.
         try{
             // Preparar la sentencia SQL para eliminar un usuario por su ID.
-            ps = conn.connect().prepareStatement(
-                    "DELETE FROM Users WHERE id = ?"
+            ps = call.prepareStatement(conn,
+                    "DELETE FROM Users " +
+                            "OUTPUT deleted.id, deleted.name, deleted.email, deleted.status, deleted.version " + // La fila tal como estaba, en la misma sentencia.
+                            "WHERE id = ? AND version = ?"
             );
             // Establecer el valor del parámetro en la sentencia preparada (el ID del usuario a eliminar).
             ps.setInt(1, user.getId());
+            ps.setInt(2, user.getVersion()); // Solo si la fila sigue con la versión que se leyó.
             // Ejecutar la sentencia de eliminación y verificar si se afectó alguna fila.
-            if(ps.executeUpdate() > 0){
-                res = true; // Si executeUpdate() retorna un valor mayor que 0, significa que la eliminación fue exitosa.
+            rs = ps.executeQuery(); // OUTPUT devuelve la fila antes de la escritura.
+            if (rs.next()) {
+                antes = EntidadJson.USUARIOS.toMap(map(rs));
+                res = true; // Se afectó la fila: la escritura fue exitosa.
             }
-            ps.close(); // Cerrar la sentencia preparada para liberar recursos.
+            call.rows(res ? 1 : 0); // Registrar las filas afectadas.
         }catch (SQLException ex){
+            call.error(); // Registrar el error en las métricas.
             // Capturar cualquier excepción SQL que ocurra durante el proceso.
             throw new SQLException("Error al eliminar el usuario: " + ex.getMessage(), ex);
         } finally {
             // Bloque finally para asegurar que los recursos se liberen.
-            ps = null;         // Establecer la sentencia preparada a null.
-            conn.disconnect(); // Desconectar de la base de datos.
+            if (rs != null) {
+                try {
+                    rs.close(); // Cerrar el conjunto de resultados para liberar recursos.
+                } catch (SQLException e) {
+                    System.err.println("Error al cerrar ResultSet en delete (UserDAO): " + e.getMessage());
+                }
+            }
+            if (ps != null) {
+                try {
+                    ps.close(); // Cerrar la sentencia preparada para liberar recursos.
+                } catch (SQLException e) {
+                    System.err.println("Error al cerrar PreparedStatement en create (UserDAO): " + e.getMessage());
+                }
+            }
+            call.end(); // Registrar la medición de la llamada y liberar la conexión.
+        }
+        if (!res) {
+            throw conflicto(user.getId()); // No se afectó ninguna fila: cambió o fue eliminada desde que se leyó.
         }
+        AuditLog.registrar(CUD.DELETE, EntidadJson.USUARIOS, antes, user); // Solo si la escritura se aplicó.
         return res; // Retornar el resultado de la operación de eliminación.
     }
     /**
@@ -157,9 +241,12 @@ public class UserDAO {
      */
     public ArrayList<User> search(String name) throws SQLException{
         ArrayList<User> records  = new ArrayList<>(); // Lista para almacenar los usuarios encontrados.
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        DaoCall call = DaoMetrics.start("UserDAO.search"); // Medición de latencia, filas y errores.
         try {
             // Preparar la sentencia SQL para buscar usuarios por nombre (usando LIKE para búsqueda parcial).
-            ps = conn.connect().prepareStatement("SELECT id, name, email, status " +
+            ps = call.prepareStatement(conn, "SELECT id, name, email, status, version " +
                     "FROM Users " +
                     "WHERE name LIKE ?");
             // Establecer el valor del parámetro en la sentencia preparada.
@@ -169,29 +256,54 @@ public class UserDAO {
             rs = ps.executeQuery();
             // Iterar a través de cada fila del resultado.
             while (rs.next()){
-                // Crear un nuevo objeto User para cada registro encontrado.
-                User user = new User();
-                // Asignar los valores de las columnas a los atributos del objeto User.
-                user.setId(rs.getInt(1));       // Obtener el ID del usuario.
-                user.setName(rs.getString(2));   // Obtener el nombre del usuario.
-                user.setEmail(rs.getString(3));  // Obtener el correo electrónico del usuario.
-                user.setStatus(rs.getByte(4));    // Obtener el estado del usuario.
-                // Agregar el objeto User a la lista de resultados.
-                records.add(user);
+                records.add(map(rs)); // Crear un objeto User para cada registro encontrado.
             }
             ps.close(); // Cerrar la sentencia preparada para liberar recursos.
             rs.close(); // Cerrar el conjunto de resultados para liberar recursos.
+            call.rows(records.size()); // Registrar la cantidad de filas encontradas.
         } catch (SQLException ex){
+            call.error(); // Registrar el error en las métricas.
             // Capturar cualquier excepción SQL que ocurra durante el proceso.
             throw new SQLException("Error al buscar usuarios: " + ex.getMessage(), ex);
         } finally {
             // Bloque finally para asegurar que los recursos se liberen.
             ps = null;         // Establecer la sentencia preparada a null.
             rs = null;         // Establecer el conjunto de resultados a null.
-            conn.disconnect(); // Desconectar de la base de datos.
+            call.end(); // Registrar la medición de la llamada y liberar la conexión.
         }
         return records; // Retornar la lista de usuarios encontrados.
     }
+    /**
+     * Variante de {@link #search(String)} que emite los usuarios a medida que avanza el cursor, en lugar de
+     * retornarlos en una lista. Solo se leen filas mientras el suscriptor tenga demanda pendiente.
+     *
+     * @param name El mismo criterio de búsqueda de {@link #search(String)}.
+     * @return Un publicador; cada suscripción ejecuta la consulta.
+     */
+    public Flow.Publisher<User> searchPublisher(String name) {
+        return new SearchPublisher<>(conn, "UserDAO.searchPublisher",
+                "SELECT id, name, email, status, version " +
+                        "FROM Users " +
+                        "WHERE name LIKE ?",
+                ps -> ps.setString(1, "%" + name + "%"),
+                UserDAO::map);
+    }
+
+    /**
+     * Convierte la fila actual del cursor en un objeto User.
+     */
+    private static User map(ResultSet rs) throws SQLException {
+        // Crear un nuevo objeto User con los valores de la fila.
+        User user = new User();
+        // Asignar los valores de las columnas a los atributos del objeto User.
+        user.setId(rs.getInt(1));       // Obtener el ID del usuario.
+        user.setName(rs.getString(2));   // Obtener el nombre del usuario.
+        user.setEmail(rs.getString(3));  // Obtener el correo electrónico del usuario.
+        user.setStatus(rs.getByte(4));    // Obtener el estado del usuario.
+        user.setVersion(rs.getInt(5)); // Obtener la versión de la fila.
+        return user;
+    }
+
     /**
      * Obtiene un usuario de la base de datos basado en su ID.
      *
@@ -203,9 +315,12 @@ public class UserDAO {
      */
     public User getById(int id) throws SQLException{
         User user  = new User(); // Inicializar un objeto User que se retornará.
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        DaoCall call = DaoMetrics.start("UserDAO.getById"); // Medición de latencia, filas y errores.
         try {
             // Preparar la sentencia SQL para seleccionar un usuario por su ID.
-            ps = conn.connect().prepareStatement("SELECT id, name, email, status " +
+            ps = call.prepareStatement(conn, "SELECT id, name, email, status, version " +
                     "FROM Users " +
                     "WHERE id = ?");
             // Establecer el valor del parámetro en la sentencia preparada (el ID a buscar).
@@ -219,20 +334,23 @@ public class UserDAO {
                 user.setName(rs.getString(2));   // Obtener el nombre del usuario.
                 user.setEmail(rs.getString(3));  // Obtener el correo electrónico del usuario.
                 user.setStatus(rs.getByte(4));    // Obtener el estado del usuario.
+                user.setVersion(rs.getInt(5)); // Obtener la versión de la fila.
             } else {
                 // Si no se encontró ningún usuario con el ID especificado, establecer el objeto User a null.
                 user = null;
             }
             ps.close(); // Cerrar la sentencia preparada para liberar recursos.
             rs.close(); // Cerrar el conjunto de resultados para liberar recursos.
+            call.rows(user != null ? 1 : 0); // Registrar si se encontró el registro.
         } catch (SQLException ex){
+            call.error(); // Registrar el error en las métricas.
             // Capturar cualquier excepción SQL que ocurra durante el proceso.
             throw new SQLException("Error al obtener un usuario por id: " + ex.getMessage(), ex);
         } finally {
             // Bloque finally para asegurar que los recursos se liberen.
             ps = null;         // Establecer la sentencia preparada a null.
             rs = null;         // Establecer el conjunto de resultados a null.
-            conn.disconnect(); // Desconectar de la base de datos.
+            call.end(); // Registrar la medición de la llamada y liberar la conexión.
         }
         return user; // Retornar el objeto User encontrado o null si no existe.
     }
@@ -252,10 +370,13 @@ public class UserDAO {
      */
     public User authenticate(User user) throws SQLException{
         User userAutenticate = new User(); // Inicializar un objeto User para almacenar el usuario autenticado.
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        DaoCall call = DaoMetrics.start("UserDAO.authenticate"); // Medición de latencia, filas y errores.
         try {
             // Preparar la sentencia SQL para seleccionar un usuario por su correo electrónico,
             // contraseña hasheada y estado activo (status = 1).
-            ps = conn.connect().prepareStatement("SELECT id, name, email, status " +
+            ps = call.prepareStatement(conn, "SELECT id, name, email, status, version " +
                     "FROM Users " +
                     "WHERE email = ? AND passwordHash = ? AND status = 1");
             // Establecer los valores de los parámetros en la sentencia preparada.
@@ -269,20 +390,23 @@ public class UserDAO {
                 userAutenticate.setName(rs.getString(2));   // Obtener el nombre del usuario autenticado.
                 userAutenticate.setEmail(rs.getString(3));  // Obtener el correo electrónico del usuario autenticado.
                 userAutenticate.setStatus(rs.getByte(4));    // Obtener el estado del usuario autenticado.
+                userAutenticate.setVersion(rs.getInt(5)); // Obtener la versión de la fila.
             } else {
                 // Si no se encontraron coincidencias, la autenticación falla y se establece userAutenticate a null.
                 userAutenticate = null;
             }
             ps.close(); // Cerrar la sentencia preparada para liberar recursos.
             rs.close(); // Cerrar el conjunto de resultados para liberar recursos.
+            call.rows(userAutenticate != null ? 1 : 0); // Registrar si se encontró el registro.
         } catch (SQLException ex){
+            call.error(); // Registrar el error en las métricas.
             // Capturar cualquier excepción SQL que ocurra durante el proceso de autenticación.
             throw new SQLException("Error al autenticar un usuario por id: " + ex.getMessage(), ex);
         } finally {
             // Bloque finally para asegurar que los recursos se liberen.
             ps = null;         // Establecer la sentencia preparada a null.
             rs = null;         // Establecer el conjunto de resultados a null.
-            conn.disconnect(); // Desconectar de la base de datos.
+            call.end(); // Registrar la medición de la llamada y liberar la conexión.
         }
         return userAutenticate; // Retornar el objeto User autenticado o null si la autenticación falló.
     }
@@ -292,40 +416,65 @@ public class UserDAO {
      *
      * @param user El objeto User que contiene el ID del usuario cuya contraseña se
      * actualizará y la nueva contraseña (sin hashear) en el campo 'passwordHash'.
-     * Se requiere que los campos 'id' y 'passwordHash' del objeto User estén
-     * correctamente establecidos.
+     * Se requiere que los campos 'id', 'version' y 'passwordHash' del objeto User estén
+     * correctamente establecidos; si se aplica, el usuario queda con la versión nueva.
      * @return true si la actualización de la contraseña fue exitosa (al menos una
      * fila afectada), false en caso contrario.
+     * @throws VersionConflictException Si el usuario fue modificado o eliminado desde que se leyó.
      * @throws SQLException Si ocurre un error al interactuar con la base de datos
      * durante la actualización de la contraseña.
      */
     public boolean updatePassword(User user) throws SQLException{
         boolean res = false; // Variable para indicar si la actualización de la contraseña fue exitosa.
+        PreparedStatement ps = null;
+        DaoCall call = DaoMetrics.start("UserDAO.updatePassword"); // Medición de latencia, filas y errores.
         try{
             // Preparar la sentencia SQL para actualizar solo la columna 'passwordHash' de un usuario.
-            ps = conn.connect().prepareStatement(
+            ps = call.prepareStatement(conn,
                     "UPDATE Users " +
-                            "SET passwordHash = ? " +
-                            "WHERE id = ?"
+                            "SET passwordHash = ?, version = version + 1 " +
+                            "WHERE id = ? AND version = ?"
             );
             // Hashear la nueva contraseña proporcionada antes de establecerla en la consulta.
             ps.setString(1, PasswordHasher.hashPassword(user.getPasswordHash()));
             // Establecer el ID del usuario cuya contraseña se va a actualizar en la cláusula WHERE.
             ps.setInt(2, user.getId());
+            ps.setInt(3, user.getVersion()); // Solo si la fila sigue con la versión que se leyó.
             // Ejecutar la sentencia de actualización y verificar si se afectó alguna fila.
-            if(ps.executeUpdate() > 0){
+            if(call.rows(ps.executeUpdate()) > 0){
                 res = true; // Si executeUpdate() retorna un valor mayor que 0, la actualización fue exitosa.
+                user.setVersion(user.getVersion() + 1); // La fila quedó con la versión siguiente.
             }
-            ps.close(); // Cerrar la sentencia preparada para liberar recursos.
         }catch (SQLException ex){
+            call.error(); // Registrar el error en las métricas.
             // Capturar cualquier excepción SQL que ocurra durante el proceso.
             throw new SQLException("Error al modificar el password del usuario: " + ex.getMessage(), ex);
         } finally {
             // Bloque finally para asegurar que los recursos se liberen.
-            ps = null;         // Establecer la sentencia preparada a null.
-            conn.disconnect(); // Desconectar de la base de datos.
+            if (ps != null) {
+                try {
+                    ps.close(); // Cerrar la sentencia preparada para liberar recursos.
+                } catch (SQLException e) {
+                    System.err.println("Error al cerrar PreparedStatement en create (UserDAO): " + e.getMessage());
+                }
+            }
+            call.end(); // Registrar la medición de la llamada y liberar la conexión.
+        }
+        if (!res) {
+            throw conflicto(user.getId()); // No se afectó ninguna fila: cambió o fue eliminada desde que se leyó.
         }
+        // Se registra el cambio, nunca el hash.
+        AuditLog.registrar(CUD.UPDATE, EntidadJson.USUARIOS.getNombre(), user.getId(), null,
+                Map.of("password", "(modificada)"));
         return res; // Retornar el resultado de la operación de actualización de la contraseña.
     }
+
+    /**
+     * Excepción para una modificación o eliminación que no afectó ninguna fila: el usuario fue modificado
+     * (su versión ya no es la leída) o eliminado. Se consulta la fila para distinguir ambos casos.
+     */
+    private VersionConflictException conflicto(int id) throws SQLException {
+        return new VersionConflictException(EntidadJson.USUARIOS.getNombre(), id, getById(id) == null);
+    }
 }
 
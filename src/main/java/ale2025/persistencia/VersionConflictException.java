@@ -0,0 +1,50 @@
+package ale2025.persistencia;
+
+import java.sql.SQLException;
+
+/**
+ * Error de concurrencia optimista: una modificación o eliminación no se aplicó porque la fila cambió
+ * (o fue eliminada) desde que se leyó.
+ *
+ * Cada tabla tiene una columna version que se incrementa en cada UPDATE. Las entidades del dominio
+ * guardan la versión leída, y los DAOs solo modifican o eliminan la fila si su versión sigue siendo
+ * esa (WHERE id = ? AND version = ?). Si no se afectó ninguna fila, el DAO lanza esta excepción en
+ * lugar de retornar false, para que el formulario pueda avisar al usuario que vuelva a cargar los datos.
+ *
+ * Extiende SQLException para que los bloques catch existentes la sigan manejando; su SQLState es 40001
+ * (conflicto de serialización), que no se considera un error de conexión (ver WriteJournal).
+ */
+public class VersionConflictException extends SQLException {
+    public static final String SQL_STATE = "40001";
+
+    private final String entidad;
+    private final int id;
+    private final boolean eliminada;
+
+    /**
+     * @param entidad   Nombre de la colección (EntidadJson.getNombre(), por ejemplo "pacientes").
+     * @param id        ID de la fila.
+     * @param eliminada true si la fila ya no existe; false si fue modificada.
+     */
+    public VersionConflictException(String entidad, int id, boolean eliminada) {
+        super(eliminada
+                ? "El registro " + id + " de " + entidad + " fue eliminado por otro usuario."
+                : "El registro " + id + " de " + entidad + " fue modificado por otro usuario desde que se abrió. "
+                        + "Vuelva a abrirlo para ver los cambios.", SQL_STATE);
+        this.entidad = entidad;
+        this.id = id;
+        this.eliminada = eliminada;
+    }
+
+    public String getEntidad() {
+        return entidad;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public boolean isEliminada() {
+        return eliminada;
+    }
+}
@@ -0,0 +1,890 @@
+package ale2025.persistencia;
+
+import ale2025.dominio.Cita;
+import ale2025.dominio.Paciente;
+import ale2025.utils.CUD;
+import ale2025.utils.Json;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Diario local de escrituras para trabajar sin conexión con la base de datos.
+ *
+ * Cuando SQL Server no responde, las altas, modificaciones y eliminaciones de citas y pacientes se
+ * agregan a un archivo local de solo anexado (JSON Lines) en lugar de fallar, de modo que la
+ * recepción puede seguir agendando. Mientras haya escrituras pendientes, las nuevas también van al
+ * diario (así se conserva el orden), y un hilo en segundo plano intenta reaplicarlas periódicamente.
+ *
+ * Escritura: las entradas se encolan y un único hilo las escribe en grupo con un solo fsync
+ * (FileChannel.force) por grupo; quien escribe espera solo a que su grupo llegue al disco.
+ *
+ * Reaplicación: las entradas pendientes se envían en lotes (executeBatch), con una transacción por
+ * lote; las altas se envían de a una, para obtener su ID. Cada entrada aplicada se registra en la
+ * auditoría después del commit de su lote, con el ID definitivo, los valores que reemplazó y el usuario
+ * de la sesión que la hizo. Antes de aplicar cada entrada se detectan conflictos:
+ * - Alta: ya existe una cita (paciente, médico, fecha) o un paciente (nombre, fecha de nacimiento) igual.
+ * - Modificación/eliminación: la fila cambió en la base desde que se leyó (se compara la versión del
+ *   valor original guardado en la entrada) o ya no existe.
+ * La modificación o eliminación de una cita que se archivó mientras la entrada esperaba en el diario (su
+ * fecha original es anterior al límite del archivo de CitaArchiver y ya no está en Citas) se aplica en CitasHistorico.
+ * Las entradas en conflicto no se aplican: se copian a conflictos.jsonl con el motivo, para revisarlas.
+ * Si la base rechaza un lote por un motivo que no es de conexión (por ejemplo, el alta de una cita cuyo
+ * paciente se eliminó en otra terminal), el lote se revierte y sus entradas se aplican de a una, cada
+ * una en su transacción; la que la base rechaza se copia a conflictos.jsonl con el error como motivo y
+ * la reaplicación sigue con las siguientes, para que una entrada no detenga el diario para siempre.
+ * Si la fila ya tiene el valor final (por ejemplo, el proceso cayó después del commit y antes de
+ * guardar el progreso), la entrada se cuenta como ya aplicada.
+ *
+ * Archivos (en el directorio ale2025.journal.dir, por defecto "diario"):
+ * - escrituras.jsonl  : el diario; se vacía cuando todo fue reaplicado.
+ * - escrituras.aplicado : número de la última entrada reaplicada (igual que el progreso del importador).
+ * - conflictos.jsonl  : entradas que no se aplicaron por conflicto.
+ *
+ * Solo se usa en conexión directa (JDBC). Con ale2025.api.url, el servidor es quien habla con SQL
+ * Server y el diario queda desactivado. También puede desactivarse con -Dale2025.journal.enabled=false.
+ */
+public final class WriteJournal {
+    /** Entradas por lote/transacción al reaplicar. */
+    public static final int DEFAULT_BATCH_SIZE = 100;
+    private static final int MAX_GRUPO = 256; // Entradas por escritura y fsync.
+
+    private static WriteJournal instance;
+
+    private final ConnectionManager conn;
+    private final Path archivo;
+    private final Path aplicado;
+    private final Path conflictos;
+    private final int batchSize;
+    private final boolean habilitado;
+
+    private final LinkedBlockingQueue<Pendiente> cola = new LinkedBlockingQueue<>();
+    private final ReentrantLock lock = new ReentrantLock(); // Protege el archivo y los contadores.
+    private final ReentrantLock reaplicando = new ReentrantLock(); // Una sola reaplicación a la vez.
+    private FileChannel canal;
+    private long ultimaEntrada;  // Número de la última entrada escrita en el diario.
+    private long ultimaAplicada; // Número de la última entrada reaplicada en la base.
+    private long sinEscribir;    // Entradas agregadas que aún no están en el archivo (en la cola o escribiéndose).
+    private volatile boolean sinConexion; // Se observó un error de conexión y aún hay entradas pendientes.
+
+    /** Destino de una escritura realizada con {@link #escribir}. */
+    public enum Destino {
+        /** Se aplicó directamente en la base de datos. */
+        BASE_DE_DATOS,
+        /** Se guardó en el diario y se aplicará al volver la conexión. */
+        DIARIO,
+        /** La base de datos no afectó ninguna fila. */
+        SIN_CAMBIOS
+    }
+
+    /** La escritura directa en la base (normalmente una llamada al DAO). */
+    @FunctionalInterface
+    public interface Escritura {
+        /**
+         * @return true si se afectó alguna fila.
+         */
+        boolean escribir() throws SQLException;
+    }
+
+    WriteJournal(Path directorio, int batchSize, boolean habilitado) {
+        this.conn = ConnectionManager.getInstance();
+        this.archivo = directorio.resolve("escrituras.jsonl");
+        this.aplicado = directorio.resolve("escrituras.aplicado");
+        this.conflictos = directorio.resolve("conflictos.jsonl");
+        this.batchSize = batchSize;
+        this.habilitado = habilitado;
+    }
+
+    /**
+     * Retorna el diario compartido. La primera llamada abre el archivo y, si quedaron escrituras de una
+     * sesión anterior, empieza a reaplicarlas en segundo plano.
+     */
+    public static synchronized WriteJournal getInstance() {
+        if (instance == null) {
+            boolean habilitado = !ApiClient.isConfigured()
+                    && Boolean.parseBoolean(System.getProperty("ale2025.journal.enabled", "true"));
+            instance = new WriteJournal(Path.of(System.getProperty("ale2025.journal.dir", "diario")),
+                    Integer.getInteger("ale2025.journal.batch", DEFAULT_BATCH_SIZE), habilitado);
+            if (habilitado) {
+                try {
+                    instance.abrir();
+                    instance.iniciarReaplicacion(Long.getLong("ale2025.journal.retryMs", 10_000));
+                } catch (IOException e) {
+                    System.err.println("No se pudo abrir el diario de escrituras: " + e.getMessage());
+                    instance = new WriteJournal(Path.of("."), DEFAULT_BATCH_SIZE, false);
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Abre (o crea) el diario y el hilo que lo escribe.
+     */
+    void abrir() throws IOException {
+        Files.createDirectories(archivo.getParent());
+        ultimaAplicada = leerAplicado();
+        ultimaEntrada = ultimaAplicada;
+        for (Map<String, Object> entrada : leerEntradas()) {
+            ultimaEntrada = Math.max(ultimaEntrada, ((Number) entrada.get("seq")).longValue());
+        }
+        sinConexion = ultimaEntrada > ultimaAplicada;
+        canal = FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        Thread escritor = new Thread(this::escribirGrupos, "ale2025-diario");
+        escritor.setDaemon(true);
+        escritor.start();
+    }
+
+    private void iniciarReaplicacion(long periodoMs) {
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ale2025-diario-reaplicar");
+            t.setDaemon(true);
+            return t;
+        });
+        timer.scheduleWithFixedDelay(() -> {
+            if (getPendientes() == 0) {
+                return;
+            }
+            try {
+                Reaplicacion res = replay();
+                System.out.println("Diario de escrituras reaplicado: " + res);
+            } catch (SQLException e) {
+                if (!esErrorDeConexion(e)) {
+                    System.err.println("Error al reaplicar el diario de escrituras: " + e.getMessage());
+                }
+            } catch (IOException e) {
+                System.err.println("Error al leer el diario de escrituras: " + e.getMessage());
+            }
+        }, 0, periodoMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Realiza una escritura de cita o paciente: directamente en la base si hay conexión, o en el diario
+     * si no la hay (o si aún quedan escrituras pendientes, para no alterar el orden).
+     *
+     * @param cud      Operación.
+     * @param tipo     EntidadJson.CITAS o EntidadJson.PACIENTES.
+     * @param entidad  La entidad con los valores nuevos (o la que se elimina).
+     * @param original Valores de la entidad cuando se leyó de la base (toMap), para detectar conflictos al
+     *                 reaplicar una modificación o eliminación. null en las altas.
+     * @param directa  La escritura en la base.
+     * @return Dónde quedó la escritura.
+     * @throws SQLException Si la base rechazó la escritura por un motivo que no es de conexión, o si no se
+     * pudo guardar en el diario.
+     */
+    public <T> Destino escribir(CUD cud, EntidadJson<T> tipo, T entidad, Map<String, Object> original,
+                                Escritura directa) throws SQLException {
+        if (habilitado && (sinConexion || getPendientes() > 0)) {
+            agregar(cud, tipo, entidad, original);
+            return Destino.DIARIO;
+        }
+        try {
+            return directa.escribir() ? Destino.BASE_DE_DATOS : Destino.SIN_CAMBIOS;
+        } catch (SQLException ex) {
+            if (!habilitado || !esErrorDeConexion(ex)) {
+                throw ex;
+            }
+            sinConexion = true;
+            agregar(cud, tipo, entidad, original);
+            return Destino.DIARIO;
+        }
+    }
+
+    /**
+     * Agrega una escritura al diario y espera a que llegue al disco.
+     *
+     * @throws SQLException Si no se pudo escribir el diario (se informa igual que un error de la base).
+     */
+    <T> void agregar(CUD cud, EntidadJson<T> tipo, T entidad, Map<String, Object> original) throws SQLException {
+        if (tipo != EntidadJson.CITAS && tipo != EntidadJson.PACIENTES) {
+            throw new IllegalArgumentException("El diario solo admite citas y pacientes");
+        }
+        if (cud != CUD.CREATE && original == null) {
+            throw new IllegalArgumentException("Las modificaciones y eliminaciones requieren el valor original");
+        }
+        Map<String, Object> entrada = new LinkedHashMap<>();
+        entrada.put("op", cud.name());
+        entrada.put("entidad", tipo.getNombre());
+        entrada.put("datos", tipo.toMap(entidad));
+        entrada.put("original", original);
+        entrada.put("usuario", AuditLog.getUsuario()); // Quien la hizo, para la auditoría al reaplicarla.
+        Pendiente p = new Pendiente(entrada);
+        lock.lock();
+        try {
+            sinEscribir++; // Se cuenta como pendiente desde que se encola hasta que está en el archivo.
+        } finally {
+            lock.unlock();
+        }
+        cola.add(p);
+        try {
+            p.escrita.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Error al guardar en el diario de escrituras: espera interrumpida", e);
+        } catch (ExecutionException e) {
+            throw new SQLException("Error al guardar en el diario de escrituras: " + e.getCause().getMessage(),
+                    e.getCause());
+        }
+    }
+
+    /**
+     * Hilo escritor: toma todas las entradas encoladas, las escribe juntas y hace un único fsync por grupo.
+     */
+    private void escribirGrupos() {
+        ArrayList<Pendiente> grupo = new ArrayList<>();
+        while (true) {
+            try {
+                grupo.add(cola.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            cola.drainTo(grupo, MAX_GRUPO - 1);
+            IOException error = null;
+            lock.lock();
+            try {
+                StringBuilder sb = new StringBuilder();
+                long seq = ultimaEntrada;
+                for (Pendiente p : grupo) {
+                    Map<String, Object> linea = new LinkedHashMap<>();
+                    linea.put("seq", ++seq);
+                    linea.putAll(p.entrada);
+                    sb.append(Json.write(linea)).append('\n');
+                }
+                ByteBuffer buf = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+                while (buf.hasRemaining()) {
+                    canal.write(buf);
+                }
+                canal.force(false); // Un solo fsync para todo el grupo.
+                ultimaEntrada = seq;
+            } catch (IOException e) {
+                error = e;
+            } finally {
+                sinEscribir -= grupo.size(); // Escritas (en ultimaEntrada) o rechazadas.
+                lock.unlock();
+            }
+            for (Pendiente p : grupo) {
+                if (error == null) {
+                    p.escrita.complete(null);
+                } else {
+                    p.escrita.completeExceptionally(error);
+                }
+            }
+            grupo.clear();
+        }
+    }
+
+    /**
+     * Reaplica en la base todas las escrituras pendientes del diario.
+     *
+     * @return Un Reaplicacion con las entradas aplicadas, ya aplicadas y en conflicto.
+     * @throws SQLException Si se pierde la conexión. El lote en curso se revierte y el progreso conserva el
+     * último lote confirmado.
+     * @throws IOException Si no se puede leer el diario o escribir el progreso.
+     */
+    public Reaplicacion replay() throws SQLException, IOException {
+        Reaplicacion res = new Reaplicacion();
+        if (!habilitado) {
+            return res;
+        }
+        reaplicando.lock();
+        try {
+            long inicio = System.nanoTime();
+            ArrayList<Map<String, Object>> pendientes = new ArrayList<>();
+            for (Map<String, Object> entrada : leerEntradas()) {
+                if (((Number) entrada.get("seq")).longValue() > ultimaAplicada) {
+                    pendientes.add(entrada);
+                }
+            }
+            Connection connection = null;
+            try {
+                if (!pendientes.isEmpty()) {
+                    connection = conn.connect();
+                    connection.setAutoCommit(false); // Una transacción por lote, no por entrada.
+                    for (int i = 0; i < pendientes.size(); i += batchSize) {
+                        aplicarOSeparar(connection, pendientes.subList(i, Math.min(i + batchSize, pendientes.size())), res);
+                    }
+                }
+            } catch (SQLException ex) {
+                if (connection != null) {
+                    try {
+                        connection.rollback(); // Revertir únicamente el lote en curso.
+                    } catch (SQLException e) {
+                        System.err.println("Error al revertir el lote en replay (WriteJournal): " + e.getMessage());
+                    }
+                }
+                throw new SQLException("Error al reaplicar el diario de escrituras: " + ex.getMessage(), ex);
+            } finally {
+                if (connection != null) {
+                    try {
+                        connection.setAutoCommit(true);
+                        connection.close(); // Devolver la conexión al grupo.
+                    } catch (SQLException e) {
+                        System.err.println("Error al liberar la conexión en replay (WriteJournal): " + e.getMessage());
+                    }
+                }
+            }
+            compactar();
+            res.segundos = (System.nanoTime() - inicio) / 1_000_000_000.0;
+            return res;
+        } finally {
+            reaplicando.unlock();
+        }
+    }
+
+    /**
+     * Aplica un lote con {@link #aplicarLote}. Si la base lo rechaza por un motivo que no es de conexión, lo
+     * revierte y aplica sus entradas de a una; una entrada sola que la base rechaza se registra como conflicto.
+     */
+    private void aplicarOSeparar(Connection connection, List<Map<String, Object>> lote, Reaplicacion res)
+            throws SQLException, IOException {
+        long aplicadas = res.aplicadas;
+        long yaAplicadas = res.yaAplicadas;
+        long conflictosAntes = res.conflictos;
+        try {
+            aplicarLote(connection, lote, res);
+            return;
+        } catch (SQLException ex) {
+            if (esErrorDeConexion(ex)) {
+                throw ex;
+            }
+            connection.rollback();
+            res.aplicadas = aplicadas; // Lo contado en el lote revertido no se aplicó.
+            res.yaAplicadas = yaAplicadas;
+            res.conflictos = conflictosAntes;
+            if (lote.size() == 1) {
+                res.conflictos++;
+                Map<String, Object> conflicto = new LinkedHashMap<>(lote.get(0));
+                conflicto.put("motivo", "la base de datos la rechazó: " + ex.getMessage());
+                avanzar(lote, List.of(Json.write(conflicto)));
+                return;
+            }
+        }
+        for (Map<String, Object> entrada : lote) {
+            aplicarOSeparar(connection, List.of(entrada), res);
+        }
+    }
+
+    /**
+     * Aplica un lote de entradas en una transacción. Las entradas consecutivas con la misma sentencia se
+     * envían juntas con executeBatch; el lote se envía antes de verificar una fila que él mismo modifica.
+     * Las altas se ejecutan de a una para obtener su ID. Las entradas aplicadas se registran en la
+     * auditoría después del commit.
+     */
+    private void aplicarLote(Connection connection, List<Map<String, Object>> lote, Reaplicacion res)
+            throws SQLException, IOException {
+        ArrayList<String> enConflicto = new ArrayList<>();
+        ArrayList<Runnable> auditoria = new ArrayList<>(); // Se registra solo si el lote se confirma.
+        HashSet<String> tocadas = new HashSet<>(); // Filas con cambios aún sin enviar en el lote abierto.
+        PreparedStatement ps = null;
+        String sqlActual = null;
+        try {
+            for (Map<String, Object> entrada : lote) {
+                CUD cud = CUD.valueOf(String.valueOf(entrada.get("op")));
+                Tabla<?> tabla = Tabla.de(String.valueOf(entrada.get("entidad"))).destino(connection, cud, entrada);
+                String clave = tabla.clave(cud, entrada);
+                if (tocadas.contains(clave) && ps != null) {
+                    ps.executeBatch(); // La verificación debe ver los cambios anteriores del mismo lote.
+                    tocadas.clear();
+                }
+                Map<String, Object> antes = new LinkedHashMap<>();
+                String motivo = tabla.verificar(connection, cud, entrada, antes);
+                if (motivo == YA_APLICADA) {
+                    res.yaAplicadas++;
+                    continue;
+                }
+                if (motivo != null) {
+                    res.conflictos++;
+                    Map<String, Object> conflicto = new LinkedHashMap<>(entrada);
+                    conflicto.put("motivo", motivo);
+                    enConflicto.add(Json.write(conflicto));
+                    continue;
+                }
+                if (cud == CUD.CREATE) {
+                    if (ps != null) { // Conserva el orden: lo acumulado se envía antes del alta.
+                        ps.executeBatch();
+                        ps.close();
+                        ps = null;
+                        sqlActual = null;
+                        tocadas.clear();
+                    }
+                    auditoria.add(tabla.auditoria(cud, entrada, tabla.insertar(connection, entrada), null));
+                    res.aplicadas++;
+                    continue;
+                }
+                String sql = tabla.sql(cud);
+                if (!sql.equals(sqlActual)) {
+                    if (ps != null) {
+                        ps.executeBatch();
+                        ps.close();
+                    }
+                    ps = connection.prepareStatement(sql);
+                    sqlActual = sql;
+                    tocadas.clear();
+                }
+                tabla.agregar(ps, cud, entrada);
+                tocadas.add(clave);
+                auditoria.add(tabla.auditoria(cud, entrada, tabla.id(entrada), antes));
+                res.aplicadas++;
+            }
+            if (ps != null) {
+                ps.executeBatch();
+            }
+            connection.commit();
+            for (Runnable registro : auditoria) {
+                registro.run();
+            }
+        } finally {
+            if (ps != null) {
+                try {
+                    ps.close();
+                } catch (SQLException e) {
+                    System.err.println("Error al cerrar PreparedStatement en aplicarLote (WriteJournal): " + e.getMessage());
+                }
+            }
+        }
+        res.lotes++;
+        avanzar(lote, enConflicto);
+    }
+
+    /**
+     * Registra los conflictos de un lote confirmado (o descartado) y avanza el progreso hasta su última entrada.
+     */
+    private void avanzar(List<Map<String, Object>> lote, List<String> enConflicto) throws IOException {
+        // Los conflictos y el progreso se escriben después del commit: si el proceso cae entre ambos
+        // pasos, el lote se repite y sus entradas se detectan como ya aplicadas o duplicadas.
+        if (!enConflicto.isEmpty()) {
+            Files.write(conflictos, enConflicto, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+        long seq = ((Number) lote.get(lote.size() - 1).get("seq")).longValue();
+        Files.writeString(aplicado, Long.toString(seq), StandardCharsets.UTF_8);
+        lock.lock();
+        try {
+            ultimaAplicada = seq;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Vacía el diario si todas sus entradas fueron reaplicadas y no hay ninguna en camino.
+     */
+    private void compactar() throws IOException {
+        lock.lock();
+        try {
+            if (ultimaAplicada == ultimaEntrada && sinEscribir == 0) {
+                canal.truncate(0);
+                canal.force(true);
+                sinConexion = false;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return Cantidad de escrituras en el diario que aún no se reaplicaron, incluidas las que se están
+     * escribiendo en el archivo.
+     */
+    public long getPendientes() {
+        lock.lock();
+        try {
+            return ultimaEntrada - ultimaAplicada + sinEscribir;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    /**
+     * @return true si el error (o alguna de sus causas) indica que no se pudo hablar con la base de datos,
+     * y no que la base rechazó la sentencia. Los DAOs envuelven la excepción original, por eso se recorre
+     * la cadena de causas.
+     */
+    public static boolean esErrorDeConexion(SQLException ex) {
+        for (Throwable t = ex; t != null; t = t.getCause()) {
+            if (t instanceof SQLTransientConnectionException || t instanceof SQLNonTransientConnectionException
+                    || t instanceof java.net.SocketException || t instanceof java.net.SocketTimeoutException) {
+                return true;
+            }
+            if (t instanceof SQLException && ((SQLException) t).getSQLState() != null
+                    && ((SQLException) t).getSQLState().startsWith("08")) { // Clase 08: excepción de conexión.
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private ArrayList<Map<String, Object>> leerEntradas() throws IOException {
+        ArrayList<Map<String, Object>> entradas = new ArrayList<>();
+        if (!Files.exists(archivo)) {
+            return entradas;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+            String linea;
+            while ((linea = reader.readLine()) != null) {
+                if (linea.isBlank()) {
+                    continue;
+                }
+                try {
+                    entradas.add(Json.parseObject(linea));
+                } catch (IllegalArgumentException e) {
+                    // Última línea incompleta (el proceso cayó antes del fsync): nunca se confirmó al usuario.
+                    System.err.println("Línea inválida en el diario de escrituras, se ignora: " + e.getMessage());
+                }
+            }
+        }
+        return entradas;
+    }
+
+    private long leerAplicado() throws IOException {
+        if (!Files.exists(aplicado)) {
+            return 0;
+        }
+        String valor = Files.readString(aplicado, StandardCharsets.UTF_8).trim();
+        return valor.isEmpty() ? 0 : Long.parseLong(valor);
+    }
+
+    /** Marca de verificar(): la fila ya tiene el valor de la entrada. Se compara por referencia. */
+    private static final String YA_APLICADA = new String("ya aplicada");
+
+    /**
+     * Sentencias y verificaciones de una tabla que admite el diario.
+     */
+    private static final class Tabla<T> {
+        // Las citas archivadas (ver CitaArchiver) se modifican y eliminan en CitasHistorico; las altas, siempre en Citas.
+        private static final Tabla<Cita> CITAS_HISTORICO = citas("CitasHistorico", null);
+        private static final Tabla<Cita> CITAS = citas("Citas", CITAS_HISTORICO);
+
+        private static final Tabla<Paciente> PACIENTES = new Tabla<>(EntidadJson.PACIENTES,
+                "INSERT INTO Pacientes (nombreCompleto, telefono, fechaNacimiento) VALUES (?, ?, ?)",
+                "UPDATE Pacientes SET nombreCompleto = ?, telefono = ?, fechaNacimiento = ?, version = version + 1 WHERE id = ?",
+                "DELETE FROM Pacientes WHERE id = ?",
+                "SELECT id, nombreCompleto, telefono, fechaNacimiento, version FROM Pacientes WITH (UPDLOCK, ROWLOCK) WHERE id = ?",
+                "SELECT COUNT(*) FROM Pacientes WHERE nombreCompleto = ? AND fechaNacimiento = ?",
+                (ps, p) -> {
+                    ps.setString(1, p.getNombreCompleto());
+                    ps.setString(2, p.getTelefono());
+                    ps.setDate(3, p.getFechaNacimiento());
+                    return 3;
+                },
+                (ps, p) -> {
+                    ps.setString(1, p.getNombreCompleto());
+                    ps.setDate(2, p.getFechaNacimiento());
+                    return 2;
+                },
+                p -> p.getNombreCompleto() + "|" + p.getFechaNacimiento(),
+                PacienteDAO::map,
+                "ya existe un paciente con el mismo nombre y fecha de nacimiento", null, null);
+
+        private final EntidadJson<T> tipo;
+        private final String insert;
+        private final String update;
+        private final String delete;
+        private final String select;
+        private final String duplicado;
+        private final Asignador<T> valores;
+        private final Asignador<T> claveDuplicado;
+        private final Function<T, String> claveAlta;
+        private final SearchPublisher.Fila<T> fila;
+        private final String motivoDuplicado;
+        private final Tabla<T> archivo;           // Tabla a la que se mueven las filas antiguas, o null.
+        private final Condicion<T> puedeArchivarse; // Si la fila original puede estar en el archivo.
+
+        Tabla(EntidadJson<T> tipo, String insert, String update, String delete, String select, String duplicado,
+              Asignador<T> valores, Asignador<T> claveDuplicado, Function<T, String> claveAlta,
+              SearchPublisher.Fila<T> fila, String motivoDuplicado, Tabla<T> archivo, Condicion<T> puedeArchivarse) {
+            this.tipo = tipo;
+            this.insert = insert;
+            this.update = update;
+            this.delete = delete;
+            this.select = select;
+            this.duplicado = duplicado;
+            this.valores = valores;
+            this.claveDuplicado = claveDuplicado;
+            this.claveAlta = claveAlta;
+            this.fila = fila;
+            this.motivoDuplicado = motivoDuplicado;
+            this.archivo = archivo;
+            this.puedeArchivarse = puedeArchivarse;
+        }
+
+        private static Tabla<Cita> citas(String tabla, Tabla<Cita> archivo) {
+            return new Tabla<>(EntidadJson.CITAS,
+                    "INSERT INTO " + tabla + " (pacienteId, medicoId, fechaCita, costoConsulta) VALUES (?, ?, ?, ?)",
+                    "UPDATE " + tabla + " SET pacienteId = ?, medicoId = ?, fechaCita = ?, costoConsulta = ?, version = version + 1 WHERE id = ?",
+                    "DELETE FROM " + tabla + " WHERE id = ?",
+                    "SELECT id, pacienteId, medicoId, fechaCita, costoConsulta, version FROM " + tabla + " WITH (UPDLOCK, ROWLOCK) WHERE id = ?",
+                    "SELECT COUNT(*) FROM " + tabla + " WHERE pacienteId = ? AND medicoId = ? AND fechaCita = ?",
+                    (ps, c) -> {
+                        ps.setInt(1, c.getPacienteId());
+                        ps.setInt(2, c.getMedicoId());
+                        ps.setDate(3, c.getFechaCita());
+                        ps.setDouble(4, c.getCostoConsulta());
+                        return 4;
+                    },
+                    (ps, c) -> {
+                        ps.setInt(1, c.getPacienteId());
+                        ps.setInt(2, c.getMedicoId());
+                        ps.setDate(3, c.getFechaCita());
+                        return 3;
+                    },
+                    c -> c.getPacienteId() + "|" + c.getMedicoId() + "|" + c.getFechaCita(),
+                    CitaDAO::map,
+                    "ya existe una cita del paciente con el mismo médico en esa fecha",
+                    archivo,
+                    c -> c.getFechaCita() != null && CitaDAO.usaHistorico(c.getFechaCita().toString()));
+        }
+
+        static Tabla<?> de(String entidad) {
+            if (entidad.equals(CITAS.tipo.getNombre())) {
+                return CITAS;
+            }
+            if (entidad.equals(PACIENTES.tipo.getNombre())) {
+                return PACIENTES;
+            }
+            throw new IllegalArgumentException("Entidad desconocida en el diario: " + entidad);
+        }
+
+        /**
+         * Tabla en la que se aplica la entrada: la del archivo si se modifica o elimina una fila que, por su
+         * fecha original, pudo archivarse mientras la entrada esperaba en el diario y ya no está en esta tabla.
+         */
+        Tabla<T> destino(Connection connection, CUD cud, Map<String, Object> entrada) throws SQLException {
+            if (archivo == null || cud == CUD.CREATE || !puedeArchivarse.test(tipo.fromMap(original(entrada)))) {
+                return this;
+            }
+            try (PreparedStatement ps = connection.prepareStatement(select)) {
+                ps.setInt(1, tipo.getId(datos(entrada)));
+                try (ResultSet rs = ps.executeQuery()) {
+                    return rs.next() ? this : archivo;
+                }
+            }
+        }
+
+        String sql(CUD cud) {
+            switch (cud) {
+                case CREATE:
+                    return insert;
+                case UPDATE:
+                    return update;
+                default:
+                    return delete;
+            }
+        }
+
+        /**
+         * Fila que afecta la entrada, para saber cuándo una verificación depende del lote abierto.
+         */
+        String clave(CUD cud, Map<String, Object> entrada) {
+            T entidad = datos(entrada);
+            return cud == CUD.CREATE
+                    ? tipo.getNombre() + ":alta:" + claveAlta.apply(entidad) // Las altas se verifican por duplicado.
+                    : tipo.getNombre() + ":" + tipo.getId(entidad);
+        }
+
+        /**
+         * @param antes Si la entrada puede aplicarse y es una modificación o eliminación, recibe los valores
+         *              actuales de la fila (bloqueada hasta el commit), que son los que la entrada reemplaza.
+         * @return null si la entrada puede aplicarse, YA_APLICADA, o el motivo del conflicto.
+         */
+        String verificar(Connection connection, CUD cud, Map<String, Object> entrada, Map<String, Object> antes)
+                throws SQLException {
+            T entidad = datos(entrada);
+            if (cud == CUD.CREATE) {
+                try (PreparedStatement ps = connection.prepareStatement(duplicado)) {
+                    claveDuplicado.asignar(ps, entidad);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        return rs.next() && rs.getInt(1) > 0 ? motivoDuplicado : null;
+                    }
+                }
+            }
+            T actual = null;
+            try (PreparedStatement ps = connection.prepareStatement(select)) {
+                ps.setInt(1, tipo.getId(entidad));
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        actual = fila.leer(rs);
+                    }
+                }
+            }
+            if (actual == null) {
+                return cud == CUD.DELETE ? YA_APLICADA : "ya no existe en la base de datos";
+            }
+            // La versión no cuenta para saber si ya se aplicó: al aplicarla, la fila pasó a la versión siguiente.
+            if (cud == CUD.UPDATE && forma(actual, false).equals(forma(entidad, false))) {
+                return YA_APLICADA;
+            }
+            Map<String, Object> original = original(entrada);
+            // Si el original tiene versión, basta con que coincida; las entradas anteriores a la columna
+            // version no la tienen, y se comparan solo los valores.
+            boolean conVersion = original.containsKey("version");
+            if (!forma(actual, conVersion).equals(forma(tipo.fromMap(original), conVersion))) {
+                return "fue modificado en otra terminal mientras no había conexión";
+            }
+            antes.putAll(tipo.toMap(actual));
+            return null;
+        }
+
+        /**
+         * Inserta el alta de la entrada.
+         *
+         * @return El ID generado.
+         */
+        int insertar(Connection connection, Map<String, Object> entrada) throws SQLException {
+            try (PreparedStatement ps = connection.prepareStatement(insert, Statement.RETURN_GENERATED_KEYS)) {
+                valores.asignar(ps, datos(entrada));
+                ps.executeUpdate();
+                try (ResultSet rs = ps.getGeneratedKeys()) {
+                    if (!rs.next()) {
+                        throw new SQLException("No se obtuvo el ID del alta de " + tipo.getNombre());
+                    }
+                    return rs.getInt(1);
+                }
+            }
+        }
+
+        int id(Map<String, Object> entrada) {
+            return tipo.getId(datos(entrada));
+        }
+
+        /**
+         * Registro de auditoría de una entrada aplicada, para ejecutarlo después del commit.
+         *
+         * @param id    ID de la fila (el generado, en un alta).
+         * @param antes Valores que la entrada reemplazó; null en un alta.
+         */
+        Runnable auditoria(CUD cud, Map<String, Object> entrada, int id, Map<String, Object> antes) {
+            Map<String, Object> despues = null;
+            if (cud != CUD.DELETE) {
+                despues = tipo.toMap(datos(entrada));
+                despues.put("id", id);
+                // Las altas empiezan en la versión 1 (DEFAULT de script.sql); las modificaciones la incrementan.
+                despues.put("version", antes == null ? 1 : ((Number) antes.get("version")).intValue() + 1);
+            }
+            Map<String, Object> valoresDespues = despues;
+            Object usuario = entrada.get("usuario");
+            return () -> AuditLog.registrar(usuario == null ? null : usuario.toString(), cud, tipo.getNombre(), id,
+                    antes, valoresDespues);
+        }
+
+        /**
+         * Forma serializada de una entidad, para comparar: los números leídos del diario son Long/Double.
+         */
+        private String forma(T entidad, boolean conVersion) {
+            Map<String, Object> m = tipo.toMap(entidad);
+            if (!conVersion) {
+                m.remove("version");
+            }
+            return Json.write(m);
+        }
+
+        void agregar(PreparedStatement ps, CUD cud, Map<String, Object> entrada) throws SQLException {
+            T entidad = datos(entrada);
+            if (cud == CUD.DELETE) {
+                ps.setInt(1, tipo.getId(entidad));
+            } else {
+                int n = valores.asignar(ps, entidad);
+                if (cud == CUD.UPDATE) {
+                    ps.setInt(n + 1, tipo.getId(entidad));
+                }
+            }
+            ps.addBatch();
+        }
+
+        @SuppressWarnings("unchecked")
+        private T datos(Map<String, Object> entrada) {
+            return tipo.fromMap((Map<String, Object>) entrada.get("datos"));
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Map<String, Object> original(Map<String, Object> entrada) {
+            return (Map<String, Object>) entrada.get("original");
+        }
+    }
+
+    /** Asigna los parámetros de una entidad en una sentencia; retorna cuántos asignó. */
+    @FunctionalInterface
+    private interface Asignador<T> {
+        int asignar(PreparedStatement ps, T entidad) throws SQLException;
+    }
+
+    /** Condición sobre una entidad que puede consultar la base. */
+    @FunctionalInterface
+    private interface Condicion<T> {
+        boolean test(T entidad) throws SQLException;
+    }
+
+    private static final class Pendiente {
+        private final Map<String, Object> entrada;
+        private final CompletableFuture<Void> escrita = new CompletableFuture<>();
+
+        Pendiente(Map<String, Object> entrada) {
+            this.entrada = entrada;
+        }
+    }
+
+    public static class Reaplicacion {
+        private long aplicadas;
+        private long yaAplicadas;
+        private long conflictos;
+        private long lotes;
+        private double segundos;
+
+        public long getAplicadas() {
+            return aplicadas;
+        }
+
+        public long getYaAplicadas() {
+            return yaAplicadas;
+        }
+
+        public long getConflictos() {
+            return conflictos;
+        }
+
+        public long getLotes() {
+            return lotes;
+        }
+
+        public double getSegundos() {
+            return segundos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("aplicadas=%d, ya aplicadas=%d, conflictos=%d, lotes=%d, %.1f s",
+                    aplicadas, yaAplicadas, conflictos, lotes, segundos);
+        }
+    }
+}
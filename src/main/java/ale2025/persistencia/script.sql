@@ -6,7 +6,8 @@ CREATE TABLE Users (
     name VARCHAR(100) NOT NULL,
     passwordHash VARCHAR(64) NOT NULL,
     email VARCHAR(200) NOT NULL UNIQUE,
-    status TINYINT NOT NULL
+    status TINYINT NOT NULL,
+    version INT NOT NULL DEFAULT 1
 );
 GO
 
@@ -14,14 +15,16 @@ CREATE TABLE Pacientes (
     id INT PRIMARY KEY IDENTITY(1,1),
     nombreCompleto VARCHAR(50) NOT NULL,
     telefono VARCHAR(9),
-    fechaNacimiento DATE NOT NULL
+    fechaNacimiento DATE NOT NULL,
+    version INT NOT NULL DEFAULT 1
 );
 GO
 
 CREATE TABLE Especialidades (
     id INT PRIMARY KEY IDENTITY(1,1),
     nombre VARCHAR(30) NOT NULL UNIQUE,
-    descripcion VARCHAR(255)
+    descripcion VARCHAR(255),
+    version INT NOT NULL DEFAULT 1
 );
 GO
 
@@ -30,6 +33,7 @@ CREATE TABLE Medicos (
     nombreCompleto VARCHAR(50) NOT NULL,
     especialidadId INT NOT NULL,
     sueldo DECIMAL(10,2) NOT NULL,
+    version INT NOT NULL DEFAULT 1,
     FOREIGN KEY (especialidadId) REFERENCES Especialidades(id)
 );
 GO
@@ -40,6 +44,7 @@ CREATE TABLE Horarios (
     diaSemana VARCHAR(15) NOT NULL,
     horaInicio TIME NOT NULL,
     horaFin TIME NOT NULL,
+    version INT NOT NULL DEFAULT 1,
     FOREIGN KEY (medicoId) REFERENCES Medicos(id)
 );
 GO
@@ -50,7 +55,93 @@ CREATE TABLE Citas (
     medicoId INT NOT NULL,
     fechaCita DATE NOT NULL,
     costoConsulta DECIMAL(10,2) NOT NULL,
+    version INT NOT NULL DEFAULT 1,
     FOREIGN KEY (pacienteId) REFERENCES Pacientes(id),
     FOREIGN KEY (medicoId) REFERENCES Medicos(id)
 );
-GO
\ No newline at end of file
+GO
+
+-- Búsquedas por fecha y selección de las citas que se archivan.
+CREATE INDEX IX_Citas_fechaCita ON Citas (fechaCita);
+GO
+
+-- Citas anteriores al horizonte de archivo, movidas por CitaArchiver en lotes pequeños. Conservan su ID.
+-- No tiene claves foráneas porque recibe las filas con DELETE ... OUTPUT INTO (que no lo admite); en su
+-- lugar, los triggers de abajo impiden eliminar pacientes y médicos con citas archivadas.
+CREATE TABLE CitasHistorico (
+    id INT PRIMARY KEY,
+    pacienteId INT NOT NULL,
+    medicoId INT NOT NULL,
+    fechaCita DATE NOT NULL,
+    costoConsulta DECIMAL(10,2) NOT NULL,
+    version INT NOT NULL
+);
+GO
+
+CREATE INDEX IX_CitasHistorico_fechaCita ON CitasHistorico (fechaCita);
+GO
+
+-- Límite del archivo de citas (una sola fila): las citas anteriores a fechaLimite pueden estar en
+-- CitasHistorico. Lo escribe CitaArchiver antes de mover citas y lo leen los clientes (CitaDAO), así
+-- ninguno depende de su propio horizonte ni de su reloj para saber si debe consultar el histórico.
+CREATE TABLE ArchivoCitas (
+    id TINYINT PRIMARY KEY CHECK (id = 1),
+    fechaLimite DATE NOT NULL
+);
+GO
+
+CREATE INDEX IX_CitasHistorico_pacienteId ON CitasHistorico (pacienteId);
+GO
+
+CREATE INDEX IX_CitasHistorico_medicoId ON CitasHistorico (medicoId);
+GO
+
+-- Hacen de clave foránea para CitasHistorico: THROW revierte la eliminación, igual que lo haría la
+-- restricción, sin importar desde dónde se elimine (DAOs, servidor HTTP o diario de escrituras).
+-- Por ellos, los DELETE de Pacientes y Medicos que devuelven la fila eliminada usan OUTPUT ... INTO una
+-- variable de tabla: SQL Server no admite OUTPUT sin INTO en una tabla con triggers de esa operación.
+CREATE TRIGGER TR_Pacientes_CitasHistorico ON Pacientes AFTER DELETE AS
+BEGIN
+    SET NOCOUNT ON;
+    IF EXISTS (SELECT 1 FROM deleted d JOIN CitasHistorico h ON h.pacienteId = d.id)
+        THROW 50001, 'El paciente tiene citas archivadas en CitasHistorico', 1;
+END;
+GO
+
+CREATE TRIGGER TR_Medicos_CitasHistorico ON Medicos AFTER DELETE AS
+BEGIN
+    SET NOCOUNT ON;
+    IF EXISTS (SELECT 1 FROM deleted d JOIN CitasHistorico h ON h.medicoId = d.id)
+        THROW 50002, 'El médico tiene citas archivadas en CitasHistorico', 1;
+END;
+GO
+
+-- Registro de auditoría: lo llena AuditLog en lotes a partir de sus archivos locales.
+-- (origen, segmento, posicion) identifica el registro en los archivos locales de cada terminal
+-- y evita duplicados al reenviar.
+CREATE TABLE Auditoria (
+    id BIGINT PRIMARY KEY IDENTITY(1,1),
+    fecha DATETIME2 NOT NULL,
+    usuario VARCHAR(200),
+    operacion VARCHAR(6) NOT NULL,
+    entidad VARCHAR(30) NOT NULL,
+    entidadId INT NOT NULL,
+    antes NVARCHAR(MAX),
+    despues NVARCHAR(MAX),
+    origen VARCHAR(36) NOT NULL,
+    segmento INT NOT NULL,
+    posicion INT NOT NULL,
+    CONSTRAINT UQ_Auditoria_Origen UNIQUE (origen, segmento, posicion)
+);
+GO
+
+-- Concurrencia optimista: cada UPDATE incrementa version y los DAOs solo modifican o eliminan una fila
+-- si su versión sigue siendo la que leyeron (ver VersionConflictException).
+-- Para bases de datos creadas con una versión anterior de este script:
+IF COL_LENGTH('Users', 'version') IS NULL ALTER TABLE Users ADD version INT NOT NULL DEFAULT 1;
+IF COL_LENGTH('Pacientes', 'version') IS NULL ALTER TABLE Pacientes ADD version INT NOT NULL DEFAULT 1;
+IF COL_LENGTH('Especialidades', 'version') IS NULL ALTER TABLE Especialidades ADD version INT NOT NULL DEFAULT 1;
+IF COL_LENGTH('Medicos', 'version') IS NULL ALTER TABLE Medicos ADD version INT NOT NULL DEFAULT 1;
+IF COL_LENGTH('Horarios', 'version') IS NULL ALTER TABLE Horarios ADD version INT NOT NULL DEFAULT 1;
+IF COL_LENGTH('Citas', 'version') IS NULL ALTER TABLE Citas ADD version INT NOT NULL DEFAULT 1;
+GO
@@ -2,6 +2,7 @@ package ale2025.presentacion;
 
 import ale2025.dominio.User; // Importa la clase User, que probablemente representa un usuario en el sistema.
 import ale2025.persistencia.UserDAO; // Importa la interfaz o clase UserDAO, que define o implementa el acceso a datos para la entidad User.
+import ale2025.persistencia.VersionConflictException; // Conflicto de concurrencia optimista.
 
 import javax.swing.*;
 
@@ -17,7 +18,7 @@ public class ChangePasswordForm extends JDialog {
     // Constructor de la clase ChangePasswordForm. Recibe una instancia de MainForm como parámetro.
     public ChangePasswordForm(MainForm mainForm) {
         this.mainForm = mainForm; // Asigna la instancia de MainForm recibida a la variable local.
-        userDAO = new UserDAO(); // Crea una nueva instancia de UserDAO al instanciar este formulario.
+        userDAO = UserDAO.getInstance(); // Obtiene la instancia de UserDAO.
         txtEmail.setText(mainForm.getUserAutenticate().getEmail()); // Pre-carga el campo de correo electrónico con el email del usuario autenticado en la ventana principal.
         setContentPane(mainPanel); // Establece el panel principal como el contenido de este diálogo.
         setModal(true); // Hace que este diálogo sea modal, lo que significa que bloquea la interacción con la ventana principal hasta que se cierre.
@@ -38,6 +39,8 @@ public class ChangePasswordForm extends JDialog {
             User user = new User();
             // Establece el ID del usuario en el nuevo objeto User, utilizando el ID del usuario autenticado.
             user.setId(userAut.getId());
+            // La versión leída al autenticar: si el usuario cambió desde entonces, la base rechaza el cambio.
+            user.setVersion(userAut.getVersion());
             // Establece la nueva contraseña en el objeto User, convirtiendo el array de caracteres del campo de contraseña a un String.
             user.setPasswordHash(new String(txtPassword.getPassword()));
 
@@ -54,6 +57,7 @@ public class ChangePasswordForm extends JDialog {
 
             // Verifica el resultado de la actualización.
             if (res) {
+                userAut.setVersion(user.getVersion()); // La sesión queda con la versión nueva.
                 // Si la actualización es exitosa, cierra la ventana actual (ChangePasswordForm).
                 this.dispose();
                 // Crea una nueva instancia de la ventana de inicio de sesión (LoginForm), pasando la ventana principal como parámetro.
@@ -66,6 +70,11 @@ public class ChangePasswordForm extends JDialog {
                         "No se logro cambiar la contraseña",
                         "Cambiar contraseña", JOptionPane.WARNING_MESSAGE);
             }
+        } catch (VersionConflictException ex) {
+            // El usuario fue modificado o eliminado desde que inició sesión.
+            JOptionPane.showMessageDialog(null,
+                    ex.getMessage(),
+                    "Registro modificado", JOptionPane.WARNING_MESSAGE);
         } catch (Exception ex) {
             // Captura cualquier excepción que ocurra durante el proceso.
             JOptionPane.showMessageDialog(null,
@@ -1,6 +1,8 @@
 package ale2025.presentacion;
 
+import ale2025.persistencia.AsyncDAO;     // Consultas en segundo plano al reabrir el formulario.
 import ale2025.persistencia.CitaDAO;      // Importa la clase CitaDAO.
+import ale2025.persistencia.ClientCache;  // Caché de nombres y de la precarga de citas.
 import ale2025.persistencia.PacienteDAO;  // Para obtener el nombre del paciente.
 import ale2025.persistencia.MedicoDAO;    // Para obtener el nombre del médico.
 import ale2025.dominio.Cita;        // Importa la clase Cita.
@@ -21,7 +23,7 @@ import java.sql.Date;                   // Para java.sql.Date.
 import java.time.LocalDate;             // Para java.time.LocalDate.
 import java.util.ArrayList;             // Para listas dinámicas.
 
-public class CitaReadingForm extends JDialog {
+public class CitaReadingForm extends JDialog implements FormRegistry.Reutilizable {
     private JPanel mainPanel;
     private JButton btnCreate;
     private JPanel panelFechaCita; // Panel vacío para el DatePicker de búsqueda
@@ -38,9 +40,9 @@ public class CitaReadingForm extends JDialog {
 
     public CitaReadingForm(MainForm mainForm) {
         this.mainForm = mainForm;
-        citaDAO = new CitaDAO();
-        pacienteDAO = new PacienteDAO();
-        medicoDAO = new MedicoDAO();
+        citaDAO = CitaDAO.getInstance();
+        pacienteDAO = PacienteDAO.getInstance();
+        medicoDAO = MedicoDAO.getInstance();
         setContentPane(mainPanel);
         setModal(true);
         setTitle("Buscar Cita");
@@ -131,21 +133,52 @@ public class CitaReadingForm extends JDialog {
         panelFechaCita.add(datePickerFechaCitaSearch, BorderLayout.CENTER);
     }
 
+    /**
+     * Al reabrir el formulario desde {@link FormRegistry}, vuelve a buscar las citas de la fecha elegida en
+     * segundo plano y aplica a la tabla solo las filas que cambiaron; mientras tanto se ven las anteriores.
+     * Se leen siempre de la base: otras terminales pudieron agendar o cancelar citas mientras estaba cerrado.
+     */
+    @Override
+    public void alReabrir() {
+        LocalDate fecha = datePickerFechaCitaSearch.getDate();
+        if (fecha == null) {
+            return;
+        }
+        TableModelDiff.refrescar(tableCitas, AsyncDAO.of(citaDAO).call(dao ->
+                buildTableModel(dao.search(fecha.toString()), pacienteDAO, medicoDAO)),
+                () -> hideCol(0));
+    }
+
     // Método privado para buscar citas.
     private void search(String queryDateString) {
+        FormLoadEvent event = FormLoadEvent.begin("CitaReadingForm", queryDateString); // Evento JFR del ciclo de búsqueda y renderizado.
         try {
-            ArrayList<Cita> citas = citaDAO.search(queryDateString);
+            ArrayList<Cita> citas = ClientCache.getInstance().getCitas(queryDateString, citaDAO); // Solo la primera búsqueda usa la precarga.
             createTable(citas); // Actualiza la tabla con los resultados.
+            event.rows(citas.size());
         } catch (Exception ex) {
             JOptionPane.showMessageDialog(this,
                     "Error al buscar citas: " + ex.getMessage(),
                     "ERROR", JOptionPane.ERROR_MESSAGE);
             ex.printStackTrace();
+        } finally {
+            event.commit(); // Confirmar el evento JFR (sin costo si está deshabilitado).
         }
     }
 
     // Método para crear y llenar la tabla de citas.
     public void createTable(ArrayList<Cita> citas) {
+        this.tableCitas.setModel(buildTableModel(citas, pacienteDAO, medicoDAO)); // Usar tableCitas aquí
+
+        hideCol(0); // Oculta la columna del ID.
+    }
+
+    /**
+     * Construye el modelo de la tabla de citas, resolviendo el nombre del paciente y del médico de cada fila.
+     * No depende de componentes visuales, por lo que también puede usarse sin interfaz gráfica (por ejemplo, en benchmarks).
+     * Los nombres se buscan primero en {@link ClientCache}; solo los que no están se consultan con los DAO.
+     */
+    public static DefaultTableModel buildTableModel(ArrayList<Cita> citas, PacienteDAO pacienteDAO, MedicoDAO medicoDAO) {
         DefaultTableModel model = new DefaultTableModel() {
             @Override
             public boolean isCellEditable(int row, int column) {
@@ -160,8 +193,6 @@ public class CitaReadingForm extends JDialog {
         model.addColumn("Fecha Cita");
         model.addColumn("Costo Consulta");
 
-        this.tableCitas.setModel(model); // Usar tableCitas aquí
-
         Object rowData[] = null;
 
         // Itera a través de la lista de citas.
@@ -174,7 +205,7 @@ public class CitaReadingForm extends JDialog {
             // Obtener el nombre del paciente
             String pacienteNombre = "Desconocido";
             try {
-                Paciente paciente = pacienteDAO.getById(cita.getPacienteId());
+                Paciente paciente = ClientCache.getInstance().getPaciente(cita.getPacienteId(), pacienteDAO);
                 if (paciente != null) {
                     pacienteNombre = paciente.getNombreCompleto();
                 }
@@ -186,7 +217,7 @@ public class CitaReadingForm extends JDialog {
             // Obtener el nombre del médico
             String medicoNombre = "Desconocido";
             try {
-                Medico medico = medicoDAO.getById(cita.getMedicoId());
+                Medico medico = ClientCache.getInstance().getMedico(cita.getMedicoId(), medicoDAO);
                 if (medico != null) {
                     medicoNombre = medico.getNombreCompleto();
                 }
@@ -202,7 +233,7 @@ public class CitaReadingForm extends JDialog {
             model.setValueAt(String.format("%.2f", cita.getCostoConsulta()), i, 4); // Formatear el costo
         }
 
-        hideCol(0); // Oculta la columna del ID.
+        return model;
     }
 
     // Método privado para ocultar una columna de la tabla.
@@ -213,6 +244,21 @@ public class CitaReadingForm extends JDialog {
         this.tableCitas.getTableHeader().getColumnModel().getColumn(pColumna).setMinWidth(0);
     }
 
+    // getById solo lee la tabla Citas; la búsqueda por fecha también incluye el historial (CitasHistorico).
+    // Si la búsqueda aún encuentra la cita, está archivada.
+    private boolean isArchivada(int id, String fechaCitaStr) throws SQLException {
+        if (fechaCitaStr == null || fechaCitaStr.isEmpty()) {
+            return false;
+        }
+        LocalDate fecha = LocalDate.parse(fechaCitaStr, java.time.format.DateTimeFormatter.ofPattern("dd/MM/yyyy"));
+        for (Cita c : citaDAO.search(fecha.toString())) {
+            if (c.getId() == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     // Método privado para obtener el objeto Cita seleccionado de la fila de la tabla.
     private Cita getCitaFromTableRow() {
         Cita cita = null;
@@ -233,7 +279,9 @@ public class CitaReadingForm extends JDialog {
 
             if (cita == null || cita.getId() == 0) {
                 JOptionPane.showMessageDialog(this,
-                        "No se encontró ninguna cita con el ID seleccionado.",
+                        isArchivada(id, (String) this.tableCitas.getValueAt(filaSelect, 3))
+                                ? "La cita seleccionada está archivada en el historial y es de solo lectura: no se puede modificar ni eliminar."
+                                : "No se encontró ninguna cita con el ID seleccionado.",
                         "Validación", JOptionPane.WARNING_MESSAGE);
                 return null;
             }
@@ -3,9 +3,14 @@ package ale2025.presentacion;
 import ale2025.dominio.Cita;        // Importa la clase Cita.
 import ale2025.dominio.Medico;       // Importa la clase Medico para el JComboBox.
 import ale2025.dominio.Paciente;     // Importa la clase Paciente para el JComboBox.
+import ale2025.persistencia.AsyncDAO;     // Importa la fachada asíncrona para consultar en paralelo.
 import ale2025.persistencia.CitaDAO;      // Importa la clase CitaDAO.
+import ale2025.persistencia.ClientCache;  // Caché de la lista de médicos y de las citas del día.
+import ale2025.persistencia.EntidadJson;  // Importa EntidadJson para guardar el valor original de la cita.
 import ale2025.persistencia.MedicoDAO;    // Importa MedicoDAO para cargar médicos.
 import ale2025.persistencia.PacienteDAO;  // Importa PacienteDAO para cargar pacientes.
+import ale2025.persistencia.VersionConflictException; // Conflicto de concurrencia optimista.
+import ale2025.persistencia.WriteJournal; // Importa el diario de escrituras para trabajar sin conexión.
 import ale2025.utils.CUD;           // Importa el enum CUD.
 
 import com.github.lgooddatepicker.components.DatePicker;
@@ -17,6 +22,8 @@ import java.sql.SQLException;       // Importa SQLException para manejo de error
 import java.sql.Date;               // Para convertir LocalDate a java.sql.Date.
 import java.time.LocalDate;         // Para manejar los objetos de fecha con LGoodDatePicker.
 import java.util.ArrayList;         // Importa ArrayList para listas dinámicas.
+import java.util.Map;               // Valor original de la cita.
+import java.util.concurrent.CompletableFuture; // Resultado de las consultas lanzadas en paralelo.
 
 public class CitaWriteForm extends JDialog {
     private JComboBox<Medico> cbMedicoId;
@@ -33,6 +40,8 @@ public class CitaWriteForm extends JDialog {
     private MainForm mainForm;
     private CUD cud;
     private Cita en; // 'en' se refiere a la entidad Cita
+    private Map<String, Object> original; // Valores de la cita al abrir el formulario (conflictos del diario).
+    private WriteJournal diario; // Diario de escrituras, usado cuando no hay conexión con la base de datos.
 
     private DatePicker datePickerFechaCita; // Instancia del DatePicker
 
@@ -43,9 +52,12 @@ public class CitaWriteForm extends JDialog {
         this.cud = cud;
         this.en = cita;
         this.mainForm = mainForm;
-        citaDAO = new CitaDAO();
-        medicoDAO = new MedicoDAO(); // Inicializa MedicoDAO
-        pacienteDAO = new PacienteDAO(); // Inicializa PacienteDAO
+        citaDAO = CitaDAO.getInstance();
+        medicoDAO = MedicoDAO.getInstance(); // Inicializa MedicoDAO
+        pacienteDAO = PacienteDAO.getInstance(); // Inicializa PacienteDAO
+        diario = WriteJournal.getInstance();
+        // Guarda los valores antes de editarlos, para detectar si otra terminal los cambió mientras no había conexión.
+        original = cud == CUD.CREATE ? null : EntidadJson.CITAS.toMap(cita);
 
         setContentPane(mainPanel);
         setModal(true);
@@ -71,9 +83,12 @@ public class CitaWriteForm extends JDialog {
     }
 
     private void init() {
-        // Carga los pacientes y médicos en sus respectivos JComboBoxes
-        loadPacientes();
-        loadMedicos();
+        // Carga los pacientes y médicos en sus respectivos JComboBoxes.
+        // Ambas consultas se lanzan al mismo tiempo: la espera total es la de la más lenta, no la suma.
+        CompletableFuture<ArrayList<Paciente>> pacientes = AsyncDAO.of(pacienteDAO).call(dao -> dao.search(""));
+        CompletableFuture<ArrayList<Medico>> medicos = AsyncDAO.of(medicoDAO).call(dao -> ClientCache.getInstance().getMedicos(dao)); // Precargados al iniciar sesión.
+        loadPacientes(pacientes);
+        loadMedicos(medicos);
 
         switch (this.cud) {
             case CREATE:
@@ -94,9 +109,9 @@ public class CitaWriteForm extends JDialog {
     }
 
     // Método para cargar los pacientes en el JComboBox
-    private void loadPacientes() {
+    private void loadPacientes(CompletableFuture<ArrayList<Paciente>> busqueda) {
         try {
-            ArrayList<Paciente> pacientes = pacienteDAO.search(""); // Busca todos los pacientes
+            ArrayList<Paciente> pacientes = AsyncDAO.join(busqueda); // Espera la búsqueda de todos los pacientes
             cbPacienteId.removeAllItems(); // Limpia elementos existentes
 
             // Agrega un elemento por defecto si no es una actualización o eliminación
@@ -116,9 +131,9 @@ public class CitaWriteForm extends JDialog {
     }
 
     // Método para cargar los médicos en el JComboBox
-    private void loadMedicos() {
+    private void loadMedicos(CompletableFuture<ArrayList<Medico>> busqueda) {
         try {
-            ArrayList<Medico> medicos = medicoDAO.search(""); // Busca todos los médicos
+            ArrayList<Medico> medicos = AsyncDAO.join(busqueda); // Espera la búsqueda de todos los médicos
             cbMedicoId.removeAllItems(); // Limpia elementos existentes
 
             // Agrega un elemento por defecto si no es una actualización o eliminación
@@ -256,25 +271,25 @@ public class CitaWriteForm extends JDialog {
             boolean res = getValuesControls();
 
             if (res) {
-                boolean r = false;
-
-                switch (this.cud) {
-                    case CREATE:
-                        Cita citaCreada = citaDAO.create(this.en);
-                        if (citaCreada != null && citaCreada.getId() > 0) {
-                            this.en.setId(citaCreada.getId());
-                            r = true;
-                        }
-                        break;
-                    case UPDATE:
-                        r = citaDAO.update(this.en);
-                        break;
-                    case DELETE:
-                        r = citaDAO.delete(this.en);
-                        break;
+                // Si no hay conexión con la base de datos, la cita se guarda en el diario local y se
+                // aplicará automáticamente cuando la conexión vuelva: la recepción puede seguir agendando.
+                WriteJournal.Destino destino = diario.escribir(this.cud, EntidadJson.CITAS, this.en, original,
+                        this::escribirEnBase);
+
+                if (destino == WriteJournal.Destino.DIARIO) {
+                    ClientCache.getInstance().invalidar(EntidadJson.CITAS); // Descarta las citas del día en caché.
+                    JOptionPane.showMessageDialog(this,
+                            "Sin conexión con la base de datos: la transacción se guardó localmente\n" +
+                                    "y se aplicará al volver la conexión",
+                            "Información", JOptionPane.INFORMATION_MESSAGE);
+                    this.result = true;
+                    this.dispose();
+                    return;
                 }
+                boolean r = destino == WriteJournal.Destino.BASE_DE_DATOS;
 
                 if (r) {
+                    ClientCache.getInstance().invalidar(EntidadJson.CITAS); // Descarta las citas del día en caché.
                     JOptionPane.showMessageDialog(this,
                             "Transacción realizada exitosamente",
                             "Información", JOptionPane.INFORMATION_MESSAGE);
@@ -286,6 +301,14 @@ public class CitaWriteForm extends JDialog {
                             "ERROR", JOptionPane.ERROR_MESSAGE);
                 }
             }
+        } catch (VersionConflictException ex) {
+            // Otro usuario modificó o eliminó el registro desde que se abrió el formulario.
+            ClientCache.getInstance().invalidar(EntidadJson.CITAS);
+            JOptionPane.showMessageDialog(this,
+                    ex.getMessage(),
+                    "Registro modificado", JOptionPane.WARNING_MESSAGE);
+            this.result = true; // El formulario de lectura vuelve a buscar y muestra los datos actuales.
+            this.dispose();
         } catch (SQLException ex) {
             JOptionPane.showMessageDialog(this,
                     "Error de base de datos: " + ex.getMessage(),
@@ -299,6 +322,32 @@ public class CitaWriteForm extends JDialog {
         }
     }
 
+    /**
+     * Realiza la operación directamente en la base de datos.
+     *
+     * @return true si la operación afectó alguna fila.
+     */
+    private boolean escribirEnBase() throws SQLException {
+        boolean r = false;
+
+        switch (this.cud) {
+            case CREATE:
+                Cita citaCreada = citaDAO.create(this.en);
+                if (citaCreada != null && citaCreada.getId() > 0) {
+                    this.en.setId(citaCreada.getId());
+                    r = true;
+                }
+                break;
+            case UPDATE:
+                r = citaDAO.update(this.en);
+                break;
+            case DELETE:
+                r = citaDAO.delete(this.en);
+                break;
+        }
+        return r;
+    }
+
     public boolean getResult() {
         return result;
     }
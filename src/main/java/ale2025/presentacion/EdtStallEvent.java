@@ -0,0 +1,33 @@
+package ale2025.presentacion;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Evento de Java Flight Recorder emitido por {@link EdtWatchdog} cuando el hilo de despacho de
+ * eventos (EDT) estuvo bloqueado más tiempo que el umbral configurado.
+ */
+@Name("ale2025.EdtStall")
+@Label("Bloqueo del EDT")
+@Category({"ALE2025", "Presentacion"})
+@Description("Periodo en que el hilo de eventos de Swing no respondió")
+@StackTrace(false)
+class EdtStallEvent extends Event {
+    @Label("Pila del EDT")
+    @Description("Pila del EDT capturada al detectar el bloqueo")
+    String edtStack;
+
+    @Label("Tiempo bloqueado")
+    @Description("Desde que se publicó la tarea de control hasta que el EDT volvió a responder")
+    @Timespan(Timespan.NANOSECONDS)
+    long blockedTime;
+
+    @Label("Llamada a DAO")
+    @Description("Método de DAO y SQL en curso en el EDT al detectar el bloqueo")
+    String daoCall;
+}
@@ -0,0 +1,90 @@
+package ale2025.presentacion;
+
+import ale2025.persistencia.DaoMetrics; // Para saber qué llamada a DAO está ejecutando el EDT.
+
+import java.awt.EventQueue;
+
+/**
+ * Vigilante del hilo de despacho de eventos (EDT) de Swing.
+ *
+ * Un hilo en segundo plano publica periódicamente una tarea vacía en la cola de eventos. Si la tarea
+ * no se ejecuta dentro del umbral, el EDT está bloqueado (normalmente por una llamada síncrona a un
+ * DAO desde un formulario): se captura la pila del EDT y la llamada a DAO en curso y se escriben en
+ * System.err. Cuando el EDT vuelve a responder se emite un evento JFR {@link EdtStallEvent} con la
+ * duración total del bloqueo.
+ */
+public final class EdtWatchdog {
+    private static Thread thread; // Hilo del vigilante (null si no se ha iniciado).
+
+    private final long thresholdNanos;
+    private volatile Thread edt;             // Hilo de eventos, se obtiene desde la propia tarea.
+    private volatile boolean pending;        // Hay una tarea publicada que aún no se ejecuta.
+    private volatile long postedAt;          // Momento en que se publicó la tarea pendiente.
+
+    private EdtWatchdog(long thresholdMillis) {
+        this.thresholdNanos = thresholdMillis * 1_000_000L;
+    }
+
+    /**
+     * Inicia el vigilante (solo la primera vez).
+     *
+     * @param thresholdMillis Tiempo sin respuesta del EDT a partir del cual se considera bloqueado.
+     */
+    public static synchronized void start(long thresholdMillis) {
+        if (thread != null || thresholdMillis <= 0) {
+            return;
+        }
+        EdtWatchdog watchdog = new EdtWatchdog(thresholdMillis);
+        thread = new Thread(watchdog::run, "edt-watchdog");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void run() {
+        long period = Math.max(thresholdNanos / 4 / 1_000_000L, 20); // Revisar 4 veces por umbral.
+        EdtStallEvent stall = null;
+        try {
+            while (true) {
+                if (!pending) {
+                    if (stall != null) {
+                        // El EDT volvió a responder: cerrar el evento con la duración total.
+                        long blocked = System.nanoTime() - postedAt;
+                        stall.blockedTime = blocked;
+                        stall.commit();
+                        System.err.printf("EDT: respondió nuevamente tras %.0f ms%n", blocked / 1_000_000.0);
+                        stall = null;
+                    }
+                    postedAt = System.nanoTime();
+                    pending = true;
+                    EventQueue.invokeLater(() -> {
+                        edt = Thread.currentThread();
+                        pending = false;
+                    });
+                } else if (stall == null && System.nanoTime() - postedAt > thresholdNanos && edt != null) {
+                    stall = new EdtStallEvent();
+                    stall.begin();
+                    report(stall);
+                }
+                Thread.sleep(period);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void report(EdtStallEvent stall) {
+        Thread t = edt;
+        String daoCall = DaoMetrics.currentCall(t);
+        StringBuilder stack = new StringBuilder();
+        for (StackTraceElement e : t.getStackTrace()) {
+            stack.append("\tat ").append(e).append(System.lineSeparator());
+        }
+        System.err.printf("EDT: sin respuesta por más de %d ms%n", thresholdNanos / 1_000_000L);
+        if (daoCall != null) {
+            System.err.println("EDT: llamada a DAO en curso: " + daoCall);
+        }
+        System.err.print(stack);
+        stall.edtStack = stack.toString();
+        stall.daoCall = daoCall;
+    }
+}
@@ -1,5 +1,6 @@
 package ale2025.presentacion;
 
+import ale2025.persistencia.AsyncDAO; // Consultas en segundo plano al reabrir el formulario.
 import ale2025.persistencia.EspecialidadDAO; // Importa la clase EspecialidadDAO.
 import javax.swing.*;                   // Importa Swing para GUI.
 import javax.swing.table.DefaultTableModel; // Importa DefaultTableModel para la tabla.
@@ -11,7 +12,7 @@ import java.awt.event.KeyEvent;         // Para eventos de teclado.
 import java.util.ArrayList;             // Para listas dinámicas.
 // No se necesita java.sql.Date para Especialidad
 
-public class EspecialidadReadingForm extends JDialog {
+public class EspecialidadReadingForm extends JDialog implements FormRegistry.Reutilizable {
     private JPanel mainPanel;          // Panel principal.
     private JTextField txtNombre;      // Campo de texto para buscar por nombre de especialidad.
     private JButton btnCreate;         // Botón para crear nueva especialidad.
@@ -25,7 +26,7 @@ public class EspecialidadReadingForm extends JDialog {
     // Constructor de la clase EspecialidadReadingForm.
     public EspecialidadReadingForm(MainForm mainForm) {
         this.mainForm = mainForm; // Asigna la instancia de MainForm.
-        especialidadDAO = new EspecialidadDAO(); // Crea una nueva instancia de EspecialidadDAO.
+        especialidadDAO = EspecialidadDAO.getInstance(); // Obtiene la instancia de EspecialidadDAO.
 
         setContentPane(mainPanel); // Establece el panel principal como contenido del diálogo.
         setModal(true); // Diálogo modal.
@@ -96,21 +97,49 @@ public class EspecialidadReadingForm extends JDialog {
         });
     }
 
+    /**
+     * Al reabrir el formulario desde {@link FormRegistry}, vuelve a ejecutar la última búsqueda en segundo
+     * plano y aplica a la tabla solo las filas que cambiaron; mientras tanto se ven los resultados anteriores.
+     */
+    @Override
+    public void alReabrir() {
+        String query = txtNombre.getText();
+        if (query.trim().isEmpty()) {
+            return;
+        }
+        TableModelDiff.refrescar(tableEspecialidades, AsyncDAO.of(especialidadDAO).call(dao -> buildTableModel(dao.search(query))), () -> hideCol(0));
+    }
+
     // Método privado para buscar especialidades.
     private void search(String query) {
+        FormLoadEvent event = FormLoadEvent.begin("EspecialidadReadingForm", query); // Evento JFR del ciclo de búsqueda y renderizado.
         try {
             ArrayList<Especialidad> especialidades = especialidadDAO.search(query);
             createTable(especialidades); // Actualiza la tabla con los resultados.
+            event.rows(especialidades.size());
         } catch (Exception ex) {
             JOptionPane.showMessageDialog(this,
                     "Error al buscar especialidades: " + ex.getMessage(),
                     "ERROR", JOptionPane.ERROR_MESSAGE);
             ex.printStackTrace();
+        } finally {
+            event.commit(); // Confirmar el evento JFR (sin costo si está deshabilitado).
         }
     }
 
     // Método para crear y llenar la tabla de especialidades.
     public void createTable(ArrayList<Especialidad> especialidades) {
+        this.tableEspecialidades.setModel(buildTableModel(especialidades)); // Asigna el modelo a la tabla.
+
+        hideCol(0); // Oculta la columna del ID.
+    }
+
+    /**
+     * Construye el modelo de la tabla de especialidades.
+     * No depende de componentes visuales, por lo que también puede construirse fuera del hilo de eventos
+     * (ver {@link #alReabrir()}).
+     */
+    public static DefaultTableModel buildTableModel(ArrayList<Especialidad> especialidades) {
         DefaultTableModel model = new DefaultTableModel() {
             @Override
             public boolean isCellEditable(int row, int column) {
@@ -123,8 +152,6 @@ public class EspecialidadReadingForm extends JDialog {
         model.addColumn("Nombre");
         model.addColumn("Descripción");
 
-        this.tableEspecialidades.setModel(model);
-
         Object rowData[] = null;
 
         // Itera a través de la lista de especialidades.
@@ -137,7 +164,7 @@ public class EspecialidadReadingForm extends JDialog {
             model.setValueAt(especialidad.getDescripcion(), i, 2);
         }
 
-        hideCol(0); // Oculta la columna del ID.
+        return model;
     }
 
     // Método privado para ocultar una columna de la tabla.
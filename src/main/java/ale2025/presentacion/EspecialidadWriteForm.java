@@ -1,7 +1,10 @@
 package ale2025.presentacion;
 
 import ale2025.dominio.Especialidad; // Importa la clase Especialidad.
+import ale2025.persistencia.ClientCache; // Caché de especialidades del cliente.
+import ale2025.persistencia.EntidadJson; // Importa EntidadJson para invalidar la caché del cliente.
 import ale2025.persistencia.EspecialidadDAO; // Importa la clase EspecialidadDAO.
+import ale2025.persistencia.VersionConflictException; // Conflicto de concurrencia optimista.
 import ale2025.utils.CUD; // Importa el enum CUD (Create, Update, Delete).
 
 import javax.swing.*; // Importa el paquete Swing para GUI.
@@ -31,7 +34,7 @@ public class EspecialidadWriteForm extends JDialog {
         this.cud = cud; // Asigna el tipo de operación CUD.
         this.en = especialidad; // Asigna el objeto Especialidad.
         this.mainForm = mainForm; // Asigna la instancia de MainForm.
-        especialidadDAO = new EspecialidadDAO(); // Crea una nueva instancia de EspecialidadDAO.
+        especialidadDAO = EspecialidadDAO.getInstance(); // Obtiene la instancia de EspecialidadDAO.
 
         setContentPane(mainPanel); // Establece el panel principal como el contenido de este diálogo.
         setModal(true); // Hace que este diálogo sea modal.
@@ -152,6 +155,7 @@ public class EspecialidadWriteForm extends JDialog {
 
                 // Si la operación de la base de datos fue exitosa.
                 if (r) {
+                    ClientCache.getInstance().invalidar(EntidadJson.ESPECIALIDADES); // Descarta las especialidades en caché.
                     JOptionPane.showMessageDialog(this,
                             "Transacción realizada exitosamente",
                             "Información", JOptionPane.INFORMATION_MESSAGE);
@@ -164,6 +168,14 @@ public class EspecialidadWriteForm extends JDialog {
                             "ERROR", JOptionPane.ERROR_MESSAGE);
                 }
             }
+        } catch (VersionConflictException ex) {
+            // Otro usuario modificó o eliminó el registro desde que se abrió el formulario.
+            ClientCache.getInstance().invalidar(EntidadJson.ESPECIALIDADES);
+            JOptionPane.showMessageDialog(this,
+                    ex.getMessage(),
+                    "Registro modificado", JOptionPane.WARNING_MESSAGE);
+            this.result = true; // El formulario de lectura vuelve a buscar y muestra los datos actuales.
+            this.dispose();
         } catch (SQLException ex) {
             // Captura cualquier excepción SQL que ocurra.
             JOptionPane.showMessageDialog(this,
@@ -0,0 +1,44 @@
+package ale2025.presentacion;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento de Java Flight Recorder que cubre el ciclo de búsqueda y renderizado de un formulario de lectura:
+ * la consulta al DAO y la construcción del modelo de la tabla. Los eventos ale2025.DaoCall de la misma
+ * búsqueda quedan anidados dentro de este en el tiempo.
+ */
+@Name("ale2025.FormLoad")
+@Label("Búsqueda en formulario")
+@Category({"ALE2025", "Presentacion"})
+@Description("Búsqueda y renderizado de la tabla de un formulario de lectura")
+class FormLoadEvent extends Event {
+    @Label("Formulario")
+    String form;
+
+    @Label("Búsqueda")
+    String query;
+
+    @Label("Filas")
+    int rows;
+
+    /**
+     * Crea el evento y marca el inicio de la medición. Debe confirmarse con commit() en un bloque finally.
+     */
+    static FormLoadEvent begin(String form, String query) {
+        FormLoadEvent event = new FormLoadEvent();
+        if (event.isEnabled()) {
+            event.form = form;
+            event.query = query;
+        }
+        event.begin();
+        return event;
+    }
+
+    void rows(int rows) {
+        this.rows = rows;
+    }
+}
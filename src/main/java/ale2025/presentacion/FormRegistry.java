@@ -0,0 +1,117 @@
+package ale2025.presentacion;
+
+import javax.swing.*;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Registro de formularios reutilizables: en lugar de construir un formulario de lectura nuevo cada vez
+ * que se elige en el menú (cargar el diseño, crear los componentes, calcular el pack), se conserva el
+ * ya construido y se vuelve a mostrar, con la última búsqueda y sus resultados. Al reabrirlo, el
+ * formulario refresca sus datos en segundo plano (ver {@link Reutilizable}).
+ *
+ * Cada formulario se guarda en una SoftReference y, al cerrarse, se llama a dispose() para liberar los
+ * recursos nativos de la ventana; así, lo único que lo mantiene vivo es la referencia suave y el
+ * recolector puede descartarlo si falta memoria. En ese caso se construye uno nuevo la próxima vez.
+ *
+ * Se usa solo desde el hilo de eventos de Swing. Con -Dale2025.forms.reuse=false se desactiva la
+ * reutilización y se construye un formulario nuevo cada vez.
+ */
+public final class FormRegistry {
+    private static final FormRegistry INSTANCE = new FormRegistry();
+
+    /**
+     * Formulario que se puede reabrir. Antes de mostrarlo otra vez, el registro llama a
+     * {@link #alReabrir()} para que actualice sus datos sin bloquear el hilo de eventos.
+     */
+    public interface Reutilizable {
+        void alReabrir();
+    }
+
+    private final boolean habilitado = Boolean.parseBoolean(System.getProperty("ale2025.forms.reuse", "true"));
+    private final Map<Class<?>, SoftReference<JDialog>> formularios = new HashMap<>();
+    private final ReferenceQueue<JDialog> liberadas = new ReferenceQueue<>();
+    private int creados;
+    private int reutilizados;
+    private int descartados; // Liberados por el recolector por falta de memoria.
+
+    private FormRegistry() {
+    }
+
+    public static FormRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Muestra el formulario del tipo indicado, reutilizando el ya construido si sigue en memoria.
+     * Como los formularios son modales, el método retorna cuando el usuario lo cierra.
+     *
+     * @param tipo Clase del formulario; se guarda uno por clase.
+     * @param constructor Construye el formulario si no hay uno disponible.
+     */
+    public <T extends JDialog> void mostrar(Class<T> tipo, Supplier<T> constructor) {
+        purgar();
+        SoftReference<JDialog> ref = formularios.get(tipo);
+        JDialog formulario = ref == null ? null : ref.get();
+        if (formulario == null) {
+            formulario = constructor.get();
+            creados++;
+            if (habilitado) {
+                formularios.put(tipo, new SoftReference<>(formulario, liberadas));
+            }
+        } else {
+            reutilizados++;
+            if (formulario instanceof Reutilizable) {
+                ((Reutilizable) formulario).alReabrir();
+            }
+        }
+        formulario.setVisible(true);
+        formulario.dispose(); // Libera la ventana nativa; los componentes se conservan para la próxima vez.
+    }
+
+    /**
+     * Descarta todos los formularios guardados (por ejemplo, al cambiar de usuario).
+     */
+    public void clear() {
+        for (SoftReference<JDialog> ref : formularios.values()) {
+            JDialog formulario = ref.get();
+            if (formulario != null) {
+                formulario.dispose();
+            }
+        }
+        formularios.clear();
+    }
+
+    // Quita del mapa las referencias que el recolector ya liberó.
+    private void purgar() {
+        Reference<? extends JDialog> ref;
+        while ((ref = liberadas.poll()) != null) {
+            Reference<? extends JDialog> liberada = ref;
+            if (formularios.values().removeIf(r -> r == liberada)) {
+                descartados++;
+            }
+        }
+    }
+
+    public int getCreados() {
+        return creados;
+    }
+
+    public int getReutilizados() {
+        return reutilizados;
+    }
+
+    public int getDescartados() {
+        return descartados;
+    }
+
+    @Override
+    public String toString() {
+        return "FormRegistry[creados=" + creados + ", reutilizados=" + reutilizados
+                + ", descartados=" + descartados + ", en memoria=" + formularios.size() + "]";
+    }
+}
@@ -1,5 +1,7 @@
 package ale2025.presentacion;
 
+import ale2025.persistencia.AsyncDAO; // Consultas en segundo plano al reabrir el formulario.
+import ale2025.persistencia.ClientCache;    // Caché de los médicos.
 import ale2025.persistencia.HorarioDAO;     // Importa la clase HorarioDAO.
 import ale2025.persistencia.MedicoDAO;      // Para obtener el nombre del médico.
 import ale2025.dominio.Horario;       // Importa la clase Horario.
@@ -14,7 +16,7 @@ import java.util.ArrayList;             // Para listas dinámicas.
 import java.sql.SQLException;           // Para manejo de errores SQL.
 import java.sql.Time;                   // Para manejar java.sql.Time
 
-public class HorarioReadingForm extends JDialog {
+public class HorarioReadingForm extends JDialog implements FormRegistry.Reutilizable {
     private JTextField txtDiaSemana;
     private JButton btnCreate;
     private JTable tableHorarios;
@@ -28,8 +30,8 @@ public class HorarioReadingForm extends JDialog {
 
     public HorarioReadingForm(MainForm mainForm) {
         this.mainForm = mainForm;
-        horarioDAO = new HorarioDAO();
-        medicoDAO = new MedicoDAO(); // Inicializa MedicoDAO
+        horarioDAO = HorarioDAO.getInstance();
+        medicoDAO = MedicoDAO.getInstance(); // Inicializa MedicoDAO
         setContentPane(mainPanel);
         setModal(true);
         setTitle("Buscar Horario");
@@ -92,21 +94,49 @@ public class HorarioReadingForm extends JDialog {
         });
     }
 
+    /**
+     * Al reabrir el formulario desde {@link FormRegistry}, vuelve a ejecutar la última búsqueda en segundo
+     * plano y aplica a la tabla solo las filas que cambiaron; mientras tanto se ven los resultados anteriores.
+     */
+    @Override
+    public void alReabrir() {
+        String query = txtDiaSemana.getText();
+        if (query.trim().isEmpty()) {
+            return;
+        }
+        TableModelDiff.refrescar(tableHorarios, AsyncDAO.of(horarioDAO).call(dao -> buildTableModel(dao.search(query), medicoDAO)), () -> hideCol(0));
+    }
+
     // Método privado para buscar horarios.
     private void search(String query) {
+        FormLoadEvent event = FormLoadEvent.begin("HorarioReadingForm", query); // Evento JFR del ciclo de búsqueda y renderizado.
         try {
             ArrayList<Horario> horarios = horarioDAO.search(query);
             createTable(horarios); // Actualiza la tabla con los resultados.
+            event.rows(horarios.size());
         } catch (Exception ex) {
             JOptionPane.showMessageDialog(this,
                     "Error al buscar horarios: " + ex.getMessage(),
                     "ERROR", JOptionPane.ERROR_MESSAGE);
             ex.printStackTrace();
+        } finally {
+            event.commit(); // Confirmar el evento JFR (sin costo si está deshabilitado).
         }
     }
 
     // Método para crear y llenar la tabla de horarios.
     public void createTable(ArrayList<Horario> horarios) {
+        this.tableHorarios.setModel(buildTableModel(horarios, medicoDAO)); // Asigna el modelo a la tabla.
+
+        hideCol(0); // Oculta la columna del ID.
+    }
+
+    /**
+     * Construye el modelo de la tabla de horarios, resolviendo el nombre del médico de cada fila.
+     * No depende de componentes visuales, por lo que también puede construirse fuera del hilo de eventos
+     * (ver {@link #alReabrir()}).
+     */
+    public static DefaultTableModel buildTableModel(ArrayList<Horario> horarios, MedicoDAO medicoDAO) {
         DefaultTableModel model = new DefaultTableModel() {
             @Override
             public boolean isCellEditable(int row, int column) {
@@ -121,8 +151,6 @@ public class HorarioReadingForm extends JDialog {
         model.addColumn("Hora Inicio");
         model.addColumn("Hora Fin");
 
-        this.tableHorarios.setModel(model);
-
         Object rowData[] = null;
 
         // Itera a través de la lista de horarios.
@@ -132,10 +160,10 @@ public class HorarioReadingForm extends JDialog {
             // Llena las celdas con los datos del horario.
             model.setValueAt(horario.getId(), i, 0);
 
-            // Obtener el nombre del médico usando MedicoDAO
+            // Obtener el nombre del médico (de la caché o usando MedicoDAO)
             String medicoNombre = "Desconocido";
             try {
-                Medico medico = medicoDAO.getById(horario.getMedicoId());
+                Medico medico = ClientCache.getInstance().getMedico(horario.getMedicoId(), medicoDAO);
                 if (medico != null) {
                     medicoNombre = medico.getNombreCompleto();
                 }
@@ -154,7 +182,7 @@ public class HorarioReadingForm extends JDialog {
             model.setValueAt(horaFinStr, i, 4);
         }
 
-        hideCol(0); // Oculta la columna del ID.
+        return model;
     }
 
     // Método privado para ocultar una columna de la tabla.
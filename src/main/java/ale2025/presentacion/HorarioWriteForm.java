@@ -2,8 +2,10 @@ package ale2025.presentacion;
 
 import ale2025.dominio.Horario;
 import ale2025.dominio.Medico;
+import ale2025.persistencia.ClientCache; // Caché de la lista de médicos.
 import ale2025.persistencia.HorarioDAO;
 import ale2025.persistencia.MedicoDAO;
+import ale2025.persistencia.VersionConflictException; // Conflicto de concurrencia optimista.
 import ale2025.utils.CUD;
 
 import com.github.lgooddatepicker.components.TimePicker;
@@ -42,8 +44,8 @@ public class HorarioWriteForm extends JDialog {
         this.cud = cud;
         this.en = horario;
         this.mainForm = mainForm;
-        horarioDAO = new HorarioDAO();
-        medicoDAO = new MedicoDAO();
+        horarioDAO = HorarioDAO.getInstance();
+        medicoDAO = MedicoDAO.getInstance();
 
         setContentPane(mainPanel);
         setModal(true);
@@ -102,7 +104,7 @@ public class HorarioWriteForm extends JDialog {
 
     private void loadMedicos() {
         try {
-            ArrayList<Medico> medicos = medicoDAO.search("");
+            ArrayList<Medico> medicos = ClientCache.getInstance().getMedicos(medicoDAO); // Precargados al iniciar sesión.
             cbMedicoId.removeAllItems();
 
             if (this.cud == CUD.CREATE || (this.cud == CUD.UPDATE && en.getMedicoId() == 0)) {
@@ -241,6 +243,13 @@ public class HorarioWriteForm extends JDialog {
                             "ERROR", JOptionPane.ERROR_MESSAGE);
                 }
             }
+        } catch (VersionConflictException ex) {
+            // Otro usuario modificó o eliminó el registro desde que se abrió el formulario.
+            JOptionPane.showMessageDialog(this,
+                    ex.getMessage(),
+                    "Registro modificado", JOptionPane.WARNING_MESSAGE);
+            this.result = true; // El formulario de lectura vuelve a buscar y muestra los datos actuales.
+            this.dispose();
         } catch (SQLException ex) {
             JOptionPane.showMessageDialog(this,
                     "Error de base de datos: " + ex.getMessage(),
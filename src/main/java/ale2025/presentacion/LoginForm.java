@@ -5,6 +5,8 @@ import java.awt.event.WindowAdapter; // Importa la clase WindowAdapter desde el
 import java.awt.event.WindowEvent; // Importa la clase WindowEvent desde el paquete java.awt.event. WindowEvent representa eventos que ocurren con las ventanas (como abrir, cerrar, minimizar, maximizar, etc.).
 
 import ale2025.dominio.User; // Importa la clase User desde el paquete esfe.dominio. Esta clase  representa la entidad de usuario con sus atributos (id, nombre, email, contraseña, estado, etc.).
+import ale2025.persistencia.AuditLog; // Importa el registro de auditoría, que anota el usuario de la sesión en cada operación.
+import ale2025.persistencia.CacheWarmup; // Importa la precarga de cachés, que se lanza mientras se verifica la contraseña.
 import ale2025.persistencia.UserDAO; // Importa la clase UserDAO desde el paquete esfe.persistencia. Esta clase se encarga de la interacción con la base de datos para la entidad User (crear, leer, actualizar, eliminar, autenticar usuarios).
 
 /**
@@ -22,11 +24,12 @@ public class LoginForm extends JDialog {
     private JButton btnSalir;
 
     private UserDAO userDAO; // Declaración de una variable de instancia llamada 'userDAO' de tipo UserDAO. Esta variable se utilizará para interactuar con la capa de acceso a datos de los usuarios (por ejemplo, para autenticar usuarios).
+    private CacheWarmup warmup; // Precarga de cachés, iniciada en el primer intento de inicio de sesión.
     private MainForm mainForm; // Declaración de una variable de instancia llamada 'mainForm' de tipo MainForm. Esta variable  representa la ventana principal de la aplicación y se utiliza para interactuar con ella (por ejemplo, para pasar información del usuario autenticado).
 
     public LoginForm(MainForm mainForm){
         this.mainForm = mainForm; // Asigna la instancia del formulario principal a la variable 'mainForm' de esta clase.
-        userDAO = new UserDAO(); // Crea una nueva instancia de la clase UserDAO. Esta clase  se encarga de la lógica de acceso a datos de los usuarios (creación, lectura, autenticación, etc.).
+        userDAO = UserDAO.getInstance(); // Obtiene la instancia de UserDAO.
         setContentPane(mainPanel); // Establece el panel principal ('mainPanel') como el contenido visible de este componente.
         setModal(true); // Establece un diálogo modal bloquea la interacción con otras ventanas de la aplicación hasta que se cierra.
         setTitle("Login"); // Establece el título de la ventana como "Login".
@@ -48,6 +51,9 @@ public class LoginForm extends JDialog {
             user.setEmail(txtEmail.getText()); // Obtiene el texto ingresado en el campo de texto 'txtEmail'  y lo establece como el correo electrónico del objeto 'user'.
             user.setPasswordHash(new String(txtPassword.getPassword())); // Obtiene la contraseña ingresada en el campo de contraseña 'txtPassword' (como un array de caracteres), la convierte a un String y la establece como la contraseña hasheada del objeto 'user'.
 
+            if (warmup == null) {
+                warmup = CacheWarmup.iniciar(); // Precarga los catálogos en hilos virtuales mientras se verifica la contraseña.
+            }
             User userAut = userDAO.authenticate(user); // Llama al método 'authenticate' del objeto 'userDAO' para verificar las credenciales del usuario contra la base de datos. El resultado (un objeto User si la autenticación es exitosa, o null si falla) se almacena en 'userAut'.
 
             // Verifica si la autenticación fue exitosa:
@@ -55,6 +61,8 @@ public class LoginForm extends JDialog {
             // 2. El ID del usuario autenticado es mayor que 0 (implica que es un usuario válido en la base de datos).
             // 3. El correo electrónico del usuario autenticado coincide con el correo electrónico ingresado.
             if(userAut != null && userAut.getId() > 0 && userAut.getEmail().equals((user.getEmail()))){
+                AuditLog.setUsuario(userAut.getEmail()); // Usuario que figurará en la auditoría de esta sesión.
+                warmup.usuarioAutenticado(userAut.getEmail()); // Agrega a la precarga los pacientes recientes del usuario.
                 this.mainForm.setUserAutenticate(userAut); // Si la autenticación es exitosa, establece el usuario autenticado en el formulario principal ('mainForm'). Esto permite que el formulario principal acceda a la información del usuario logueado.
                 this.dispose(); // Cierra la ventana de inicio de sesión actual.
             }
@@ -1,9 +1,17 @@
 package ale2025.presentacion;
 
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 import javax.swing.*;
 import ale2025.dominio.User;
 import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
+import java.util.Iterator;
 
 public class MainForm extends JFrame {
     private User userAutenticate;
@@ -32,36 +40,91 @@ public class MainForm extends JFrame {
         pack(); // Ajusta el tamaño de la ventana a sus contenidos preferidos.
         setExtendedState(JFrame.MAXIMIZED_BOTH); // Inicializa la ventana principal en estado maximizado, ocupando toda la pantalla.
 
-        createMenu(); // Llama al método 'createMenu()' para crear y agregar la barra de menú a la ventana principal.
-
         // --- Carga de la imagen en el JLabel ---
+        // Se decodifica en segundo plano; el menú se crea al mostrar la ventana (ver mostrar()).
         loadImage();
     }
 
     /**
-     * Carga la imagen 'clinicaimagen2.png' en el imageLabel.
-     * La imagen debe estar en el classpath, por ejemplo, en src/main/resources/images/.
+     * Muestra la ventana principal después del inicio de sesión, creando el menú la primera vez.
+     */
+    public void mostrar() {
+        if (getJMenuBar() == null) {
+            createMenu(); // Llama al método 'createMenu()' para crear y agregar la barra de menú a la ventana principal.
+        }
+        setVisible(true);
+    }
+
+    /**
+     * Carga la imagen 'clinicaimagen2.png' en el imageLabel sin bloquear el hilo de eventos.
+     * La imagen debe estar en el classpath, en src/main/resources/images/.
+     *
+     * La imagen original (1.5 MB) es mucho más grande que la pantalla: se decodifica en un hilo en segundo
+     * plano, reducida al área disponible para la ventana maximizada, y se asigna al JLabel cuando está lista.
      */
     private void loadImage() {
-        // La ruta de la imagen debe ser relativa al classpath.
-        // Si tu imagen está en src/main/resources/images/clinicaimagen2.png,
-        // la ruta en getResource() será /images/clinicaimagen2.png
-        URL imageUrl = getClass().getResource("images/clinicaimagen2.png");
-
-        if (imageUrl != null) {
-            ImageIcon icon = new ImageIcon(imageUrl);
-
-            // Opcional: Escalar la imagen si es demasiado grande para el JLabel.
-            // Es preferible que la imagen ya tenga un tamaño adecuado para el diseño.
-            // int desiredWidth = imageLabel.getWidth() > 0 ? imageLabel.getWidth() : 800; // Ancho deseado, o un valor por defecto
-            // int desiredHeight = imageLabel.getHeight() > 0 ? imageLabel.getHeight() : 500; // Alto deseado, o un valor por defecto
-            // Image img = icon.getImage().getScaledInstance(desiredWidth, desiredHeight, Image.SCALE_SMOOTH);
-            // imageLabel.setIcon(new ImageIcon(img));
-
-            imageLabel.setIcon(icon); // Asigna el icono al JLabel
-            imageLabel.setText(""); // Asegúrate de que el JLabel no tenga texto que pueda ocultar la imagen
-            imageLabel.setHorizontalAlignment(SwingConstants.CENTER); // Centra la imagen horizontalmente en el JLabel
-            imageLabel.setVerticalAlignment(SwingConstants.CENTER);   // Centra la imagen verticalmente en el JLabel
+        URL imageUrl = MainForm.class.getResource("/images/clinicaimagen2.png");
+        if (imageUrl == null) {
+            return;
+        }
+        Rectangle area = GraphicsEnvironment.getLocalGraphicsEnvironment().getMaximumWindowBounds();
+        Thread hilo = new Thread(() -> {
+            try {
+                BufferedImage imagen = readScaled(imageUrl, area.width, area.height);
+                if (imagen != null) {
+                    SwingUtilities.invokeLater(() -> {
+                        imageLabel.setIcon(new ImageIcon(imagen)); // Asigna el icono al JLabel
+                        imageLabel.setText(""); // Asegúrate de que el JLabel no tenga texto que pueda ocultar la imagen
+                        imageLabel.setHorizontalAlignment(SwingConstants.CENTER); // Centra la imagen horizontalmente en el JLabel
+                        imageLabel.setVerticalAlignment(SwingConstants.CENTER);   // Centra la imagen verticalmente en el JLabel
+                    });
+                }
+            } catch (IOException ex) {
+                System.err.println("No se pudo cargar la imagen principal: " + ex.getMessage());
+            }
+        }, "carga-imagen");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    /**
+     * Lee una imagen reducida para que quepa en el área indicada, conservando la proporción.
+     * El lector solo decodifica una de cada N filas y columnas (submuestreo), y el resultado se ajusta
+     * al tamaño exacto con interpolación bilineal; nunca se guarda en memoria la imagen completa.
+     *
+     * @return La imagen, o null si el formato no es reconocido.
+     */
+    static BufferedImage readScaled(URL url, int maxAncho, int maxAlto) throws IOException {
+        try (InputStream stream = url.openStream(); ImageInputStream in = ImageIO.createImageInputStream(stream)) {
+            Iterator<ImageReader> lectores = ImageIO.getImageReaders(in);
+            if (!lectores.hasNext()) {
+                return null;
+            }
+            ImageReader lector = lectores.next();
+            try {
+                lector.setInput(in, true, true);
+                int ancho = lector.getWidth(0);
+                int alto = lector.getHeight(0);
+                double escala = Math.min(1.0, Math.min((double) maxAncho / ancho, (double) maxAlto / alto));
+                int paso = Math.max(1, (int) Math.floor(1 / escala)); // Submuestreo entero que no baja del tamaño final.
+                ImageReadParam param = lector.getDefaultReadParam();
+                param.setSourceSubsampling(paso, paso, 0, 0);
+                BufferedImage leida = lector.read(0, param);
+
+                int anchoFinal = Math.max(1, (int) Math.round(ancho * escala));
+                int altoFinal = Math.max(1, (int) Math.round(alto * escala));
+                if (leida.getWidth() == anchoFinal && leida.getHeight() == altoFinal) {
+                    return leida;
+                }
+                BufferedImage reducida = new BufferedImage(anchoFinal, altoFinal, BufferedImage.TYPE_INT_ARGB);
+                Graphics2D g = reducida.createGraphics();
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.drawImage(leida, 0, 0, anchoFinal, altoFinal, null);
+                g.dispose();
+                return reducida;
+            } finally {
+                lector.dispose();
+            }
         }
     }
 
@@ -87,6 +150,7 @@ public class MainForm extends JFrame {
         itemChangeUser.addActionListener(e -> { // Agrega un ActionListener al elemento "Cambiar de usuario".
             LoginForm loginForm = new LoginForm(this); // Cuando se hace clic, crea una nueva instancia de LoginForm (ventana de inicio de sesión), pasándole la instancia actual de MainForm como padre.
             loginForm.setVisible(true); // Hace visible la ventana de inicio de sesión.
+            FormRegistry.getInstance().clear(); // Las búsquedas del usuario anterior no se muestran al nuevo.
         });
 
 
@@ -102,8 +166,8 @@ public class MainForm extends JFrame {
         JMenuItem itemUsers = new JMenuItem("Usuarios"); // Crea un nuevo elemento de menú llamado "Usuarios".
         menuMantenimiento.add(itemUsers); // Agrega el elemento "Usuarios" al menú "Mantenimientos".
         itemUsers.addActionListener(e -> { // Agrega un ActionListener al elemento "Usuarios".
-            UserReadingForm userReadingForm=new UserReadingForm(this); // Cuando se hace clic, crea una nueva instancia de UserReadingForm (formulario para leer/listar usuarios), pasándole la instancia actual de MainForm como padre.
-            userReadingForm.setVisible(true); // Hace visible el formulario de lectura de usuarios.
+            // Cuando se hace clic, muestra el formulario de lectura de usuarios; se reutiliza el ya construido si sigue en memoria.
+            FormRegistry.getInstance().mostrar(UserReadingForm.class, () -> new UserReadingForm(this));
 
         });
 
@@ -111,24 +175,21 @@ public class MainForm extends JFrame {
         JMenuItem itemPacientes = new JMenuItem("Pacientes"); // Crea un nuevo elemento de menú llamado "Pacientes".
         menuMantenimiento.add(itemPacientes); // Asume que 'menuMantenimiento' es el JMenu donde quieres agregarlo.
         itemPacientes.addActionListener(e -> {
-            PacienteReadingForm pacienteReadingForm = new PacienteReadingForm(this);
-            pacienteReadingForm.setVisible(true);
+            FormRegistry.getInstance().mostrar(PacienteReadingForm.class, () -> new PacienteReadingForm(this));
         });
 
 
         JMenuItem itemEspecialidades = new JMenuItem("Especialidades"); // Crea un nuevo elemento de menú.
         menuMantenimiento.add(itemEspecialidades); // Agrega al menú "Mantenimientos".
         itemEspecialidades.addActionListener(e -> {
-            EspecialidadReadingForm especialidadReadingForm = new EspecialidadReadingForm(this);// Hace visible el formulario de lectura de especialidades.
-            especialidadReadingForm.setVisible(true);
+            FormRegistry.getInstance().mostrar(EspecialidadReadingForm.class, () -> new EspecialidadReadingForm(this)); // Hace visible el formulario de lectura de especialidades.
         });
 
 
         JMenuItem itemMedicos = new JMenuItem("Médicos"); // Crea un nuevo elemento de menú.
         menuMantenimiento.add(itemMedicos); // Agrega al menú "Mantenimientos" (ajusta si tu menú tiene otro nombre).
         itemMedicos.addActionListener(e -> {
-            MedicoReadingForm medicoReadingForm = new MedicoReadingForm(this);
-            medicoReadingForm.setVisible(true);
+            FormRegistry.getInstance().mostrar(MedicoReadingForm.class, () -> new MedicoReadingForm(this));
         });
 
 
@@ -136,16 +197,14 @@ public class MainForm extends JFrame {
         JMenuItem itemHorarios = new JMenuItem("Horarios"); // Crea un nuevo elemento de menú.
         menuMantenimiento.add(itemHorarios); // Agrega al menú "Mantenimientos" (ajusta si tu menú tiene otro nombre).
         itemHorarios.addActionListener(e -> {
-            HorarioReadingForm horarioReadingForm = new HorarioReadingForm(this);
-            horarioReadingForm.setVisible(true);
+            FormRegistry.getInstance().mostrar(HorarioReadingForm.class, () -> new HorarioReadingForm(this));
         });
 
 
         JMenuItem itemCitas = new JMenuItem("Citas"); // Crea un nuevo elemento de menú.
         menuMantenimiento.add(itemCitas); // Agrega al menú "Mantenimientos" (ajusta si tu menú tiene otro nombre).
         itemCitas.addActionListener(e -> {
-            CitaReadingForm citaReadingForm = new CitaReadingForm(this);
-            citaReadingForm.setVisible(true);
+            FormRegistry.getInstance().mostrar(CitaReadingForm.class, () -> new CitaReadingForm(this));
         });
     }
 }
@@ -1,5 +1,7 @@
 package ale2025.presentacion;
 
+import ale2025.persistencia.AsyncDAO; // Consultas en segundo plano al reabrir el formulario.
+import ale2025.persistencia.ClientCache;   // Caché de las especialidades.
 import ale2025.persistencia.MedicoDAO;     // Importa la clase MedicoDAO.
 import ale2025.persistencia.EspecialidadDAO; // Para obtener el nombre de la especialidad
 import ale2025.dominio.Medico;       // Importa la clase Medico.
@@ -13,7 +15,7 @@ import java.awt.event.KeyEvent;         // Para eventos de teclado.
 import java.util.ArrayList;             // Para listas dinámicas.
 import java.sql.SQLException;           // Para manejo de errores SQL.
 
-public class MedicoReadingForm extends JDialog {
+public class MedicoReadingForm extends JDialog implements FormRegistry.Reutilizable {
     private JPanel mainPanel;
     private JTextField txtNombreCompleto;
     private JButton btnCreate;
@@ -27,8 +29,8 @@ public class MedicoReadingForm extends JDialog {
 
     public MedicoReadingForm(MainForm mainForm) {
         this.mainForm = mainForm;
-        medicoDAO = new MedicoDAO();
-        especialidadDAO = new EspecialidadDAO(); // Inicializa EspecialidadDAO
+        medicoDAO = MedicoDAO.getInstance();
+        especialidadDAO = EspecialidadDAO.getInstance(); // Inicializa EspecialidadDAO
         setContentPane(mainPanel);
         setModal(true);
         setTitle("Buscar Médico");
@@ -91,21 +93,49 @@ public class MedicoReadingForm extends JDialog {
         });
     }
 
+    /**
+     * Al reabrir el formulario desde {@link FormRegistry}, vuelve a ejecutar la última búsqueda en segundo
+     * plano y aplica a la tabla solo las filas que cambiaron; mientras tanto se ven los resultados anteriores.
+     */
+    @Override
+    public void alReabrir() {
+        String query = txtNombreCompleto.getText();
+        if (query.trim().isEmpty()) {
+            return;
+        }
+        TableModelDiff.refrescar(tableMedicos, AsyncDAO.of(medicoDAO).call(dao -> buildTableModel(dao.search(query), especialidadDAO)), () -> hideCol(0));
+    }
+
     // Método privado para buscar médicos.
     private void search(String query) {
+        FormLoadEvent event = FormLoadEvent.begin("MedicoReadingForm", query); // Evento JFR del ciclo de búsqueda y renderizado.
         try {
             ArrayList<Medico> medicos = medicoDAO.search(query);
             createTable(medicos); // Actualiza la tabla con los resultados.
+            event.rows(medicos.size());
         } catch (Exception ex) {
             JOptionPane.showMessageDialog(this,
                     "Error al buscar médicos: " + ex.getMessage(),
                     "ERROR", JOptionPane.ERROR_MESSAGE);
             ex.printStackTrace();
+        } finally {
+            event.commit(); // Confirmar el evento JFR (sin costo si está deshabilitado).
         }
     }
 
     // Método para crear y llenar la tabla de médicos.
     public void createTable(ArrayList<Medico> medicos) {
+        this.tableMedicos.setModel(buildTableModel(medicos, especialidadDAO)); // Asigna el modelo a la tabla.
+
+        hideCol(0); // Oculta la columna del ID.
+    }
+
+    /**
+     * Construye el modelo de la tabla de médicos, resolviendo el nombre de la especialidad de cada fila.
+     * No depende de componentes visuales, por lo que también puede construirse fuera del hilo de eventos
+     * (ver {@link #alReabrir()}).
+     */
+    public static DefaultTableModel buildTableModel(ArrayList<Medico> medicos, EspecialidadDAO especialidadDAO) {
         DefaultTableModel model = new DefaultTableModel() {
             @Override
             public boolean isCellEditable(int row, int column) {
@@ -119,8 +149,6 @@ public class MedicoReadingForm extends JDialog {
         model.addColumn("Especialidad"); // Ahora mostraremos el nombre de la especialidad
         model.addColumn("Sueldo");
 
-        this.tableMedicos.setModel(model);
-
         Object rowData[] = null;
 
         // Itera a través de la lista de médicos.
@@ -131,10 +159,10 @@ public class MedicoReadingForm extends JDialog {
             model.setValueAt(medico.getId(), i, 0);
             model.setValueAt(medico.getNombreCompleto(), i, 1);
 
-            // Obtener el nombre de la especialidad usando EspecialidadDAO
+            // Obtener el nombre de la especialidad (de la caché o usando EspecialidadDAO)
             String especialidadNombre = "Desconocida";
             try {
-                Especialidad especialidad = especialidadDAO.getById(medico.getEspecialidadId());
+                Especialidad especialidad = ClientCache.getInstance().getEspecialidad(medico.getEspecialidadId(), especialidadDAO);
                 if (especialidad != null) {
                     especialidadNombre = especialidad.getNombre();
                 }
@@ -146,7 +174,7 @@ public class MedicoReadingForm extends JDialog {
             model.setValueAt(medico.getSueldo(), i, 3);
         }
 
-        hideCol(0); // Oculta la columna del ID.
+        return model;
     }
 
     // Método privado para ocultar una columna de la tabla.
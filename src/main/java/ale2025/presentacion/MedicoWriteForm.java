@@ -2,8 +2,11 @@ package ale2025.presentacion;
 
 import ale2025.dominio.Medico;       // Importa la clase Medico.
 import ale2025.dominio.Especialidad;  // Importa la clase Especialidad para el JComboBox.
+import ale2025.persistencia.ClientCache; // Caché de la lista de especialidades.
+import ale2025.persistencia.EntidadJson; // Importa EntidadJson para invalidar la caché del cliente.
 import ale2025.persistencia.MedicoDAO;     // Importa la clase MedicoDAO.
 import ale2025.persistencia.EspecialidadDAO; // Importa la clase EspecialidadDAO para cargar el JComboBox.
+import ale2025.persistencia.VersionConflictException; // Conflicto de concurrencia optimista.
 import ale2025.utils.CUD;           // Importa el enum CUD.
 
 import javax.swing.*;               // Importa Swing para GUI.
@@ -31,8 +34,8 @@ public class MedicoWriteForm extends JDialog {
         this.cud = cud;
         this.en = medico;
         this.mainForm = mainForm;
-        medicoDAO = new MedicoDAO();
-        especialidadDAO = new EspecialidadDAO(); // Inicializa EspecialidadDAO
+        medicoDAO = MedicoDAO.getInstance();
+        especialidadDAO = EspecialidadDAO.getInstance(); // Inicializa EspecialidadDAO
 
         setContentPane(mainPanel);
         setModal(true);
@@ -70,7 +73,7 @@ public class MedicoWriteForm extends JDialog {
     // Método para cargar las especialidades en el JComboBox
     private void loadEspecialidades() {
         try {
-            ArrayList<Especialidad> especialidades = especialidadDAO.search(""); // Busca todas las especialidades
+            ArrayList<Especialidad> especialidades = ClientCache.getInstance().getEspecialidades(especialidadDAO); // Todas las especialidades (precargadas al iniciar sesión)
             cbEspecialidadId.removeAllItems(); // Limpia elementos existentes
 
             // Agrega un elemento por defecto si no es una actualización o eliminación
@@ -191,6 +194,7 @@ public class MedicoWriteForm extends JDialog {
                 }
 
                 if (r) {
+                    ClientCache.getInstance().invalidar(EntidadJson.MEDICOS); // Descarta los médicos en caché.
                     JOptionPane.showMessageDialog(this,
                             "Transacción realizada exitosamente",
                             "Información", JOptionPane.INFORMATION_MESSAGE);
@@ -202,6 +206,14 @@ public class MedicoWriteForm extends JDialog {
                             "ERROR", JOptionPane.ERROR_MESSAGE);
                 }
             }
+        } catch (VersionConflictException ex) {
+            // Otro usuario modificó o eliminó el registro desde que se abrió el formulario.
+            ClientCache.getInstance().invalidar(EntidadJson.MEDICOS);
+            JOptionPane.showMessageDialog(this,
+                    ex.getMessage(),
+                    "Registro modificado", JOptionPane.WARNING_MESSAGE);
+            this.result = true; // El formulario de lectura vuelve a buscar y muestra los datos actuales.
+            this.dispose();
         } catch (SQLException ex) {
             JOptionPane.showMessageDialog(this,
                     "Error de base de datos: " + ex.getMessage(),
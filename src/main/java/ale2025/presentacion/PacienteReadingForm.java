@@ -1,6 +1,7 @@
 package ale2025.presentacion;
 
 import ale2025.dominio.Paciente; // Importa la clase Paciente.
+import ale2025.persistencia.AsyncDAO; // Consultas en segundo plano al reabrir el formulario.
 import ale2025.persistencia.PacienteDAO; // Importa la clase PacienteDAO.
 import ale2025.utils.CUD; // Importa el enum CUD (Create, Update, Delete).
 
@@ -13,7 +14,7 @@ import java.sql.Date; // Importa java.sql.Date para el manejo de fechas desde la
 import java.util.ArrayList; // Importa ArrayList para listas dinámicas.
 import java.sql.SQLException; // Importa SQLException para manejo de errores de base de datos.
 
-public class PacienteReadingForm extends JDialog {
+public class PacienteReadingForm extends JDialog implements FormRegistry.Reutilizable {
     private JPanel mainPanel;
     private JTextField txtNombreCompleto; // Campo de texto para buscar por nombre.
     private JButton btnCreate;
@@ -23,13 +24,16 @@ public class PacienteReadingForm extends JDialog {
 
     private PacienteDAO pacienteDAO; // Instancia de PacienteDAO para operaciones de base de datos.
     private MainForm mainForm; // Referencia a la ventana principal de la aplicación.
+    private TableModelSubscriber<Paciente> busqueda; // Búsqueda en curso (se cancela al escribir otra).
+
+    private static final int FILAS_POR_BLOQUE = 500; // Filas que se piden y agregan a la tabla a la vez.
 
     // Constructor de la clase PacienteReadingForm. Recibe una instancia de MainForm.
     public PacienteReadingForm(MainForm mainForm) {
         // Llama al constructor de la clase padre JDialog.
         super(mainForm, "Gestión de Pacientes", true); // Título de la ventana.
         this.mainForm = mainForm; // Asigna la instancia de MainForm.
-        pacienteDAO = new PacienteDAO(); // Crea una nueva instancia de PacienteDAO.
+        pacienteDAO = PacienteDAO.getInstance(); // Obtiene la instancia de PacienteDAO.
 
         setContentPane(mainPanel); // Establece el panel principal.
         setModal(true); // Hace que este diálogo sea modal.
@@ -45,7 +49,10 @@ public class PacienteReadingForm extends JDialog {
                 if (!txtNombreCompleto.getText().trim().isEmpty()) {
                     search(txtNombreCompleto.getText());
                 } else {
-                    // Si el campo está vacío, limpia la tabla.
+                    // Si el campo está vacío, cancela la búsqueda en curso y limpia la tabla.
+                    if (busqueda != null) {
+                        busqueda.cancel();
+                    }
                     DefaultTableModel emptyModel = new DefaultTableModel();
                     tablePacientes.setModel(emptyModel);
                 }
@@ -103,26 +110,59 @@ public class PacienteReadingForm extends JDialog {
         });
     }
 
+    /**
+     * Al reabrir el formulario desde {@link FormRegistry}, vuelve a ejecutar la última búsqueda en segundo
+     * plano y aplica a la tabla solo las filas que cambiaron; mientras tanto se ven los resultados anteriores.
+     */
+    @Override
+    public void alReabrir() {
+        String query = txtNombreCompleto.getText();
+        if (query.trim().isEmpty()) {
+            return;
+        }
+        if (busqueda != null) {
+            busqueda.cancel(); // La consulta completa reemplaza a la búsqueda por bloques que no terminó.
+        }
+        TableModelDiff.refrescar(tablePacientes, AsyncDAO.of(pacienteDAO).call(dao -> buildTableModel(dao.search(query))), () -> hideCol(0));
+    }
+
     // Método para buscar pacientes por nombre.
+    // Las filas llegan por bloques desde el cursor de la base de datos y se agregan a la tabla a medida que
+    // se dibujan, sin bloquear el hilo de eventos ni cargar todo el resultado en memoria.
     private void search(String query) {
-        try {
-            ArrayList<Paciente> pacientes = pacienteDAO.search(query); // Llama al DAO para buscar.
-            createTable(pacientes); // Actualiza la tabla con los resultados.
-        } catch (SQLException ex) { // Captura excepciones SQL.
-            JOptionPane.showMessageDialog(null,
-                    "Error al buscar pacientes: " + ex.getMessage(),
-                    "ERROR", JOptionPane.ERROR_MESSAGE);
-            ex.printStackTrace(); // Imprime la traza para depuración.
-        } catch (Exception ex) { // Captura otras excepciones.
-            JOptionPane.showMessageDialog(null,
-                    "Ha ocurrido un error inesperado durante la búsqueda: " + ex.getMessage(),
-                    "ERROR", JOptionPane.ERROR_MESSAGE);
-            ex.printStackTrace();
+        if (busqueda != null) {
+            busqueda.cancel(); // Descartar la búsqueda anterior si aún no terminó.
         }
+        FormLoadEvent event = FormLoadEvent.begin("PacienteReadingForm", query); // Evento JFR del ciclo de búsqueda y renderizado.
+        createTable(new ArrayList<>()); // Tabla vacía; se llena a medida que llegan los bloques.
+        DefaultTableModel model = (DefaultTableModel) tablePacientes.getModel();
+        busqueda = new TableModelSubscriber<>(model, PacienteReadingForm::toRow, FILAS_POR_BLOQUE,
+                filas -> {
+                    event.rows(filas);
+                    event.commit(); // Confirmar el evento JFR (sin costo si está deshabilitado).
+                },
+                ex -> {
+                    JOptionPane.showMessageDialog(null,
+                            "Error al buscar pacientes: " + ex.getMessage(),
+                            "ERROR", JOptionPane.ERROR_MESSAGE);
+                    ex.printStackTrace(); // Imprime la traza para depuración.
+                    event.commit();
+                });
+        pacienteDAO.searchPublisher(query).subscribe(busqueda); // Llama al DAO para buscar.
     }
 
     // Método para crear y popular la tabla de pacientes.
     public void createTable(ArrayList<Paciente> pacientes) {
+        this.tablePacientes.setModel(buildTableModel(pacientes)); // Asigna el modelo a la tabla.
+
+        hideCol(0); // Oculta la columna del ID.
+    }
+
+    /**
+     * Construye el modelo de la tabla de pacientes.
+     * No depende de componentes visuales, por lo que también puede usarse sin interfaz gráfica (por ejemplo, en benchmarks).
+     */
+    public static DefaultTableModel buildTableModel(ArrayList<Paciente> pacientes) {
         DefaultTableModel model = new DefaultTableModel() {
             @Override
             public boolean isCellEditable(int row, int column) {
@@ -136,21 +176,20 @@ public class PacienteReadingForm extends JDialog {
         model.addColumn("Teléfono");
         model.addColumn("FechaNacimiento");
 
-        this.tablePacientes.setModel(model); // Asigna el modelo a la tabla.
-
-        Object row[] = null;
-
         // Itera a través de la lista de pacientes y agrega los datos a la tabla.
-        for (int i = 0; i < pacientes.size(); i++) {
-            Paciente paciente = pacientes.get(i);
-            model.addRow(row); // Agrega una nueva fila vacía.
-            model.setValueAt(paciente.getId(), i, 0); // ID
-            model.setValueAt(paciente.getNombreCompleto(), i, 1); // Nombre Completo
-            model.setValueAt(paciente.getTelefono(), i, 2); // Teléfono
-            model.setValueAt(paciente.getFechaNacimiento(), i, 3); // Fecha de Nacimiento
+        for (Paciente paciente : pacientes) {
+            model.addRow(toRow(paciente));
         }
 
-        hideCol(0); // Oculta la columna del ID.
+        return model;
+    }
+
+    /**
+     * Valores de la fila de la tabla para un paciente: ID, nombre completo, teléfono y fecha de nacimiento.
+     */
+    static Object[] toRow(Paciente paciente) {
+        return new Object[]{paciente.getId(), paciente.getNombreCompleto(),
+                paciente.getTelefono(), paciente.getFechaNacimiento()};
     }
 
     // Método para ocultar una columna en la tabla.
@@ -1,7 +1,11 @@
 package ale2025.presentacion;
 
 import ale2025.dominio.Paciente; // Importa la clase Paciente, que representa la entidad de paciente en el dominio.
+import ale2025.persistencia.ClientCache; // Caché de pacientes del cliente.
+import ale2025.persistencia.EntidadJson; // Importa EntidadJson para guardar el valor original del paciente.
 import ale2025.persistencia.PacienteDAO; // Importa la interfaz o clase PacienteDAO, que define las operaciones de acceso a datos para la entidad Paciente.
+import ale2025.persistencia.VersionConflictException; // Conflicto de concurrencia optimista.
+import ale2025.persistencia.WriteJournal; // Importa el diario de escrituras para trabajar sin conexión.
 import ale2025.utils.CUD; // Importa el enum CUD (Create, Update, Delete), para indicar el tipo de operación.
 
 import com.github.lgooddatepicker.components.DatePicker; // Importa la clase DatePicker de LGoodDatePicker.
@@ -12,6 +16,7 @@ import java.awt.*; // Importa AWT para LayoutManager y BorderLayout.
 import java.time.LocalDate; // Importa LocalDate para manejar fechas modernas de Java.
 import java.sql.Date; // Importa java.sql.Date para la conversión hacia y desde la base de datos.
 import java.sql.SQLException; // Importa SQLException para manejo de errores de base de datos.
+import java.util.Map; // Importa Map para el valor original del paciente.
 
 public class PacienteWriteForm extends JDialog {
     private JPanel mainPanel;
@@ -25,6 +30,8 @@ public class PacienteWriteForm extends JDialog {
     private MainForm mainForm; // Referencia a la ventana principal de la aplicación (se asume que existe).
     private CUD cud; // Variable para almacenar el tipo de operación (Create, Update, Delete) que se está realizando.
     private Paciente en; // Variable para almacenar el objeto Paciente que se está creando, actualizando o eliminando.
+    private Map<String, Object> original; // Valores del paciente al abrir el formulario (detección de conflictos del diario).
+    private WriteJournal diario; // Diario de escrituras, usado cuando no hay conexión con la base de datos.
 
     // Declaración de la variable para el DatePicker
     private DatePicker datePickerFechaNacimiento;
@@ -39,7 +46,10 @@ public class PacienteWriteForm extends JDialog {
         this.cud = cud; // Asigna el tipo de operación CUD.
         this.en = paciente; // Asigna el objeto Paciente.
         this.mainForm = mainForm; // Asigna la instancia de MainForm.
-        pacienteDAO = new PacienteDAO(); // Crea una nueva instancia de PacienteDAO.
+        pacienteDAO = PacienteDAO.getInstance(); // Obtiene la instancia de PacienteDAO.
+        diario = WriteJournal.getInstance(); // Obtiene el diario de escrituras.
+        // Guarda los valores antes de editarlos, para detectar si otra terminal los cambió mientras no había conexión.
+        original = cud == CUD.CREATE ? null : EntidadJson.PACIENTES.toMap(paciente);
 
         setContentPane(mainPanel); // Establece el panel principal como el contenido de este diálogo.
         setModal(true); // Hace que este diálogo sea modal.
@@ -189,32 +199,25 @@ public class PacienteWriteForm extends JDialog {
 
             // Si la validación de los controles fue exitosa.
             if (res) {
-                boolean r = false; // Variable para almacenar el resultado de la operación de la base de datos.
+                // Realiza la operación en la base de datos. Si no hay conexión, la operación se guarda en el
+                // diario local y se aplicará automáticamente cuando la conexión vuelva.
+                WriteJournal.Destino destino = diario.escribir(this.cud, EntidadJson.PACIENTES, this.en, original,
+                        this::escribirEnBase);
 
-                // Realiza la operación de la base de datos según el tipo de operación actual.
-                switch (this.cud) {
-                    case CREATE:
-                        // Caso de creación de un nuevo paciente.
-                        // Llama al método 'create' de pacienteDAO para persistir el nuevo paciente.
-                        Paciente pacienteCreado = pacienteDAO.create(this.en);
-                        // Verifica si la creación fue exitosa comprobando si el nuevo paciente tiene un ID asignado.
-                        if (pacienteCreado != null && pacienteCreado.getId() > 0) {
-                            this.en.setId(pacienteCreado.getId()); // Asigna el ID generado al objeto 'en'
-                            r = true; // Establece 'r' a true si la creación fue exitosa.
-                        }
-                        break;
-                    case UPDATE:
-                        // Caso de actualización de un paciente existente.
-                        r = pacienteDAO.update(this.en); // 'r' será true si la actualización fue exitosa.
-                        break;
-                    case DELETE:
-                        // Caso de eliminación de un paciente.
-                        r = pacienteDAO.delete(this.en); // 'r' será true si la eliminación fue exitosa.
-                        break;
+                if (destino == WriteJournal.Destino.DIARIO) {
+                    ClientCache.getInstance().invalidar(EntidadJson.PACIENTES); // Descarta los pacientes en caché.
+                    JOptionPane.showMessageDialog(this,
+                            "Sin conexión con la base de datos: la transacción se guardó localmente\n" +
+                                    "y se aplicará al volver la conexión",
+                            "Información", JOptionPane.INFORMATION_MESSAGE);
+                    this.dispose(); // Cierra la ventana actual.
+                    return;
                 }
+                boolean r = destino == WriteJournal.Destino.BASE_DE_DATOS;
 
                 // Si la operación de la base de datos fue exitosa.
                 if (r) {
+                    ClientCache.getInstance().invalidar(EntidadJson.PACIENTES); // Descarta los pacientes en caché.
                     JOptionPane.showMessageDialog(this,
                             "Transacción realizada exitosamente",
                             "Información", JOptionPane.INFORMATION_MESSAGE);
@@ -234,6 +237,14 @@ public class PacienteWriteForm extends JDialog {
                 //         "Validación", JOptionPane.WARNING_MESSAGE);
                 return; // Sale del método.
             }
+        } catch (VersionConflictException ex) {
+            // Otro usuario modificó o eliminó el registro desde que se abrió el formulario.
+            ClientCache.getInstance().invalidar(EntidadJson.PACIENTES);
+            JOptionPane.showMessageDialog(this,
+                    ex.getMessage(),
+                    "Registro modificado", JOptionPane.WARNING_MESSAGE);
+            this.result = true; // El formulario de lectura vuelve a buscar y muestra los datos actuales.
+            this.dispose();
         } catch (SQLException ex) {
             // Captura cualquier excepción SQL que ocurra.
             JOptionPane.showMessageDialog(this,
@@ -251,6 +262,36 @@ public class PacienteWriteForm extends JDialog {
         }
     }
 
+    /**
+     * Realiza la operación directamente en la base de datos según el tipo de operación actual.
+     *
+     * @return true si la operación afectó alguna fila.
+     */
+    private boolean escribirEnBase() throws SQLException {
+        boolean r = false; // Variable para almacenar el resultado de la operación de la base de datos.
+        switch (this.cud) {
+            case CREATE:
+                // Caso de creación de un nuevo paciente.
+                // Llama al método 'create' de pacienteDAO para persistir el nuevo paciente.
+                Paciente pacienteCreado = pacienteDAO.create(this.en);
+                // Verifica si la creación fue exitosa comprobando si el nuevo paciente tiene un ID asignado.
+                if (pacienteCreado != null && pacienteCreado.getId() > 0) {
+                    this.en.setId(pacienteCreado.getId()); // Asigna el ID generado al objeto 'en'
+                    r = true; // Establece 'r' a true si la creación fue exitosa.
+                }
+                break;
+            case UPDATE:
+                // Caso de actualización de un paciente existente.
+                r = pacienteDAO.update(this.en); // 'r' será true si la actualización fue exitosa.
+                break;
+            case DELETE:
+                // Caso de eliminación de un paciente.
+                r = pacienteDAO.delete(this.en); // 'r' será true si la eliminación fue exitosa.
+                break;
+        }
+        return r;
+    }
+
     // --- Métodos adicionales que podrías necesitar ---
     // Si tu MainForm necesita saber si el diálogo se cerró con éxito (OK/Guardar)
     private boolean result = false;
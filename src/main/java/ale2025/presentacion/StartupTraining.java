@@ -0,0 +1,116 @@
+package ale2025.presentacion;
+
+import ale2025.persistencia.ClientCache;
+import ale2025.persistencia.ConnectionManager;
+import ale2025.persistencia.DaoMetrics;
+
+import com.github.lgooddatepicker.components.DatePicker;
+import com.github.lgooddatepicker.components.DatePickerSettings;
+import com.github.lgooddatepicker.components.TimePicker;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+/**
+ * Ejecución de entrenamiento para el archivo de clases compartidas (AppCDS) del cliente de escritorio.
+ *
+ * Recorre el flujo de inicio de sesión y apertura de formularios sin depender de la base de datos: muestra
+ * el formulario principal (con su menú) y el de inicio de sesión, carga las clases de todos los formularios,
+ * construye y hace visibles los componentes que estos usan (tablas, combos, DatePicker y TimePicker de
+ * LGoodDatePicker, JOptionPane) y carga el driver de SQL Server intentando conectarse a un puerto local
+ * cerrado, lo que falla de inmediato pero carga sus clases de conexión. Se ejecuta con el comando
+ * entrenar-cds y -XX:ArchiveClassesAtExit (ver el perfil cds del pom y el lanzador).
+ *
+ * En un entorno sin pantalla (headless) se omiten las ventanas y solo se cargan las clases.
+ */
+public final class StartupTraining {
+    private static final String[] FORMULARIOS = {
+            "LoginForm", "MainForm", "ChangePasswordForm",
+            "UserReadingForm", "UserWriteForm", "PacienteReadingForm", "PacienteWriteForm",
+            "EspecialidadReadingForm", "EspecialidadWriteForm", "MedicoReadingForm", "MedicoWriteForm",
+            "HorarioReadingForm", "HorarioWriteForm", "CitaReadingForm", "CitaWriteForm",
+            "TableModelSubscriber", "FormLoadEvent"
+    };
+
+    private StartupTraining() {
+    }
+
+    /**
+     * Ejecuta el entrenamiento. Debe llamarse fuera del hilo de eventos.
+     */
+    public static void run() throws Exception {
+        long inicio = System.nanoTime();
+        for (String nombre : FORMULARIOS) {
+            Class.forName(StartupTraining.class.getPackageName() + "." + nombre);
+        }
+        if (!GraphicsEnvironment.isHeadless()) {
+            SwingUtilities.invokeAndWait(StartupTraining::ventanas);
+            SwingUtilities.invokeAndWait(() -> { }); // Espera a que se procesen las pinturas pendientes.
+        } else {
+            componentes(); // Sin pantalla: se construyen los componentes, pero no se muestran.
+        }
+        ConnectionManager.cargarDriver();
+        try {
+            DriverManager.getConnection("jdbc:sqlserver://127.0.0.1:1;loginTimeout=1;encrypt=false").close();
+        } catch (SQLException esperado) {
+            // No hay servidor: solo interesa que se carguen las clases de conexión del driver.
+        }
+        DaoMetrics.getInstance();
+        ClientCache.getInstance();
+        System.out.println("Entrenamiento de CDS completado en "
+                + (System.nanoTime() - inicio) / 1_000_000 + " ms");
+    }
+
+    private static void ventanas() {
+        try {
+            MainForm mainForm = new MainForm();
+            mainForm.mostrar();
+            LoginForm loginForm = new LoginForm(mainForm);
+            loginForm.setModal(false); // Se muestra sin bloquear el entrenamiento.
+            loginForm.setVisible(true);
+            loginForm.dispose();
+            mainForm.dispose();
+        } catch (RuntimeException ex) {
+            // Por ejemplo, si los formularios no fueron compilados con su diseño (.form).
+            System.err.println("Entrenamiento de CDS: no se pudieron mostrar los formularios: " + ex);
+        }
+        JDialog dialogo = new JDialog();
+        dialogo.setContentPane(componentes());
+        dialogo.pack();
+        dialogo.setVisible(true);
+        dialogo.dispose();
+        new JOptionPane("Entrenamiento", JOptionPane.INFORMATION_MESSAGE).createDialog("ALE2025").dispose();
+    }
+
+    /**
+     * Construye un panel con los componentes que usan los formularios de lectura y escritura.
+     */
+    private static JPanel componentes() {
+        DefaultTableModel modelo = new DefaultTableModel(new Object[]{"Id", "Nombre", "Fecha"}, 0);
+        modelo.addRow(new Object[]{1, "Paciente", LocalDate.now().toString()});
+        JTable tabla = new JTable(modelo);
+        tabla.setAutoCreateRowSorter(true);
+
+        DatePickerSettings ajustes = new DatePickerSettings();
+        ajustes.setFormatForDatesCommonEra("dd/MM/yyyy");
+        DatePicker fecha = new DatePicker(ajustes);
+        fecha.setDate(LocalDate.now());
+
+        JPanel panel = new JPanel(new BorderLayout());
+        JPanel controles = new JPanel(new FlowLayout());
+        controles.add(new JLabel("Nombre"));
+        controles.add(new JTextField(20));
+        controles.add(new JPasswordField(10));
+        controles.add(new JComboBox<>(new String[]{"Uno", "Dos"}));
+        controles.add(fecha);
+        controles.add(new TimePicker());
+        controles.add(new JButton("Aceptar"));
+        panel.add(controles, BorderLayout.NORTH);
+        panel.add(new JScrollPane(tabla), BorderLayout.CENTER);
+        return panel;
+    }
+}
@@ -0,0 +1,139 @@
+package ale2025.presentacion;
+
+import ale2025.utils.IntIntMap;
+import ale2025.utils.IntSet;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import javax.swing.table.TableModel;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Actualiza el modelo que ya muestra una tabla con las filas de un modelo nuevo, aplicando solo las
+ * diferencias: se quitan las filas que ya no están, se cambian las celdas distintas y se insertan las
+ * filas nuevas en su posición, de modo que la tabla queda en el mismo orden que el modelo nuevo. Si las
+ * filas que se conservan cambiaron de orden entre sí, no se aplican diferencias (se reemplaza el modelo).
+ * Las filas se identifican por el valor de la columna 0 (el ID entero, oculto en los
+ * formularios), que se indexa con colecciones de int para no encapsular cada ID.
+ *
+ * Así, al reabrir un formulario reutilizado (ver {@link FormRegistry}), la tabla conserva su selección
+ * y desplazamiento, y solo se redibujan las filas que cambiaron.
+ */
+final class TableModelDiff {
+
+    private TableModelDiff() {
+    }
+
+    /**
+     * Aplica al modelo destino las diferencias con el modelo origen. Debe llamarse en el hilo de eventos.
+     *
+     * @return La cantidad de filas quitadas, cambiadas o agregadas; -1 si los modelos no tienen las mismas
+     * columnas, alguna fila no tiene un ID entero, el origen repite un ID o las filas que se conservan
+     * están en otro orden (en esos casos no se modifica el destino).
+     */
+    static int aplicar(DefaultTableModel destino, TableModel origen) {
+        int columnas = destino.getColumnCount();
+        if (columnas == 0 || columnas != origen.getColumnCount()) {
+            return -1;
+        }
+        for (int c = 0; c < columnas; c++) {
+            if (!destino.getColumnName(c).equals(origen.getColumnName(c))) {
+                return -1;
+            }
+        }
+
+        for (int r = 0; r < destino.getRowCount(); r++) {
+            if (!(destino.getValueAt(r, 0) instanceof Integer)) {
+                return -1;
+            }
+        }
+        IntIntMap nuevas = new IntIntMap(origen.getRowCount()); // ID -> fila en el origen.
+        for (int r = 0; r < origen.getRowCount(); r++) {
+            Object id = origen.getValueAt(r, 0);
+            if (!(id instanceof Integer)) {
+                return -1;
+            }
+            if (nuevas.put((Integer) id, r, -1) >= 0) {
+                return -1; // ID repetido: no se puede ubicar cada fila.
+            }
+        }
+
+        // Las filas que se conservan deben estar en el mismo orden que en el origen; si no, se reemplaza el modelo.
+        // Se recorre de atrás hacia adelante, como abajo: de un ID repetido se conserva la última fila.
+        IntSet vistas = new IntSet(destino.getRowCount());
+        int siguiente = Integer.MAX_VALUE;
+        for (int r = destino.getRowCount() - 1; r >= 0; r--) {
+            int id = (Integer) destino.getValueAt(r, 0);
+            int fila = nuevas.getOrDefault(id, -1);
+            if (fila >= 0 && vistas.add(id)) {
+                if (fila > siguiente) {
+                    return -1;
+                }
+                siguiente = fila;
+            }
+        }
+
+        int cambios = 0;
+        IntSet presentes = new IntSet(destino.getRowCount());
+        for (int r = destino.getRowCount() - 1; r >= 0; r--) { // De atrás hacia adelante para poder quitar filas.
+            int id = (Integer) destino.getValueAt(r, 0);
+            int fila = nuevas.getOrDefault(id, -1);
+            if (fila < 0 || !presentes.add(id)) {
+                destino.removeRow(r);
+                cambios++;
+                continue;
+            }
+            boolean cambio = false;
+            for (int c = 1; c < columnas; c++) {
+                Object valor = origen.getValueAt(fila, c);
+                if (!Objects.equals(destino.getValueAt(r, c), valor)) {
+                    destino.setValueAt(valor, r, c);
+                    cambio = true;
+                }
+            }
+            if (cambio) {
+                cambios++;
+            }
+        }
+
+        // Las filas conservadas ya están en el orden del origen: cada fila nueva se inserta en su posición.
+        for (int r = 0; r < origen.getRowCount(); r++) {
+            if (!presentes.contains((Integer) origen.getValueAt(r, 0))) {
+                Object[] valores = new Object[columnas];
+                for (int c = 0; c < columnas; c++) {
+                    valores[c] = origen.getValueAt(r, c);
+                }
+                destino.insertRow(r, valores);
+                cambios++;
+            }
+        }
+        return cambios;
+    }
+
+    /**
+     * Refresca una tabla en segundo plano: cuando el modelo nuevo está listo, aplica las diferencias en el
+     * hilo de eventos. Si mientras tanto la tabla cambió de modelo (el usuario hizo otra búsqueda), el
+     * resultado se descarta; si las columnas no coinciden, se reemplaza el modelo completo.
+     *
+     * @param modelo Modelo nuevo, construido fuera del hilo de eventos (por ejemplo, con AsyncDAO).
+     * @param alReemplazar Se ejecuta después de reemplazar el modelo (por ejemplo, para ocultar la columna del ID).
+     */
+    static void refrescar(JTable tabla, CompletableFuture<DefaultTableModel> modelo, Runnable alReemplazar) {
+        TableModel actual = tabla.getModel();
+        modelo.whenComplete((nuevo, ex) -> SwingUtilities.invokeLater(() -> {
+            if (ex != null) {
+                // La tabla conserva los datos anteriores; el error se verá en la próxima búsqueda.
+                System.err.println("No se pudo refrescar la tabla: " + ex.getMessage());
+                return;
+            }
+            if (tabla.getModel() != actual) {
+                return;
+            }
+            if (!(actual instanceof DefaultTableModel) || aplicar((DefaultTableModel) actual, nuevo) < 0) {
+                tabla.setModel(nuevo);
+                alReemplazar.run();
+            }
+        }));
+    }
+}
@@ -0,0 +1,117 @@
+package ale2025.presentacion;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.util.ArrayList;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+
+/**
+ * Suscriptor que agrega a un DefaultTableModel, por bloques, las filas emitidas por un
+ * publicador de búsqueda de los DAOs (por ejemplo, PacienteDAO.searchPublisher).
+ *
+ * La demanda la marca el hilo de eventos de Swing: se pide el siguiente bloque solo después de
+ * agregar el anterior a la tabla. Si la tabla no alcanza a dibujar, el publicador deja de leer
+ * del cursor en lugar de acumular el resultado completo en memoria.
+ *
+ * Los callbacks onDone y onError se ejecutan en el hilo de eventos de Swing.
+ */
+class TableModelSubscriber<T> implements Flow.Subscriber<T> {
+    private final DefaultTableModel model;
+    private final Function<T, Object[]> toRow;
+    private final int bloque;
+    private final IntConsumer onDone;
+    private final Consumer<Throwable> onError;
+
+    private volatile Flow.Subscription subscription; // Se asigna en el hilo del publicador y se lee en el EDT.
+    private ArrayList<Object[]> pendientes;
+    private int recibidas;                 // Filas del bloque pedido ya recibidas (hilo del publicador).
+    private volatile boolean cancelado;
+    private int filas;                     // Filas agregadas al modelo (hilo de eventos de Swing).
+
+    /**
+     * @param model Modelo al que se agregan las filas.
+     * @param toRow Convierte un objeto en los valores de una fila del modelo.
+     * @param bloque Cantidad de filas que se piden y agregan a la vez.
+     * @param onDone Se llama al terminar con el total de filas agregadas.
+     * @param onError Se llama si la búsqueda falla.
+     */
+    TableModelSubscriber(DefaultTableModel model, Function<T, Object[]> toRow, int bloque,
+                         IntConsumer onDone, Consumer<Throwable> onError) {
+        this.model = model;
+        this.toRow = toRow;
+        this.bloque = bloque;
+        this.onDone = onDone;
+        this.onError = onError;
+        this.pendientes = new ArrayList<>(bloque);
+    }
+
+    /**
+     * Cancela la búsqueda (por ejemplo, porque el usuario escribió otra). Las filas que aún no se
+     * agregaron al modelo se descartan y no se llama a onDone ni a onError.
+     */
+    void cancel() {
+        cancelado = true;
+        if (subscription != null) {
+            subscription.cancel();
+        }
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        if (cancelado) {
+            subscription.cancel();
+            return;
+        }
+        subscription.request(bloque);
+    }
+
+    @Override
+    public void onNext(T item) {
+        pendientes.add(toRow.apply(item));
+        if (++recibidas == bloque) {
+            recibidas = 0;
+            // El siguiente bloque se pide desde el EDT, después de agregar este a la tabla.
+            entregar(true);
+        }
+    }
+
+    @Override
+    public void onComplete() {
+        entregar(false);
+        SwingUtilities.invokeLater(() -> {
+            if (!cancelado) {
+                onDone.accept(filas);
+            }
+        });
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        SwingUtilities.invokeLater(() -> {
+            if (!cancelado) {
+                onError.accept(throwable);
+            }
+        });
+    }
+
+    private void entregar(boolean pedirMas) {
+        ArrayList<Object[]> lote = pendientes;
+        pendientes = new ArrayList<>(bloque);
+        SwingUtilities.invokeLater(() -> {
+            if (cancelado) {
+                return;
+            }
+            for (Object[] fila : lote) {
+                model.addRow(fila);
+            }
+            filas += lote.size();
+            if (pedirMas) {
+                subscription.request(bloque);
+            }
+        });
+    }
+}
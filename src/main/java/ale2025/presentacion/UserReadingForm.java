@@ -1,5 +1,6 @@
 package ale2025.presentacion;
 
+import ale2025.persistencia.AsyncDAO; // Consultas en segundo plano al reabrir el formulario.
 import ale2025.persistencia.UserDAO; // Importa la interfaz o clase UserDAO, que define las operaciones de acceso a datos para la entidad User.
 
 import javax.swing.*; // Importa el paquete Swing, que proporciona clases para crear interfaces gráficas de usuario.
@@ -11,7 +12,7 @@ import java.awt.event.KeyAdapter; // Importa la clase KeyAdapter, una clase adap
 import java.awt.event.KeyEvent; // Importa la clase KeyEvent, que representa un evento de teclado.
 import java.util.ArrayList; // Importa la clase ArrayList, una implementación de la interfaz List que permite almacenar colecciones dinámicas de objetos.
 
-public class UserReadingForm extends JDialog {
+public class UserReadingForm extends JDialog implements FormRegistry.Reutilizable {
     private JPanel mainPanel;
     private JTextField txtName;
     private JButton btnCreate;
@@ -25,7 +26,7 @@ public class UserReadingForm extends JDialog {
     // Constructor de la clase UserReadingForm. Recibe una instancia de MainForm como parámetro.
     public UserReadingForm(MainForm mainForm) {
         this.mainForm = mainForm; // Asigna la instancia de MainForm recibida a la variable local.
-        userDAO = new UserDAO(); // Crea una nueva instancia de UserDAO al instanciar este formulario.
+        userDAO = UserDAO.getInstance(); // Obtiene la instancia de UserDAO.
         setContentPane(mainPanel); // Establece el panel principal como el contenido de este diálogo.
         setModal(true); // Hace que este diálogo sea modal, bloqueando la interacción con la ventana principal hasta que se cierre.
         setTitle("Buscar Usuario"); // Establece el título de la ventana del diálogo.
@@ -92,7 +93,22 @@ public class UserReadingForm extends JDialog {
             }
         });
     }
+
+    /**
+     * Al reabrir el formulario desde {@link FormRegistry}, vuelve a ejecutar la última búsqueda en segundo
+     * plano y aplica a la tabla solo las filas que cambiaron; mientras tanto se ven los resultados anteriores.
+     */
+    @Override
+    public void alReabrir() {
+        String query = txtName.getText();
+        if (query.trim().isEmpty()) {
+            return;
+        }
+        TableModelDiff.refrescar(tableUsers, AsyncDAO.of(userDAO).call(dao -> buildTableModel(dao.search(query))), () -> hideCol(0));
+    }
+
     private void search(String query) {
+        FormLoadEvent event = FormLoadEvent.begin("UserReadingForm", query); // Evento JFR del ciclo de búsqueda y renderizado.
         try {
             // Llama al método 'search' del UserDAO para buscar usuarios cuya información
             // coincida con la cadena de búsqueda 'query'. La implementación específica
@@ -100,6 +116,7 @@ public class UserReadingForm extends JDialog {
             // Llama al método 'createTable' para actualizar la tabla de usuarios
             // en la interfaz gráfica con los resultados de la búsqueda.
             createTable(users);
+            event.rows(users.size());
         } catch (Exception ex) {
             // Captura cualquier excepción que ocurra durante el proceso de búsqueda
             // (por ejemplo, errores de base de datos).
@@ -107,9 +124,22 @@ public class UserReadingForm extends JDialog {
                     ex.getMessage(),
                     "ERROR", JOptionPane.ERROR_MESSAGE); // Muestra un mensaje de error al usuario.
             return; // Sale del método 'search' después de mostrar el error.
+        } finally {
+            event.commit(); // Confirmar el evento JFR (sin costo si está deshabilitado).
         }
     }
     public void createTable(ArrayList<User> users) {
+        this.tableUsers.setModel(buildTableModel(users)); // Asigna el modelo a la tabla.
+
+        hideCol(0); // Oculta la columna del ID.
+    }
+
+    /**
+     * Construye el modelo de la tabla de usuarios.
+     * No depende de componentes visuales, por lo que también puede construirse fuera del hilo de eventos
+     * (ver {@link #alReabrir()}).
+     */
+    public static DefaultTableModel buildTableModel(ArrayList<User> users) {
 
         // Crea un nuevo modelo de tabla por defecto (DefaultTableModel).
         // Se sobrescribe el método isCellEditable para hacer que todas las celdas de la tabla no sean editables.
@@ -127,9 +157,6 @@ public class UserReadingForm extends JDialog {
         model.addColumn("Email");
         model.addColumn("Estatus");
 
-        // Establece el modelo de tabla creado como el modelo de datos para la
-        // JTable 'tableUsers' (la tabla que se muestra en la interfaz gráfica).
-        this.tableUsers.setModel(model);
 
         // Declara un array de objetos 'row' que se utilizará temporalmente para agregar filas.
         Object row[] = null;
@@ -151,9 +178,7 @@ public class UserReadingForm extends JDialog {
             model.setValueAt(user.getStrEstatus(), i, 3);
         }
 
-        // Llama al método 'hideCol' para ocultar la columna con índice 0 (la columna del ID).
-        // Esto es común cuando el ID es necesario internamente pero no se quiere mostrar al usuario.
-        hideCol(0);
+        return model;
     }
 
     private void hideCol(int pColumna) {
@@ -1,6 +1,7 @@
 package ale2025.presentacion;
 
 import ale2025.persistencia.UserDAO; // Importa la interfaz o clase UserDAO, que define las operaciones de acceso a datos para la entidad User.
+import ale2025.persistencia.VersionConflictException; // Conflicto de concurrencia optimista.
 import ale2025.utils.CBOption; // Importa la clase CBOption, probablemente una clase utilitaria para manejar opciones de un ComboBox (por ejemplo, para asociar un valor con un texto).
 import ale2025.utils.CUD; // Importa el enum CUD (Create, Update, Delete),  para indicar el tipo de operación que se está realizando (Crear, Actualizar, Eliminar).
 
@@ -29,7 +30,7 @@ public class UserWriteForm extends JDialog {
         this.cud = cud; // Asigna el tipo de operación CUD recibida a la variable local 'cud'.
         this.en = user; // Asigna el objeto User recibido a la variable local 'en'.
         this.mainForm = mainForm; // Asigna la instancia de MainForm recibida a la variable local 'mainForm'.
-        userDAO = new UserDAO(); // Crea una nueva instancia de UserDAO al instanciar este formulario.
+        userDAO = UserDAO.getInstance(); // Obtiene la instancia de UserDAO.
         setContentPane(mainPanel); // Establece el panel principal como el contenido de este diálogo.
         setModal(true); // Hace que este diálogo sea modal, bloqueando la interacción con la ventana principal hasta que se cierre.
         init(); // Llama al método 'init' para inicializar y configure the form based on 'cud'
@@ -235,6 +236,12 @@ public class UserWriteForm extends JDialog {
                         "Validación", JOptionPane.WARNING_MESSAGE);
                 return; // Sale del método.
             }
+        } catch (VersionConflictException ex) {
+            // Otro usuario modificó o eliminó el registro desde que se abrió el formulario.
+            JOptionPane.showMessageDialog(null,
+                    ex.getMessage(),
+                    "Registro modificado", JOptionPane.WARNING_MESSAGE);
+            this.dispose();
         } catch (Exception ex) {
             // Captura cualquier excepción que ocurra durante el proceso (por ejemplo, errores de base de datos).
             JOptionPane.showMessageDialog(null,
@@ -0,0 +1,462 @@
+package ale2025.servidor;
+
+import ale2025.dominio.User;
+import ale2025.persistencia.AuditLog;
+import ale2025.persistencia.CitaDAO;
+import ale2025.persistencia.Dao;
+import ale2025.persistencia.DaoMetrics;
+import ale2025.persistencia.EntidadJson;
+import ale2025.persistencia.EntityCache;
+import ale2025.persistencia.EspecialidadDAO;
+import ale2025.persistencia.HorarioDAO;
+import ale2025.persistencia.MedicoDAO;
+import ale2025.persistencia.PacienteDAO;
+import ale2025.persistencia.UserDAO;
+import ale2025.persistencia.VersionConflictException;
+import ale2025.utils.Json;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Servidor HTTP con una API JSON sobre los DAOs, para que todas las terminales compartan un único
+ * grupo de conexiones a SQL Server y una única caché de entidades.
+ *
+ * Cada petición se atiende en su propio hilo virtual. Rutas (entidad = citas, pacientes, medicos,
+ * especialidades, horarios o usuarios):
+ * - GET    /api/{entidad}?q=texto   : búsqueda; responde JSON Lines (una entidad por línea) a medida
+ *                                    que avanza el cursor, sin cargar el resultado en memoria.
+ * - GET    /api/{entidad}/{id}      : entidad por ID (desde la caché si está), o 404.
+ * - POST   /api/{entidad}           : crea la entidad; responde la entidad creada (201).
+ * - PUT    /api/{entidad}/{id}      : modifica la entidad si su "version" sigue siendo la del cuerpo;
+ *                                    responde {"ok": true|false}.
+ * - DELETE /api/{entidad}/{id}?version=n : elimina la entidad si su versión sigue siendo n (obligatoria:
+ *                                    sin ella se responde 400); responde {"ok": true|false}.
+ * - POST   /api/usuarios/autenticar : {"email", "password"}; responde el usuario o 401.
+ * - PUT    /api/usuarios/{id}/password : {"password", "version"}; cambia la contraseña si la versión del
+ *                                    usuario sigue siendo la del cuerpo; responde {"ok": true|false}.
+ * - GET    /api/estado              : métricas de los DAOs y tamaño de las cachés (texto).
+ *
+ * Los errores se responden como {"error": "mensaje"} con el código 400 (petición inválida),
+ * 401 (token incorrecto), 403 (modificación de usuarios sin token configurado), 404, 409 (la entidad cambió desde que se leyó; el cuerpo incluye además
+ * "entidad", "id" y "eliminada") o 500 (error de base de datos).
+ *
+ * Las escrituras se registran en la auditoría del servidor (ver AuditLog) con el usuario de la cabecera
+ * X-Usuario, que envía cada terminal con el de su sesión; las terminales no llevan auditoría propia.
+ *
+ * Las búsquedas no llenan la caché (una búsqueda amplia desplazaría a las entidades consultadas por ID), y
+ * cada caché retiene a lo sumo ale2025.api.cacheEntradas entidades.
+ *
+ * Configuración (propiedades del sistema):
+ * - ale2025.api.host  : dirección en la que se escucha (por defecto 127.0.0.1; 0.0.0.0 para toda la red).
+ * - ale2025.api.token : si está definida, se exige en la cabecera X-Api-Token de cada petición. Es
+ *                       obligatoria para escuchar en una dirección que no sea la de loopback, y sin ella
+ *                       no se pueden crear, modificar ni eliminar usuarios ni cambiar contraseñas.
+ * - ale2025.api.cacheEntradas : entidades que retiene la caché de cada entidad (por defecto 10000).
+ * - ale2025.cache.ttlSeconds  : segundos que vive cada entidad en la caché (por defecto 300, igual que en
+ *                       ClientCache). Vencen porque no todas las escrituras pasan por el servidor: el
+ *                       importador, el archivado de citas, el diario o las terminales con conexión directa.
+ */
+public final class ApiServer {
+    private static final int LOTE = 64; // Filas que se piden al cursor a la vez al responder una búsqueda.
+    private static final int CACHE_ENTRADAS = Integer.getInteger("ale2025.api.cacheEntradas", 10_000);
+    private static final long CACHE_VIGENCIA_MS = TimeUnit.SECONDS.toMillis(Long.getLong("ale2025.cache.ttlSeconds", 300));
+
+    private final HttpServer server;
+    private final String token;
+    private final Map<String, Recurso<?>> recursos = new LinkedHashMap<>();
+    private final UserDAO userDAO = new UserDAO();
+
+    private ApiServer(HttpServer server, String token) {
+        this.server = server;
+        this.token = token;
+        // Los DAOs se crean directamente (JDBC): el servidor nunca trabaja contra otro servidor.
+        registrar(EntidadJson.CITAS, new CitaDAO());
+        registrar(EntidadJson.PACIENTES, new PacienteDAO());
+        registrar(EntidadJson.MEDICOS, new MedicoDAO());
+        registrar(EntidadJson.ESPECIALIDADES, new EspecialidadDAO());
+        registrar(EntidadJson.HORARIOS, new HorarioDAO());
+        registrar(EntidadJson.USUARIOS, userDAO);
+    }
+
+    /**
+     * Inicia el servidor en el puerto indicado.
+     *
+     * @return El servidor en ejecución (detener con {@link #stop()}).
+     * @throws IOException Si no se puede abrir el puerto.
+     * @throws IllegalStateException Si se pide escuchar fuera de loopback sin ale2025.api.token.
+     */
+    public static ApiServer start(int puerto) throws IOException {
+        String host = System.getProperty("ale2025.api.host", "127.0.0.1");
+        String token = System.getProperty("ale2025.api.token");
+        InetSocketAddress direccion = new InetSocketAddress(host, puerto);
+        if ((token == null || token.isBlank())
+                && (direccion.isUnresolved() || !direccion.getAddress().isLoopbackAddress())) {
+            throw new IllegalStateException("Para escuchar en " + host
+                    + " se debe definir el token de la API (-Dale2025.api.token=...)");
+        }
+        HttpServer http = HttpServer.create(direccion, 0);
+        ApiServer api = new ApiServer(http, token);
+        http.createContext("/api/", api::atender);
+        http.setExecutor(Executors.newVirtualThreadPerTaskExecutor()); // Un hilo virtual por petición.
+        http.start();
+        return api;
+    }
+
+    public void stop() {
+        server.stop(1);
+    }
+
+    /**
+     * @return El puerto en el que escucha el servidor (útil si se inició con el puerto 0).
+     */
+    public int getPuerto() {
+        return server.getAddress().getPort();
+    }
+
+    private <T> void registrar(EntidadJson<T> tipo, Dao<T> dao) {
+        recursos.put(tipo.getNombre(), new Recurso<>(tipo, dao, new EntityCache<>(CACHE_VIGENCIA_MS, CACHE_ENTRADAS)));
+    }
+
+    private void atender(HttpExchange ex) throws IOException {
+        try {
+            boolean conToken = token != null && !token.isBlank();
+            if (conToken && !token.equals(ex.getRequestHeaders().getFirst("X-Api-Token"))) {
+                responderError(ex, 401, "Token inválido");
+                return;
+            }
+            // Las escrituras las audita el DAO en este hilo, con el usuario de la sesión de la terminal.
+            AuditLog.setUsuarioDelHilo(ex.getRequestHeaders().getFirst("X-Usuario"));
+            // /api/{entidad}[/{id}[/password]] o /api/usuarios/autenticar
+            String[] partes = ex.getRequestURI().getPath().substring("/api/".length()).split("/");
+            String metodo = ex.getRequestMethod();
+            // Crear usuarios o cambiar contraseñas sin autenticación permitiría tomar cualquier cuenta.
+            boolean autenticacion = partes.length == 2 && partes[1].equals("autenticar");
+            if (!conToken && partes[0].equals("usuarios") && !metodo.equals("GET") && !autenticacion) {
+                responderError(ex, 403, "Modificar usuarios requiere el token de la API (ale2025.api.token)");
+                return;
+            }
+            if (partes.length == 1 && partes[0].equals("estado") && metodo.equals("GET")) {
+                responderTexto(ex, estado());
+                return;
+            }
+            Recurso<?> recurso = recursos.get(partes[0]);
+            if (recurso == null) {
+                responderError(ex, 404, "Recurso desconocido: " + partes[0]);
+                return;
+            }
+            if (partes.length == 1) {
+                switch (metodo) {
+                    case "GET":
+                        buscar(ex, recurso, parametro(ex, "q"));
+                        return;
+                    case "POST":
+                        responderJson(ex, 201, recurso.crear(leerJson(ex)));
+                        return;
+                    default:
+                        responderError(ex, 405, "Método no permitido");
+                        return;
+                }
+            }
+            if (partes[0].equals("usuarios") && partes.length == 2 && partes[1].equals("autenticar")
+                    && metodo.equals("POST")) {
+                autenticar(ex);
+                return;
+            }
+            int id = Integer.parseInt(partes[1]);
+            if (partes[0].equals("usuarios") && partes.length == 3 && partes[2].equals("password")
+                    && metodo.equals("PUT")) {
+                cambiarPassword(ex, id);
+                return;
+            }
+            if (partes.length != 2) {
+                responderError(ex, 404, "Ruta desconocida");
+                return;
+            }
+            switch (metodo) {
+                case "GET": {
+                    Map<String, Object> entidad = recurso.obtener(id);
+                    if (entidad == null) {
+                        responderError(ex, 404, "No existe " + partes[0] + "/" + id);
+                    } else {
+                        responderJson(ex, 200, entidad);
+                    }
+                    return;
+                }
+                case "PUT":
+                    responderJson(ex, 200, ok(recurso.modificar(id, leerJson(ex))));
+                    return;
+                case "DELETE":
+                    responderJson(ex, 200, ok(recurso.eliminar(id, version(parametro(ex, "version")))));
+                    return;
+                default:
+                    responderError(ex, 405, "Método no permitido");
+            }
+        } catch (IllegalArgumentException e) { // Incluye NumberFormatException y JSON inválido.
+            responderError(ex, 400, e.getMessage());
+        } catch (VersionConflictException e) {
+            responderConflicto(ex, e);
+        } catch (SQLException e) {
+            responderError(ex, 500, e.getMessage());
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            responderError(ex, 500, "Error inesperado: " + e.getMessage());
+        } finally {
+            AuditLog.setUsuarioDelHilo(null);
+            ex.close();
+        }
+    }
+
+    private void autenticar(HttpExchange ex) throws IOException, SQLException {
+        Map<String, Object> datos = leerJson(ex);
+        User user = new User();
+        user.setEmail(datos.get("email") == null ? null : datos.get("email").toString());
+        user.setPasswordHash(datos.get("password") == null ? null : datos.get("password").toString());
+        User autenticado = userDAO.authenticate(user);
+        if (autenticado == null) {
+            responderError(ex, 401, "Credenciales inválidas");
+        } else {
+            responderJson(ex, 200, EntidadJson.USUARIOS.toMap(autenticado));
+        }
+    }
+
+    private void cambiarPassword(HttpExchange ex, int id) throws IOException, SQLException {
+        Map<String, Object> datos = leerJson(ex);
+        User user = new User();
+        user.setId(id);
+        user.setPasswordHash(datos.get("password") == null ? null : datos.get("password").toString());
+        Object version = datos.get("version");
+        if (!(version instanceof Number)) {
+            throw new IllegalArgumentException("'version' debe ser numérico");
+        }
+        user.setVersion(((Number) version).intValue()); // El DAO compara con la versión del cliente.
+        responderJson(ex, 200, ok(userDAO.updatePassword(user)));
+    }
+
+    /**
+     * Responde la búsqueda en JSON Lines a medida que el cursor avanza. Los encabezados se envían con la
+     * primera fila (o al terminar), de modo que un error inmediato aún puede responderse con código 500.
+     * Si el error ocurre a mitad de la respuesta, se envía una última línea {"error": "..."}.
+     */
+    private <T> void buscar(HttpExchange ex, Recurso<T> recurso, String criterio) throws IOException {
+        CountDownLatch fin = new CountDownLatch(1);
+        Throwable[] error = new Throwable[1];
+        boolean[] encabezados = new boolean[1];
+        recurso.dao.searchPublisher(criterio).subscribe(new Flow.Subscriber<T>() {
+            private Flow.Subscription subscription;
+            private int pendientes;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                pendientes = LOTE;
+                subscription.request(LOTE);
+            }
+
+            @Override
+            public void onNext(T item) {
+                try {
+                    if (!encabezados[0]) {
+                        enviarEncabezadosLineas(ex);
+                        encabezados[0] = true;
+                    }
+                    OutputStream out = ex.getResponseBody();
+                    out.write(Json.write(recurso.tipo.toMap(item)).getBytes(StandardCharsets.UTF_8));
+                    out.write('\n');
+                    if (--pendientes == 0) {
+                        pendientes = LOTE;
+                        subscription.request(LOTE);
+                    }
+                } catch (IOException e) {
+                    // El cliente cerró la conexión: se cancela la búsqueda y se libera la conexión a la base.
+                    subscription.cancel();
+                    error[0] = e;
+                    fin.countDown();
+                }
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                error[0] = throwable;
+                fin.countDown();
+            }
+
+            @Override
+            public void onComplete() {
+                fin.countDown();
+            }
+        });
+        try {
+            fin.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (error[0] instanceof IOException) {
+            return;
+        }
+        if (!encabezados[0]) {
+            if (error[0] != null) {
+                responderError(ex, 500, error[0].getMessage());
+            } else {
+                enviarEncabezadosLineas(ex); // Búsqueda sin resultados: respuesta vacía.
+            }
+            return;
+        }
+        if (error[0] != null) {
+            ex.getResponseBody().write((Json.write(Map.of("error", String.valueOf(error[0].getMessage()))) + "\n")
+                    .getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private String estado() {
+        StringBuilder sb = new StringBuilder(DaoMetrics.snapshot());
+        sb.append(String.format("%n%-16s %10s %10s %10s%n", "cache", "entidades", "aciertos", "fallos"));
+        for (Recurso<?> r : recursos.values()) {
+            sb.append(String.format("%-16s %10d %10d %10d%n", r.tipo.getNombre(), r.cache.size(),
+                    r.cache.getAciertos(), r.cache.getFallos()));
+        }
+        return sb.toString();
+    }
+
+    private static Map<String, Object> ok(boolean ok) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("ok", ok);
+        return m;
+    }
+
+    private static String parametro(HttpExchange ex, String nombre) {
+        String query = ex.getRequestURI().getRawQuery();
+        if (query == null) {
+            return "";
+        }
+        for (String par : query.split("&")) {
+            int i = par.indexOf('=');
+            String clave = i < 0 ? par : par.substring(0, i);
+            if (clave.equals(nombre)) {
+                return i < 0 ? "" : URLDecoder.decode(par.substring(i + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return "";
+    }
+
+    /**
+     * Versión que leyó el cliente, del parámetro de la ruta.
+     *
+     * @throws IllegalArgumentException Si falta o no es un número (se responde 400).
+     */
+    private static int version(String valor) {
+        if (valor.isEmpty()) {
+            throw new IllegalArgumentException("Falta el parámetro 'version'");
+        }
+        try {
+            return Integer.parseInt(valor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("'version' debe ser numérico: " + valor);
+        }
+    }
+
+    private static Map<String, Object> leerJson(HttpExchange ex) throws IOException {
+        return Json.parseObject(new String(ex.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+    }
+
+    private static void enviarEncabezadosLineas(HttpExchange ex) throws IOException {
+        ex.getResponseHeaders().set("Content-Type", "application/x-ndjson; charset=utf-8");
+        ex.sendResponseHeaders(200, 0); // 0: longitud desconocida, se envía por bloques.
+    }
+
+    private static void responderJson(HttpExchange ex, int status, Map<String, Object> body) throws IOException {
+        responder(ex, status, "application/json; charset=utf-8", Json.write(body));
+    }
+
+    private static void responderError(HttpExchange ex, int status, String mensaje) throws IOException {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("error", mensaje);
+        responderJson(ex, status, body);
+    }
+
+    private static void responderConflicto(HttpExchange ex, VersionConflictException e) throws IOException {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("error", e.getMessage());
+        body.put("entidad", e.getEntidad());
+        body.put("id", e.getId());
+        body.put("eliminada", e.isEliminada());
+        responderJson(ex, 409, body);
+    }
+
+    private static void responderTexto(HttpExchange ex, String texto) throws IOException {
+        responder(ex, 200, "text/plain; charset=utf-8", texto);
+    }
+
+    private static void responder(HttpExchange ex, int status, String tipo, String cuerpo) throws IOException {
+        byte[] bytes = cuerpo.getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", tipo);
+        ex.sendResponseHeaders(status, bytes.length);
+        ex.getResponseBody().write(bytes);
+    }
+
+    /**
+     * Una entidad expuesta por la API: su conversión a JSON, su DAO y su caché compartida.
+     */
+    private static final class Recurso<T> {
+        private final EntidadJson<T> tipo;
+        private final Dao<T> dao;
+        private final EntityCache<T> cache;
+
+        Recurso(EntidadJson<T> tipo, Dao<T> dao, EntityCache<T> cache) {
+            this.tipo = tipo;
+            this.dao = dao;
+            this.cache = cache;
+        }
+
+        Map<String, Object> obtener(int id) throws SQLException {
+            T entidad = cache.get(id, dao::getById);
+            return entidad == null ? null : tipo.toMap(entidad);
+        }
+
+        Map<String, Object> crear(Map<String, Object> datos) throws SQLException {
+            T creada = dao.create(tipo.fromMap(datos));
+            if (creada == null) {
+                throw new SQLException("No se pudo crear " + tipo.getNombre());
+            }
+            cache.put(tipo.getId(creada), creada);
+            return tipo.toMap(creada);
+        }
+
+        boolean modificar(int id, Map<String, Object> datos) throws SQLException {
+            datos.put("id", id); // El ID de la ruta manda sobre el del cuerpo.
+            T entidad = tipo.fromMap(datos);
+            cache.invalidate(id);
+            boolean ok = dao.update(entidad);
+            cache.invalidate(id); // También después, por si una lectura concurrente volvió a cargar el valor anterior.
+            return ok;
+        }
+
+        /**
+         * @param version Versión que leyó el cliente (parámetro de la ruta).
+         */
+        boolean eliminar(int id, int version) throws SQLException {
+            T entidad = dao.getById(id); // De la base: la caché puede tener una copia desactualizada.
+            if (entidad == null) {
+                throw new VersionConflictException(tipo.getNombre(), id, true);
+            }
+            Map<String, Object> datos = tipo.toMap(entidad);
+            datos.put("version", version); // El DAO compara con la versión del cliente.
+            boolean ok = dao.delete(tipo.fromMap(datos));
+            cache.invalidate(id);
+            return ok;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package ale2025.utils;
+
+/**
+ * Funciones comunes de las colecciones con claves int ({@link IntObjectMap}, {@link IntIntMap} e
+ * {@link IntSet}): tabla de direccionamiento abierto con sondeo lineal y capacidad potencia de 2.
+ *
+ * La clave 0 marca una posición libre, por lo que cada colección la guarda aparte (los IDs generados por
+ * la base de datos empiezan en 1, pero 0 sigue siendo una clave válida).
+ */
+final class IntHash {
+    /** Proporción máxima de posiciones ocupadas antes de duplicar la tabla. */
+    static final float CARGA = 0.75f;
+    static final int CAPACIDAD_MAXIMA = 1 << 30;
+
+    private IntHash() {
+    }
+
+    /**
+     * Posición inicial de una clave. Los IDs son consecutivos, así que se mezclan los bits (multiplicación
+     * de Fibonacci) para que no ocupen posiciones contiguas y las cadenas de sondeo se mantengan cortas.
+     */
+    static int indice(int clave, int mascara) {
+        int h = clave * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mascara;
+    }
+
+    /**
+     * Capacidad (potencia de 2) para guardar la cantidad de elementos indicada sin redimensionar.
+     */
+    static int capacidad(int esperados) {
+        if (esperados < 0) {
+            throw new IllegalArgumentException("La cantidad esperada no puede ser negativa: " + esperados);
+        }
+        long minima = Math.max(4, (long) Math.ceil(esperados / (double) CARGA) + 1);
+        if (minima > CAPACIDAD_MAXIMA) {
+            throw new IllegalArgumentException("Demasiados elementos: " + esperados);
+        }
+        return Integer.highestOneBit((int) minima - 1) << 1;
+    }
+
+    /**
+     * Cantidad de elementos a partir de la cual se duplica una tabla de la capacidad indicada.
+     */
+    static int limite(int capacidad) {
+        return capacidad == CAPACIDAD_MAXIMA ? capacidad - 1 : (int) (capacidad * CARGA);
+    }
+
+    /**
+     * Indica si el elemento en la posición j (cuya posición inicial es ideal) puede moverse a la posición
+     * libre al eliminar otro: es así si la posición libre está entre ideal y j, recorriendo la tabla en
+     * forma circular. Es el paso de la eliminación por desplazamiento hacia atrás, que evita las marcas de
+     * posición borrada.
+     */
+    static boolean puedeMover(int ideal, int libre, int j, int mascara) {
+        return ((j - ideal) & mascara) >= ((j - libre) & mascara);
+    }
+}
@@ -0,0 +1,208 @@
+package ale2025.utils;
+
+import java.util.Arrays;
+
+/**
+ * Mapa de clave int a valor int sin encapsular ninguno de los dos (direccionamiento abierto, ver
+ * {@link IntHash}). Sirve para índices (ID -&gt; posición en una lista) y para acumular totales por ID
+ * (por ejemplo, cantidad de citas por médico) con {@link #addTo(int, int)}.
+ *
+ * No es seguro para varios hilos.
+ */
+public final class IntIntMap {
+    private int[] claves;
+    private int[] valores;
+    private int mascara;
+    private int tamano;        // Entradas en los arreglos (sin contar la clave 0).
+    private int limite;        // Con más entradas que esto, se duplica la tabla.
+    private boolean tieneCero; // La clave 0 se guarda aparte.
+    private int valorCero;
+
+    /** Recibe cada entrada del mapa. */
+    @FunctionalInterface
+    public interface Visitante {
+        void aceptar(int clave, int valor);
+    }
+
+    public IntIntMap() {
+        this(16);
+    }
+
+    /**
+     * @param esperados Cantidad de entradas que se espera guardar; no se redimensiona hasta superarla.
+     */
+    public IntIntMap(int esperados) {
+        crear(IntHash.capacidad(esperados));
+    }
+
+    /**
+     * @return El valor de la clave, o el valor por defecto si no está.
+     */
+    public int getOrDefault(int clave, int defecto) {
+        if (clave == 0) {
+            return tieneCero ? valorCero : defecto;
+        }
+        int i = buscar(clave);
+        return i < 0 ? defecto : valores[i];
+    }
+
+    public boolean containsKey(int clave) {
+        return clave == 0 ? tieneCero : buscar(clave) >= 0;
+    }
+
+    /**
+     * Guarda el valor de la clave.
+     *
+     * @return El valor anterior, o el valor por defecto si la clave no estaba.
+     */
+    public int put(int clave, int valor, int defecto) {
+        if (clave == 0) {
+            int anterior = tieneCero ? valorCero : defecto;
+            tieneCero = true;
+            valorCero = valor;
+            return anterior;
+        }
+        int i = posicion(clave);
+        if (claves[i] == clave) {
+            int anterior = valores[i];
+            valores[i] = valor;
+            return anterior;
+        }
+        insertar(i, clave, valor);
+        return defecto;
+    }
+
+    /**
+     * Suma al valor de la clave (que empieza en 0 si no estaba).
+     *
+     * @return El valor nuevo.
+     */
+    public int addTo(int clave, int incremento) {
+        if (clave == 0) {
+            valorCero = (tieneCero ? valorCero : 0) + incremento;
+            tieneCero = true;
+            return valorCero;
+        }
+        int i = posicion(clave);
+        if (claves[i] == clave) {
+            return valores[i] += incremento;
+        }
+        insertar(i, clave, incremento);
+        return incremento;
+    }
+
+    /**
+     * Quita la clave.
+     *
+     * @return true si estaba.
+     */
+    public boolean remove(int clave) {
+        if (clave == 0) {
+            boolean estaba = tieneCero;
+            tieneCero = false;
+            return estaba;
+        }
+        int i = buscar(clave);
+        if (i < 0) {
+            return false;
+        }
+        borrarEn(i);
+        tamano--;
+        return true;
+    }
+
+    public int size() {
+        return tamano + (tieneCero ? 1 : 0);
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(claves, 0);
+        tamano = 0;
+        tieneCero = false;
+    }
+
+    /**
+     * Recorre las entradas, sin un orden definido. El mapa no debe modificarse durante el recorrido.
+     */
+    public void forEach(Visitante visitante) {
+        if (tieneCero) {
+            visitante.aceptar(0, valorCero);
+        }
+        for (int i = 0; i < claves.length; i++) {
+            if (claves[i] != 0) {
+                visitante.aceptar(claves[i], valores[i]);
+            }
+        }
+    }
+
+    // Posición de la clave, o -1 si no está.
+    private int buscar(int clave) {
+        for (int i = IntHash.indice(clave, mascara); ; i = (i + 1) & mascara) {
+            int k = claves[i];
+            if (k == clave) {
+                return i;
+            }
+            if (k == 0) {
+                return -1;
+            }
+        }
+    }
+
+    // Posición de la clave o, si no está, la posición libre donde insertarla.
+    private int posicion(int clave) {
+        int i = IntHash.indice(clave, mascara);
+        while (claves[i] != clave && claves[i] != 0) {
+            i = (i + 1) & mascara;
+        }
+        return i;
+    }
+
+    private void insertar(int i, int clave, int valor) {
+        claves[i] = clave;
+        valores[i] = valor;
+        if (++tamano > limite) {
+            redimensionar(claves.length << 1);
+        }
+    }
+
+    private void crear(int capacidad) {
+        claves = new int[capacidad];
+        valores = new int[capacidad];
+        mascara = capacidad - 1;
+        limite = IntHash.limite(capacidad);
+    }
+
+    private void redimensionar(int capacidad) {
+        int[] viejasClaves = claves;
+        int[] viejosValores = valores;
+        crear(capacidad);
+        for (int j = 0; j < viejasClaves.length; j++) {
+            int k = viejasClaves[j];
+            if (k != 0) {
+                int i = IntHash.indice(k, mascara);
+                while (claves[i] != 0) {
+                    i = (i + 1) & mascara;
+                }
+                claves[i] = k;
+                valores[i] = viejosValores[j];
+            }
+        }
+    }
+
+    // Libera la posición i moviendo hacia atrás las entradas siguientes de la misma cadena de sondeo.
+    private void borrarEn(int i) {
+        int libre = i;
+        for (int j = (i + 1) & mascara; claves[j] != 0; j = (j + 1) & mascara) {
+            if (IntHash.puedeMover(IntHash.indice(claves[j], mascara), libre, j, mascara)) {
+                claves[libre] = claves[j];
+                valores[libre] = valores[j];
+                libre = j;
+            }
+        }
+        claves[libre] = 0;
+    }
+}
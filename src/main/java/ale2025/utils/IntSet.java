@@ -0,0 +1,166 @@
+package ale2025.utils;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Conjunto de enteros sin encapsularlos en Integer (direccionamiento abierto, ver {@link IntHash}).
+ * Sirve para reunir los IDs distintos de una consulta, por ejemplo los pacientes de las citas del día
+ * antes de cargarlos en lote.
+ *
+ * No es seguro para varios hilos.
+ */
+public final class IntSet {
+    private int[] claves;
+    private int mascara;
+    private int tamano;        // Elementos en el arreglo (sin contar el 0).
+    private int limite;        // Con más elementos que esto, se duplica la tabla.
+    private boolean tieneCero; // El 0 se guarda aparte.
+
+    public IntSet() {
+        this(16);
+    }
+
+    /**
+     * @param esperados Cantidad de elementos que se espera guardar; no se redimensiona hasta superarla.
+     */
+    public IntSet(int esperados) {
+        crear(IntHash.capacidad(esperados));
+    }
+
+    /**
+     * @return true si el elemento no estaba.
+     */
+    public boolean add(int valor) {
+        if (valor == 0) {
+            boolean nuevo = !tieneCero;
+            tieneCero = true;
+            return nuevo;
+        }
+        int i = IntHash.indice(valor, mascara);
+        while (claves[i] != 0) {
+            if (claves[i] == valor) {
+                return false;
+            }
+            i = (i + 1) & mascara;
+        }
+        claves[i] = valor;
+        if (++tamano > limite) {
+            redimensionar(claves.length << 1);
+        }
+        return true;
+    }
+
+    public boolean contains(int valor) {
+        return valor == 0 ? tieneCero : buscar(valor) >= 0;
+    }
+
+    /**
+     * @return true si el elemento estaba.
+     */
+    public boolean remove(int valor) {
+        if (valor == 0) {
+            boolean estaba = tieneCero;
+            tieneCero = false;
+            return estaba;
+        }
+        int i = buscar(valor);
+        if (i < 0) {
+            return false;
+        }
+        borrarEn(i);
+        tamano--;
+        return true;
+    }
+
+    public int size() {
+        return tamano + (tieneCero ? 1 : 0);
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(claves, 0);
+        tamano = 0;
+        tieneCero = false;
+    }
+
+    /**
+     * Recorre los elementos, sin un orden definido. El conjunto no debe modificarse durante el recorrido.
+     */
+    public void forEach(IntConsumer accion) {
+        if (tieneCero) {
+            accion.accept(0);
+        }
+        for (int k : claves) {
+            if (k != 0) {
+                accion.accept(k);
+            }
+        }
+    }
+
+    /**
+     * @return Los elementos, ordenados de menor a mayor.
+     */
+    public int[] toArray() {
+        int[] res = new int[size()];
+        int n = 0;
+        if (tieneCero) {
+            res[n++] = 0;
+        }
+        for (int k : claves) {
+            if (k != 0) {
+                res[n++] = k;
+            }
+        }
+        Arrays.sort(res);
+        return res;
+    }
+
+    // Posición del elemento, o -1 si no está.
+    private int buscar(int valor) {
+        for (int i = IntHash.indice(valor, mascara); ; i = (i + 1) & mascara) {
+            int k = claves[i];
+            if (k == valor) {
+                return i;
+            }
+            if (k == 0) {
+                return -1;
+            }
+        }
+    }
+
+    private void crear(int capacidad) {
+        claves = new int[capacidad];
+        mascara = capacidad - 1;
+        limite = IntHash.limite(capacidad);
+    }
+
+    private void redimensionar(int capacidad) {
+        int[] viejas = claves;
+        crear(capacidad);
+        for (int k : viejas) {
+            if (k != 0) {
+                int i = IntHash.indice(k, mascara);
+                while (claves[i] != 0) {
+                    i = (i + 1) & mascara;
+                }
+                claves[i] = k;
+            }
+        }
+    }
+
+    // Libera la posición i moviendo hacia atrás los elementos siguientes de la misma cadena de sondeo.
+    private void borrarEn(int i) {
+        int libre = i;
+        for (int j = (i + 1) & mascara; claves[j] != 0; j = (j + 1) & mascara) {
+            if (IntHash.puedeMover(IntHash.indice(claves[j], mascara), libre, j, mascara)) {
+                claves[libre] = claves[j];
+                libre = j;
+            }
+        }
+        claves[libre] = 0;
+    }
+}
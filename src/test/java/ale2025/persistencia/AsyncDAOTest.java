@@ -0,0 +1,33 @@
+package ale2025.persistencia;
+
+import ale2025.dominio.Medico;
+import ale2025.dominio.Paciente;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncDAOTest {
+
+    @Test
+    void consultasEnParalelo() throws SQLException {
+        // Se lanzan dos búsquedas independientes al mismo tiempo y se esperan ambas.
+        CompletableFuture<ArrayList<Paciente>> pacientes = AsyncDAO.of(new PacienteDAO()).call(dao -> dao.search(""));
+        CompletableFuture<ArrayList<Medico>> medicos = AsyncDAO.of(new MedicoDAO()).call(dao -> dao.search(""));
+        assertNotNull(AsyncDAO.join(pacientes), "La busqueda de pacientes debe retornar una lista");
+        assertNotNull(AsyncDAO.join(medicos), "La busqueda de medicos debe retornar una lista");
+    }
+
+    @Test
+    void joinRelanzaSQLException() {
+        // El error de base de datos debe llegar al llamador como la SQLException original.
+        CompletableFuture<Object> futuro = AsyncDAO.of(new PacienteDAO()).call(dao -> {
+            throw new SQLException("Error de prueba");
+        });
+        SQLException ex = assertThrows(SQLException.class, () -> AsyncDAO.join(futuro));
+        assertEquals("Error de prueba", ex.getMessage());
+    }
+}
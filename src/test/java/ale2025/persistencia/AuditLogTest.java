@@ -0,0 +1,217 @@
+package ale2025.persistencia;
+
+import ale2025.dominio.Paciente;
+import ale2025.servidor.ApiServer;
+import ale2025.utils.CUD;
+import ale2025.utils.Json;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.awt.EventQueue;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditLogTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void registraDesdeVariosHilos() throws Exception {
+        AuditLog log = new AuditLog(dir, 1024, 64 * 1024, 1000);
+        int hilos = 4;
+        int porHilo = 2000;
+        Thread[] productores = new Thread[hilos];
+        for (int i = 0; i < hilos; i++) {
+            int h = i;
+            productores[i] = new Thread(() -> {
+                for (int j = 0; j < porHilo; j++) {
+                    log.agregar(new AuditLog.Evento(System.currentTimeMillis(), "usuario" + h, CUD.UPDATE,
+                            "pacientes", j, Map.of("id", j), Map.of("id", j)));
+                }
+            });
+            productores[i].start();
+        }
+        for (Thread t : productores) {
+            t.join();
+        }
+        log.close(); // Vacía el búfer y fuerza los segmentos.
+
+        assertEquals(0, log.getDescartados(), "Con la espera configurada no debe descartarse ningún evento");
+        assertEquals(hilos * porHilo, log.getEscritos());
+        assertTrue(AuditSegments.listar(dir).size() > 1, "Los eventos deben ocupar varios segmentos");
+
+        // Los segmentos deben poder leerse completos, con todos los registros intactos.
+        long leidos = 0;
+        for (int seg : AuditSegments.listar(dir)) {
+            List<byte[]> registros = new ArrayList<>();
+            AuditSegments.leer(dir, seg, 0, Integer.MAX_VALUE, (pos, datos) -> registros.add(datos));
+            leidos += registros.size();
+        }
+        assertEquals(hilos * porHilo, leidos);
+    }
+
+    @Test
+    void continuaDespuesDeReabrir() throws Exception {
+        AuditLog log = new AuditLog(dir, 64, 64 * 1024, 1000);
+        log.agregar(new AuditLog.Evento(1L, "a", CUD.CREATE, "citas", 1, null, Map.of("id", 1)));
+        log.close();
+
+        AuditLog reabierto = new AuditLog(dir, 64, 64 * 1024, 1000);
+        reabierto.agregar(new AuditLog.Evento(2L, "a", CUD.DELETE, "citas", 1, Map.of("id", 1), null));
+        reabierto.close();
+
+        List<String> registros = new ArrayList<>();
+        AuditSegments.leer(dir, 1, 0, Integer.MAX_VALUE,
+                (pos, datos) -> registros.add(new String(datos, StandardCharsets.UTF_8)));
+        assertEquals(2, registros.size(), "El segundo registro debe agregarse después del primero");
+        assertTrue(registros.get(1).contains("\"operacion\":\"DELETE\""));
+    }
+
+    @Test
+    void noEsperaEnElHiloDeLaInterfaz() throws Exception {
+        AuditLog log = new AuditLog(dir, 4, 64 * 1024, 200);
+        log.close(); // Sin escritor, el búfer ya no se vacía.
+        for (int i = 0; i < 4; i++) {
+            log.agregar(new AuditLog.Evento(1L, "a", CUD.CREATE, "citas", i, null, Map.of("id", i)));
+        }
+        assertEquals(0, log.getDescartados());
+
+        long[] duracion = new long[1];
+        EventQueue.invokeAndWait(() -> {
+            long inicio = System.nanoTime();
+            log.agregar(new AuditLog.Evento(1L, "a", CUD.CREATE, "citas", 4, null, Map.of("id", 4)));
+            duracion[0] = System.nanoTime() - inicio;
+        });
+        assertEquals(1, log.getDescartados(), "Con el búfer lleno, en la interfaz el evento se descarta");
+        assertTrue(duracion[0] < TimeUnit.MILLISECONDS.toNanos(100), "La interfaz no debe esperar al escritor");
+
+        long inicio = System.nanoTime();
+        log.agregar(new AuditLog.Evento(1L, "a", CUD.CREATE, "citas", 5, null, Map.of("id", 5)));
+        assertEquals(2, log.getDescartados());
+        assertTrue(System.nanoTime() - inicio >= TimeUnit.MILLISECONDS.toNanos(200),
+                "Fuera de la interfaz se espera hasta maxWaitMs antes de descartar");
+    }
+
+    @Test
+    void usuarioDelHiloTienePrioridadSobreElDeLaSesion() throws Exception {
+        AuditLog.setUsuario("sesion");
+        try {
+            AuditLog.setUsuarioDelHilo("peticion");
+            assertEquals("peticion", AuditLog.usuarioDe(null));
+            assertEquals("diario", AuditLog.usuarioDe("diario"), "El usuario de la operación manda");
+            String[] enOtroHilo = new String[1];
+            Thread t = new Thread(() -> enOtroHilo[0] = AuditLog.usuarioDe(null));
+            t.start();
+            t.join();
+            assertEquals("sesion", enOtroHilo[0], "El usuario del hilo no debe verse en otros hilos");
+            AuditLog.setUsuarioDelHilo(null);
+            assertEquals("sesion", AuditLog.usuarioDe(null));
+        } finally {
+            AuditLog.setUsuarioDelHilo(null);
+            AuditLog.setUsuario(null);
+        }
+    }
+
+    @Test
+    void laTerminalDelServidorHttpNoAudita() {
+        String anterior = System.getProperty("ale2025.api.url");
+        try {
+            System.setProperty("ale2025.api.url", "http://127.0.0.1:8085");
+            assertFalse(AuditLog.auditaEnEstaTerminal(), "Con ale2025.api.url las escrituras las audita el servidor");
+        } finally {
+            if (anterior == null) {
+                System.clearProperty("ale2025.api.url");
+            } else {
+                System.setProperty("ale2025.api.url", anterior);
+            }
+        }
+    }
+
+    @Test
+    void registraLasEscriturasDeLosDaos() throws Exception {
+        AuditLog log = AuditLog.getInstance();
+        assertNotNull(log, "La auditoría debe estar activa en conexión directa");
+        PacienteDAO dao = new PacienteDAO();
+        long registrados = log.getRegistrados();
+
+        Paciente creado = dao.create(new Paciente(0, "Auditoria DAO", "7000-0000", Date.valueOf("1990-01-01")));
+        Map<String, Object> alta = ultimoRegistro(log);
+        assertEquals("CREATE", alta.get("operacion"));
+        assertEquals(creado.getId(), ((Number) alta.get("id")).intValue(), "El alta se registra con el ID generado");
+
+        Paciente leido = dao.getById(creado.getId());
+        Paciente desactualizado = dao.getById(creado.getId());
+        leido.setTelefono("7000-0001");
+        dao.update(leido);
+        Map<String, Object> modificacion = ultimoRegistro(log);
+        assertEquals("7000-0000", ((Map<?, ?>) modificacion.get("antes")).get("telefono"));
+        assertEquals("7000-0001", ((Map<?, ?>) modificacion.get("despues")).get("telefono"));
+
+        desactualizado.setTelefono("7000-0002");
+        assertThrows(VersionConflictException.class, () -> dao.update(desactualizado));
+        dao.delete(leido);
+        Map<String, Object> eliminacion = ultimoRegistro(log);
+        assertEquals("DELETE", eliminacion.get("operacion"));
+        // Pacientes tiene un trigger de DELETE: la fila eliminada llega por OUTPUT ... INTO @antes.
+        assertEquals("7000-0001", ((Map<?, ?>) eliminacion.get("antes")).get("telefono"));
+        assertEquals(leido.getVersion(), ((Number) ((Map<?, ?>) eliminacion.get("antes")).get("version")).intValue());
+        assertEquals(registrados + 3, log.getRegistrados(), "Alta, modificación y eliminación; el conflicto no se registra");
+    }
+
+    @Test
+    void elServidorRegistraConElUsuarioDeLaPeticion() throws Exception {
+        AuditLog log = AuditLog.getInstance();
+        assertNotNull(log);
+        ApiServer server = ApiServer.start(0);
+        try {
+            String cuerpo = Json.write(Map.of("nombreCompleto", "Auditoria HTTP", "telefono", "7000-0003",
+                    "fechaNacimiento", "1990-01-02"));
+            HttpResponse<String> res = HttpClient.newHttpClient().send(
+                    HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPuerto() + "/api/pacientes"))
+                            .header("Content-Type", "application/json")
+                            .header("X-Usuario", "recepcion@clinica")
+                            .POST(HttpRequest.BodyPublishers.ofString(cuerpo))
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertEquals(201, res.statusCode(), res.body());
+            int id = EntidadJson.entero(Json.parseObject(res.body()), "id");
+
+            Map<String, Object> alta = ultimoRegistro(log);
+            assertEquals("recepcion@clinica", alta.get("usuario"));
+            assertEquals(id, ((Number) alta.get("id")).intValue());
+
+            PacienteDAO dao = new PacienteDAO();
+            dao.delete(dao.getById(id));
+        } finally {
+            server.stop();
+        }
+    }
+
+    /**
+     * Último registro escrito por el registro compartido, una vez que el escritor alcanzó a los productores.
+     */
+    static Map<String, Object> ultimoRegistro(AuditLog log) throws Exception {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (log.getEscritos() + log.getDescartados() < log.getRegistrados() && System.nanoTime() < limite) {
+            Thread.sleep(10);
+        }
+        Path directorio = Path.of(System.getProperty("ale2025.audit.dir", "auditoria"));
+        List<Integer> segmentos = AuditSegments.listar(directorio);
+        List<byte[]> registros = new ArrayList<>();
+        AuditSegments.leer(directorio, segmentos.get(segmentos.size() - 1), 0, Integer.MAX_VALUE,
+                (pos, datos) -> registros.add(datos));
+        return Json.parseObject(new String(registros.get(registros.size() - 1), StandardCharsets.UTF_8));
+    }
+}
@@ -4,8 +4,11 @@ import org.junit.jupiter.api.BeforeEach; // Anotación para indicar que el méto
 import org.junit.jupiter.api.Test;         // Anotación para indicar que el método es un caso de prueba.
 import ale2025.dominio.Cita;                // Clase que representa la entidad de cita utilizada en las pruebas.
 
+import java.sql.Connection;                  // Conexión para limpiar el histórico al terminar.
+import java.sql.PreparedStatement;
 import java.sql.SQLException;               // Clase para manejar excepciones relacionadas con la base de datos.
 import java.sql.Date;                       // Necesario para java.sql.Date
+import java.time.LocalDate;                 // Fechas del archivo de citas.
 import java.util.ArrayList;                 // Clase para crear listas dinámicas de objetos, utilizada en algunas pruebas.
 
 import static org.junit.jupiter.api.Assertions.*; // Importación estática de métodos de aserción de JUnit 5 para verificar el comportamiento esperado en las pruebas.
@@ -125,4 +128,34 @@ class CitaDAOTest {
         // Llama al método 'delete' para eliminar la cita de prueba de la base de datos y verifica la eliminación.
         delete(testCita);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testArchivo() throws SQLException {
+        // Igual que testCitaDAO, requiere el paciente y el médico con ID 1.
+        // Una cita muy antigua, para que el archivado de prueba no mueva otras citas.
+        Cita antigua = create(new Cita(0, 1, 1, Date.valueOf("1990-01-02"), 40.00));
+
+        CitaArchiver.Resultado res = new CitaArchiver(100, 0).archivar(LocalDate.of(1990, 1, 3));
+        assertTrue(res.getMovidas() >= 1, "La cita antigua debería moverse al histórico.");
+        assertNull(citaDAO.getById(antigua.getId()), "La cita archivada ya no debería estar en la tabla Citas.");
+
+        // El archivado guarda su límite en la base; las búsquedas de fechas anteriores incluyen el histórico.
+        assertFalse(CitaArchiver.getLimiteArchivo().isBefore(LocalDate.of(1990, 1, 3)),
+                "El límite del archivo guardado no debería ser anterior al del archivado.");
+        boolean encontrada = false;
+        for (Cita c : citaDAO.search("1990-01-02")) {
+            encontrada |= c.getId() == antigua.getId();
+        }
+        assertTrue(encontrada, "La búsqueda por fecha debería encontrar la cita archivada.");
+        ArrayList<Cita> rango = citaDAO.searchRango(LocalDate.of(1990, 1, 1), LocalDate.of(1990, 1, 31));
+        assertTrue(rango.stream().anyMatch(c -> c.getId() == antigua.getId()),
+                "La búsqueda por rango debería encontrar la cita archivada.");
+
+        // Las citas archivadas no se eliminan desde el DAO: se limpia directamente.
+        try (Connection connection = ConnectionManager.getInstance().connect();
+             PreparedStatement ps = connection.prepareStatement("DELETE FROM CitasHistorico WHERE id = ?")) {
+            ps.setInt(1, antigua.getId());
+            assertEquals(1, ps.executeUpdate());
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package ale2025.persistencia;
+
+import ale2025.dominio.Cita;
+import ale2025.dominio.Medico;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Date;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientCacheTest {
+
+    /** DAO de médicos en memoria que cuenta las consultas. */
+    private static final class MedicosContados extends MedicoDAO {
+        int busquedas;
+        int lecturas;
+
+        @Override
+        public ArrayList<Medico> search(String nombreCompleto) {
+            busquedas++;
+            return new ArrayList<>(List.of(new Medico(1, "Ana", 1, 1000), new Medico(2, "Luis", 2, 1200)));
+        }
+
+        @Override
+        public Medico getById(int id) {
+            lecturas++;
+            return new Medico(id, "Medico " + id, 1, 1000);
+        }
+    }
+
+    /** DAO de citas en memoria que cuenta las búsquedas. */
+    private static final class CitasContadas extends CitaDAO {
+        int busquedas;
+
+        @Override
+        public ArrayList<Cita> search(String fechaCita) {
+            busquedas++;
+            return new ArrayList<>(List.of(new Cita(busquedas, 1, 1, Date.valueOf(fechaCita), 25)));
+        }
+    }
+
+    @Test
+    void listaDeMedicosSeConsultaUnaVez() throws SQLException {
+        ClientCache cache = new ClientCache(60_000);
+        MedicosContados dao = new MedicosContados();
+        assertEquals(2, cache.getMedicos(dao).size());
+        cache.getMedicos(dao).clear(); // Se retorna una copia: limpiarla no afecta a la caché.
+        assertEquals(2, cache.getMedicos(dao).size());
+        assertEquals(1, dao.busquedas, "La segunda lectura debe salir de la caché");
+
+        // La búsqueda también deja cada médico disponible por ID.
+        assertEquals("Luis", cache.getMedico(2, dao).getNombreCompleto());
+        assertEquals(0, dao.lecturas);
+    }
+
+    @Test
+    void invalidarDescartaLosMedicos() throws SQLException {
+        ClientCache cache = new ClientCache(60_000);
+        MedicosContados dao = new MedicosContados();
+        cache.getMedicos(dao);
+        cache.invalidar(EntidadJson.MEDICOS);
+        cache.getMedicos(dao);
+        cache.getMedico(3, dao);
+        cache.getMedico(3, dao);
+        assertEquals(2, dao.busquedas, "Tras invalidar se debe volver a consultar la lista");
+        assertEquals(1, dao.lecturas);
+    }
+
+    @Test
+    void entradasVencidasSeRecargan() throws Exception {
+        ClientCache cache = new ClientCache(50);
+        MedicosContados dao = new MedicosContados();
+        cache.getMedico(1, dao);
+        Thread.sleep(100);
+        cache.getMedico(1, dao);
+        assertEquals(2, dao.lecturas, "Una entrada vencida debe cargarse de nuevo");
+    }
+
+    @Test
+    void precargaDeCitasSoloSirveALaPrimeraBusqueda() throws SQLException {
+        ClientCache cache = new ClientCache(60_000);
+        CitasContadas dao = new CitasContadas();
+        assertEquals(1, cache.precargarCitas("2025-03-10", dao));
+        assertEquals(1, cache.getCitas("2025-03-10", dao).get(0).getId(), "La primera búsqueda usa la precarga");
+        assertEquals(2, cache.getCitas("2025-03-10", dao).get(0).getId(), "Las siguientes leen la base");
+        assertEquals(2, dao.busquedas);
+
+        // Una precarga que termina después de la primera búsqueda ya no se usa.
+        cache.precargarCitas("2025-03-10", dao);
+        assertEquals(4, cache.getCitas("2025-03-10", dao).get(0).getId());
+    }
+
+    @Test
+    void precargaDeOtraFechaNoSeUsa() throws SQLException {
+        ClientCache cache = new ClientCache(60_000);
+        CitasContadas dao = new CitasContadas();
+        cache.precargarCitas("2025-03-10", dao);
+        assertEquals(Date.valueOf("2025-03-11"), cache.getCitas("2025-03-11", dao).get(0).getFechaCita());
+        assertEquals(2, dao.busquedas);
+    }
+}
@@ -6,6 +6,11 @@ import org.junit.jupiter.api.Test;
 
 import java.sql.Connection; // Importa la clase Connection del paquete java.sql, que se utiliza para establecer una conexión con la base de datos.
 import java.sql.SQLException; // Importa la clase SQLException del paquete java.sql, que se utiliza para manejar excepciones relacionadas con operaciones de base de datos.
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.jupiter.api.Assertions.*; // Importa todos los métodos estáticos de la clase Assertions del paquete org.junit.jupiter.api. Esto proporciona métodos para realizar aserciones en las pruebas unitarias, como assertEquals, assertTrue, etc.
 
@@ -42,4 +47,35 @@ class ConnectionManagerTest {
             conn.close(); // Cierra la conexión después de la prueba.
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void connectPorLlamada() throws SQLException {
+        // Cada llamada a connect() debe entregar una conexión propia, para que varios hilos puedan usar los DAOs.
+        Connection conn1 = connectionManager.connect();
+        Connection conn2 = connectionManager.connect();
+        assertNotSame(conn1, conn2, "Cada llamada debe recibir su propia conexion");
+        conn1.close();
+        // Cerrar una conexión no debe afectar a la otra.
+        assertTrue(conn1.isClosed(), "La conexion cerrada debe reportarse como cerrada");
+        assertFalse(conn2.isClosed(), "La otra conexion debe seguir abierta");
+        conn2.close();
+    }
+
+    @Test
+    void daosEnVariosHilos() throws Exception {
+        // Varios hilos usan la misma instancia del DAO al mismo tiempo; ninguno debe fallar.
+        PacienteDAO pacienteDAO = new PacienteDAO();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                tareas.add(executor.submit(() -> pacienteDAO.search("")));
+            }
+            for (Future<?> tarea : tareas) {
+                assertNotNull(tarea.get(), "La busqueda concurrente debe retornar una lista");
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
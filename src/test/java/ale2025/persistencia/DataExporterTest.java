@@ -0,0 +1,104 @@
+package ale2025.persistencia;
+
+import org.junit.jupiter.api.Test;         // Anotación para indicar que el método es un caso de prueba.
+import org.junit.jupiter.api.io.TempDir;   // Anotación para recibir un directorio temporal por prueba.
+import ale2025.dominio.Cita;                // Clase que representa la entidad de cita utilizada en las pruebas.
+import ale2025.dominio.Paciente;            // Clase que representa la entidad de paciente utilizada en las pruebas.
+import ale2025.utils.Json;                  // Lectura de las líneas JSON exportadas.
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*; // Importación estática de métodos de aserción de JUnit 5.
+
+class DataExporterTest {
+    @TempDir
+    Path dir; // Directorio temporal donde se escriben las exportaciones.
+
+    @Test
+    void testExportCitas() throws Exception {
+        // Requiere el médico con ID 1, igual que CitaDAOTest.
+        PacienteDAO pacienteDAO = new PacienteDAO();
+        Paciente paciente = pacienteDAO.create(new Paciente(0, "Exportacion, Prueba", null, Date.valueOf("1990-01-07")));
+        Cita archivada = new CitaDAO().create(new Cita(0, paciente.getId(), 1, Date.valueOf("1990-01-07"), 45.00));
+        new CitaArchiver(100, 0).archivar(LocalDate.of(1990, 1, 8)); // La exportación también incluye el histórico.
+        try {
+            DataExporter exporter = new DataExporter();
+
+            Path csv = dir.resolve("citas.csv");
+            DataExporter.Resultado res = exporter.exportCitas(csv, DataExporter.Formato.CSV, false);
+            List<String> lineas = Files.readAllLines(csv, StandardCharsets.UTF_8);
+            assertEquals("id,fechaCita,costoConsulta,pacienteId,paciente,medicoId,medico", lineas.get(0));
+            assertEquals(res.getFilas(), lineas.size() - 1, "Una línea por cita, además del encabezado.");
+            assertTrue(lineas.stream().anyMatch(l -> l.startsWith(archivada.getId() + ",1990-01-07,")
+                            && l.contains(",\"Exportacion, Prueba\",")),
+                    "La cita archivada debe exportarse, con el nombre entre comillas por la coma.");
+
+            Path jsonl = dir.resolve("citas.jsonl.gz");
+            DataExporter.Resultado resJson = exporter.exportCitas(jsonl, DataExporter.Formato.JSONL, true);
+            List<String> lineasJson = leerGzip(jsonl);
+            assertEquals(resJson.getFilas(), lineasJson.size(), "Una línea JSON por cita, sin encabezado.");
+            Map<String, Object> fila = lineasJson.stream()
+                    .map(Json::parseObject)
+                    .filter(m -> ((Number) m.get("id")).intValue() == archivada.getId())
+                    .findFirst().orElse(null);
+            assertNotNull(fila, "La cita archivada debe estar en la exportación JSON Lines.");
+            assertEquals("Exportacion, Prueba", fila.get("paciente"));
+            assertEquals(paciente.getId(), ((Number) fila.get("pacienteId")).intValue());
+        } finally {
+            // Las citas archivadas no se eliminan desde el DAO: se limpia directamente.
+            try (Connection connection = ConnectionManager.getInstance().connect();
+                 PreparedStatement ps = connection.prepareStatement("DELETE FROM CitasHistorico WHERE id = ?")) {
+                ps.setInt(1, archivada.getId());
+                ps.executeUpdate();
+            }
+            pacienteDAO.delete(paciente);
+        }
+    }
+
+    @Test
+    void testExportPacientes() throws Exception {
+        PacienteDAO pacienteDAO = new PacienteDAO();
+        Paciente paciente = pacienteDAO.create(new Paciente(0, "Exportacion Pacientes", "7000-0006", Date.valueOf("1990-01-09")));
+        try {
+            DataExporter exporter = new DataExporter();
+
+            Path csv = dir.resolve("pacientes.csv.gz");
+            DataExporter.Resultado res = exporter.exportPacientes(csv, DataExporter.Formato.CSV, true);
+            List<String> lineas = leerGzip(csv);
+            assertEquals("id,nombreCompleto,telefono,fechaNacimiento", lineas.get(0));
+            assertEquals(res.getFilas(), lineas.size() - 1, "Una línea por paciente, además del encabezado.");
+            assertTrue(lineas.contains(paciente.getId() + ",Exportacion Pacientes,7000-0006,1990-01-09"));
+
+            Path jsonl = dir.resolve("pacientes.jsonl");
+            DataExporter.Resultado resJson = exporter.exportPacientes(jsonl, DataExporter.Formato.JSONL, false);
+            List<String> lineasJson = Files.readAllLines(jsonl, StandardCharsets.UTF_8);
+            assertEquals(resJson.getFilas(), lineasJson.size(), "Una línea JSON por paciente, sin encabezado.");
+            assertEquals(res.getFilas(), resJson.getFilas(), "Ambos formatos exportan los mismos pacientes.");
+            assertTrue(lineasJson.stream().map(Json::parseObject)
+                    .anyMatch(m -> "Exportacion Pacientes".equals(m.get("nombreCompleto"))
+                            && "7000-0006".equals(m.get("telefono"))));
+        } finally {
+            pacienteDAO.delete(paciente);
+        }
+    }
+
+    private static List<String> leerGzip(Path archivo) throws IOException {
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(archivo)), StandardCharsets.UTF_8))) {
+            return in.lines().collect(Collectors.toList());
+        }
+    }
+}
@@ -111,4 +111,27 @@ class EspecialidadDAOTest {
         // Llama al método 'delete' para eliminar la especialidad de prueba de la base de datos y verifica la eliminación.
         delete(testEspecialidad);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testConflictoDeVersion() throws SQLException {
+        // Dos copias de la misma especialidad, como si dos usuarios abrieran el formulario a la vez.
+        Especialidad primera = create(new Especialidad(0, "Neurología", "Estudio del sistema nervioso."));
+        Especialidad segunda = especialidadDAO.getById(primera.getId());
+
+        // La primera modificación se aplica e incrementa la versión.
+        primera.setDescripcion("Descripción modificada por el primer usuario.");
+        assertTrue(especialidadDAO.update(primera), "La primera modificación debería aplicarse.");
+
+        // La segunda copia tiene la versión anterior: ni la modificación ni la eliminación deben aplicarse.
+        segunda.setDescripcion("Descripción modificada por el segundo usuario.");
+        VersionConflictException ex = assertThrows(VersionConflictException.class, () -> especialidadDAO.update(segunda));
+        assertFalse(ex.isEliminada(), "La especialidad sigue existiendo, solo cambió.");
+        assertThrows(VersionConflictException.class, () -> especialidadDAO.delete(segunda));
+        assertEquals("Descripción modificada por el primer usuario.", especialidadDAO.getById(primera.getId()).getDescripcion());
+
+        // Con la versión actual sí se puede eliminar; después, la copia vieja indica que fue eliminada.
+        delete(primera);
+        ex = assertThrows(VersionConflictException.class, () -> especialidadDAO.update(segunda));
+        assertTrue(ex.isEliminada(), "La especialidad ya fue eliminada.");
+    }
+}
@@ -3,9 +3,12 @@ package ale2025.persistencia;
 import org.junit.jupiter.api.BeforeEach; // Anotación para indicar que el método se ejecuta antes de cada método de prueba.
 import org.junit.jupiter.api.Test;         // Anotación para indicar que el método es un caso de prueba.
 import ale2025.dominio.Horario;             // Clase que representa la entidad de horario utilizada en las pruebas.
+import ale2025.dominio.HorarioCompacto;     // Representación compacta de los horarios.
 
 import java.sql.SQLException;               // Clase para manejar excepciones relacionadas con la base de datos.
 import java.sql.Time;                       // Necesario para java.sql.Time
+import java.time.DayOfWeek;
+import java.time.LocalTime;
 import java.util.ArrayList;                 // Clase para crear listas dinámicas de objetos, utilizada en algunas pruebas.
 
 import static org.junit.jupiter.api.Assertions.*; // Importación estática de métodos de aserción de JUnit 5 para verificar el comportamiento esperado en las pruebas.
@@ -122,4 +125,38 @@ class HorarioDAOTest {
         // Llama al método 'delete' para eliminar el horario de prueba de la base de datos y verifica la eliminación.
         delete(testHorario);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testCompactos() throws SQLException {
+        // Igual que testHorarioDAO, requiere el médico con ID 1.
+        Horario horario = create(new Horario(0, 1, "miércoles", Time.valueOf("08:30:00"), Time.valueOf("12:00:00")));
+
+        HorarioCompacto compacto = horarioDAO.getAllCompactos().stream()
+                .filter(h -> h.id() == horario.getId())
+                .findFirst()
+                .orElse(null);
+        assertNotNull(compacto, "La carga compacta debería incluir el horario creado.");
+        assertEquals(DayOfWeek.WEDNESDAY, compacto.getDia(), "El día debería reconocerse sin distinguir mayúsculas.");
+        assertEquals(8 * 60 + 30, compacto.inicioMinuto(), "La hora de inicio debería guardarse en minutos.");
+        assertEquals(12 * 60, compacto.finMinuto(), "La hora de fin debería guardarse en minutos.");
+        assertEquals(horario.getVersion(), compacto.version(), "La versión debería ser la de la fila.");
+
+        delete(horario);
+    }
+
+    @Test
+    void testDisponibilidad() throws SQLException {
+        // Igual que testHorarioDAO, requiere el médico con ID 1 (y que no tenga horarios el domingo de madrugada).
+        Disponibilidad disponibilidad = Disponibilidad.getInstance();
+        LocalTime hora = LocalTime.of(2, 15);
+        assertFalse(disponibilidad.estaDeTurno(1, DayOfWeek.SUNDAY, hora), "El médico no debería estar de turno antes de crear el horario.");
+
+        // Las escrituras del DAO actualizan los turnos ya cargados, sin recargarlos.
+        Horario horario = create(new Horario(0, 1, "Domingo", Time.valueOf("02:00:00"), Time.valueOf("02:30:00")));
+        assertTrue(disponibilidad.estaDeTurno(1, DayOfWeek.SUNDAY, hora), "El horario creado debería marcar el turno.");
+        assertFalse(disponibilidad.estaDeTurno(1, DayOfWeek.SUNDAY, LocalTime.of(2, 30)), "El turno termina a la hora de fin.");
+
+        delete(horario);
+        assertFalse(disponibilidad.estaDeTurno(1, DayOfWeek.SUNDAY, hora), "El horario eliminado no debería marcar el turno.");
+    }
+}
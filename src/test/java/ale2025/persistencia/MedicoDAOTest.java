@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;         // Anotación para indicar que el mé
 import ale2025.dominio.Medico;              // Clase que representa la entidad de médico utilizada en las pruebas.
 
 import java.util.ArrayList;                 // Clase para crear listas dinámicas de objetos, utilizada en algunas pruebas.
+import java.util.List;                      // Lotes de médicos para la sincronización masiva.
 import java.sql.SQLException;               // Clase para manejar excepciones relacionadas con la base de datos.
 
 import static org.junit.jupiter.api.Assertions.*; // Importación estática de métodos de aserción de JUnit 5 para verificar el comportamiento esperado en las pruebas.
@@ -118,4 +119,31 @@ class MedicoDAOTest {
         // Llama al método 'delete' para eliminar el médico de prueba de la base de datos y verifica la eliminación.
         delete(testMedico);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testUpsert() throws SQLException {
+        // Igual que testMedicoDAO, requiere la especialidad con ID 1.
+        Medico nuevo = new Medico(0, "Dra. Ana Gómez", 1, 4200.50);
+
+        // Un médico sin ID se inserta y recibe su ID y su versión.
+        Upsert.Resultado res = medicoDAO.upsert(List.of(nuevo));
+        assertEquals(1, res.getInsertadas(), "El médico nuevo debería insertarse.");
+        assertTrue(nuevo.getId() > 0, "Al médico insertado se le debe asignar el ID generado.");
+        assertEquals(1, nuevo.getVersion());
+
+        // Con los mismos datos no se modifica nada.
+        res = medicoDAO.upsert(List.of(nuevo));
+        assertEquals(1, res.getSinCambios(), "Un médico sin cambios no debería modificarse.");
+        assertEquals(0, res.getInsertadas() + res.getActualizadas());
+
+        // Si un dato cambió, se modifica y se incrementa la versión.
+        nuevo.setSueldo(4300.00);
+        res = medicoDAO.upsert(List.of(nuevo));
+        assertEquals(1, res.getActualizadas(), "El médico con sueldo nuevo debería modificarse.");
+        Medico leido = medicoDAO.getById(nuevo.getId());
+        assertEquals(4300.00, leido.getSueldo(), 0.001);
+        assertEquals(2, leido.getVersion());
+
+        delete(leido);
+    }
+}
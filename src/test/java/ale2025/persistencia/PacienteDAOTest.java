@@ -2,11 +2,19 @@ package ale2025.persistencia;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import ale2025.dominio.Cita;
 import ale2025.dominio.Paciente;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.sql.Date; // Asegúrate de que sea java.sql.Date
 import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import java.sql.SQLException;
 
@@ -120,4 +128,107 @@ class PacienteDAOTest {
         // Llama al método 'delete' para eliminar el paciente de prueba de la base de datos y verifica la eliminación.
         delete(testPaciente);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testSearchPublisher() throws Exception {
+        // El publicador debe emitir los mismos pacientes que search(), pidiendo de uno en uno.
+        int esperados = pacienteDAO.search("").size();
+        AtomicInteger recibidos = new AtomicInteger();
+        CountDownLatch fin = new CountDownLatch(1);
+        pacienteDAO.searchPublisher("").subscribe(new Flow.Subscriber<Paciente>() {
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(Paciente item) {
+                recibidos.incrementAndGet();
+                subscription.request(1); // Pedir la siguiente fila solo después de procesar esta.
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                fin.countDown();
+            }
+
+            @Override
+            public void onComplete() {
+                fin.countDown();
+            }
+        });
+        assertTrue(fin.await(30, TimeUnit.SECONDS), "La busqueda debería terminar.");
+        assertEquals(esperados, recibidos.get(), "El publicador debería emitir todos los pacientes.");
+    }
+
+    @Test
+    void testSearchPublisherSuscriptorQueFalla() throws Exception {
+        // Requiere al menos un paciente. Regla 2.13: quien lanza en onNext no recibe onError.
+        AtomicInteger recibidos = new AtomicInteger();
+        CountDownLatch terminal = new CountDownLatch(1);
+        pacienteDAO.searchPublisher("").subscribe(new Flow.Subscriber<Paciente>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(Paciente item) {
+                recibidos.incrementAndGet();
+                throw new IllegalStateException("Falla del suscriptor de prueba");
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                terminal.countDown();
+            }
+
+            @Override
+            public void onComplete() {
+                terminal.countDown();
+            }
+        });
+        assertFalse(terminal.await(2, TimeUnit.SECONDS), "No se debería enviar ninguna señal final al suscriptor.");
+        assertEquals(1, recibidos.get(), "Después de la excepción no se deberían emitir más filas.");
+    }
+
+    @Test
+    void testDuplicados() throws SQLException {
+        // Dos registros de la misma persona con el nombre escrito de otra forma deben informarse como par.
+        Date fecha = Date.valueOf("1901-02-03");
+        Paciente a = create(new Paciente(0, "José González Pérez", "912345678", fecha));
+        Paciente b = create(new Paciente(0, "Jose Gonsales Peres", "912345678", fecha));
+        try {
+            PacienteDeduplicator.Resultado res = new PacienteDeduplicator().buscar();
+            assertTrue(res.getCandidatos().stream().anyMatch(c -> c.getIdA() == a.getId() && c.getIdB() == b.getId()),
+                    "Los dos registros deberían informarse como duplicados.");
+        } finally {
+            delete(a);
+            delete(b);
+        }
+    }
+
+    @Test
+    void testNoEliminaConCitasArchivadas() throws SQLException {
+        // CitasHistorico no tiene claves foráneas: el trigger de script.sql impide dejar citas huérfanas.
+        // Requiere el médico con ID 1, igual que las pruebas de citas.
+        Paciente paciente = create(new Paciente(0, "Paciente Archivado", "7000-0000", Date.valueOf("1980-01-01")));
+        Cita cita = new CitaDAO().create(new Cita(0, paciente.getId(), 1, Date.valueOf("1990-01-04"), 40.00));
+        new CitaArchiver(100, 0).archivar(LocalDate.of(1990, 1, 5));
+        try {
+            SQLException ex = assertThrows(SQLException.class, () -> pacienteDAO.delete(paciente));
+            assertFalse(ex instanceof VersionConflictException, "No es un conflicto de versión: " + ex.getMessage());
+            assertNotNull(pacienteDAO.getById(paciente.getId()), "El paciente no debería eliminarse.");
+        } finally {
+            try (Connection connection = ConnectionManager.getInstance().connect();
+                 PreparedStatement ps = connection.prepareStatement("DELETE FROM CitasHistorico WHERE id = ?")) {
+                ps.setInt(1, cita.getId());
+                ps.executeUpdate();
+            }
+        }
+        delete(paciente);
+    }
+}
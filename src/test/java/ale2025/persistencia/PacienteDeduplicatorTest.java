@@ -0,0 +1,148 @@
+package ale2025.persistencia;
+
+import ale2025.dominio.Paciente;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PacienteDeduplicatorTest {
+    private static final Date FECHA = Date.valueOf("1985-06-15");
+
+    @Test
+    void claveFoneticaUneLasLetrasQueSuenanIgual() {
+        assertEquals("gonsales", PacienteDeduplicator.claveFonetica("gonzalez"));
+        assertEquals("gonsales", PacienteDeduplicator.claveFonetica("gonsales"));
+        assertEquals("baldes", PacienteDeduplicator.claveFonetica("valdez"));
+        assertEquals("baldes", PacienteDeduplicator.claveFonetica("baldes"));
+        assertEquals(PacienteDeduplicator.claveFonetica("quispe"), PacienteDeduplicator.claveFonetica("kispe"));
+        assertEquals(PacienteDeduplicator.claveFonetica("jimenez"), PacienteDeduplicator.claveFonetica("gimenez"));
+        assertEquals(PacienteDeduplicator.claveFonetica("llanos"), PacienteDeduplicator.claveFonetica("yanos"));
+        assertEquals(PacienteDeduplicator.claveFonetica("hidalgo"), PacienteDeduplicator.claveFonetica("idalgo"));
+        assertEquals("migel", PacienteDeduplicator.claveFonetica("miguel"), "En gue/gui la u no suena");
+        assertNotEquals(PacienteDeduplicator.claveFonetica("chavez"), PacienteDeduplicator.claveFonetica("cavez"),
+                "La ch tiene sonido propio");
+        assertEquals("", PacienteDeduplicator.claveFonetica(""));
+        assertEquals("", PacienteDeduplicator.claveFonetica("h"));
+    }
+
+    @Test
+    void jaroWinklerConValoresConocidos() {
+        assertEquals(1.0, PacienteDeduplicator.jaroWinkler("ana", "ana"));
+        assertEquals(0.961, PacienteDeduplicator.jaroWinkler("martha", "marhta"), 0.001);
+        assertEquals(0.840, PacienteDeduplicator.jaroWinkler("dwayne", "duane"), 0.001);
+        assertEquals(0.813, PacienteDeduplicator.jaroWinkler("dixon", "dicksonx"), 0.001);
+        assertEquals(0.0, PacienteDeduplicator.jaroWinkler("abc", "xyz"));
+        assertEquals(0.0, PacienteDeduplicator.jaroWinkler("", "ana"));
+        assertEquals(PacienteDeduplicator.jaroWinkler("dwayne", "duane"),
+                PacienteDeduplicator.jaroWinkler("duane", "dwayne"), 1e-12, "Debe ser simétrica");
+    }
+
+    @Test
+    void puntajeAjustaPorTelefonoDentroDeCeroYUno() {
+        double sinTelefono = PacienteDeduplicator.puntaje("jose gonzalez", "gonzalez jose", null,
+                "jose gonsales", "gonsales jose", null);
+        double mismo = PacienteDeduplicator.puntaje("jose gonzalez", "gonzalez jose", "912345678",
+                "jose gonsales", "gonsales jose", "912345678");
+        double distinto = PacienteDeduplicator.puntaje("jose gonzalez", "gonzalez jose", "912345678",
+                "jose gonsales", "gonsales jose", "987654321");
+        assertEquals(sinTelefono + 0.05, mismo, 1e-9);
+        assertEquals(sinTelefono - 0.05, distinto, 1e-9);
+        assertEquals(1.0, PacienteDeduplicator.puntaje("ana", "ana", "1", "ana", "ana", "1"), "No debe pasar de 1");
+        assertEquals(0.0, PacienteDeduplicator.puntaje("abc", "abc", "1", "xyz", "xyz", "2"), "No debe bajar de 0");
+        // Con el orden invertido, cuenta la similitud de las palabras ordenadas.
+        assertEquals(1.0, PacienteDeduplicator.puntaje("ana lopez", "ana lopez", null, "lopez ana", "ana lopez", null));
+    }
+
+    @Test
+    void normalizarQuitaAcentosYSignos() {
+        assertEquals("jose maria nunez", PacienteDeduplicator.normalizar("  José-María  Núñez. "));
+        assertEquals("", PacienteDeduplicator.normalizar(null));
+        assertEquals("", PacienteDeduplicator.normalizar("123 ..."));
+    }
+
+    @Test
+    void encuentraNombresConOrdenInvertido() {
+        PacienteDeduplicator.Resultado res = buscar(
+                new Paciente(1, "Ana López", null, FECHA),
+                new Paciente(2, "López Ana", null, FECHA));
+        assertEquals(1, res.getCandidatos().size(), "Los dos órdenes deben compartir un bloque");
+        assertEquals(2, res.getCandidatos().get(0).getIdB());
+    }
+
+    @Test
+    void encuentraDiferenciasEnElNombreOEnElApellido() {
+        PacienteDeduplicator.Resultado res = buscar(
+                new Paciente(1, "José González Pérez", null, FECHA),
+                new Paciente(2, "Jose Gonsales Peres", null, FECHA),
+                new Paciente(3, "Grabiela Castillo Rojas", null, FECHA),
+                new Paciente(4, "Gabriela Castillo Rojas", null, FECHA),
+                new Paciente(5, "José González Pérez", null, Date.valueOf("1985-06-16")));
+        assertEquals(2, res.getCandidatos().size(), res.getCandidatos().toString());
+        for (PacienteDeduplicator.Candidato c : res.getCandidatos()) {
+            assertEquals(c.getIdA() + 1, c.getIdB(), "Otra fecha de nacimiento no forma par: " + c);
+        }
+    }
+
+    @Test
+    void ignoraNombresVaciosYPacientesSinFecha() {
+        PacienteDeduplicator.Resultado res = buscar(
+                new Paciente(1, "", null, FECHA),
+                new Paciente(2, "???", null, FECHA),
+                new Paciente(3, "", null, FECHA),
+                new Paciente(4, "Ana López", null, null),
+                new Paciente(5, "Ana López", null, null));
+        assertEquals(5, res.getPacientes());
+        assertTrue(res.getCandidatos().isEmpty(), res.getCandidatos().toString());
+        assertEquals(0, res.getComparaciones());
+    }
+
+    @Test
+    void conservaElTelefonoOriginal() {
+        PacienteDeduplicator.Resultado res = buscar(
+                new Paciente(1, "Ana López", "7000-1234", FECHA),
+                new Paciente(2, "Ana Lopes", "70001234", FECHA));
+        PacienteDeduplicator.Candidato c = res.getCandidatos().get(0);
+        assertEquals("7000-1234", c.getTelefonoA(), "El informe muestra el teléfono tal como se registró");
+        assertEquals("70001234", c.getTelefonoB());
+        double sinTelefono = buscar(new Paciente(1, "Ana López", null, FECHA),
+                new Paciente(2, "Ana Lopes", null, FECHA)).getCandidatos().get(0).getPuntaje();
+        // Con el formato distinto el teléfono coincide (se comparan solo los dígitos) y no baja el puntaje.
+        assertEquals(Math.min(1, sinTelefono + 0.05), c.getPuntaje(), 1e-9);
+        assertTrue(c.getPuntaje() >= sinTelefono);
+    }
+
+    @Test
+    void telefonoSinDigitosCuentaComoNoRegistrado() {
+        double sinTelefono = buscar(new Paciente(1, "Ana López", null, FECHA),
+                new Paciente(2, "Ana Lopes", null, FECHA)).getCandidatos().get(0).getPuntaje();
+        PacienteDeduplicator.Candidato c = buscar(new Paciente(1, "Ana López", "-", FECHA),
+                new Paciente(2, "Ana Lopes", "7000-1234", FECHA)).getCandidatos().get(0);
+        assertEquals(sinTelefono, c.getPuntaje(), 1e-9, "Un teléfono sin dígitos no debe contar como distinto");
+        assertEquals("-", c.getTelefonoA(), "El informe muestra el teléfono tal como se registró");
+    }
+
+    @Test
+    void resultadoNoDependeDelParalelismo() {
+        Paciente[] pacientes = new Paciente[20_000];
+        for (int i = 0; i < pacientes.length; i++) {
+            // Pocas fechas y nombres parecidos, para llenar los bloques y ordenar en varios tramos.
+            pacientes[i] = new Paciente(i + 1, "Paciente " + (char) ('a' + i % 26) + " Apellido" + (char) ('a' + i % 997 % 26),
+                    null, Date.valueOf(LocalDate.of(1980, 1, 1).plusDays(i % 50)));
+        }
+        List<PacienteDeduplicator.Candidato> uno = new PacienteDeduplicator(0.99, 1).buscar(List.of(pacientes)).getCandidatos();
+        List<PacienteDeduplicator.Candidato> cuatro = new PacienteDeduplicator(0.99, 4).buscar(List.of(pacientes)).getCandidatos();
+        assertEquals(uno.size(), cuatro.size());
+        for (int i = 0; i < uno.size(); i++) {
+            assertEquals(uno.get(i).getIdA(), cuatro.get(i).getIdA());
+            assertEquals(uno.get(i).getIdB(), cuatro.get(i).getIdB());
+        }
+    }
+
+    private static PacienteDeduplicator.Resultado buscar(Paciente... pacientes) {
+        return new PacienteDeduplicator(PacienteDeduplicator.DEFAULT_UMBRAL, 2).buscar(List.of(pacientes));
+    }
+}
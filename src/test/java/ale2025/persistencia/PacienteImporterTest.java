@@ -0,0 +1,52 @@
+package ale2025.persistencia;
+
+import org.junit.jupiter.api.Test;         // Anotación para indicar que el método es un caso de prueba.
+import org.junit.jupiter.api.io.TempDir;   // Anotación para recibir un directorio temporal por prueba.
+import ale2025.dominio.Paciente;            // Clase que representa la entidad de paciente utilizada en las pruebas.
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*; // Importación estática de métodos de aserción de JUnit 5.
+
+class PacienteImporterTest {
+    @TempDir
+    Path dir; // Directorio temporal donde se genera el CSV de prueba.
+
+    @Test
+    void testImportFile() throws Exception {
+        Path csv = dir.resolve("pacientes.csv");
+        Files.writeString(csv,
+                "nombreCompleto,telefono,fechaNacimiento\n" +
+                "\"Importado, Prueba Uno\",7000-0001,1990-05-10\n" +
+                "Importado Prueba Dos,,15/08/1985\n" +
+                "Importado Prueba Tres,1234567890,1990-01-01\n"); // Teléfono de 10 caracteres: se rechaza.
+
+        PacienteImporter importer = new PacienteImporter(1); // Un bloque por fila para ejercitar el progreso.
+        PacienteImporter.Resultado res = importer.importFile(csv);
+        assertEquals(2, res.getInsertadas(), "Se deben insertar las dos filas válidas.");
+        assertEquals(1, res.getRechazadas(), "La fila con teléfono demasiado largo debe rechazarse.");
+        assertTrue(Files.exists(dir.resolve("pacientes.csv.progreso")), "Debe existir el archivo de progreso.");
+
+        // Una segunda ejecución reanuda desde el progreso guardado y no inserta duplicados.
+        PacienteImporter.Resultado res2 = importer.importFile(csv);
+        assertEquals(0, res2.getInsertadas(), "Al reanudar no se deben repetir filas ya confirmadas.");
+        assertEquals(3, res2.getOmitidas(), "Las tres filas deben omitirse al reanudar.");
+
+        // Limpieza de los pacientes creados por la prueba.
+        PacienteDAO pacienteDAO = new PacienteDAO();
+        ArrayList<Paciente> creados = pacienteDAO.search("Importado");
+        for (Paciente p : creados) {
+            pacienteDAO.delete(p);
+        }
+    }
+
+    @Test
+    void testParseLine() {
+        ArrayList<String> campos = PacienteImporter.parseLine("\"Pérez, \"\"Ana\"\"\",7000-0000,2000-01-01");
+        assertEquals(3, campos.size());
+        assertEquals("Pérez, \"Ana\"", campos.get(0));
+        assertNull(PacienteImporter.parseLine("\"sin cerrar,1,2"), "Las comillas sin cerrar deben detectarse.");
+    }
+}
@@ -127,11 +127,20 @@ class UserDAOTest {
     }
 
     private void updatePassword(User user) throws SQLException{
+        int version = user.getVersion();
         // Llama al método 'updatePassword' del UserDAO para actualizar la contraseña del usuario.
         boolean res = userDAO.updatePassword(user);
 
         // Realiza una aserción para verificar que la actualización de la contraseña fue exitosa.
         assertTrue(res, "La actualización de la contraseña debería ser exitosa.");
+        assertEquals(version + 1, user.getVersion(), "El usuario debe quedar con la versión nueva.");
+
+        // Con la versión anterior, el cambio de contraseña debe rechazarse.
+        User desactualizado = new User();
+        desactualizado.setId(user.getId());
+        desactualizado.setVersion(version);
+        desactualizado.setPasswordHash("otra_password");
+        assertThrows(VersionConflictException.class, () -> userDAO.updatePassword(desactualizado));
 
         // Llama al método 'autenticate' para verificar que la nueva contraseña es válida
         // y el usuario aún puede autenticarse con ella. Esto asume que el objeto 'user'
@@ -0,0 +1,153 @@
+package ale2025.persistencia;
+
+import ale2025.dominio.Cita;
+import ale2025.utils.CUD;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void sinConexionGuardaEnElDiario() throws Exception {
+        WriteJournal diario = new WriteJournal(dir, WriteJournal.DEFAULT_BATCH_SIZE, true);
+        diario.abrir();
+        Cita cita = new Cita(0, 1, 1, Date.valueOf("2025-03-10"), 50.0);
+
+        // La escritura directa falla por conexión (SQLState 08S01): la cita debe quedar en el diario.
+        WriteJournal.Destino destino = diario.escribir(CUD.CREATE, EntidadJson.CITAS, cita, null, () -> {
+            throw new SQLException("Error al crear la cita", new SQLException("Connection reset", "08S01"));
+        });
+        assertEquals(WriteJournal.Destino.DIARIO, destino);
+        assertEquals(1, diario.getPendientes());
+
+        // Mientras haya pendientes, las nuevas escrituras también van al diario (sin intentar la base).
+        destino = diario.escribir(CUD.CREATE, EntidadJson.CITAS, cita, null, () -> {
+            fail("No debe intentarse la escritura directa con escrituras pendientes");
+            return false;
+        });
+        assertEquals(WriteJournal.Destino.DIARIO, destino);
+
+        List<String> lineas = Files.readAllLines(dir.resolve("escrituras.jsonl"), StandardCharsets.UTF_8);
+        assertEquals(2, lineas.size());
+        assertTrue(lineas.get(0).startsWith("{\"seq\":1,\"op\":\"CREATE\",\"entidad\":\"citas\""));
+    }
+
+    @Test
+    void otrosErroresNoSeGuardan() throws Exception {
+        WriteJournal diario = new WriteJournal(dir, WriteJournal.DEFAULT_BATCH_SIZE, true);
+        diario.abrir();
+        Cita cita = new Cita(0, 1, 1, Date.valueOf("2025-03-10"), 50.0);
+
+        // Un error de la sentencia (ej. clave foránea) no es de conexión: debe llegar al formulario.
+        assertThrows(SQLException.class, () -> diario.escribir(CUD.CREATE, EntidadJson.CITAS, cita, null, () -> {
+            throw new SQLException("FK violada", "23000");
+        }));
+        assertEquals(0, diario.getPendientes());
+    }
+
+    @Test
+    void esErrorDeConexion() {
+        assertTrue(WriteJournal.esErrorDeConexion(new SQLException("x", new SQLException("y", "08001"))));
+        assertFalse(WriteJournal.esErrorDeConexion(new SQLException("x", "23000")));
+    }
+
+    @Test
+    void reaplicaSobreCitaArchivada() throws Exception {
+        // Requiere la base de datos y el paciente y el médico con ID 1 (igual que CitaDAOTest).
+        WriteJournal diario = new WriteJournal(dir, WriteJournal.DEFAULT_BATCH_SIZE, true);
+        diario.abrir();
+        Cita cita = new CitaDAO().create(new Cita(0, 1, 1, Date.valueOf("1990-01-05"), 40.00));
+        Map<String, Object> original = EntidadJson.CITAS.toMap(cita);
+
+        // La cita se archiva mientras su modificación espera en el diario.
+        new CitaArchiver(100, 0).archivar(LocalDate.of(1990, 1, 6));
+        Cita modificada = new Cita(cita.getId(), 1, 1, cita.getFechaCita(), 45.00);
+        diario.agregar(CUD.UPDATE, EntidadJson.CITAS, modificada, original);
+        WriteJournal.Reaplicacion res = diario.replay();
+        assertEquals(1, res.getAplicadas(), "La modificación debería aplicarse en CitasHistorico.");
+        assertEquals(0, res.getConflictos());
+
+        // La eliminación (sobre la versión ya modificada) también va al histórico.
+        modificada.setVersion(cita.getVersion() + 1);
+        diario.agregar(CUD.DELETE, EntidadJson.CITAS, modificada, EntidadJson.CITAS.toMap(modificada));
+        res = diario.replay();
+        assertEquals(1, res.getAplicadas(), "La eliminación debería aplicarse en CitasHistorico.");
+        assertEquals(0, diario.getPendientes());
+        try (Connection connection = ConnectionManager.getInstance().connect();
+             PreparedStatement ps = connection.prepareStatement("SELECT COUNT(*) FROM CitasHistorico WHERE id = ?")) {
+            ps.setInt(1, cita.getId());
+            try (ResultSet rs = ps.executeQuery()) {
+                assertTrue(rs.next());
+                assertEquals(0, rs.getInt(1), "La cita archivada debería haberse eliminado.");
+            }
+        }
+    }
+
+    @Test
+    void auditaLaReaplicacionConElIdDefinitivo() throws Exception {
+        // Requiere la base de datos y el paciente y el médico con ID 1 (igual que CitaDAOTest).
+        WriteJournal diario = new WriteJournal(dir, WriteJournal.DEFAULT_BATCH_SIZE, true);
+        diario.abrir();
+        AuditLog log = AuditLog.getInstance();
+        AuditLog.setUsuario("sin-conexion@clinica");
+        Cita nueva = new Cita(0, 1, 1, Date.valueOf("2024-03-07"), 35.00);
+        diario.agregar(CUD.CREATE, EntidadJson.CITAS, nueva, null);
+        AuditLog.setUsuario("otra-sesion@clinica"); // La entrada conserva el usuario que la hizo.
+        long registrados = log.getRegistrados();
+        try {
+            assertEquals(1, diario.replay().getAplicadas());
+            assertEquals(registrados + 1, log.getRegistrados(), "El alta se registra al reaplicarla, no antes");
+            Map<String, Object> alta = AuditLogTest.ultimoRegistro(log);
+            int id = ((Number) alta.get("id")).intValue();
+            assertTrue(id > 0, "El alta se registra con el ID generado");
+            assertEquals("sin-conexion@clinica", alta.get("usuario"));
+            Cita creada = new CitaDAO().getById(id);
+            assertNotNull(creada);
+            new CitaDAO().delete(creada);
+        } finally {
+            AuditLog.setUsuario(null);
+        }
+    }
+
+    @Test
+    void unaEntradaRechazadaNoDetieneLaReaplicacion() throws Exception {
+        // Requiere la base de datos y el paciente y el médico con ID 1 (igual que CitaDAOTest).
+        WriteJournal diario = new WriteJournal(dir, WriteJournal.DEFAULT_BATCH_SIZE, true);
+        diario.abrir();
+        // El paciente no existe (por ejemplo, se eliminó en otra terminal): la clave foránea rechaza el alta.
+        diario.agregar(CUD.CREATE, EntidadJson.CITAS, new Cita(0, Integer.MAX_VALUE, 1, Date.valueOf("2024-03-08"), 35.00), null);
+        diario.agregar(CUD.CREATE, EntidadJson.CITAS, new Cita(0, 1, 1, Date.valueOf("2024-03-09"), 36.00), null);
+
+        WriteJournal.Reaplicacion res = diario.replay();
+        assertEquals(1, res.getConflictos());
+        assertEquals(1, res.getAplicadas(), "La entrada siguiente debe aplicarse igual");
+        assertEquals(0, diario.getPendientes(), "El diario no debe quedar bloqueado por la entrada rechazada");
+        List<String> conflictos = Files.readAllLines(dir.resolve("conflictos.jsonl"), StandardCharsets.UTF_8);
+        assertEquals(1, conflictos.size());
+        assertTrue(conflictos.get(0).contains("\"motivo\":\"la base de datos la rechazó"), conflictos.get(0));
+
+        CitaDAO dao = new CitaDAO();
+        for (Cita c : dao.search("2024-03-09")) {
+            if (c.getPacienteId() == 1 && c.getCostoConsulta() == 36.00) {
+                dao.delete(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package ale2025.presentacion;
+
+import org.junit.jupiter.api.Test;
+
+import javax.swing.table.DefaultTableModel;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TableModelDiffTest {
+
+    @Test
+    void insertaLasFilasNuevasEnSuPosicion() {
+        DefaultTableModel destino = modelo(new Object[][]{{1, "Ana"}, {3, "Carla"}, {5, "Elena"}});
+        DefaultTableModel origen = modelo(new Object[][]{{0, "Abel"}, {1, "Ana"}, {2, "Beto"}, {3, "Carla"}, {5, "Elena"}, {6, "Fabio"}});
+
+        assertEquals(3, TableModelDiff.aplicar(destino, origen));
+        assertIds(destino, 0, 1, 2, 3, 5, 6);
+        assertEquals("Beto", destino.getValueAt(2, 1));
+    }
+
+    @Test
+    void quitaCambiaEInsertaEnElOrdenDelOrigen() {
+        DefaultTableModel destino = modelo(new Object[][]{{1, "Ana"}, {2, "Beto"}, {3, "Carla"}});
+        DefaultTableModel origen = modelo(new Object[][]{{1, "Ana"}, {4, "Dora"}, {3, "Carla María"}});
+
+        assertEquals(3, TableModelDiff.aplicar(destino, origen), "Una fila quitada, una cambiada y una insertada");
+        assertIds(destino, 1, 4, 3);
+        assertEquals("Carla María", destino.getValueAt(2, 1));
+    }
+
+    @Test
+    void noAplicaDiferenciasSiCambiaElOrden() {
+        DefaultTableModel destino = modelo(new Object[][]{{1, "Ana"}, {2, "Beto"}});
+        DefaultTableModel origen = modelo(new Object[][]{{2, "Beto"}, {1, "Ana"}});
+
+        assertEquals(-1, TableModelDiff.aplicar(destino, origen));
+        assertIds(destino, 1, 2); // El destino no se modifica: se reemplazará el modelo.
+    }
+
+    @Test
+    void noAplicaDiferenciasSiElOrigenRepiteUnId() {
+        DefaultTableModel destino = modelo(new Object[][]{{1, "Ana"}});
+        DefaultTableModel origen = modelo(new Object[][]{{2, "Beto"}, {2, "Beto"}});
+
+        assertEquals(-1, TableModelDiff.aplicar(destino, origen));
+        assertIds(destino, 1);
+    }
+
+    private static DefaultTableModel modelo(Object[][] filas) {
+        return new DefaultTableModel(filas, new Object[]{"Id", "Nombre"});
+    }
+
+    private static void assertIds(DefaultTableModel modelo, int... ids) {
+        assertEquals(ids.length, modelo.getRowCount());
+        for (int r = 0; r < ids.length; r++) {
+            assertEquals(ids[r], (int) (Integer) modelo.getValueAt(r, 0), "Fila " + r);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package ale2025.servidor;
+
+import ale2025.dominio.Paciente;
+import ale2025.persistencia.PacienteDAO;
+import ale2025.utils.Json;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Date;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ApiServerTest {
+    private ApiServer server;
+
+    @AfterEach
+    void detener() {
+        if (server != null) {
+            server.stop();
+        }
+        System.clearProperty("ale2025.api.token");
+    }
+
+    @Test
+    void eliminarSinVersionResponde400() throws Exception {
+        server = ApiServer.start(0);
+        HttpResponse<String> res = enviar("DELETE", "/api/pacientes/1", null, null);
+        assertEquals(400, res.statusCode(), res.body());
+        assertTrue(res.body().contains("version"), res.body());
+
+        res = enviar("DELETE", "/api/pacientes/1?version=uno", null, null);
+        assertEquals(400, res.statusCode(), "Una versión no numérica tampoco es un error del servidor");
+    }
+
+    @Test
+    void escriturasDeUsuariosRequierenElToken() throws Exception {
+        System.setProperty("ale2025.api.token", "secreto");
+        server = ApiServer.start(0);
+        String cuerpo = Json.write(Map.of("name", "Sin token", "email", "sintoken@clinica", "status", 1));
+        assertEquals(401, enviar("POST", "/api/usuarios", cuerpo, null).statusCode());
+        assertEquals(401, enviar("PUT", "/api/usuarios/1/password", "{\"password\":\"x\",\"version\":1}", "otro")
+                .statusCode(), "Un token incorrecto tampoco sirve");
+    }
+
+    @Test
+    void sinTokenConfiguradoNoSeModificanUsuarios() throws Exception {
+        server = ApiServer.start(0);
+        assertEquals(403, enviar("PUT", "/api/usuarios/1/password", "{\"password\":\"x\",\"version\":1}", null)
+                .statusCode());
+    }
+
+    @Test
+    void modificacionYEliminacionDesactualizadasResponden409() throws Exception {
+        // Requiere la base de datos.
+        server = ApiServer.start(0);
+        PacienteDAO dao = new PacienteDAO();
+        Paciente p = dao.create(new Paciente(0, "Api Conflicto", "7000-0004", Date.valueOf("1990-01-03")));
+        try {
+            Map<String, Object> datos = Map.of("nombreCompleto", "Api Conflicto", "telefono", "7000-0005",
+                    "fechaNacimiento", "1990-01-03", "version", p.getVersion());
+            assertEquals(200, enviar("PUT", "/api/pacientes/" + p.getId(), Json.write(datos), null).statusCode());
+
+            // La misma versión ya no es la de la fila.
+            HttpResponse<String> res = enviar("PUT", "/api/pacientes/" + p.getId(), Json.write(datos), null);
+            assertEquals(409, res.statusCode(), res.body());
+            assertEquals(Boolean.FALSE, Json.parseObject(res.body()).get("eliminada"));
+            res = enviar("DELETE", "/api/pacientes/" + p.getId() + "?version=" + p.getVersion(), null, null);
+            assertEquals(409, res.statusCode(), res.body());
+
+            res = enviar("DELETE", "/api/pacientes/" + p.getId() + "?version=" + (p.getVersion() + 1), null, null);
+            assertEquals(200, res.statusCode(), res.body());
+            assertNull(dao.getById(p.getId()));
+        } finally {
+            Paciente quedo = dao.getById(p.getId());
+            if (quedo != null) {
+                dao.delete(quedo);
+            }
+        }
+    }
+
+    @Test
+    void busquedaSeRespondeEnJsonLines() throws Exception {
+        // Requiere la base de datos.
+        server = ApiServer.start(0);
+        PacienteDAO dao = new PacienteDAO();
+        Paciente a = dao.create(new Paciente(0, "Api Lineas Uno", null, Date.valueOf("1990-01-04")));
+        Paciente b = dao.create(new Paciente(0, "Api Lineas Dos", null, Date.valueOf("1990-01-04")));
+        try {
+            HttpResponse<String> res = enviar("GET", "/api/pacientes?q=Api%20Lineas", null, null);
+            assertEquals(200, res.statusCode(), res.body());
+            assertTrue(res.headers().firstValue("Content-Type").orElse("").startsWith("application/x-ndjson"));
+            String[] lineas = res.body().split("\n");
+            assertEquals(2, lineas.length, res.body());
+            for (String linea : lineas) {
+                assertTrue(String.valueOf(Json.parseObject(linea).get("nombreCompleto")).startsWith("Api Lineas"));
+            }
+
+            res = enviar("GET", "/api/pacientes?q=Ninguno%20Coincide%20Con%20Esto", null, null);
+            assertEquals(200, res.statusCode());
+            assertEquals("", res.body(), "Sin resultados la respuesta queda vacía");
+        } finally {
+            dao.delete(a);
+            dao.delete(b);
+        }
+    }
+
+    private HttpResponse<String> enviar(String metodo, String ruta, String cuerpo, String token) throws Exception {
+        HttpRequest.Builder req = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPuerto() + ruta))
+                .method(metodo, cuerpo == null ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(cuerpo));
+        if (cuerpo != null) {
+            req.header("Content-Type", "application/json");
+        }
+        if (token != null) {
+            req.header("X-Api-Token", token);
+        }
+        return HttpClient.newHttpClient().send(req.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
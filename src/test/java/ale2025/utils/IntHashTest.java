@@ -0,0 +1,66 @@
+package ale2025.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntHashTest {
+
+    @Test
+    void capacidadEsPotenciaDeDosYAdmiteLosEsperados() {
+        for (int esperados = 0; esperados < 5000; esperados++) {
+            int capacidad = IntHash.capacidad(esperados);
+            assertEquals(1, Integer.bitCount(capacidad), "Capacidad " + capacidad + " para " + esperados);
+            assertTrue(IntHash.limite(capacidad) >= esperados, "No debe redimensionarse antes de " + esperados);
+        }
+        assertEquals(4, IntHash.capacidad(0));
+        assertThrows(IllegalArgumentException.class, () -> IntHash.capacidad(-1));
+        assertThrows(IllegalArgumentException.class, () -> IntHash.capacidad(Integer.MAX_VALUE));
+        assertEquals(IntHash.CAPACIDAD_MAXIMA - 1, IntHash.limite(IntHash.CAPACIDAD_MAXIMA));
+    }
+
+    @Test
+    void indiceQuedaDentroDeLaTabla() {
+        int mascara = 63;
+        int[] claves = {1, -1, Integer.MIN_VALUE, Integer.MAX_VALUE, 0x9E3779B9};
+        for (int clave : claves) {
+            int i = IntHash.indice(clave, mascara);
+            assertTrue(i >= 0 && i <= mascara, "Índice " + i + " de " + clave);
+        }
+        // Los IDs consecutivos no deben caer en posiciones consecutivas.
+        int contiguos = 0;
+        for (int id = 1; id < 64; id++) {
+            if (IntHash.indice(id + 1, mascara) == ((IntHash.indice(id, mascara) + 1) & mascara)) {
+                contiguos++;
+            }
+        }
+        assertTrue(contiguos < 8, "Demasiados IDs en posiciones contiguas: " + contiguos);
+    }
+
+    @Test
+    void puedeMoverRecorreLaTablaEnFormaCircular() {
+        int mascara = 15;
+        // Sin vuelta: el elemento en 5 (ideal 3) puede ocupar la posición libre 4, pero no la 2.
+        assertTrue(IntHash.puedeMover(3, 4, 5, mascara));
+        assertTrue(IntHash.puedeMover(3, 3, 5, mascara));
+        assertFalse(IntHash.puedeMover(5, 4, 5, mascara), "Ya está en su posición ideal");
+        // Con vuelta: el elemento en 1 (ideal 14) puede ocupar la posición libre 15 o 0.
+        assertTrue(IntHash.puedeMover(14, 15, 1, mascara));
+        assertTrue(IntHash.puedeMover(14, 0, 1, mascara));
+        assertFalse(IntHash.puedeMover(0, 15, 1, mascara), "Su posición ideal está después de la libre");
+    }
+
+    /**
+     * Claves distintas (y distintas de 0) cuya posición inicial es la indicada, para armar cadenas de sondeo.
+     */
+    static int[] colisionan(int cantidad, int posicion, int mascara) {
+        int[] res = new int[cantidad];
+        int n = 0;
+        for (int clave = 1; n < cantidad; clave++) {
+            if (IntHash.indice(clave, mascara) == posicion) {
+                res[n++] = clave;
+            }
+        }
+        return res;
+    }
+}
@@ -0,0 +1,108 @@
+package ale2025.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntIntMapTest {
+
+    @Test
+    void eliminarDesplazaLaCadenaDeSondeo() {
+        int mascara = IntHash.capacidad(16) - 1;
+        // Tres claves con la última posición como inicial: la cadena da la vuelta hasta las posiciones 0 y 1.
+        int[] ultimas = IntHashTest.colisionan(3, mascara, mascara);
+        int primera = IntHashTest.colisionan(1, 0, mascara)[0]; // Queda en la posición 2, detrás de la cadena.
+        IntIntMap mapa = new IntIntMap(16);
+        for (int k : ultimas) {
+            mapa.put(k, k * 10, -1);
+        }
+        mapa.put(primera, 7, -1);
+
+        assertTrue(mapa.remove(ultimas[0]));
+        assertEquals(-1, mapa.getOrDefault(ultimas[0], -1));
+        assertEquals(ultimas[1] * 10, mapa.getOrDefault(ultimas[1], -1));
+        assertEquals(ultimas[2] * 10, mapa.getOrDefault(ultimas[2], -1));
+        assertEquals(7, mapa.getOrDefault(primera, -1), "La clave desplazada debe seguir encontrándose");
+        assertEquals(3, mapa.size());
+
+        assertTrue(mapa.remove(ultimas[2]));
+        assertTrue(mapa.remove(ultimas[1]));
+        assertEquals(7, mapa.getOrDefault(primera, -1));
+        assertFalse(mapa.remove(ultimas[1]));
+        assertEquals(1, mapa.size());
+    }
+
+    @Test
+    void claveCeroYExtremos() {
+        IntIntMap mapa = new IntIntMap(0);
+        assertFalse(mapa.containsKey(0));
+        assertEquals(-1, mapa.getOrDefault(0, -1));
+        assertEquals(-1, mapa.put(0, 5, -1));
+        assertEquals(5, mapa.put(0, 6, -1));
+        assertEquals(8, mapa.addTo(0, 2));
+        assertEquals(3, mapa.addTo(Integer.MIN_VALUE, 3));
+        mapa.put(Integer.MAX_VALUE, 4, -1);
+        assertEquals(3, mapa.size());
+        assertEquals(3, mapa.getOrDefault(Integer.MIN_VALUE, -1));
+
+        int[] suma = new int[1];
+        mapa.forEach((k, v) -> suma[0] += v);
+        assertEquals(8 + 3 + 4, suma[0]);
+
+        assertTrue(mapa.remove(0));
+        assertFalse(mapa.containsKey(0));
+        assertFalse(mapa.remove(0));
+        assertEquals(1, mapa.addTo(0, 1), "Tras quitarla, la clave 0 vuelve a empezar en 0");
+        mapa.clear();
+        assertTrue(mapa.isEmpty());
+        assertFalse(mapa.containsKey(Integer.MIN_VALUE));
+    }
+
+    @Test
+    void coincideConHashMap() {
+        Random random = new Random(47);
+        IntIntMap mapa = new IntIntMap(0); // Empieza con la tabla mínima para pasar por varias duplicaciones.
+        Map<Integer, Integer> esperado = new HashMap<>();
+        for (int paso = 0; paso < 200_000; paso++) {
+            int clave = clave(random);
+            int valor = random.nextInt();
+            switch (random.nextInt(4)) {
+                case 0:
+                    assertEquals((int) esperado.getOrDefault(clave, -1), mapa.put(clave, valor, -1));
+                    esperado.put(clave, valor);
+                    break;
+                case 1:
+                    assertEquals((int) esperado.merge(clave, valor, Integer::sum), mapa.addTo(clave, valor));
+                    break;
+                case 2:
+                    assertEquals(esperado.remove(clave) != null, mapa.remove(clave));
+                    break;
+                default:
+                    assertEquals((int) esperado.getOrDefault(clave, -1), mapa.getOrDefault(clave, -1));
+                    assertEquals(esperado.containsKey(clave), mapa.containsKey(clave));
+            }
+            assertEquals(esperado.size(), mapa.size());
+        }
+        Map<Integer, Integer> recorrido = new HashMap<>();
+        mapa.forEach((k, v) -> assertNull(recorrido.put(k, v), "Clave repetida en el recorrido: " + k));
+        assertEquals(esperado, recorrido);
+    }
+
+    // Claves concentradas en pocos valores (para repetir altas y bajas) junto con 0 y los extremos.
+    static int clave(Random random) {
+        switch (random.nextInt(20)) {
+            case 0:
+                return 0;
+            case 1:
+                return Integer.MIN_VALUE;
+            case 2:
+                return Integer.MAX_VALUE;
+            default:
+                return random.nextInt(4000) - 1000;
+        }
+    }
+}
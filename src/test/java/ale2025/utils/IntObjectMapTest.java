@@ -0,0 +1,77 @@
+package ale2025.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntObjectMapTest {
+
+    @Test
+    void eliminarDesplazaLaCadenaDeSondeo() {
+        int mascara = IntHash.capacidad(16) - 1;
+        int[] ultimas = IntHashTest.colisionan(3, mascara, mascara);
+        int primera = IntHashTest.colisionan(1, 0, mascara)[0];
+        IntObjectMap<String> mapa = new IntObjectMap<>(16);
+        for (int k : ultimas) {
+            mapa.put(k, "v" + k);
+        }
+        mapa.put(primera, "primera");
+
+        assertEquals("v" + ultimas[1], mapa.remove(ultimas[1]));
+        assertNull(mapa.get(ultimas[1]));
+        assertEquals("v" + ultimas[0], mapa.get(ultimas[0]));
+        assertEquals("v" + ultimas[2], mapa.get(ultimas[2]));
+        assertEquals("primera", mapa.get(primera), "La clave desplazada debe seguir encontrándose");
+        assertEquals(3, mapa.size());
+    }
+
+    @Test
+    void claveCeroYValoresNull() {
+        IntObjectMap<String> mapa = new IntObjectMap<>(0);
+        assertNull(mapa.get(0));
+        assertNull(mapa.put(0, "cero"));
+        assertEquals("cero", mapa.put(0, "otro"));
+        assertNull(mapa.put(Integer.MIN_VALUE, "minimo"));
+        assertEquals(2, mapa.size());
+        assertThrows(NullPointerException.class, () -> mapa.put(1, null));
+        assertEquals(2, mapa.size(), "Un valor rechazado no debe ocupar posición");
+
+        assertEquals("otro", mapa.remove(0));
+        assertFalse(mapa.containsKey(0));
+        assertNull(mapa.remove(0));
+        assertEquals("minimo", mapa.get(Integer.MIN_VALUE));
+        mapa.clear();
+        assertTrue(mapa.isEmpty());
+        assertNull(mapa.get(Integer.MIN_VALUE));
+    }
+
+    @Test
+    void coincideConHashMap() {
+        Random random = new Random(48);
+        IntObjectMap<Integer> mapa = new IntObjectMap<>(0);
+        Map<Integer, Integer> esperado = new HashMap<>();
+        for (int paso = 0; paso < 200_000; paso++) {
+            int clave = IntIntMapTest.clave(random);
+            switch (random.nextInt(3)) {
+                case 0:
+                    Integer valor = random.nextInt();
+                    assertEquals(esperado.put(clave, valor), mapa.put(clave, valor));
+                    break;
+                case 1:
+                    assertEquals(esperado.remove(clave), mapa.remove(clave));
+                    break;
+                default:
+                    assertEquals(esperado.get(clave), mapa.get(clave));
+                    assertEquals(esperado.containsKey(clave), mapa.containsKey(clave));
+            }
+            assertEquals(esperado.size(), mapa.size());
+        }
+        Map<Integer, Integer> recorrido = new HashMap<>();
+        mapa.forEach((k, v) -> assertNull(recorrido.put(k, v), "Clave repetida en el recorrido: " + k));
+        assertEquals(esperado, recorrido);
+    }
+}
@@ -0,0 +1,74 @@
+package ale2025.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntSetTest {
+
+    @Test
+    void eliminarDesplazaLaCadenaDeSondeo() {
+        int mascara = IntHash.capacidad(16) - 1;
+        int[] ultimas = IntHashTest.colisionan(3, mascara, mascara);
+        int primera = IntHashTest.colisionan(1, 0, mascara)[0];
+        IntSet conjunto = new IntSet(16);
+        for (int k : ultimas) {
+            conjunto.add(k);
+        }
+        conjunto.add(primera);
+
+        assertTrue(conjunto.remove(ultimas[0]));
+        assertFalse(conjunto.contains(ultimas[0]));
+        assertTrue(conjunto.contains(ultimas[1]));
+        assertTrue(conjunto.contains(ultimas[2]));
+        assertTrue(conjunto.contains(primera), "El elemento desplazado debe seguir encontrándose");
+        assertEquals(3, conjunto.size());
+    }
+
+    @Test
+    void ceroYExtremosOrdenados() {
+        IntSet conjunto = new IntSet(0);
+        assertTrue(conjunto.add(0));
+        assertFalse(conjunto.add(0));
+        assertTrue(conjunto.add(Integer.MIN_VALUE));
+        assertTrue(conjunto.add(Integer.MAX_VALUE));
+        assertTrue(conjunto.add(-5));
+        assertArrayEquals(new int[]{Integer.MIN_VALUE, -5, 0, Integer.MAX_VALUE}, conjunto.toArray());
+
+        assertTrue(conjunto.remove(0));
+        assertFalse(conjunto.remove(0));
+        assertArrayEquals(new int[]{Integer.MIN_VALUE, -5, Integer.MAX_VALUE}, conjunto.toArray());
+        conjunto.clear();
+        assertTrue(conjunto.isEmpty());
+        assertEquals(0, conjunto.toArray().length);
+    }
+
+    @Test
+    void coincideConHashSet() {
+        Random random = new Random(49);
+        IntSet conjunto = new IntSet(0);
+        Set<Integer> esperado = new HashSet<>();
+        for (int paso = 0; paso < 200_000; paso++) {
+            int valor = IntIntMapTest.clave(random);
+            switch (random.nextInt(3)) {
+                case 0:
+                    assertEquals(esperado.add(valor), conjunto.add(valor));
+                    break;
+                case 1:
+                    assertEquals(esperado.remove(valor), conjunto.remove(valor));
+                    break;
+                default:
+                    assertEquals(esperado.contains(valor), conjunto.contains(valor));
+            }
+            assertEquals(esperado.size(), conjunto.size());
+        }
+        Set<Integer> recorrido = new HashSet<>();
+        conjunto.forEach(v -> assertTrue(recorrido.add(v), "Elemento repetido en el recorrido: " + v));
+        assertEquals(esperado, recorrido);
+        assertEquals(esperado.size(), conjunto.toArray().length);
+    }
+}